@@ -44,15 +44,56 @@
 package com.itextpdf.barcodes;
 
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.colorspace.PdfDeviceCs;
 import com.itextpdf.kernel.colors.Color;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
 public abstract class Barcode2D {
 
     protected static final float DEFAULT_MODULE_SIZE = 1;
 
+    /**
+     * Streams of the form XObjects created in the optimized rendering mode, by the documents they were created in.
+     * The streams are only weakly held, so that the cache does not keep them after they were flushed and released.
+     */
+    private static final Map<PdfDocument, Map<FormXObjectKey, WeakReference<PdfStream>>> formXObjects =
+            new WeakHashMap<>();
+
+    private boolean optimizedRendering = false;
+
+    /**
+     * Checks whether the optimized rendering mode is used.
+     *
+     * @return {@code true} if the optimized rendering mode is used, {@code false} otherwise
+     * @see #setOptimizedRendering(boolean)
+     */
+    public boolean isOptimizedRendering() {
+        return optimizedRendering;
+    }
+
+    /**
+     * Sets whether the optimized rendering mode is used. In this mode the adjacent dark modules in a row
+     * are drawn as a single rectangle, and such rectangles which are the same in the consecutive rows
+     * are merged too, so much fewer path operators are written. Also the form XObjects created with
+     * {@code createFormXObject} methods are reused within a document for the barcodes with the same modules,
+     * module size and foreground color, so the returned XObject shall not be modified.
+     *
+     * @param optimizedRendering {@code true} to use the optimized rendering mode, {@code false} otherwise
+     */
+    public void setOptimizedRendering(boolean optimizedRendering) {
+        this.optimizedRendering = optimizedRendering;
+    }
+
     /**
      * Gets the maximum area that the barcode and the text, if
      * any, will occupy. The lower left corner is always (0, 0).
@@ -91,6 +132,161 @@ public abstract class Barcode2D {
      * @return the XObject.
      */
     public abstract PdfFormXObject createFormXObject(Color foreground, PdfDocument document);
-}
 
+    /**
+     * Adds the dark modules to the current path of the canvas, merging the runs of the adjacent modules
+     * in a row and the runs which are the same in the consecutive rows. The first row is the top one.
+     *
+     * @param canvas       the canvas to add the path to
+     * @param modules      the modules, one bit per module starting with the most significant bit of each row
+     * @param stride       the number of bytes per row
+     * @param columns      the number of modules in a row
+     * @param rows         the number of rows
+     * @param moduleWidth  the width of a module
+     * @param moduleHeight the height of a module
+     */
+    static void addMergedModules(PdfCanvas canvas, byte[] modules, int stride, int columns, int rows,
+            float moduleWidth, float moduleHeight) {
+        int maxRuns = (columns + 1) / 2;
+        // Each open run takes three values: the first column, the column after the last one and the first row
+        int[] openRuns = new int[3 * maxRuns];
+        int[] nextOpenRuns = new int[3 * maxRuns];
+        int openRunsCount = 0;
+        for (int row = 0; row <= rows; ++row) {
+            int nextOpenRunsCount = 0;
+            int openRun = 0;
+            int column = 0;
+            while (row < rows && column < columns) {
+                if (!isDarkModule(modules, row * stride, column)) {
+                    ++column;
+                    continue;
+                }
+                int start = column;
+                while (column < columns && isDarkModule(modules, row * stride, column)) {
+                    ++column;
+                }
+                while (openRun < openRunsCount && openRuns[3 * openRun] < start) {
+                    addRun(canvas, openRuns, openRun++, row, rows, moduleWidth, moduleHeight);
+                }
+                int firstRow = row;
+                if (openRun < openRunsCount && openRuns[3 * openRun] == start
+                        && openRuns[3 * openRun + 1] == column) {
+                    firstRow = openRuns[3 * openRun++ + 2];
+                }
+                nextOpenRuns[3 * nextOpenRunsCount] = start;
+                nextOpenRuns[3 * nextOpenRunsCount + 1] = column;
+                nextOpenRuns[3 * nextOpenRunsCount++ + 2] = firstRow;
+            }
+            while (openRun < openRunsCount) {
+                addRun(canvas, openRuns, openRun++, row, rows, moduleWidth, moduleHeight);
+            }
+            int[] swap = openRuns;
+            openRuns = nextOpenRuns;
+            nextOpenRuns = swap;
+            openRunsCount = nextOpenRunsCount;
+        }
+    }
 
+    /**
+     * Creates the key of the form XObject of this barcode for the optimized rendering mode.
+     *
+     * @param modules      the modules, one bit per module starting with the most significant bit of each row
+     * @param columns      the number of modules in a row
+     * @param moduleWidth  the width of a module
+     * @param moduleHeight the height of a module
+     * @param foreground   the foreground color, it can be {@code null}
+     * @return the key, or {@code null} if the XObject shall not be cached
+     */
+    FormXObjectKey createFormXObjectKey(byte[] modules, int columns, float moduleWidth, float moduleHeight,
+            Color foreground) {
+        // Colors in other color spaces may refer to the objects of the document, which shall not be kept by the cache
+        if (modules == null || foreground != null && !(foreground.getColorSpace() instanceof PdfDeviceCs)) {
+            return null;
+        }
+        return new FormXObjectKey(getClass(), modules, columns, moduleWidth, moduleHeight, foreground);
+    }
+
+    /**
+     * Gets the form XObject created earlier in the document for the same key in the optimized rendering mode.
+     *
+     * @param document the document
+     * @param key      the key describing the modules and the rendering parameters
+     * @return the form XObject, or {@code null} if there is no such XObject or it is already flushed
+     */
+    static PdfFormXObject getCachedFormXObject(PdfDocument document, FormXObjectKey key) {
+        WeakReference<PdfStream> cached;
+        synchronized (formXObjects) {
+            Map<FormXObjectKey, WeakReference<PdfStream>> documentFormXObjects = formXObjects.get(document);
+            cached = documentFormXObjects == null ? null : documentFormXObjects.get(key);
+        }
+        PdfStream stream = cached == null ? null : cached.get();
+        return stream == null || stream.isFlushed() ? null : new PdfFormXObject(stream);
+    }
+
+    static void putCachedFormXObject(PdfDocument document, FormXObjectKey key, PdfFormXObject xObject) {
+        synchronized (formXObjects) {
+            Map<FormXObjectKey, WeakReference<PdfStream>> documentFormXObjects = formXObjects.get(document);
+            if (documentFormXObjects == null) {
+                documentFormXObjects = new HashMap<>();
+                formXObjects.put(document, documentFormXObjects);
+            }
+            documentFormXObjects.put(key, new WeakReference<>(xObject.getPdfObject()));
+        }
+    }
+
+    private static boolean isDarkModule(byte[] modules, int rowOffset, int column) {
+        return (modules[rowOffset + column / 8] & (0x80 >> (column % 8))) != 0;
+    }
+
+    private static void addRun(PdfCanvas canvas, int[] runs, int run, int row, int rows, float moduleWidth,
+            float moduleHeight) {
+        int start = runs[3 * run];
+        int firstRow = runs[3 * run + 2];
+        canvas.rectangle(start * moduleWidth, (rows - row) * moduleHeight, (runs[3 * run + 1] - start) * moduleWidth,
+                (row - firstRow) * moduleHeight);
+    }
+
+    /**
+     * The key of a form XObject created in the optimized rendering mode: barcodes of the same type with the same
+     * modules are drawn the same way with the same module size and foreground color.
+     */
+    static final class FormXObjectKey {
+        private final Class<?> barcodeClass;
+        private final byte[] modules;
+        private final int columns;
+        private final float moduleWidth;
+        private final float moduleHeight;
+        private final Color foreground;
+
+        FormXObjectKey(Class<?> barcodeClass, byte[] modules, int columns, float moduleWidth, float moduleHeight,
+                Color foreground) {
+            this.barcodeClass = barcodeClass;
+            this.modules = modules;
+            this.columns = columns;
+            this.moduleWidth = moduleWidth;
+            this.moduleHeight = moduleHeight;
+            this.foreground = foreground;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FormXObjectKey that = (FormXObjectKey) o;
+            return barcodeClass == that.barcodeClass && columns == that.columns
+                    && Float.compare(moduleWidth, that.moduleWidth) == 0
+                    && Float.compare(moduleHeight, that.moduleHeight) == 0
+                    && Objects.equals(foreground, that.foreground) && Arrays.equals(modules, that.modules);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(barcodeClass, columns, moduleWidth, moduleHeight, foreground);
+            return 31 * result + Arrays.hashCode(modules);
+        }
+    }
+}
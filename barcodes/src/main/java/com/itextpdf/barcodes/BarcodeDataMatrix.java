@@ -224,9 +224,21 @@ public class BarcodeDataMatrix extends Barcode2D {
      * @return the XObject.
      */
     public PdfFormXObject createFormXObject(Color foreground, float moduleSide, PdfDocument document) {
-        PdfFormXObject xObject = new PdfFormXObject((Rectangle) null);
-        Rectangle rect = placeBarcode(new PdfCanvas(xObject, document), foreground, moduleSide);
-        xObject.setBBox(new PdfArray(rect));
+        FormXObjectKey key = null;
+        if (isOptimizedRendering() && image != null) {
+            int w = width + 2 * ws;
+            byte[] modules = Arrays.copyOf(image, (w + 7) / 8 * (height + 2 * ws));
+            key = createFormXObjectKey(modules, w, moduleSide, moduleSide, foreground);
+        }
+        PdfFormXObject xObject = key == null ? null : getCachedFormXObject(document, key);
+        if (xObject == null) {
+            xObject = new PdfFormXObject((Rectangle) null);
+            Rectangle rect = placeBarcode(new PdfCanvas(xObject, document), foreground, moduleSide);
+            xObject.setBBox(new PdfArray(rect));
+            if (key != null) {
+                putCachedFormXObject(document, key, xObject);
+            }
+        }
 
         return xObject;
     }
@@ -244,13 +256,17 @@ public class BarcodeDataMatrix extends Barcode2D {
         int h = height + 2 * ws;
         int stride = (w + 7) / 8;
 
-        for (int k = 0; k < h; ++k) {
-            int p = k * stride;
-            for (int j = 0; j < w; ++j) {
-                int b = image[p + j / 8] & 0xff;
-                b <<= j % 8;
-                if ((b & 0x80) != 0) {
-                    canvas.rectangle(j * moduleSide, (h - k - 1) * moduleSide, moduleSide, moduleSide);
+        if (isOptimizedRendering()) {
+            addMergedModules(canvas, image, stride, w, h, moduleSide, moduleSide);
+        } else {
+            for (int k = 0; k < h; ++k) {
+                int p = k * stride;
+                for (int j = 0; j < w; ++j) {
+                    int b = image[p + j / 8] & 0xff;
+                    b <<= j % 8;
+                    if ((b & 0x80) != 0) {
+                        canvas.rectangle(j * moduleSide, (h - k - 1) * moduleSide, moduleSide, moduleSide);
+                    }
                 }
             }
         }
@@ -54,6 +54,7 @@ import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class BarcodePDF417 extends Barcode2D {
@@ -705,13 +706,18 @@ public class BarcodePDF417 extends Barcode2D {
         if (foreground != null) {
             canvas.setFillColor(foreground);
         }
-        for (int k = 0; k < codeRows; ++k) {
-            int p = k * stride;
-            for (int j = 0; j < bitColumns; ++j) {
-                int b = outBits[p + j / 8] & 0xff;
-                b <<= j % 8;
-                if ((b & 0x80) != 0) {
-                    canvas.rectangle(j * moduleWidth, (codeRows - k - 1) * moduleHeight, moduleWidth, moduleHeight);
+        if (isOptimizedRendering()) {
+            addMergedModules(canvas, outBits, stride, bitColumns, codeRows, moduleWidth, moduleHeight);
+        } else {
+            for (int k = 0; k < codeRows; ++k) {
+                int p = k * stride;
+                for (int j = 0; j < bitColumns; ++j) {
+                    int b = outBits[p + j / 8] & 0xff;
+                    b <<= j % 8;
+                    if ((b & 0x80) != 0) {
+                        canvas.rectangle(j * moduleWidth, (codeRows - k - 1) * moduleHeight, moduleWidth,
+                                moduleHeight);
+                    }
                 }
             }
         }
@@ -855,9 +861,21 @@ public class BarcodePDF417 extends Barcode2D {
      * @return the XObject.
      */
     public PdfFormXObject createFormXObject(Color foreground, float moduleWidth, float moduleHeight, PdfDocument document) {
-        PdfFormXObject xObject = new PdfFormXObject((Rectangle)null);
-        Rectangle rect = placeBarcode(new PdfCanvas(xObject, document), foreground, moduleWidth, moduleHeight);
-        xObject.setBBox(new PdfArray(rect));
+        FormXObjectKey key = null;
+        if (isOptimizedRendering()) {
+            paintCode();
+            byte[] modules = Arrays.copyOf(outBits, (bitColumns + 7) / 8 * codeRows);
+            key = createFormXObjectKey(modules, bitColumns, moduleWidth, moduleHeight, foreground);
+        }
+        PdfFormXObject xObject = key == null ? null : getCachedFormXObject(document, key);
+        if (xObject == null) {
+            xObject = new PdfFormXObject((Rectangle) null);
+            Rectangle rect = placeBarcode(new PdfCanvas(xObject, document), foreground, moduleWidth, moduleHeight);
+            xObject.setBBox(new PdfArray(rect));
+            if (key != null) {
+                putCachedFormXObject(document, key, xObject);
+            }
+        }
 
         return xObject;
     }
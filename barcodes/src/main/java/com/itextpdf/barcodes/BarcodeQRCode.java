@@ -183,11 +183,15 @@ public class BarcodeQRCode extends Barcode2D {
             canvas.setFillColor(foreground);
         }
 
-        for (int y = 0; y < height; ++y) {
-            byte[] line = mt[y];
-            for (int x = 0; x < width; ++x) {
-                if (line[x] == 0) {
-                    canvas.rectangle(x * moduleSide, (height - y - 1) * moduleSide, moduleSide, moduleSide);
+        if (isOptimizedRendering()) {
+            addMergedModules(canvas, getModules(), (width + 7) / 8, width, height, moduleSide, moduleSide);
+        } else {
+            for (int y = 0; y < height; ++y) {
+                byte[] line = mt[y];
+                for (int x = 0; x < width; ++x) {
+                    if (line[x] == 0) {
+                        canvas.rectangle(x * moduleSide, (height - y - 1) * moduleSide, moduleSide, moduleSide);
+                    }
                 }
             }
         }
@@ -216,9 +220,17 @@ public class BarcodeQRCode extends Barcode2D {
      * @return the XObject.
      */
     public PdfFormXObject createFormXObject(Color foreground, float moduleSize, PdfDocument document) {
-        PdfFormXObject xObject = new PdfFormXObject((Rectangle) null);
-        Rectangle rect = placeBarcode(new PdfCanvas(xObject, document), foreground, moduleSize);
-        xObject.setBBox(new PdfArray(rect));
+        FormXObjectKey key = isOptimizedRendering()
+                ? createFormXObjectKey(getModules(), bm.getWidth(), moduleSize, moduleSize, foreground) : null;
+        PdfFormXObject xObject = key == null ? null : getCachedFormXObject(document, key);
+        if (xObject == null) {
+            xObject = new PdfFormXObject((Rectangle) null);
+            Rectangle rect = placeBarcode(new PdfCanvas(xObject, document), foreground, moduleSize);
+            xObject.setBBox(new PdfArray(rect));
+            if (key != null) {
+                putCachedFormXObject(document, key, xObject);
+            }
+        }
 
         return xObject;
     }
@@ -269,4 +281,26 @@ public class BarcodeQRCode extends Barcode2D {
         }
         return b;
     }
+
+    /**
+     * Gets the modules of the code packed one bit per module, the dark modules are set.
+     *
+     * @return the packed modules
+     */
+    private byte[] getModules() {
+        int width = bm.getWidth();
+        int height = bm.getHeight();
+        int stride = (width + 7) / 8;
+        byte[][] mt = bm.getArray();
+        byte[] modules = new byte[stride * height];
+        for (int y = 0; y < height; ++y) {
+            byte[] line = mt[y];
+            for (int x = 0; x < width; ++x) {
+                if (line[x] == 0) {
+                    modules[y * stride + x / 8] |= (byte) (0x80 >> (x % 8));
+                }
+            }
+        }
+        return modules;
+    }
 }
@@ -0,0 +1,164 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.barcodes;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class Barcode2DUnitTest extends ExtendedITextTest {
+
+    @Test
+    public void qrCodeOptimizedRenderingTest() {
+        BarcodeQRCode barcode = new BarcodeQRCode("some specific text 239214 hello world");
+        assertOptimizedRenderingCoversSameModules(barcode);
+    }
+
+    @Test
+    public void dataMatrixOptimizedRenderingTest() {
+        BarcodeDataMatrix barcode = new BarcodeDataMatrix();
+        barcode.setCode("AbcdFFghijklmnopqrstuWXSQ");
+        assertOptimizedRenderingCoversSameModules(barcode);
+    }
+
+    @Test
+    public void pdf417OptimizedRenderingTest() {
+        BarcodePDF417 barcode = new BarcodePDF417();
+        barcode.setCode("Some text to encode with PDF417, repeated. Some text to encode with PDF417.");
+        assertOptimizedRenderingCoversSameModules(barcode);
+    }
+
+    @Test
+    public void formXObjectIsReusedInOptimizedRenderingTest() {
+        try (PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()))) {
+            document.addNewPage();
+            BarcodeQRCode first = new BarcodeQRCode("label 1");
+            first.setOptimizedRendering(true);
+            BarcodeQRCode second = new BarcodeQRCode("label 1");
+            second.setOptimizedRendering(true);
+            BarcodeQRCode other = new BarcodeQRCode("label 2");
+            other.setOptimizedRendering(true);
+
+            PdfFormXObject xObject = first.createFormXObject(ColorConstants.BLACK, document);
+            Assert.assertSame(xObject.getPdfObject(),
+                    second.createFormXObject(ColorConstants.BLACK, document).getPdfObject());
+            Assert.assertNotSame(xObject.getPdfObject(),
+                    second.createFormXObject(ColorConstants.RED, document).getPdfObject());
+            Assert.assertNotSame(xObject.getPdfObject(),
+                    second.createFormXObject(ColorConstants.BLACK, 2, document).getPdfObject());
+            Assert.assertNotSame(xObject.getPdfObject(),
+                    other.createFormXObject(ColorConstants.BLACK, document).getPdfObject());
+        }
+    }
+
+    @Test
+    public void formXObjectIsNotReusedByDefaultTest() {
+        try (PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()))) {
+            document.addNewPage();
+            BarcodeDataMatrix barcode = new BarcodeDataMatrix("label");
+            Assert.assertNotSame(barcode.createFormXObject(null, document).getPdfObject(),
+                    barcode.createFormXObject(null, document).getPdfObject());
+        }
+    }
+
+    private static void assertOptimizedRenderingCoversSameModules(Barcode2D barcode) {
+        try (PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()))) {
+            document.addNewPage();
+            List<float[]> modules = placeBarcode(barcode, document);
+            barcode.setOptimizedRendering(true);
+            List<float[]> mergedModules = placeBarcode(barcode, document);
+
+            Assert.assertTrue(mergedModules.size() * 2 < modules.size());
+            Set<String> coveredCells = getCoveredCells(modules);
+            Assert.assertEquals(modules.size(), coveredCells.size());
+            Set<String> mergedCoveredCells = getCoveredCells(mergedModules);
+            Assert.assertEquals(coveredCells, mergedCoveredCells);
+            int mergedArea = 0;
+            for (float[] rectangle : mergedModules) {
+                mergedArea += Math.round(rectangle[2]) * Math.round(rectangle[3]);
+            }
+            Assert.assertEquals(coveredCells.size(), mergedArea);
+        }
+    }
+
+    private static List<float[]> placeBarcode(Barcode2D barcode, PdfDocument document) {
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(0, 0));
+        barcode.placeBarcode(new PdfCanvas(xObject, document), null);
+        String[] tokens = new String(xObject.getPdfObject().getBytes()).split("\\s+");
+        List<float[]> rectangles = new ArrayList<>();
+        for (int i = 4; i < tokens.length; ++i) {
+            if ("re".equals(tokens[i])) {
+                rectangles.add(new float[] {Float.parseFloat(tokens[i - 4]), Float.parseFloat(tokens[i - 3]),
+                        Float.parseFloat(tokens[i - 2]), Float.parseFloat(tokens[i - 1])});
+            }
+        }
+        return rectangles;
+    }
+
+    private static Set<String> getCoveredCells(List<float[]> rectangles) {
+        Set<String> cells = new HashSet<>();
+        for (float[] rectangle : rectangles) {
+            for (int x = Math.round(rectangle[0]); x < Math.round(rectangle[0] + rectangle[2]); ++x) {
+                for (int y = Math.round(rectangle[1]); y < Math.round(rectangle[1] + rectangle[3]); ++y) {
+                    cells.add(x + " " + y);
+                }
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.benchmarks;
+
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
+import com.itextpdf.kernel.pdf.canvas.parser.util.ContentOperandsList;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures tokenizing of page content streams, both on its own and with the full canvas processor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentStreamParsingBenchmark {
+
+    @Param({"200"})
+    public int numberOfPages;
+
+    private PdfDocument pdfDocument;
+
+    private List<byte[]> contentStreams;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] document = SyntheticCorpus.createTextDocument(numberOfPages, false);
+        pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)));
+        contentStreams = new ArrayList<>(numberOfPages);
+        for (int i = 1; i <= numberOfPages; i++) {
+            contentStreams.add(pdfDocument.getPage(i).getContentBytes());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pdfDocument.close();
+    }
+
+    @Benchmark
+    public void tokenizeContentStreams(Blackhole blackhole) throws IOException {
+        ContentOperandsList operands = new ContentOperandsList();
+        for (byte[] contentStream : contentStreams) {
+            PdfTokenizer tokenizer = new PdfTokenizer(new RandomAccessFileOrArray(
+                    new RandomAccessSourceFactory().createSource(contentStream)));
+            PdfCanvasParser parser = new PdfCanvasParser(tokenizer);
+            while (parser.parseOperation(operands).size() > 0) {
+                blackhole.consume(operands.get(operands.size() - 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public void processContentStreams(Blackhole blackhole) {
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new BlackholeListener(blackhole));
+        for (int i = 1; i <= numberOfPages; i++) {
+            processor.processPageContent(pdfDocument.getPage(i));
+            processor.reset();
+        }
+    }
+
+    private static final class BlackholeListener implements IEventListener {
+        private final Blackhole blackhole;
+
+        BlackholeListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            blackhole.consume(type);
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.benchmarks;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfFontFactory.EmbeddingStrategy;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures usage of an embedded TrueType font, which is subset when the document is closed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FontSubsettingBenchmark {
+
+    @Param({"20"})
+    public int numberOfPages;
+
+    @Param({"Identity-H", "WinAnsi"})
+    public String encoding;
+
+    private FontProgram fontProgram;
+
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fontProgram = FontProgramFactory.createFont(SyntheticCorpus.readFontProgram());
+        Random random = new Random(numberOfPages);
+        lines = new String[50];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = SyntheticCorpus.createSentence(random, 12);
+        }
+    }
+
+    @Benchmark
+    public int writeWithSubsetFont() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        String pdfEncoding = "WinAnsi".equals(encoding) ? PdfEncodings.WINANSI : PdfEncodings.IDENTITY_H;
+        PdfFont font = PdfFontFactory.createFont(fontProgram, pdfEncoding, EmbeddingStrategy.FORCE_EMBEDDED);
+        for (int i = 0; i < numberOfPages; i++) {
+            PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+            canvas.beginText().setFontAndSize(font, 10).moveText(36, 800);
+            for (String line : lines) {
+                canvas.showText(line).moveText(0, -15);
+            }
+            canvas.endText().release();
+        }
+        pdfDocument.close();
+        return baos.size();
+    }
+}
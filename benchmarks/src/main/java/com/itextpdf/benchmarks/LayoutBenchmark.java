@@ -0,0 +1,144 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.benchmarks;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures layout of large generated content: paragraphs of text and a big table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LayoutBenchmark {
+
+    private static final int TABLE_COLUMNS = 6;
+
+    @Param({"2000"})
+    public int numberOfElements;
+
+    private List<String> texts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(numberOfElements);
+        texts = new ArrayList<>(numberOfElements);
+        for (int i = 0; i < numberOfElements; i++) {
+            texts.add(SyntheticCorpus.createSentence(random, 10 + random.nextInt(60)));
+        }
+    }
+
+    @Benchmark
+    public int layoutParagraphs() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new PdfDocument(new PdfWriter(baos)));
+        for (String text : texts) {
+            document.add(new Paragraph(text));
+        }
+        document.close();
+        return baos.size();
+    }
+
+    @Benchmark
+    public int layoutTable() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new PdfDocument(new PdfWriter(baos)));
+        Table table = new Table(UnitValue.createPercentArray(TABLE_COLUMNS)).useAllAvailableWidth();
+        for (String text : texts) {
+            for (int column = 0; column < TABLE_COLUMNS; column++) {
+                table.addCell(new Cell().add(new Paragraph(text.substring(0, Math.min(text.length(), 20)))));
+            }
+        }
+        document.add(table);
+        document.close();
+        return baos.size();
+    }
+
+    @Benchmark
+    public int layoutLargeTable() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new PdfDocument(new PdfWriter(baos)));
+        Table table = new Table(UnitValue.createPercentArray(TABLE_COLUMNS), true);
+        document.add(table);
+        int row = 0;
+        for (String text : texts) {
+            for (int column = 0; column < TABLE_COLUMNS; column++) {
+                table.addCell(new Cell().add(new Paragraph(text.substring(0, Math.min(text.length(), 20)))));
+            }
+            if (++row % 50 == 0) {
+                table.flush();
+            }
+        }
+        table.complete();
+        document.close();
+        return baos.size();
+    }
+}
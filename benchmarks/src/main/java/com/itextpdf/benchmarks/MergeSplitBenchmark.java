@@ -0,0 +1,127 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.benchmarks;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PageRange;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.itextpdf.kernel.utils.PdfSplitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures merging of several documents into one and splitting of a document into several ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MergeSplitBenchmark {
+
+    @Param({"10"})
+    public int numberOfDocuments;
+
+    @Param({"20"})
+    public int numberOfPages;
+
+    private byte[] document;
+
+    private byte[] mergedDocument;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        document = SyntheticCorpus.createTextDocument(numberOfPages, false);
+        mergedDocument = merge();
+    }
+
+    @Benchmark
+    public byte[] merge() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument result = new PdfDocument(new PdfWriter(baos));
+        PdfMerger merger = new PdfMerger(result);
+        for (int i = 0; i < numberOfDocuments; i++) {
+            PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)));
+            merger.merge(source, 1, source.getNumberOfPages());
+            source.close();
+        }
+        result.close();
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    public int splitByPageCount() throws IOException {
+        PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(mergedDocument)));
+        final int[] totalSize = new int[1];
+        new PdfSplitter(source) {
+            @Override
+            protected PdfWriter getNextPdfWriter(PageRange documentPageRange) {
+                return new PdfWriter(new ByteArrayOutputStream());
+            }
+        }.splitByPageCount(numberOfPages, (pdfDocument, pageRange) -> {
+            pdfDocument.close();
+            totalSize[0] += pageRange.getQualifyingPageNums(Integer.MAX_VALUE).size();
+        });
+        source.close();
+        return totalSize[0];
+    }
+}
@@ -0,0 +1,181 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.benchmarks;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * Generates the documents and data used by the benchmarks, so that they can be run without any external corpus.
+ * All the data is generated from fixed seeds, so every run works on the same content.
+ */
+public final class SyntheticCorpus {
+
+    private static final String FONT_RESOURCE = "com/itextpdf/benchmarks/fonts/open-sans-v15-latin-regular.ttf";
+
+    private static final String[] WORDS = new String[] {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur",
+            "adipiscing", "elit", "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore",
+            "magna", "aliqua", "enim", "ad", "minim", "veniam", "quis", "nostrud", "exercitation", "ullamco",
+            "laboris", "nisi", "aliquip", "ex", "ea", "commodo", "consequat"};
+
+    private static final int LINES_PER_PAGE = 50;
+
+    private SyntheticCorpus() {
+        // Empty constructor
+    }
+
+    /**
+     * Creates a document with the given number of pages, each of them filled with lines of text
+     * shown with a standard font.
+     *
+     * @param numberOfPages the number of pages
+     * @param fullCompression whether the document shall use object and cross-reference streams
+     * @return the bytes of the document
+     */
+    public static byte[] createTextDocument(int numberOfPages, boolean fullCompression) {
+        Random random = new Random(numberOfPages);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos,
+                new WriterProperties().setFullCompressionMode(fullCompression)));
+        PdfFont font = createStandardFont();
+        for (int i = 0; i < numberOfPages; i++) {
+            PdfPage page = pdfDocument.addNewPage(PageSize.A4);
+            PdfCanvas canvas = new PdfCanvas(page);
+            canvas.beginText().setFontAndSize(font, 10).moveText(36, 800);
+            for (int line = 0; line < LINES_PER_PAGE; line++) {
+                canvas.showText(createSentence(random, 12)).moveText(0, -15);
+            }
+            canvas.endText();
+            // some graphics, so that the content streams are not text only
+            for (int rect = 0; rect < 20; rect++) {
+                canvas.rectangle(random.nextInt(500), random.nextInt(800), 20 + random.nextInt(50),
+                        10 + random.nextInt(30)).stroke();
+            }
+            canvas.release();
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Creates a sentence of random words.
+     *
+     * @param random the source of the words
+     * @param numberOfWords the number of words in the sentence
+     * @return the sentence
+     */
+    public static String createSentence(Random random, int numberOfWords) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numberOfWords; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates data which is compressed by Flate about as good as a typical content stream.
+     *
+     * @param size the size of the data
+     * @return the generated data
+     */
+    public static byte[] createCompressibleData(int size) {
+        Random random = new Random(size);
+        byte[] data = new byte[size];
+        int i = 0;
+        while (i < size) {
+            byte[] sentence = ByteUtils.getIsoBytes(createSentence(random, 8));
+            int length = Math.min(sentence.length, size - i);
+            System.arraycopy(sentence, 0, data, i, length);
+            i += length;
+            // a bit of noise, similar to the numbers of the operators
+            for (int j = 0; j < 8 && i < size; j++) {
+                data[i++] = (byte) random.nextInt(256);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Reads the TrueType font shipped with the benchmarks.
+     *
+     * @return the bytes of the font program
+     * @throws IOException if the font can not be read
+     */
+    public static byte[] readFontProgram() throws IOException {
+        InputStream stream = SyntheticCorpus.class.getClassLoader().getResourceAsStream(FONT_RESOURCE);
+        if (stream == null) {
+            throw new IOException(FONT_RESOURCE + " is not found");
+        }
+        try {
+            return StreamUtil.inputStreamToArray(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static PdfFont createStandardFont() {
+        try {
+            return PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.commons.utils.MessageFormatUtil;
+import com.itextpdf.forms.fields.PdfFormAnnotation;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.forms.fields.PdfTextFormField;
+import com.itextpdf.forms.fields.borders.FormBorderFactory;
+import com.itextpdf.forms.logs.FormsLogMessageConstants;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.DeviceCmyk;
+import com.itextpdf.kernel.colors.DeviceGray;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.renderer.TextRenderer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A form template which is parsed once and then filled with many sets of field values.
+ *
+ * <p>
+ * The fields are resolved when the template is created. For the single line text fields the widgets, the fonts
+ * from the default resources of the form, the default appearances and the appearance characteristics are also
+ * resolved once, so filling such a field only sets its value and writes the text into new appearance streams
+ * of its widgets. The other fields are filled by {@link PdfFormField#setValue(String)}. Filling a record does not
+ * build the whole {@link PdfAcroForm} field tree, and the result is written as an incremental update of
+ * the template, so the original bytes of the template are copied as they are.
+ *
+ * <p>
+ * The template only keeps the bytes of the document and the resolved fields, which are not changed after
+ * the template is created, so {@link #fill(Map, PdfWriter)} may be called for different records concurrently.
+ */
+public class PdfFormTemplate {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PdfFormTemplate.class);
+
+    /**
+     * Padding of the text from the left and the right edges of the widget, as in the generated appearances.
+     */
+    private static final float X_OFFSET = 2;
+
+    private final byte[] templateBytes;
+
+    /**
+     * Resolved fields by the fully qualified field names.
+     */
+    private final Map<String, TemplateField> fields;
+
+    /**
+     * Creates a form template from the bytes of the PDF document with an AcroForm.
+     *
+     * @param templateBytes the bytes of the template document, the array is not copied and shall not be modified
+     *
+     * @throws IOException if the template could not be read
+     */
+    public PdfFormTemplate(byte[] templateBytes) throws IOException {
+        this.templateBytes = templateBytes;
+        Map<String, TemplateField> templateFields = new LinkedHashMap<>();
+        try (PdfDocument template = new PdfDocument(createReader())) {
+            PdfAcroForm acroForm = PdfAcroForm.getAcroForm(template, false);
+            if (acroForm != null) {
+                for (Map.Entry<String, PdfFormField> field : acroForm.getAllFormFields().entrySet()) {
+                    PdfIndirectReference reference = field.getValue().getPdfObject().getIndirectReference();
+                    if (reference != null) {
+                        templateFields.put(field.getKey(), new TemplateField(reference.getObjNumber(),
+                                resolveTextWidgets(field.getValue(), acroForm.getDefaultResources())));
+                    }
+                }
+            }
+        }
+        this.fields = Collections.unmodifiableMap(templateFields);
+    }
+
+    /**
+     * Gets the fully qualified names of the fields of the template.
+     *
+     * @return the set of the field names
+     */
+    public Set<String> getFieldNames() {
+        return fields.keySet();
+    }
+
+    /**
+     * Fills the template with the values and writes the result as an incremental update of the template.
+     * The appearances of the filled fields are regenerated. The names which are not present in the template
+     * are logged and skipped.
+     *
+     * @param values the values by the fully qualified field names
+     * @param writer the {@link PdfWriter} to write the filled document to, it is closed when the document is written
+     *
+     * @throws IOException if the template could not be read
+     */
+    public void fill(Map<String, String> values, PdfWriter writer) throws IOException {
+        try (PdfDocument document = new PdfDocument(createReader(), writer,
+                new StampingProperties().useAppendMode())) {
+            Map<Integer, PdfFont> fonts = new HashMap<>();
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                TemplateField templateField = fields.get(value.getKey());
+                if (templateField != null && templateField.textWidgets != null) {
+                    fillTextField(document, templateField, value.getValue(), fonts);
+                    continue;
+                }
+                PdfFormField field = templateField == null ? null
+                        : PdfFormField.makeFormField(document.getPdfObject(templateField.objectNumber), document);
+                if (field == null) {
+                    LOGGER.warn(MessageFormatUtil.format(
+                            FormsLogMessageConstants.FIELDNAME_NOT_FOUND_OPERATION_CAN_NOT_BE_COMPLETED,
+                            value.getKey()));
+                    continue;
+                }
+                field.setValue(value.getValue());
+            }
+        }
+    }
+
+    private PdfReader createReader() throws IOException {
+        return new PdfReader(new RandomAccessSourceFactory().createSource(templateBytes), new ReaderProperties());
+    }
+
+    private static void fillTextField(PdfDocument document, TemplateField templateField, String value,
+            Map<Integer, PdfFont> fonts) {
+        PdfDictionary field = (PdfDictionary) document.getPdfObject(templateField.objectNumber);
+        field.put(PdfName.V, new PdfString(value, PdfEncodings.UNICODE_BIG));
+        field.setModified();
+        for (TextWidget widget : templateField.textWidgets) {
+            PdfFont font = fonts.get(widget.fontObjectNumber);
+            if (font == null) {
+                font = document.getFont((PdfDictionary) document.getPdfObject(widget.fontObjectNumber));
+                fonts.put(widget.fontObjectNumber, font);
+            }
+            PdfDictionary widgetObject = (PdfDictionary) document.getPdfObject(widget.objectNumber);
+            PdfDictionary appearance = new PdfDictionary();
+            appearance.put(PdfName.N, widget.drawAppearance(document, font, value).getPdfObject());
+            widgetObject.put(PdfName.AP, appearance);
+            widgetObject.setModified();
+        }
+    }
+
+    /**
+     * Resolves the widgets of a single line text field, which appearances can be drawn without the layout.
+     *
+     * @return the resolved widgets, or null if the appearances of the field are to be generated by the field itself
+     */
+    private static List<TextWidget> resolveTextWidgets(PdfFormField field, PdfDictionary defaultResources) {
+        PdfDictionary fonts = defaultResources == null ? null : defaultResources.getAsDictionary(PdfName.Font);
+        if (fonts == null || !PdfName.Tx.equals(field.getFormType()) || field.isMultiline() || field.isPassword()
+                || field.getFieldFlag(PdfTextFormField.FF_COMB) || field.getFieldFlag(PdfTextFormField.FF_RICH_TEXT)
+                || field.getFieldFlag(PdfTextFormField.FF_FILE_SELECT) || field.getChildFormAnnotations().isEmpty()
+                || field.getKids() != null && field.getChildFormAnnotations().size() != field.getKids().size()) {
+            return null;
+        }
+        Integer justification = field.getJustification();
+        List<TextWidget> widgets = new ArrayList<>();
+        for (PdfFormAnnotation annotation : field.getChildFormAnnotations()) {
+            PdfDictionary widget = annotation.getPdfObject();
+            PdfArray rect = widget.getAsArray(PdfName.Rect);
+            PdfDictionary characteristics = widget.getAsDictionary(PdfName.MK);
+            PdfNumber rotation = characteristics == null ? null : characteristics.getAsNumber(PdfName.R);
+            PdfPage page = annotation.getWidget().getPage();
+            Integer fontObjectNumber = getFontObjectNumber(annotation.getFont(), fonts);
+            if (widget.getIndirectReference() == null || rect == null || rect.size() != 4
+                    || rotation != null && rotation.intValue() % 360 != 0
+                    || page != null && page.getRotation() % 360 != 0
+                    || fontObjectNumber == null || annotation.getFontSize() <= 0) {
+                return null;
+            }
+            float borderWidth = Math.max(0, annotation.getBorderWidth());
+            Color borderColor = characteristics == null ? null : toColor(characteristics.getAsArray(PdfName.BC));
+            Color backgroundColor = characteristics == null ? null : toColor(characteristics.getAsArray(PdfName.BG));
+            Border border = null;
+            if (borderWidth > 0 && borderColor != null) {
+                borderWidth = Math.max(1, borderWidth);
+                border = FormBorderFactory.getBorder(annotation.getWidget().getBorderStyle(), borderWidth,
+                        borderColor, backgroundColor);
+            }
+            widgets.add(new TextWidget(widget.getIndirectReference().getObjNumber(), rect.toRectangle(),
+                    (int) fontObjectNumber, annotation.getFontSize(), annotation.getColor(), backgroundColor,
+                    borderColor, borderWidth, border, justification == null ? 0 : (int) justification));
+        }
+        return Collections.unmodifiableList(widgets);
+    }
+
+    private static Integer getFontObjectNumber(PdfFont font, PdfDictionary fonts) {
+        // only the fonts of the default resources may be used, other fonts are created for every document
+        for (PdfName fontName : fonts.keySet()) {
+            PdfObject fontObject = fonts.get(fontName);
+            if (fontObject == font.getPdfObject() && fontObject.getIndirectReference() != null) {
+                return fontObject.getIndirectReference().getObjNumber();
+            }
+        }
+        return null;
+    }
+
+    private static Color toColor(PdfArray color) {
+        if (color == null) {
+            return null;
+        }
+        float[] components = color.toFloatArray();
+        switch (components.length) {
+            case 1:
+                return new DeviceGray(components[0]);
+            case 3:
+                return new DeviceRgb(components[0], components[1], components[2]);
+            case 4:
+                return new DeviceCmyk(components[0], components[1], components[2], components[3]);
+            default:
+                return null;
+        }
+    }
+
+    private static final class TemplateField {
+        final int objectNumber;
+        final List<TextWidget> textWidgets;
+
+        TemplateField(int objectNumber, List<TextWidget> textWidgets) {
+            this.objectNumber = objectNumber;
+            this.textWidgets = textWidgets;
+        }
+    }
+
+    /**
+     * The resolved widget of a single line text field, which draws the same appearance as
+     * {@link PdfFormAnnotation} for a not rotated widget.
+     */
+    private static final class TextWidget {
+        final int objectNumber;
+        final float width;
+        final float height;
+        final int fontObjectNumber;
+        final float fontSize;
+        final Color color;
+        final Color backgroundColor;
+        final Color borderColor;
+        final float borderWidth;
+        final Border border;
+        final int justification;
+
+        TextWidget(int objectNumber, Rectangle rect, int fontObjectNumber, float fontSize, Color color,
+                Color backgroundColor, Color borderColor, float borderWidth, Border border, int justification) {
+            this.objectNumber = objectNumber;
+            this.width = rect.getWidth();
+            this.height = rect.getHeight();
+            this.fontObjectNumber = fontObjectNumber;
+            this.fontSize = fontSize;
+            this.color = color;
+            this.backgroundColor = backgroundColor;
+            this.borderColor = borderColor;
+            this.borderWidth = borderWidth;
+            this.border = border;
+            this.justification = justification;
+        }
+
+        PdfFormXObject drawAppearance(PdfDocument document, PdfFont font, String value) {
+            PdfFormXObject appearance = new PdfFormXObject(new Rectangle(0, 0, width, height));
+            appearance.put(PdfName.Matrix, new PdfArray(new float[] {1, 0, 0, 1, 0, 0}));
+            PdfCanvas canvas = new PdfCanvas(appearance, document);
+            canvas.saveState();
+            if (backgroundColor != null) {
+                canvas.setFillColor(backgroundColor).rectangle(0, 0, width, height).fill();
+            }
+            if (borderWidth > 0 && borderColor != null) {
+                canvas.setStrokeColor(borderColor).setLineWidth(borderWidth);
+                if (border != null) {
+                    float borderWidthX2 = borderWidth + borderWidth;
+                    border.draw(canvas, new Rectangle(borderWidth, borderWidth, width - borderWidthX2,
+                            height - borderWidthX2));
+                } else {
+                    canvas.rectangle(0, 0, width, height).stroke();
+                }
+            }
+            canvas.restoreState();
+
+            float textWidth = font.getWidth(value, fontSize);
+            float x = X_OFFSET;
+            if (justification == PdfFormField.ALIGN_RIGHT) {
+                x = width - X_OFFSET - textWidth;
+            } else if (justification == PdfFormField.ALIGN_CENTER) {
+                x = (width - textWidth) / 2;
+            }
+            float[] ascenderDescender = TextRenderer.calculateAscenderDescender(font);
+            float y = height / 2 - (ascenderDescender[0] + ascenderDescender[1]) * fontSize / 2000;
+            canvas.beginVariableText().saveState().endPath().saveState().beginText().setFontAndSize(font, fontSize);
+            if (color != null) {
+                canvas.setFillColor(color);
+            }
+            canvas.moveText(x, y).showText(value).endText().restoreState().restoreState().endVariableText().release();
+            return appearance;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.forms.fields.TextFormFieldBuilder;
+import com.itextpdf.forms.logs.FormsLogMessageConstants;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.kernel.utils.CompareTool;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfFormTemplateTest extends ExtendedITextTest {
+    public static final String sourceFolder = "./src/test/resources/com/itextpdf/forms/PdfFormTemplateTest/";
+    public static final String destinationFolder = "./target/test/com/itextpdf/forms/PdfFormTemplateTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void fillTemplateTest() throws IOException, InterruptedException {
+        String filename = destinationFolder + "fillTemplateTest.pdf";
+        PdfFormTemplate template = new PdfFormTemplate(Files.readAllBytes(Paths.get(sourceFolder + "Form_Empty.pdf")));
+
+        Map<String, String> values = new HashMap<>();
+        for (String fieldName : template.getFieldNames()) {
+            values.put(fieldName, "Test");
+        }
+        ByteArrayOutputStream filled = new ByteArrayOutputStream();
+        template.fill(values, new PdfWriter(filled));
+
+        PdfDocument doc = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled.toByteArray())),
+                new PdfWriter(filename));
+        PdfAcroForm.getAcroForm(doc, true).flattenFields();
+        doc.close();
+
+        Assert.assertNull(new CompareTool().compareByContent(filename, sourceFolder + "cmp_fillTemplateTest.pdf",
+                destinationFolder, "diff_"));
+    }
+
+    @Test
+    public void fillTemplateSeveralTimesTest() throws IOException {
+        PdfFormTemplate template = new PdfFormTemplate(Files.readAllBytes(Paths.get(sourceFolder + "Form_Empty.pdf")));
+        String fieldName = template.getFieldNames().iterator().next();
+
+        for (String value : new String[] {"First", "Second"}) {
+            ByteArrayOutputStream filled = new ByteArrayOutputStream();
+            template.fill(Collections.singletonMap(fieldName, value), new PdfWriter(filled));
+
+            try (PdfDocument doc = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled.toByteArray())))) {
+                PdfFormField field = PdfAcroForm.getAcroForm(doc, false).getField(fieldName);
+                Assert.assertEquals(value, field.getValueAsString());
+                Assert.assertNotNull(field.getWidgets().get(0).getNormalAppearanceObject());
+            }
+        }
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate =
+            FormsLogMessageConstants.FIELDNAME_NOT_FOUND_OPERATION_CAN_NOT_BE_COMPLETED))
+    public void fillUnknownFieldTest() throws IOException {
+        PdfFormTemplate template = new PdfFormTemplate(Files.readAllBytes(Paths.get(sourceFolder + "Form_Empty.pdf")));
+        ByteArrayOutputStream filled = new ByteArrayOutputStream();
+        template.fill(Collections.singletonMap("unknown", "Test"), new PdfWriter(filled));
+
+        try (PdfDocument doc = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled.toByteArray())))) {
+            Assert.assertEquals(template.getFieldNames(),
+                    PdfAcroForm.getAcroForm(doc, false).getAllFormFields().keySet());
+        }
+    }
+
+    @Test
+    public void fillTextFieldsWithDefaultResourcesFontTest() throws IOException {
+        byte[] templateBytes = createTemplate(3);
+        int numberOfDefaultFonts;
+        try (PdfDocument doc = new PdfDocument(new PdfReader(new ByteArrayInputStream(templateBytes)))) {
+            numberOfDefaultFonts = PdfAcroForm.getAcroForm(doc, false).getDefaultResources()
+                    .getAsDictionary(PdfName.Font).size();
+        }
+        PdfFormTemplate template = new PdfFormTemplate(templateBytes);
+        Map<String, String> values = new HashMap<>();
+        for (String fieldName : template.getFieldNames()) {
+            values.put(fieldName, "Value of " + fieldName);
+        }
+        ByteArrayOutputStream filled = new ByteArrayOutputStream();
+        template.fill(values, new PdfWriter(filled));
+
+        try (PdfDocument doc = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled.toByteArray())))) {
+            PdfAcroForm acroForm = PdfAcroForm.getAcroForm(doc, false);
+            PdfDictionary defaultFonts = acroForm.getDefaultResources().getAsDictionary(PdfName.Font);
+            Assert.assertEquals(numberOfDefaultFonts, defaultFonts.size());
+            for (String fieldName : template.getFieldNames()) {
+                PdfFormField field = acroForm.getField(fieldName);
+                Assert.assertEquals("Value of " + fieldName, field.getValueAsString());
+                PdfDictionary appearanceFonts = field.getWidgets().get(0).getNormalAppearanceObject()
+                        .getAsDictionary(PdfName.Resources).getAsDictionary(PdfName.Font);
+                // the fonts of the default resources are used instead of new ones
+                Assert.assertTrue(defaultFonts.values().contains(
+                        appearanceFonts.getAsDictionary(appearanceFonts.keySet().iterator().next())));
+            }
+        }
+        assertFilledText(filled.toByteArray(), "Value of field1");
+    }
+
+    @Test
+    public void concurrentFillTest() throws IOException, InterruptedException, ExecutionException {
+        PdfFormTemplate template = new PdfFormTemplate(createTemplate(4));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                final int record = i;
+                results.add(executor.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws IOException {
+                        Map<String, String> values = new HashMap<>();
+                        for (String fieldName : template.getFieldNames()) {
+                            values.put(fieldName, "Record " + record + " " + fieldName);
+                        }
+                        ByteArrayOutputStream filled = new ByteArrayOutputStream();
+                        template.fill(values, new PdfWriter(filled));
+                        return filled.toByteArray();
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                byte[] filled = results.get(i).get();
+                try (PdfDocument doc = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled)))) {
+                    PdfAcroForm acroForm = PdfAcroForm.getAcroForm(doc, false);
+                    for (String fieldName : template.getFieldNames()) {
+                        Assert.assertEquals("Record " + i + " " + fieldName,
+                                acroForm.getField(fieldName).getValueAsString());
+                    }
+                }
+                assertFilledText(filled, "Record " + i + " field0");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] createTemplate(int numberOfFields) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument doc = new PdfDocument(new PdfWriter(baos))) {
+            doc.addNewPage();
+            PdfAcroForm acroForm = PdfAcroForm.getAcroForm(doc, true);
+            for (int i = 0; i < numberOfFields; i++) {
+                PdfFormField field = new TextFormFieldBuilder(doc, "field" + i)
+                        .setWidgetRectangle(new Rectangle(36, 700 - i * 40, 300, 30)).createText();
+                field.setFont(PdfFontFactory.createFont(StandardFonts.HELVETICA)).setFontSize(12);
+                field.getFirstFormAnnotation().setBorderColor(ColorConstants.BLUE)
+                        .setBackgroundColor(ColorConstants.LIGHT_GRAY);
+                acroForm.addField(field);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static void assertFilledText(byte[] filled, String expectedText) throws IOException {
+        try (PdfDocument doc = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled)),
+                new PdfWriter(new ByteArrayOutputStream()))) {
+            PdfAcroForm.getAcroForm(doc, false).flattenFields();
+            Assert.assertTrue(PdfTextExtractor.getTextFromPage(doc.getFirstPage()).contains(expectedText));
+        }
+    }
+}
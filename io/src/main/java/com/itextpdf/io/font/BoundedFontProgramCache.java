@@ -0,0 +1,259 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default {@link IFontProgramCache} implementation, which optionally limits the total weight of cached
+ * font programs.
+ * <p>
+ * A cache created with {@link #BoundedFontProgramCache()} is not limited, as the font cache has always been.
+ * When a limit is configured, adding a font program which would exceed it evicts other font programs
+ * according to the {@link EvictionPolicy}. The weight of a font program is the estimated amount of memory
+ * it retains, which for embedded fonts is dominated by the size of the font file. A font program which is
+ * heavier than the whole limit is not cached at all.
+ * <p>
+ * Font programs are looked up without locking, so that documents created in parallel don't contend on
+ * the cache. Only the eviction, which happens when a parsed font program is added, is serialized.
+ */
+public class BoundedFontProgramCache implements IFontProgramCache {
+
+    /**
+     * The limit of the total weight which means that the cache is not limited.
+     */
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+
+    /**
+     * Defines which font program is evicted first when the cache is full.
+     */
+    public enum EvictionPolicy {
+        /**
+         * The least recently used font program is evicted first.
+         */
+        LEAST_RECENTLY_USED,
+        /**
+         * The least frequently used font program is evicted first. Of the font programs
+         * with the same use count, the least recently used one is evicted first.
+         */
+        LEAST_FREQUENTLY_USED
+    }
+
+    private final long maxWeight;
+    private final EvictionPolicy evictionPolicy;
+
+    private final ConcurrentHashMap<FontCacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong weight = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+
+    /**
+     * Creates a cache which is not limited and therefore never evicts font programs.
+     */
+    public BoundedFontProgramCache() {
+        this(UNBOUNDED, EvictionPolicy.LEAST_RECENTLY_USED);
+    }
+
+    /**
+     * Creates a cache with the given limit and eviction policy.
+     *
+     * @param maxWeight the limit of the total weight of cached font programs, in bytes,
+     *                  or {@link #UNBOUNDED} if the cache shall not be limited
+     * @param evictionPolicy the policy which defines the order of eviction
+     */
+    public BoundedFontProgramCache(long maxWeight, EvictionPolicy evictionPolicy) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("maxWeight");
+        }
+        if (evictionPolicy == null) {
+            throw new IllegalArgumentException("evictionPolicy");
+        }
+        this.maxWeight = maxWeight;
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    /**
+     * Gets the limit of the total weight of cached font programs.
+     *
+     * @return the limit in bytes, or {@link #UNBOUNDED} if the cache is not limited
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Gets the policy which defines the order of eviction.
+     *
+     * @return the {@link EvictionPolicy} of this cache
+     */
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    @Override
+    public FontProgram get(FontCacheKey key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        if (isBounded()) {
+            entry.recordUse(evictionPolicy);
+        }
+        return entry.fontProgram;
+    }
+
+    @Override
+    public FontProgram put(FontCacheKey key, FontProgram fontProgram, long weight) {
+        weight = Math.max(weight, 0);
+        if (weight > maxWeight) {
+            CacheEntry existing = entries.get(key);
+            return existing != null ? existing.fontProgram : fontProgram;
+        }
+        CacheEntry entry = new CacheEntry(fontProgram, weight);
+        CacheEntry existing = entries.putIfAbsent(key, entry);
+        if (existing != null) {
+            return existing.fontProgram;
+        }
+        if (this.weight.addAndGet(weight) > maxWeight) {
+            evict(entry);
+        }
+        return fontProgram;
+    }
+
+    @Override
+    public void recordLoad(long loadTimeNanos) {
+        loadCount.increment();
+        totalLoadTimeNanos.add(Math.max(loadTimeNanos, 0));
+    }
+
+    @Override
+    public void clear() {
+        synchronized (evictionLock) {
+            for (Map.Entry<FontCacheKey, CacheEntry> entry : entries.entrySet()) {
+                remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public FontCacheStatistics getStatistics() {
+        return new FontCacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), loadCount.sum(),
+                totalLoadTimeNanos.sum(), entries.size(), weight.get());
+    }
+
+    private boolean isBounded() {
+        return maxWeight != UNBOUNDED;
+    }
+
+    /**
+     * Evicts font programs until the total weight fits into the limit. The entry which has just been added
+     * is not evicted, unless it's the only one left.
+     */
+    private void evict(CacheEntry addedEntry) {
+        synchronized (evictionLock) {
+            while (weight.get() > maxWeight) {
+                Map.Entry<FontCacheKey, CacheEntry> victim = null;
+                for (Map.Entry<FontCacheKey, CacheEntry> candidate : entries.entrySet()) {
+                    if (candidate.getValue() != addedEntry
+                            && (victim == null || candidate.getValue().isEvictedBefore(victim.getValue()))) {
+                        victim = candidate;
+                    }
+                }
+                if (victim == null) {
+                    // only the added entry is left, which is not heavier than the limit
+                    return;
+                }
+                if (remove(victim.getKey(), victim.getValue())) {
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+
+    private boolean remove(FontCacheKey key, CacheEntry entry) {
+        if (entries.remove(key, entry)) {
+            weight.addAndGet(-entry.weight);
+            return true;
+        }
+        return false;
+    }
+
+    private static final class CacheEntry {
+        final FontProgram fontProgram;
+        final long weight;
+        volatile long lastUseTime = System.nanoTime();
+        final AtomicLong useCount = new AtomicLong();
+
+        CacheEntry(FontProgram fontProgram, long weight) {
+            this.fontProgram = fontProgram;
+            this.weight = weight;
+        }
+
+        void recordUse(EvictionPolicy evictionPolicy) {
+            lastUseTime = System.nanoTime();
+            if (evictionPolicy == EvictionPolicy.LEAST_FREQUENTLY_USED) {
+                useCount.incrementAndGet();
+            }
+        }
+
+        boolean isEvictedBefore(CacheEntry other) {
+            long thisUseCount = useCount.get();
+            long otherUseCount = other.useCount.get();
+            if (thisUseCount != otherUseCount) {
+                return thisUseCount < otherUseCount;
+            }
+            return lastUseTime - other.lastUseTime < 0;
+        }
+    }
+}
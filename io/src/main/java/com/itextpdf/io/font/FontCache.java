@@ -62,7 +62,6 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class FontCache {
 
@@ -75,7 +74,10 @@ public class FontCache {
     private static final String W_PROP = "W";
     private static final String W2_PROP = "W2";
 
-    private static Map<FontCacheKey, FontProgram> fontCache = new ConcurrentHashMap<>();
+    // rough estimation of memory retained by a glyph of a font program which has no font file bytes
+    private static final long ESTIMATED_GLYPH_WEIGHT = 64;
+
+    private static volatile IFontProgramCache fontCache = new BoundedFontProgramCache();
 
     static {
         try {
@@ -178,6 +180,37 @@ public class FontCache {
         fontCache.clear();
     }
 
+    /**
+     * Sets the storage of font programs which is used by {@link #getFont(String)} and {@link #saveFont(FontProgram, String)}
+     * and therefore by font factories when {@code cached} argument is set to true.
+     * <p>
+     * By default a {@link BoundedFontProgramCache} which is not limited is used. Font programs stored in
+     * the previous cache are not transferred to the new one.
+     *
+     * @param cache the {@link IFontProgramCache} to use, or {@code null} to reset to the default implementation
+     */
+    public static void setFontProgramCache(IFontProgramCache cache) {
+        fontCache = cache != null ? cache : new BoundedFontProgramCache();
+    }
+
+    /**
+     * Gets the storage of font programs which is currently used.
+     *
+     * @return the {@link IFontProgramCache} instance
+     */
+    public static IFontProgramCache getFontProgramCache() {
+        return fontCache;
+    }
+
+    /**
+     * Gets a snapshot of hit, miss, eviction and load statistics of the font program cache.
+     *
+     * @return the {@link FontCacheStatistics} of the current {@link IFontProgramCache}
+     */
+    public static FontCacheStatistics getStatistics() {
+        return fontCache.getStatistics();
+    }
+
     public static FontProgram getFont(String fontName) {
         return fontCache.get(FontCacheKey.create(fontName));
     }
@@ -191,12 +224,21 @@ public class FontCache {
     }
 
     static FontProgram saveFont(FontProgram font, FontCacheKey key) {
-        FontProgram fontFound = fontCache.get(key);
-        if (fontFound != null) {
-            return fontFound;
+        return fontCache.put(key, font, estimateWeight(font, key));
+    }
+
+    static FontProgram saveFont(FontProgram font, FontCacheKey key, long loadTimeNanos) {
+        IFontProgramCache cache = fontCache;
+        cache.recordLoad(loadTimeNanos);
+        return cache.put(key, font, estimateWeight(font, key));
+    }
+
+    static long estimateWeight(FontProgram font, FontCacheKey key) {
+        long weight = key.getFontProgramLength();
+        if (weight < 0 && font instanceof TrueTypeFont) {
+            weight = ((TrueTypeFont) font).getFontFileLength();
         }
-        fontCache.put(key, font);
-        return font;
+        return Math.max(weight, 0) + ESTIMATED_GLYPH_WEIGHT * Math.max(font.countOfGlyphs(), 1);
     }
 
     private static void loadRegistry() throws java.io.IOException {
@@ -62,6 +62,15 @@ public abstract class FontCacheKey {
         return new FontCacheTtcKey(fontProgram, ttcIndex);
     }
 
+    /**
+     * Gets the length of the font program bytes this key was created for.
+     *
+     * @return the length in bytes, or -1 if the key wasn't created for font program bytes
+     */
+    int getFontProgramLength() {
+        return -1;
+    }
+
     private static class FontCacheStringKey extends FontCacheKey {
         private String fontName;
 
@@ -116,6 +125,11 @@ public abstract class FontCacheKey {
             return hashcode;
         }
 
+        @Override
+        int getFontProgramLength() {
+            return firstFontBytes != null ? fontLength : -1;
+        }
+
         private int calcHashCode() {
             int result = Arrays.hashCode(firstFontBytes);
             result = 31 * result + fontLength;
@@ -148,6 +162,11 @@ public abstract class FontCacheKey {
             return ttcKey.equals(that.ttcKey);
         }
 
+        @Override
+        int getFontProgramLength() {
+            return ttcKey.getFontProgramLength();
+        }
+
         @Override
         public int hashCode() {
             int result = ttcKey.hashCode();
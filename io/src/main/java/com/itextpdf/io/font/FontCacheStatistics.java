@@ -0,0 +1,169 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+/**
+ * An immutable snapshot of {@link IFontProgramCache} statistics.
+ */
+public class FontCacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long loadCount;
+    private final long totalLoadTimeNanos;
+    private final int size;
+    private final long weight;
+
+    /**
+     * Creates a new statistics snapshot.
+     *
+     * @param hitCount the number of lookups which found a cached font program
+     * @param missCount the number of lookups which didn't find a cached font program
+     * @param evictionCount the number of font programs discarded by the cache to stay within its limits
+     * @param loadCount the number of font programs parsed because of a cache miss
+     * @param totalLoadTimeNanos the total time spent on parsing font programs, in nanoseconds
+     * @param size the current number of cached font programs
+     * @param weight the current total weight of cached font programs, in bytes
+     */
+    public FontCacheStatistics(long hitCount, long missCount, long evictionCount, long loadCount,
+            long totalLoadTimeNanos, int size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the number of lookups which found a cached font program.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups which didn't find a cached font program.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the ratio of cache hits to all lookups.
+     *
+     * @return the hit rate in range [0, 1], or 1 if there were no lookups
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Gets the number of font programs discarded by the cache to stay within its limits.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of font programs parsed because they weren't found in the cache.
+     *
+     * @return the number of loads
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * Gets the total time spent on parsing font programs which weren't found in the cache.
+     *
+     * @return the total load time in nanoseconds
+     */
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    /**
+     * Gets the average time spent on parsing a font program which wasn't found in the cache.
+     *
+     * @return the average load time in nanoseconds, or 0 if there were no loads
+     */
+    public double getAverageLoadTimeNanos() {
+        return loadCount == 0 ? 0 : (double) totalLoadTimeNanos / loadCount;
+    }
+
+    /**
+     * Gets the number of font programs which are currently cached.
+     *
+     * @return the number of cached font programs
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the total weight of font programs which are currently cached.
+     *
+     * @return the total weight in bytes
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "FontCacheStatistics{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount="
+                + evictionCount + ", loadCount=" + loadCount + ", totalLoadTimeNanos=" + totalLoadTimeNanos
+                + ", size=" + size + ", weight=" + weight + "}";
+    }
+}
@@ -174,6 +174,7 @@ public final class FontProgramFactory {
             }
         }
 
+        long loadStartTime = System.nanoTime();
         FontProgram fontBuilt = null;
         if (name == null) {
             if (fontProgram != null) {
@@ -253,7 +254,7 @@ public final class FontProgramFactory {
                 throw new IOException(IOException.TypeOfFontIsNotRecognized);
             }
         }
-        return cached ? FontCache.saveFont(fontBuilt, fontKey) : fontBuilt;
+        return cached ? FontCache.saveFont(fontBuilt, fontKey, System.nanoTime() - loadStartTime) : fontBuilt;
     }
 
     /**
@@ -325,8 +326,9 @@ public final class FontProgramFactory {
                 return fontFound;
             }
         }
+        long loadStartTime = System.nanoTime();
         FontProgram fontBuilt = new TrueTypeFont(ttc, ttcIndex);
-        return cached ? FontCache.saveFont(fontBuilt, fontCacheKey) : fontBuilt;
+        return cached ? FontCache.saveFont(fontBuilt, fontCacheKey, System.nanoTime() - loadStartTime) : fontBuilt;
     }
 
     /**
@@ -348,8 +350,9 @@ public final class FontProgramFactory {
                 return fontFound;
             }
         }
+        long loadStartTime = System.nanoTime();
         FontProgram fontBuilt = new TrueTypeFont(ttc, ttcIndex);
-        return cached ? FontCache.saveFont(fontBuilt, fontKey) : fontBuilt;
+        return cached ? FontCache.saveFont(fontBuilt, fontKey, System.nanoTime() - loadStartTime) : fontBuilt;
     }
 
     /**
@@ -486,8 +489,9 @@ public final class FontProgramFactory {
             }
         }
 
+        long loadStartTime = System.nanoTime();
         fontProgram = new Type1Font(metricsPath, binaryPath, afm, pfb);
-        return cached ? FontCache.saveFont(fontProgram, fontKey) : fontProgram;
+        return cached ? FontCache.saveFont(fontProgram, fontKey, System.nanoTime() - loadStartTime) : fontProgram;
     }
 
     private static FontCacheKey createFontCacheKey(String name, byte[] fontProgram) {
@@ -0,0 +1,92 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+/**
+ * A storage of parsed {@link FontProgram} instances which is used by {@link FontCache}
+ * when fonts are created with {@code cached} argument set to {@code true}.
+ * <p>
+ * Implementations must be thread-safe, since the font cache is shared between all documents
+ * and threads. A custom implementation can be installed with {@link FontCache#setFontProgramCache(IFontProgramCache)}.
+ */
+public interface IFontProgramCache {
+
+    /**
+     * Gets the font program stored by the given key.
+     *
+     * @param key the key of the font program
+     * @return the cached font program, or {@code null} if there is no font program for the key
+     */
+    FontProgram get(FontCacheKey key);
+
+    /**
+     * Stores the font program by the given key, unless there is already a font program for this key.
+     * The cache is free to discard the font program at any moment afterwards.
+     *
+     * @param key the key of the font program
+     * @param fontProgram the font program to store
+     * @param weight the estimated amount of memory retained by the font program, in bytes
+     * @return the font program which was already stored by the key, or the passed font program otherwise
+     */
+    FontProgram put(FontCacheKey key, FontProgram fontProgram, long weight);
+
+    /**
+     * Records that a font program was parsed because it wasn't found in the cache.
+     *
+     * @param loadTimeNanos the time spent on parsing the font program, in nanoseconds
+     */
+    void recordLoad(long loadTimeNanos);
+
+    /**
+     * Removes all font programs from the cache. Statistics counters are not reset.
+     */
+    void clear();
+
+    /**
+     * Gets a snapshot of the cache statistics.
+     *
+     * @return the {@link FontCacheStatistics} instance
+     */
+    FontCacheStatistics getStatistics();
+}
@@ -414,6 +414,15 @@ public class TrueTypeFont extends FontProgram {
         fontParser = null;
     }
 
+    /**
+     * Gets the length of the font file this font program reads its data from.
+     *
+     * @return the length in bytes, or 0 if the font program is closed
+     */
+    long getFontFileLength() {
+        return fontParser != null && fontParser.raf != null ? fontParser.raf.length() : 0;
+    }
+
     /**
      * The method will update usedGlyphs with additional range or with all glyphs if there is no subset.
      * This set of used glyphs can be used for building width array and ToUnicode CMAP.
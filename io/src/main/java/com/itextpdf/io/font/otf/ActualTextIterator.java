@@ -118,17 +118,30 @@ public class ActualTextIterator implements Iterator<GlyphLine.GlyphLinePart> {
         if (glyphLinePart.actualText == null) {
             return false;
         }
-        boolean needsActualText = false;
-        StringBuilder toUnicodeMapResult = new StringBuilder();
+        // compare glyphs unicode values with the actual text in place, without building an intermediate string
+        String actualText = glyphLinePart.actualText;
+        int textPos = 0;
         for (int i = glyphLinePart.start; i < glyphLinePart.end; i++) {
             Glyph currentGlyph = glyphLine.glyphs.get(i);
             if (!currentGlyph.hasValidUnicode()) {
-                needsActualText = true;
-                break;
+                return true;
+            }
+            int codePoint = currentGlyph.getUnicode();
+            if (codePoint < 0x10000) {
+                if (textPos >= actualText.length() || actualText.charAt(textPos) != (char) codePoint) {
+                    return true;
+                }
+                textPos++;
+            } else {
+                char[] chars = TextUtil.convertFromUtf32(codePoint);
+                if (textPos + 1 >= actualText.length() || actualText.charAt(textPos) != chars[0]
+                        || actualText.charAt(textPos + 1) != chars[1]) {
+                    return true;
+                }
+                textPos += 2;
             }
-            toUnicodeMapResult.append(TextUtil.convertFromUtf32(currentGlyph.getUnicode()));
         }
 
-        return needsActualText || !toUnicodeMapResult.toString().equals(glyphLinePart.actualText);
+        return textPos != actualText.length();
     }
 }
@@ -46,6 +46,7 @@ package com.itextpdf.io.font.otf;
 import com.itextpdf.io.util.TextUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -210,18 +211,13 @@ public class GlyphLine {
     public void add(GlyphLine other) {
         if (other.actualText != null) {
             if (actualText == null) {
-                actualText = new ArrayList<ActualText>(glyphs.size());
-                for (int i = 0; i < glyphs.size(); i++) {
-                    actualText.add(null);
-                }
+                actualText = createEmptyActualText(glyphs.size());
             }
             actualText.addAll(other.actualText.subList(other.start, other.end));
         }
         glyphs.addAll(other.glyphs.subList(other.start, other.end));
-        if (null != actualText) {
-            while (actualText.size() < glyphs.size()) {
-                actualText.add(null);
-            }
+        if (null != actualText && actualText.size() < glyphs.size()) {
+            actualText.addAll(Collections.<ActualText>nCopies(glyphs.size() - actualText.size(), null));
         }
     }
 
@@ -324,31 +320,35 @@ public class GlyphLine {
     }
 
     public GlyphLine filter(IGlyphLineFilter filter) {
-        boolean anythingFiltered = false;
+        // most of the lines don't contain any glyphs to be filtered, so nothing is copied until the first one is met
+        int firstFiltered = start;
+        while (firstFiltered < end && filter.accept(glyphs.get(firstFiltered))) {
+            firstFiltered++;
+        }
+        if (firstFiltered == end) {
+            return this;
+        }
         List<Glyph> filteredGlyphs = new ArrayList<>(end - start);
-        List<ActualText> filteredActualText = actualText != null ? new ArrayList<ActualText>(end - start) : null;
-        for (int i = start; i < end; i++) {
+        filteredGlyphs.addAll(glyphs.subList(start, firstFiltered));
+        List<ActualText> filteredActualText = null;
+        if (actualText != null) {
+            filteredActualText = new ArrayList<>(end - start);
+            filteredActualText.addAll(actualText.subList(start, firstFiltered));
+        }
+        for (int i = firstFiltered + 1; i < end; i++) {
             if (filter.accept(glyphs.get(i))) {
                 filteredGlyphs.add(glyphs.get(i));
                 if (filteredActualText != null) {
                     filteredActualText.add(actualText.get(i));
                 }
-            } else {
-                anythingFiltered = true;
             }
         }
-        if (anythingFiltered) {
-            return new GlyphLine(filteredGlyphs, filteredActualText, 0, filteredGlyphs.size());
-        } else {
-            return this;
-        }
+        return new GlyphLine(filteredGlyphs, filteredActualText, 0, filteredGlyphs.size());
     }
 
     public void setActualText(int left, int right, String text) {
         if (this.actualText == null) {
-            this.actualText = new ArrayList<>(glyphs.size());
-            for (int i = 0; i < glyphs.size(); i++)
-                this.actualText.add(null);
+            this.actualText = createEmptyActualText(glyphs.size());
         }
         ActualText actualText = new ActualText(text);
         for (int i = left; i < right; i++) {
@@ -420,12 +420,14 @@ public class GlyphLine {
     private void addAllGlyphs(int index, List<Glyph> additionalGlyphs) {
         glyphs.addAll(index, additionalGlyphs);
         if (actualText != null) {
-            for (int i = 0; i < additionalGlyphs.size(); i++) {
-                this.actualText.add(index, null);
-            }
+            this.actualText.addAll(index, Collections.<ActualText>nCopies(additionalGlyphs.size(), null));
         }
     }
 
+    private static List<ActualText> createEmptyActualText(int size) {
+        return new ArrayList<>(Collections.<ActualText>nCopies(size, null));
+    }
+
     public interface IGlyphLineFilter {
         boolean accept(Glyph glyph);
     }
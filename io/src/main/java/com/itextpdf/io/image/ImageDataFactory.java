@@ -392,6 +392,38 @@ public final class ImageDataFactory {
         return image;
     }
 
+    /**
+     * Create a PNG image data instance, optionally keeping the image data deflated.
+     *
+     * @param url location of the image
+     * @param keepDeflated if true, images with an alpha channel which are not interlaced are split into
+     *                     the color image and the soft mask in a single streaming pass over the rows instead of
+     *                     being decoded completely; both are kept deflated
+     * @return the created image data
+     */
+    public static ImageData createPng(URL url, boolean keepDeflated) {
+        validateImageType(url, ImageType.PNG);
+        ImageData image = new PngImageData(url);
+        PngImageHelper.processImage(image, keepDeflated);
+        return image;
+    }
+
+    /**
+     * Create a PNG image data instance, optionally keeping the image data deflated.
+     *
+     * @param bytes byte array with the image
+     * @param keepDeflated if true, images with an alpha channel which are not interlaced are split into
+     *                     the color image and the soft mask in a single streaming pass over the rows instead of
+     *                     being decoded completely; both are kept deflated
+     * @return the created image data
+     */
+    public static ImageData createPng(byte[] bytes, boolean keepDeflated) {
+        validateImageType(bytes, ImageType.PNG);
+        ImageData image = new PngImageData(bytes);
+        PngImageHelper.processImage(image, keepDeflated);
+        return image;
+    }
+
     public static ImageData createTiff(URL url, boolean recoverFromImageError, int page, boolean direct) {
         validateImageType(url, ImageType.TIFF);
         ImageData image = new TiffImageData(url, recoverFromImageError, page, direct);
@@ -50,13 +50,19 @@ import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.io.colors.IccProfile;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.DeflaterOutputStream;
 import com.itextpdf.commons.utils.MessageFormatUtil;
 
 import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 class PngImageHelper {
 
@@ -78,7 +84,12 @@ class PngImageHelper {
         byte[] imageData;
         byte[] smask;
         byte[] trans;
-        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        // IDAT chunks are kept as {offset, length} pairs in the original data, so that they aren't copied
+        // until the image data is built
+        byte[] data;
+        List<int[]> idat = new ArrayList<>();
+        int idatLength;
+        boolean keepDeflated;
         int dpiX;
         int dpiY;
         float XYRatio;
@@ -149,7 +160,6 @@ class PngImageHelper {
      */
     public static final String iCCP = "iCCP";
 
-    private static final int TRANSFERSIZE = 4096;
     private static final int PNG_FILTER_NONE = 0;
     private static final int PNG_FILTER_SUB = 1;
     private static final int PNG_FILTER_UP = 2;
@@ -160,10 +170,22 @@ class PngImageHelper {
             PngImageHelperConstants.ABSOLUTE_COLORMETRIC};
 
     public static void processImage(ImageData image) {
+        processImage(image, false);
+    }
+
+    /**
+     * Processes the PNG image.
+     *
+     * @param image the PNG image data
+     * @param keepDeflated if true, images with an alpha channel which are not interlaced are split into the color
+     *                     image and the soft mask in a single pass over the rows, both of them kept deflated,
+     *                     instead of being stored decoded
+     */
+    public static void processImage(ImageData image, boolean keepDeflated) {
         if (image.getOriginalType() != ImageType.PNG)
             throw new IllegalArgumentException("PNG image expected");
         PngParameters png;
-        InputStream pngStream = null;
+        ByteArrayInputStream pngStream = null;
         try {
             if (image.getData() == null) {
                 image.loadData();
@@ -171,6 +193,8 @@ class PngImageHelper {
             pngStream = new ByteArrayInputStream(image.getData());
             image.imageSize = image.getData().length;
             png = new PngParameters((PngImageData) image);
+            png.data = image.getData();
+            png.keepDeflated = keepDeflated;
             processPng(pngStream, png);
         } catch (java.io.IOException e) {
             throw new IOException(IOException.PngImageException, e);
@@ -185,7 +209,7 @@ class PngImageHelper {
         RawImageHelper.updateImageAttributes(png.image, png.additional);
     }
 
-    private static void processPng(InputStream pngStream, PngParameters png) throws java.io.IOException {
+    private static void processPng(ByteArrayInputStream pngStream, PngParameters png) throws java.io.IOException {
         readPng(pngStream, png);
         int colorType = png.image.getColorType();
         if (png.iccProfile != null && png.iccProfile.getNumComponents() != getExpectedNumberOfColorComponents(png)) {
@@ -215,7 +239,10 @@ class PngImageHelper {
             if (!png.palShades && !png.genBWMask && pal0 == 1) {
                 png.additional.put(PngImageHelperConstants.MASK, new int[]{palIdx,palIdx});
             }
-            boolean needDecode = (png.interlaceMethod == 1) || (png.bitDepth == 16) || ((colorType & 4) != 0) || png.palShades || png.genBWMask;
+            // alpha is split from the color in a single pass, without decoding the whole image
+            boolean splitAlpha = png.keepDeflated && (colorType & 4) != 0 && png.interlaceMethod != 1;
+            boolean needDecode = !splitAlpha && ((png.interlaceMethod == 1) || (png.bitDepth == 16)
+                    || ((colorType & 4) != 0) || png.palShades || png.genBWMask);
             switch (colorType) {
                 case 0:
                     png.inputBands = 1;
@@ -241,27 +268,25 @@ class PngImageHelper {
             int bpc = png.bitDepth;
             if (bpc == 16)
                 bpc = 8;
-            if (png.imageData != null) {
+            if (splitAlpha) {
+                splitAlphaDeflated(png, components);
+            } else if (png.imageData != null) {
                 if (png.image.isIndexed()) {
                     RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, png.imageData);
                 } else {
                     RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, png.imageData, null);
                 }
             } else {
-                RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, png.idat.toByteArray());
+                RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, getIdatBytes(png));
                 png.image.setDeflated(true);
-                Map<String, Object> decodeparms = new HashMap<>();
-                decodeparms.put(PngImageHelperConstants.BITS_PER_COMPONENT, png.bitDepth);
-                decodeparms.put(PngImageHelperConstants.PREDICTOR, 15);
-                decodeparms.put(PngImageHelperConstants.COLUMNS, png.width);
-                decodeparms.put(PngImageHelperConstants.COLORS, (png.image.isIndexed() || png.image.isGrayscaleImage()) ? 1 : 3);
-                png.image.decodeParms = decodeparms;
+                png.image.decodeParms = createPredictorDecodeParms(png.bitDepth, png.width,
+                        (png.image.isIndexed() || png.image.isGrayscaleImage()) ? 1 : 3);
             }
             if (png.intent != null)
                 png.additional.put(PngImageHelperConstants.INTENT, png.intent);
             if (png.iccProfile != null)
                 png.image.setProfile(png.iccProfile);
-            if (png.palShades) {
+            if (png.palShades && !splitAlpha) {
                 RawImageData im2 = (RawImageData) ImageDataFactory.createRawImage(null);
                 RawImageHelper.updateRawImageParameters(im2, png.width, png.height, 1, 8, png.smask);
                 im2.makeMask();
@@ -284,27 +309,28 @@ class PngImageHelper {
         return png.image.isGrayscaleImage() ? 1 : 3;
     }
 
-    private static void readPng(InputStream pngStream, PngParameters png) throws java.io.IOException {
+    private static void readPng(ByteArrayInputStream pngStream, PngParameters png) throws java.io.IOException {
         for (int i = 0; i < PNGID.length; i++) {
             if (PNGID[i] != pngStream.read()) {
                 throw new java.io.IOException("file.is.not.a.valid.png");
             }
         }
-        byte[] buffer = new byte[TRANSFERSIZE];
         while (true) {
             int len = getInt(pngStream);
             String marker = getString(pngStream);
             if (len < 0 || !checkMarker(marker))
                 throw new java.io.IOException("corrupted.png.file");
             if (IDAT.equals(marker)) {
-                int size;
-                while (len != 0) {
-                    size = pngStream.read(buffer, 0, Math.min(len, TRANSFERSIZE));
-                    if (size < 0)
-                        return;
-                    png.idat.write(buffer, 0, size);
-                    len -= size;
+                int available = pngStream.available();
+                int size = Math.min(len, available);
+                if (size > 0) {
+                    png.idat.add(new int[] {png.data.length - available, size});
+                    png.idatLength += size;
+                    StreamUtil.skip(pngStream, size);
                 }
+                if (size < len)
+                    return;
+                len = 0;
             } else if (tRNS.equals(marker)) {
                 switch (png.image.getColorType()) {
                     case 0:
@@ -475,8 +501,7 @@ class PngImageHelper {
             png.smask = new byte[png.width * png.height];
         else if (png.genBWMask)
             png.smask = new byte[(png.width + 7) / 8 * png.height];
-        ByteArrayInputStream bai = new ByteArrayInputStream(png.idat.toByteArray());
-        png.dataStream = FilterUtil.getInflaterInputStream(bai);
+        png.dataStream = FilterUtil.getInflaterInputStream(getIdatStream(png));
 
         if (png.interlaceMethod != 1) {
             decodePass(0, 0, 1, 1, png.width, png.height, png);
@@ -492,6 +517,116 @@ class PngImageHelper {
 
     }
 
+    private static byte[] getIdatBytes(PngParameters png) {
+        byte[] idatBytes = new byte[png.idatLength];
+        int pos = 0;
+        for (int[] chunk : png.idat) {
+            System.arraycopy(png.data, chunk[0], idatBytes, pos, chunk[1]);
+            pos += chunk[1];
+        }
+        return idatBytes;
+    }
+
+    private static InputStream getIdatStream(PngParameters png) {
+        List<InputStream> chunks = new ArrayList<>(png.idat.size());
+        for (int[] chunk : png.idat) {
+            chunks.add(new ByteArrayInputStream(png.data, chunk[0], chunk[1]));
+        }
+        return new SequenceInputStream(Collections.enumeration(chunks));
+    }
+
+    private static Map<String, Object> createPredictorDecodeParms(int bitsPerComponent, int columns, int colors) {
+        Map<String, Object> decodeparms = new HashMap<>();
+        decodeparms.put(PngImageHelperConstants.BITS_PER_COMPONENT, bitsPerComponent);
+        decodeparms.put(PngImageHelperConstants.PREDICTOR, 15);
+        decodeparms.put(PngImageHelperConstants.COLUMNS, columns);
+        decodeparms.put(PngImageHelperConstants.COLORS, colors);
+        return decodeparms;
+    }
+
+    /**
+     * Splits the color and the alpha samples of a non-interlaced image with an alpha channel into two deflated
+     * streams, row by row, so neither the whole decoded image nor the whole mask is ever held in memory.
+     * The split rows are not filtered again: the PNG filters picked by the encoder are tuned for interleaved
+     * samples and deflating the plain rows turns out to compress the separate planes better.
+     * 16-bit samples are reduced to 8 bits, as in the decoding mode.
+     */
+    private static void splitAlphaDeflated(PngParameters png, int colorBands) throws java.io.IOException {
+        int bytesPerSample = png.bitDepth == 16 ? 2 : 1;
+        int bytesPerRow = png.inputBands * png.width * bytesPerSample;
+        png.bytesPerPixel = png.inputBands * bytesPerSample;
+        byte[] curr = new byte[bytesPerRow];
+        byte[] prior = new byte[bytesPerRow];
+        byte[] colorRow = new byte[colorBands * png.width];
+        byte[] alphaRow = new byte[png.width];
+
+        ByteArrayOutputStream color = new ByteArrayOutputStream();
+        ByteArrayOutputStream alpha = new ByteArrayOutputStream();
+        DeflaterOutputStream colorStream = new DeflaterOutputStream(color, Deflater.DEFAULT_COMPRESSION);
+        DeflaterOutputStream alphaStream = new DeflaterOutputStream(alpha, Deflater.DEFAULT_COMPRESSION);
+        InputStream dataStream = FilterUtil.getInflaterInputStream(getIdatStream(png));
+        try {
+            for (int y = 0; y < png.height; y++) {
+                int filter = 0;
+                try {
+                    filter = dataStream.read();
+                    StreamUtil.readFully(dataStream, curr, 0, bytesPerRow);
+                } catch (Exception e) {
+                    // empty on purpose, the same as in the decoding mode
+                }
+                unfilterRow(filter, curr, prior, bytesPerRow, png.bytesPerPixel);
+
+                for (int x = 0, src = 0, dst = 0; x < png.width; x++) {
+                    for (int k = 0; k < colorBands; k++, src += bytesPerSample) {
+                        colorRow[dst++] = curr[src];
+                    }
+                    alphaRow[x] = curr[src];
+                    src += bytesPerSample;
+                }
+                colorStream.write(colorRow);
+                alphaStream.write(alphaRow);
+
+                byte[] tmp = prior;
+                prior = curr;
+                curr = tmp;
+            }
+        } finally {
+            colorStream.close();
+            alphaStream.close();
+            dataStream.close();
+        }
+
+        RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, colorBands, 8, color.toByteArray());
+        png.image.setDeflated(true);
+
+        RawImageData im2 = (RawImageData) ImageDataFactory.createRawImage(null);
+        RawImageHelper.updateRawImageParameters(im2, png.width, png.height, 1, 8, alpha.toByteArray());
+        im2.setDeflated(true);
+        im2.makeMask();
+        png.image.setImageMask(im2);
+    }
+
+    private static void unfilterRow(int filter, byte[] curr, byte[] prior, int count, int bpp) {
+        switch (filter) {
+            case PNG_FILTER_NONE:
+                break;
+            case PNG_FILTER_SUB:
+                decodeSubFilter(curr, count, bpp);
+                break;
+            case PNG_FILTER_UP:
+                decodeUpFilter(curr, prior, count);
+                break;
+            case PNG_FILTER_AVERAGE:
+                decodeAverageFilter(curr, prior, count, bpp);
+                break;
+            case PNG_FILTER_PAETH:
+                decodePaethFilter(curr, prior, count, bpp);
+                break;
+            default:
+                throw new IOException(IOException.UnknownPngFilter);
+        }
+    }
+
     private static void decodePass(int xOffset, int yOffset, int xStep, int yStep,
                                    int passWidth, int passHeight, PngParameters png) {
         if ((passWidth == 0) || (passHeight == 0)) {
@@ -516,25 +651,7 @@ class PngImageHelper {
                 // empty on purpose
             }
 
-            switch (filter) {
-                case PNG_FILTER_NONE:
-                    break;
-                case PNG_FILTER_SUB:
-                    decodeSubFilter(curr, bytesPerRow, png.bytesPerPixel);
-                    break;
-                case PNG_FILTER_UP:
-                    decodeUpFilter(curr, prior, bytesPerRow);
-                    break;
-                case PNG_FILTER_AVERAGE:
-                    decodeAverageFilter(curr, prior, bytesPerRow, png.bytesPerPixel);
-                    break;
-                case PNG_FILTER_PAETH:
-                    decodePaethFilter(curr, prior, bytesPerRow, png.bytesPerPixel);
-                    break;
-                default:
-                    // Error -- uknown filter type
-                    throw new IOException(IOException.UnknownPngFilter);
-            }
+            unfilterRow(filter, curr, prior, bytesPerRow, png.bytesPerPixel);
 
             processPixels(curr, xOffset, xStep, dstY, passWidth, png);
 
@@ -46,11 +46,13 @@ package com.itextpdf.io.source;
 import com.itextpdf.io.exceptions.IOException;
 import com.itextpdf.io.util.ResourceUtil;
 import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.commons.utils.FileUtil;
 import com.itextpdf.commons.utils.MessageFormatUtil;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.net.URL;
 import java.nio.channels.FileChannel;
@@ -65,6 +67,21 @@ public final class RandomAccessSourceFactory {
      */
     private static boolean forceReadDefaultValue = false;
 
+    /**
+     * The default value for the spillToDiskThreshold property
+     */
+    private static long spillToDiskThresholdDefaultValue = -1;
+
+    /**
+     * The prefix of the temporary files the streams are spilled to
+     */
+    private static final String SPILL_FILE_PREFIX = "itext-source";
+
+    /**
+     * The size of the chunks in which the streams are read
+     */
+    private static final int READ_CHUNK_SIZE = 8192;
+
     /**
      * Whether the full content of the source should be read into memory at construction
      */
@@ -80,6 +97,12 @@ public final class RandomAccessSourceFactory {
      */
     private boolean exclusivelyLockFile = false;
 
+    /**
+     * The maximum number of bytes of an {@link InputStream} which are kept in memory. Larger streams are
+     * written to a temporary file. A negative value means that streams are always read into memory
+     */
+    private long spillToDiskThreshold = spillToDiskThresholdDefaultValue;
+
     /**
      * Creates a factory that will give preference to accessing the underling data source using memory mapped files
      */
@@ -94,6 +117,29 @@ public final class RandomAccessSourceFactory {
         forceReadDefaultValue = forceRead;
     }
 
+    /**
+     * Determines the default value for the spillToDiskThreshold property
+     * @param spillToDiskThreshold the maximum number of bytes of an {@link InputStream} to be kept in memory,
+     *                             a negative value means that streams are always read into memory
+     */
+    public static void setSpillToDiskThresholdDefaultValue(long spillToDiskThreshold) {
+        spillToDiskThresholdDefaultValue = spillToDiskThreshold;
+    }
+
+    /**
+     * Determines the maximum number of bytes of an {@link InputStream} which are read into memory. The content
+     * of larger streams is written to a temporary file which is then accessed in the same way as in
+     * {@link RandomAccessSourceFactory#createBestSource(String)}. The temporary file is deleted when
+     * the created source is closed.
+     * @param spillToDiskThreshold the maximum number of bytes of an {@link InputStream} to be kept in memory,
+     *                             a negative value means that streams are always read into memory
+     * @return this object (this allows chaining of method calls)
+     */
+    public RandomAccessSourceFactory setSpillToDiskThreshold(long spillToDiskThreshold) {
+        this.spillToDiskThreshold = spillToDiskThreshold;
+        return this;
+    }
+
     /**
      * Determines whether the full content of the source will be read into memory
      * @param forceRead true if the full content will be read, false otherwise
@@ -156,8 +202,7 @@ public final class RandomAccessSourceFactory {
      *
      * <p>
      * If the InputStream is an instance of {@link RASInputStream} then extracts the source from it.
-     * Otherwise The full content of the InputStream is read into memory and used
-     * as the source for the {@link IRandomAccessSource}
+     * Otherwise the source is created as in {@link RandomAccessSourceFactory#createSource(InputStream)}
      *
      * @param inputStream the stream to read from
      *
@@ -169,7 +214,7 @@ public final class RandomAccessSourceFactory {
         if (inputStream instanceof RASInputStream) {
             return ((RASInputStream) inputStream).getSource();
         }
-        return createSource(StreamUtil.inputStreamToArray(inputStream));
+        return createSource(inputStream);
     }
 
     /**
@@ -177,7 +222,8 @@ public final class RandomAccessSourceFactory {
      *
      * <p>
      * The full content of the InputStream is read into memory and used
-     * as the source for the {@link IRandomAccessSource}
+     * as the source for the {@link IRandomAccessSource}. If the spillToDiskThreshold is set and the stream
+     * is longer than it, the content is written to a temporary file instead.
      *
      * @param inputStream the stream to read from
      *
@@ -186,7 +232,19 @@ public final class RandomAccessSourceFactory {
      * @throws java.io.IOException in case of any I/O error.
      */
     public IRandomAccessSource createSource(InputStream inputStream) throws java.io.IOException{
-        return createSource(StreamUtil.inputStreamToArray(inputStream));
+        if (spillToDiskThreshold < 0) {
+            return createSource(StreamUtil.inputStreamToArray(inputStream));
+        }
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        byte[] chunk = new byte[READ_CHUNK_SIZE];
+        int read;
+        while ((read = inputStream.read(chunk)) != -1) {
+            head.write(chunk, 0, read);
+            if (head.size() > spillToDiskThreshold) {
+                return createBySpillingToDisk(head, inputStream);
+            }
+        }
+        return createSource(head.toByteArray());
     }
 
     /**
@@ -316,6 +374,54 @@ public final class RandomAccessSourceFactory {
         }
     }
 
+    /**
+     * Creates a new {@link IRandomAccessSource} by writing the already read content and the rest of the stream
+     * into a temporary file, which is deleted when the source is closed
+     * @param head the already read content of the stream
+     * @param stream the stream to read the rest of the content from
+     * @return the newly created {@link IRandomAccessSource}
+     * @throws java.io.IOException if reading the stream or writing the temporary file fails
+     */
+    private IRandomAccessSource createBySpillingToDisk(ByteArrayOutputStream head, InputStream stream)
+            throws java.io.IOException {
+        File tempFile = FileUtil.createTempFile(SPILL_FILE_PREFIX, null);
+        try {
+            OutputStream output = FileUtil.getFileOutputStream(tempFile);
+            try {
+                head.writeTo(output);
+                head.reset();
+                StreamUtil.transferBytes(stream, output);
+            } finally {
+                output.close();
+            }
+            RandomAccessFile raf = new RandomAccessFile(tempFile, "r");
+            IRandomAccessSource source;
+            try {
+                if (usePlainRandomAccess) {
+                    source = new RAFRandomAccessSource(raf);
+                } else {
+                    try {
+                        source = createBestSource(raf.getChannel());
+                    } catch (java.io.IOException e) {
+                        if (!exceptionIsMapFailureException(e)) {
+                            throw e;
+                        }
+                        source = new RAFRandomAccessSource(raf);
+                    }
+                }
+            } catch (Exception e) {
+                try {
+                    raf.close();
+                } catch (java.io.IOException ignore) { }
+                throw e;
+            }
+            return new TempFileRandomAccessSource(source, tempFile);
+        } catch (Exception e) {
+            FileUtil.deleteFile(tempFile);
+            throw e;
+        }
+    }
+
     /**
      * Utility method that determines whether a given java.io.IOException is the result
      * of a failure to map a memory mapped file.  It would be better if the runtime
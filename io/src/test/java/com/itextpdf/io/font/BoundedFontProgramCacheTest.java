@@ -0,0 +1,228 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.font.BoundedFontProgramCache.EvictionPolicy;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class BoundedFontProgramCacheTest extends ExtendedITextTest {
+
+    @Test
+    public void hitAndMissStatisticsTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache();
+        FontCacheKey key = FontCacheKey.create("font");
+        FontProgram font = createFont();
+
+        Assert.assertNull(cache.get(key));
+        Assert.assertSame(font, cache.put(key, font, 100));
+        Assert.assertSame(font, cache.get(key));
+        Assert.assertSame(font, cache.put(key, createFont(), 100));
+        cache.recordLoad(50);
+        cache.recordLoad(150);
+
+        FontCacheStatistics statistics = cache.getStatistics();
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(1, statistics.getMissCount());
+        Assert.assertEquals(0.5, statistics.getHitRate(), 1e-9);
+        Assert.assertEquals(2, statistics.getLoadCount());
+        Assert.assertEquals(200, statistics.getTotalLoadTimeNanos());
+        Assert.assertEquals(100, statistics.getAverageLoadTimeNanos(), 1e-9);
+        Assert.assertEquals(1, statistics.getSize());
+        Assert.assertEquals(100, statistics.getWeight());
+        Assert.assertEquals(0, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedEvictionTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(300, EvictionPolicy.LEAST_RECENTLY_USED);
+        FontCacheKey first = FontCacheKey.create("first");
+        FontCacheKey second = FontCacheKey.create("second");
+        FontCacheKey third = FontCacheKey.create("third");
+        cache.put(first, createFont(), 100);
+        cache.put(second, createFont(), 100);
+        cache.get(first);
+        cache.put(third, createFont(), 150);
+
+        Assert.assertNotNull(cache.get(first));
+        Assert.assertNull(cache.get(second));
+        Assert.assertNotNull(cache.get(third));
+        Assert.assertEquals(1, cache.getStatistics().getEvictionCount());
+        Assert.assertEquals(250, cache.getStatistics().getWeight());
+    }
+
+    @Test
+    public void leastFrequentlyUsedEvictionTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(300, EvictionPolicy.LEAST_FREQUENTLY_USED);
+        FontCacheKey first = FontCacheKey.create("first");
+        FontCacheKey second = FontCacheKey.create("second");
+        FontCacheKey third = FontCacheKey.create("third");
+        cache.put(first, createFont(), 100);
+        cache.put(second, createFont(), 100);
+        cache.get(first);
+        cache.get(first);
+        cache.get(second);
+        cache.put(third, createFont(), 150);
+
+        Assert.assertNotNull(cache.get(first));
+        Assert.assertNull(cache.get(second));
+        Assert.assertNotNull(cache.get(third));
+    }
+
+    @Test
+    public void fontHeavierThanLimitIsNotCachedTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(100, EvictionPolicy.LEAST_RECENTLY_USED);
+        FontCacheKey small = FontCacheKey.create("small");
+        FontCacheKey big = FontCacheKey.create("big");
+        cache.put(small, createFont(), 50);
+        FontProgram font = createFont();
+
+        Assert.assertSame(font, cache.put(big, font, 101));
+        Assert.assertNull(cache.get(big));
+        Assert.assertNotNull(cache.get(small));
+        Assert.assertEquals(0, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void clearKeepsStatisticsTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache();
+        FontCacheKey key = FontCacheKey.create("font");
+        cache.put(key, createFont(), 100);
+        cache.get(key);
+        cache.clear();
+
+        Assert.assertNull(cache.get(key));
+        FontCacheStatistics statistics = cache.getStatistics();
+        Assert.assertEquals(0, statistics.getSize());
+        Assert.assertEquals(0, statistics.getWeight());
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(1, statistics.getMissCount());
+    }
+
+    @Test
+    public void defaultCacheIsNotLimitedTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache();
+        Assert.assertEquals(BoundedFontProgramCache.UNBOUNDED, cache.getMaxWeight());
+        for (int i = 0; i < 10; i++) {
+            cache.put(FontCacheKey.create("font" + i), createFont(), Long.MAX_VALUE / 8);
+        }
+
+        FontCacheStatistics statistics = cache.getStatistics();
+        Assert.assertEquals(10, statistics.getSize());
+        Assert.assertEquals(0, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void concurrentAccessKeepsWeightConsistentTest() throws Exception {
+        final BoundedFontProgramCache cache = new BoundedFontProgramCache(1000, EvictionPolicy.LEAST_RECENTLY_USED);
+        final FontProgram font = createFont();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final int seed = thread;
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        for (int i = 0; i < 2000; i++) {
+                            FontCacheKey key = FontCacheKey.create("font" + (i * 7 + seed) % 40);
+                            if (cache.get(key) == null) {
+                                cache.put(key, font, 100);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        FontCacheStatistics statistics = cache.getStatistics();
+        Assert.assertTrue(statistics.getWeight() <= 1000);
+        Assert.assertEquals(statistics.getSize() * 100, statistics.getWeight());
+        Assert.assertEquals(16000, statistics.getHitCount() + statistics.getMissCount());
+        Assert.assertTrue(statistics.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void fontCacheUsesCustomCacheTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(Long.MAX_VALUE, EvictionPolicy.LEAST_RECENTLY_USED);
+        FontCache.setFontProgramCache(cache);
+        try {
+            FontProgram font = FontProgramFactory.createFont(StandardFonts.COURIER);
+            Assert.assertSame(font, FontProgramFactory.createFont(StandardFonts.COURIER));
+
+            FontCacheStatistics statistics = FontCache.getStatistics();
+            Assert.assertSame(cache, FontCache.getFontProgramCache());
+            Assert.assertEquals(1, statistics.getHitCount());
+            Assert.assertEquals(1, statistics.getMissCount());
+            Assert.assertEquals(1, statistics.getLoadCount());
+            Assert.assertEquals(1, statistics.getSize());
+            Assert.assertTrue(statistics.getWeight() > 0);
+        } finally {
+            FontCache.setFontProgramCache(null);
+        }
+        Assert.assertNotSame(cache, FontCache.getFontProgramCache());
+    }
+
+    private static FontProgram createFont() throws IOException {
+        return FontProgramFactory.createFont(StandardFonts.HELVETICA, false);
+    }
+}
@@ -64,4 +64,23 @@ public class ActualTextIteratorTest extends ExtendedITextTest {
         Assert.assertNull(part.actualText);
     }
 
+    @Test
+    public void testActualTextDifferentFromGlyphsUnicode() {
+        Glyph glyph = new Glyph(200, 200, 'f');
+        Glyph supplementaryGlyph = new Glyph(201, 200, 0x1F600);
+        GlyphLine glyphLine = new GlyphLine(Arrays.asList(glyph, supplementaryGlyph));
+
+        glyphLine.setActualText(0, 2, "f\uD83D\uDE00");
+        Assert.assertNull(new ActualTextIterator(glyphLine).next().actualText);
+
+        glyphLine.setActualText(0, 2, "f\uD83D");
+        Assert.assertEquals("f\uD83D", new ActualTextIterator(glyphLine).next().actualText);
+
+        glyphLine.setActualText(0, 2, "f\uD83D\uDE00!");
+        Assert.assertEquals("f\uD83D\uDE00!", new ActualTextIterator(glyphLine).next().actualText);
+
+        glyphLine.setActualText(0, 2, "ff");
+        Assert.assertEquals("ff", new ActualTextIterator(glyphLine).next().actualText);
+    }
+
 }
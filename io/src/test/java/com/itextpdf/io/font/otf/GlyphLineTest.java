@@ -249,5 +249,42 @@ public class GlyphLineTest extends ExtendedITextTest {
 
         Assert.assertNull(line.actualText);
     }
-}
 
+    @Test
+    public void filterWithoutFilteredGlyphsReturnsSameLineTest() throws IOException {
+        byte[] ttf = StreamUtil.inputStreamToArray(new FileInputStream("./src/test/resources/com/itextpdf/io/font/otf/FreeSans.ttf"));
+        TrueTypeFont font = new TrueTypeFont(ttf);
+
+        GlyphLine line = new GlyphLine(constructGlyphListFromString("Viva France!", font));
+        Assert.assertSame(line, line.filter(new GlyphLine.IGlyphLineFilter() {
+            @Override
+            public boolean accept(Glyph glyph) {
+                return true;
+            }
+        }));
+    }
+
+    @Test
+    public void filterWithActualTextTest() throws IOException {
+        byte[] ttf = StreamUtil.inputStreamToArray(new FileInputStream("./src/test/resources/com/itextpdf/io/font/otf/FreeSans.ttf"));
+        TrueTypeFont font = new TrueTypeFont(ttf);
+
+        GlyphLine line = new GlyphLine(constructGlyphListFromString("Viva France!", font));
+        line.setActualText(5, 11, "FRANCE");
+        line.start = 1;
+        GlyphLine filtered = line.filter(new GlyphLine.IGlyphLineFilter() {
+            @Override
+            public boolean accept(Glyph glyph) {
+                return glyph.getUnicode() != 'a';
+            }
+        });
+
+        Assert.assertEquals(0, filtered.start);
+        Assert.assertEquals(9, filtered.end);
+        Assert.assertEquals("iv FRANCE!", filtered.toString());
+        Assert.assertEquals(9, filtered.actualText.size());
+        Assert.assertNull(filtered.actualText.get(2));
+        Assert.assertEquals("FRANCE", filtered.actualText.get(3).value);
+        Assert.assertNull(filtered.actualText.get(8));
+    }
+}
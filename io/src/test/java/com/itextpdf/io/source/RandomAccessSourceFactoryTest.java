@@ -46,6 +46,7 @@ import com.itextpdf.io.exceptions.IoExceptionMessage;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -101,4 +102,51 @@ public class RandomAccessSourceFactoryTest extends ExtendedITextTest {
             Assert.assertEquals(extractedRandomAccessSource, rasInputStream.getSource());
         }
     }
+
+    @Test
+    public void streamBelowSpillToDiskThresholdIsReadToMemoryTest() throws IOException {
+        try (InputStream pdfStream = new FileInputStream(SOURCE_FILE)) {
+            IRandomAccessSource randomAccessSource = new RandomAccessSourceFactory()
+                    .setSpillToDiskThreshold(1024)
+                    .extractOrCreateSource(pdfStream);
+
+            Assert.assertTrue(randomAccessSource instanceof ArrayRandomAccessSource);
+            Assert.assertEquals(72, randomAccessSource.get(0));
+            randomAccessSource.close();
+        }
+    }
+
+    @Test
+    public void streamAboveSpillToDiskThresholdIsSpilledTest() throws IOException {
+        byte[] content = new byte[20000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        IRandomAccessSource randomAccessSource = new RandomAccessSourceFactory()
+                .setSpillToDiskThreshold(100)
+                .createSource(new ByteArrayInputStream(content));
+
+        Assert.assertTrue(randomAccessSource instanceof TempFileRandomAccessSource);
+        Assert.assertEquals(content.length, randomAccessSource.length());
+        Assert.assertEquals(0xff & content[12345], randomAccessSource.get(12345));
+        byte[] read = new byte[content.length];
+        Assert.assertEquals(content.length, randomAccessSource.get(0, read, 0, read.length));
+        Assert.assertArrayEquals(content, read);
+        randomAccessSource.close();
+    }
+
+    @Test
+    public void streamSpilledToDiskWithPlainRandomAccessTest() throws IOException {
+        try (InputStream pdfStream = new FileInputStream(SOURCE_FILE)) {
+            IRandomAccessSource randomAccessSource = new RandomAccessSourceFactory()
+                    .setSpillToDiskThreshold(0)
+                    .setUsePlainRandomAccess(true)
+                    .extractOrCreateSource(pdfStream);
+
+            Assert.assertTrue(randomAccessSource instanceof TempFileRandomAccessSource);
+            Assert.assertEquals(72, randomAccessSource.get(0));
+            randomAccessSource.close();
+        }
+    }
 }
@@ -335,6 +335,7 @@ public final class KernelExceptionMessageConstant {
             + "TagTreePointer is in invalid state: it points at flushed element. Use TagTreePointer#moveToRoot.";
     public static final String TAG_TREE_POINTER_IS_IN_INVALID_STATE_IT_POINTS_AT_REMOVED_ELEMENT_USE_MOVE_TO_ROOT = ""
             + "TagTreePointer is in invalid state: it points at removed element use TagTreePointer#moveToRoot.";
+    public static final String TEXT_EXTRACTION_WAS_INTERRUPTED = "Text extraction was interrupted.";
     public static final String THERE_IS_NO_ASSOCIATE_PDF_WRITER_FOR_MAKING_INDIRECTS = "There is no associate "
             + "PdfWriter for making indirects.";
     public static final String THIS_DECODE_PARAMETER_TYPE_IS_NOT_SUPPORTED = "Decode parameter type {0} is not "
@@ -0,0 +1,168 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.font;
+
+import com.itextpdf.io.font.FontProgram;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide cache of embedded font subsets.
+ *
+ * <p>
+ * Subsetting a font is performed every time a document containing the font is closed, even if the same font
+ * program with exactly the same set of glyphs has already been subset for another document. When enabled,
+ * this cache stores resultant subset bytes per {@link FontProgram} instance and the set of used glyphs, so
+ * that documents produced by a batch job reuse the subsets instead of building them from scratch.
+ *
+ * <p>
+ * The cache is disabled by default. Font programs are compared by identity, so only the font programs
+ * shared between documents (e.g. created via {@link com.itextpdf.io.font.FontProgramFactory} with caching)
+ * benefit from it. Font programs are referenced weakly, so their subsets are evicted together with them.
+ */
+public final class FontSubsetCache {
+
+    private static final int MAX_SUBSETS_PER_FONT = 64;
+
+    private static final Map<FontProgram, Map<SubsetKey, byte[]>> subsets = new WeakHashMap<>();
+
+    private static volatile boolean enabled = false;
+
+    private FontSubsetCache() {
+    }
+
+    /**
+     * Enables caching of font subsets.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Disables caching of font subsets and clears the cache.
+     */
+    public static void disable() {
+        enabled = false;
+        clear();
+    }
+
+    /**
+     * Checks whether caching of font subsets is enabled.
+     *
+     * @return {@code true} if the font subsets are cached, {@code false} otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Removes all the cached font subsets.
+     */
+    public static void clear() {
+        synchronized (subsets) {
+            subsets.clear();
+        }
+    }
+
+    static byte[] get(FontProgram fontProgram, BitSet glyphs, boolean subset) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (subsets) {
+            Map<SubsetKey, byte[]> fontSubsets = subsets.get(fontProgram);
+            return fontSubsets != null ? fontSubsets.get(new SubsetKey(glyphs, subset)) : null;
+        }
+    }
+
+    static void put(FontProgram fontProgram, BitSet glyphs, boolean subset, byte[] subsetBytes) {
+        if (!enabled || subsetBytes == null) {
+            return;
+        }
+        synchronized (subsets) {
+            Map<SubsetKey, byte[]> fontSubsets = subsets.get(fontProgram);
+            if (fontSubsets == null) {
+                fontSubsets = new LinkedHashMap<SubsetKey, byte[]>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<SubsetKey, byte[]> eldest) {
+                        return size() > MAX_SUBSETS_PER_FONT;
+                    }
+                };
+                subsets.put(fontProgram, fontSubsets);
+            }
+            fontSubsets.put(new SubsetKey((BitSet) glyphs.clone(), subset), subsetBytes);
+        }
+    }
+
+    private static final class SubsetKey {
+        private final BitSet glyphs;
+        private final boolean subset;
+        private final int hash;
+
+        SubsetKey(BitSet glyphs, boolean subset) {
+            this.glyphs = glyphs;
+            this.subset = subset;
+            this.hash = 31 * glyphs.hashCode() + (subset ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SubsetKey that = (SubsetKey) o;
+            return subset == that.subset && glyphs.equals(that.glyphs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -60,9 +60,9 @@ import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfString;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public abstract class PdfFont extends PdfObjectWrapper<PdfDictionary> {
@@ -77,7 +77,7 @@ public abstract class PdfFont extends PdfObjectWrapper<PdfDictionary> {
 
     protected static final byte[] EMPTY_BYTES = new byte[0];
 
-    protected Map<Integer, Glyph> notdefGlyphs = new HashMap<>();
+    protected Map<Integer, Glyph> notdefGlyphs = new ConcurrentHashMap<>();
 
     /**
      * false, if the font comes from PdfDocument.
@@ -57,6 +57,7 @@ import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfStream;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import org.slf4j.Logger;
@@ -204,7 +205,15 @@ public class PdfTrueTypeFont extends PdfSimpleFont<TrueTypeFont> {
                     byte[] fontStreamBytes;
                     //getDirectoryOffset() > 0 means ttc, which shall be subset anyway.
                     if (subset || ((TrueTypeFont) getFontProgram()).getDirectoryOffset() > 0) {
-                        fontStreamBytes = ((TrueTypeFont) getFontProgram()).getSubset(glyphs, subset);
+                        BitSet glyphCodes = new BitSet();
+                        for (int code : glyphs) {
+                            glyphCodes.set(code);
+                        }
+                        fontStreamBytes = FontSubsetCache.get(getFontProgram(), glyphCodes, subset);
+                        if (fontStreamBytes == null) {
+                            fontStreamBytes = ((TrueTypeFont) getFontProgram()).getSubset(glyphs, subset);
+                            FontSubsetCache.put(getFontProgram(), glyphCodes, subset, fontStreamBytes);
+                        }
                     } else {
                         fontStreamBytes = ((TrueTypeFont) getFontProgram()).getFontStreamBytes();
                     }
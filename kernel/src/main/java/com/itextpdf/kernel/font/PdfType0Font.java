@@ -76,8 +76,13 @@ import com.itextpdf.kernel.pdf.PdfString;
 import com.itextpdf.kernel.pdf.PdfVersion;
 
 import java.io.IOException;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -108,10 +113,22 @@ public class PdfType0Font extends PdfFont {
 
     protected boolean vertical;
     protected CMapEncoding cmapEncoding;
+    /**
+     * Codes of the glyphs used in the document.
+     *
+     * @deprecated the used glyphs are tracked in a bit set now, this field is a view of it which is kept for
+     * compatibility. If it is replaced with another set, its content is merged into the used glyphs when
+     * the font is flushed.
+     */
+    @Deprecated
     protected Set<Integer> usedGlyphs;
     protected int cidFontType;
     protected char[] specificUnicodeDifferences;
 
+    // Stored as a bit set in order to avoid boxing on every written glyph
+    private final BitSet usedGlyphCodes = new BitSet();
+    private final Set<Integer> usedGlyphsView = new UsedGlyphsSet(usedGlyphCodes);
+
     PdfType0Font(TrueTypeFont ttf, String cmap) {
         super();
         if (!PdfEncodings.IDENTITY_H.equals(cmap) && !PdfEncodings.IDENTITY_V.equals(cmap)) {
@@ -126,7 +143,7 @@ public class PdfType0Font extends PdfFont {
         this.embedded = true;
         vertical = cmap.endsWith("V");
         cmapEncoding = new CMapEncoding(cmap);
-        usedGlyphs = new TreeSet<>();
+        usedGlyphs = usedGlyphsView;
         cidFontType = CID_FONT_TYPE_2;
         if (ttf.isFontSpecific()) {
             specificUnicodeDifferences = new char[256];
@@ -154,7 +171,7 @@ public class PdfType0Font extends PdfFont {
         vertical = cmap.endsWith("V");
         String uniMap = getCompatibleUniMap(fontProgram.getRegistry());
         cmapEncoding = new CMapEncoding(cmap, uniMap);
-        usedGlyphs = new TreeSet<>();
+        usedGlyphs = usedGlyphsView;
         cidFontType = CID_FONT_TYPE_0;
     }
 
@@ -220,7 +237,7 @@ public class PdfType0Font extends PdfFont {
         } else {
             LoggerFactory.getLogger(getClass()).error(IoLogMessageConstant.FAILED_TO_DETERMINE_CID_FONT_SUBTYPE);
         }
-        usedGlyphs = new TreeSet<>();
+        usedGlyphs = usedGlyphsView;
         subset = false;
     }
 
@@ -370,7 +387,7 @@ public class PdfType0Font extends PdfFont {
             byte[] bytes = new byte[totalByteCount];
             int offset = 0;
             for (int i = glyphLine.start; i < glyphLine.end; i++) {
-                usedGlyphs.add(glyphLine.get(i).getCode());
+                markGlyphAsUsed(glyphLine.get(i).getCode());
                 offset = cmapEncoding.fillCmapBytes(glyphLine.get(i).getCode(), bytes, offset);
             }
             return bytes;
@@ -381,7 +398,7 @@ public class PdfType0Font extends PdfFont {
 
     @Override
     public byte[] convertToBytes(Glyph glyph) {
-        usedGlyphs.add(glyph.getCode());
+        markGlyphAsUsed(glyph.getCode());
         return cmapEncoding.getCmapBytes(glyph.getCode());
     }
 
@@ -700,10 +717,28 @@ public class PdfType0Font extends PdfFont {
 
     private void convertToBytes(Glyph glyph, ByteBuffer result) {
         int code = glyph.getCode();
-        usedGlyphs.add(code);
+        markGlyphAsUsed(code);
         cmapEncoding.fillCmapBytes(code, result);
     }
 
+    private void markGlyphAsUsed(int code) {
+        if (code >= 0) {
+            usedGlyphCodes.set(code);
+        }
+    }
+
+    private BitSet getUsedGlyphCodes() {
+        if (usedGlyphs != usedGlyphsView && usedGlyphs != null) {
+            // the deprecated field was replaced by a subclass
+            for (Integer code : usedGlyphs) {
+                if (code != null) {
+                    markGlyphAsUsed((int) code);
+                }
+            }
+        }
+        return usedGlyphCodes;
+    }
+
     private static String getOrdering(PdfDictionary cidFont) {
         PdfDictionary cidinfo = cidFont.getAsDictionary(PdfName.CIDSystemInfo);
         if (cidinfo == null)
@@ -712,6 +747,7 @@ public class PdfType0Font extends PdfFont {
     }
 
     private void flushFontData() {
+        getUsedGlyphCodes();
         if (cidFontType == CID_FONT_TYPE_0) {
             getPdfObject().put(PdfName.Type, PdfName.Font);
             getPdfObject().put(PdfName.Subtype, PdfName.Type0);
@@ -734,13 +770,24 @@ public class PdfType0Font extends PdfFont {
             PdfDictionary fontDescriptor = getFontDescriptor(fontName);
 
             PdfStream fontStream;
-            ttf.updateUsedGlyphs((SortedSet<Integer>) usedGlyphs, subset, subsetRanges);
+            SortedSet<Integer> glyphs = new TreeSet<>();
+            for (int code = usedGlyphCodes.nextSetBit(0); code >= 0; code = usedGlyphCodes.nextSetBit(code + 1)) {
+                glyphs.add(code);
+            }
+            ttf.updateUsedGlyphs(glyphs, subset, subsetRanges);
+            for (int code : glyphs) {
+                usedGlyphCodes.set(code);
+            }
             if (ttf.isCff()) {
                 byte[] cffBytes;
                 if (subset) {
-                    byte[] bytes = ttf.getFontStreamBytes();
-                    Set<Integer> usedGids = ttf.mapGlyphsCidsToGids(usedGlyphs);
-                    cffBytes = new CFFFontSubset(bytes, usedGids).Process();
+                    cffBytes = FontSubsetCache.get(ttf, usedGlyphCodes, true);
+                    if (cffBytes == null) {
+                        byte[] bytes = ttf.getFontStreamBytes();
+                        Set<Integer> usedGids = ttf.mapGlyphsCidsToGids(glyphs);
+                        cffBytes = new CFFFontSubset(bytes, usedGids).Process();
+                        FontSubsetCache.put(ttf, usedGlyphCodes, true, cffBytes);
+                    }
                 } else {
                     cffBytes = ttf.getFontStreamBytes();
                 }
@@ -754,12 +801,16 @@ public class PdfType0Font extends PdfFont {
                 byte[] ttfBytes = null;
                 //getDirectoryOffset() > 0 means ttc, which shall be subsetted anyway.
                 if (subset || ttf.getDirectoryOffset() > 0) {
-                    try {
-                        ttfBytes = ttf.getSubset(usedGlyphs, subset);
-                    } catch (com.itextpdf.io.exceptions.IOException e) {
-                        Logger logger = LoggerFactory.getLogger(PdfType0Font.class);
-                        logger.warn(IoLogMessageConstant.FONT_SUBSET_ISSUE);
-                        ttfBytes = null;
+                    ttfBytes = FontSubsetCache.get(ttf, usedGlyphCodes, subset);
+                    if (ttfBytes == null) {
+                        try {
+                            ttfBytes = ttf.getSubset(glyphs, subset);
+                            FontSubsetCache.put(ttf, usedGlyphCodes, subset, ttfBytes);
+                        } catch (com.itextpdf.io.exceptions.IOException e) {
+                            Logger logger = LoggerFactory.getLogger(PdfType0Font.class);
+                            logger.warn(IoLogMessageConstant.FONT_SUBSET_ISSUE);
+                            ttfBytes = null;
+                        }
                     }
                 }
                 if (ttfBytes == null) {
@@ -857,7 +908,7 @@ public class PdfType0Font extends PdfFont {
         stream.writeByte('[');
         int lastNumber = -10;
         boolean firstTime = true;
-        for (int code : usedGlyphs) {
+        for (int code = usedGlyphCodes.nextSetBit(0); code >= 0; code = usedGlyphCodes.nextSetBit(code + 1)) {
             Glyph glyph = fontProgram.getGlyphByCode(code);
             if (glyph.getWidth() == FontProgram.DEFAULT_WIDTH) {
                 continue;
@@ -888,6 +939,7 @@ public class PdfType0Font extends PdfFont {
      * @return the stream representing this CMap or <CODE>null</CODE>
      */
     public PdfStream getToUnicode() {
+        getUsedGlyphCodes();
         OutputStream<ByteArrayOutputStream> stream = new OutputStream<>(new ByteArrayOutputStream());
         stream.writeString("/CIDInit /ProcSet findresource begin\n" +
                 "12 dict begin\n" +
@@ -907,8 +959,8 @@ public class PdfType0Font extends PdfFont {
         ArrayList<Glyph> glyphGroup = new ArrayList<>(100);
 
         int bfranges = 0;
-        for (Integer glyphId : usedGlyphs) {
-            Glyph glyph = fontProgram.getGlyphByCode((int) glyphId);
+        for (int glyphId = usedGlyphCodes.nextSetBit(0); glyphId >= 0; glyphId = usedGlyphCodes.nextSetBit(glyphId + 1)) {
+            Glyph glyph = fontProgram.getGlyphByCode(glyphId);
             if (glyph.getChars() != null) {
                 glyphGroup.add(glyph);
                 if (glyphGroup.size() == 100) {
@@ -986,4 +1038,119 @@ public class PdfType0Font extends PdfFont {
                 ? PdfEncodings.IDENTITY_H
                 : encoding;
     }
-}
\ No newline at end of file
+
+    /**
+     * A view of the used glyph codes as a set, which backs the deprecated {@link #usedGlyphs} field.
+     * The sets returned by {@link #headSet(Integer)}, {@link #tailSet(Integer)} and
+     * {@link #subSet(Integer, Integer)} are copies, they are not backed by the view.
+     */
+    private static final class UsedGlyphsSet extends AbstractSet<Integer> implements SortedSet<Integer> {
+        private final BitSet codes;
+
+        UsedGlyphsSet(BitSet codes) {
+            this.codes = codes;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int next = codes.nextSetBit(0);
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = codes.nextSetBit(next + 1);
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    codes.clear(last);
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return codes.cardinality();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer && (Integer) o >= 0 && codes.get((Integer) o);
+        }
+
+        @Override
+        public boolean add(Integer code) {
+            if (code < 0 || codes.get(code)) {
+                return false;
+            }
+            codes.set(code);
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            codes.clear((Integer) o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            codes.clear();
+        }
+
+        @Override
+        public Comparator<? super Integer> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedSet<Integer> subSet(Integer fromElement, Integer toElement) {
+            return new TreeSet<>(this).subSet(fromElement, toElement);
+        }
+
+        @Override
+        public SortedSet<Integer> headSet(Integer toElement) {
+            return new TreeSet<>(this).headSet(toElement);
+        }
+
+        @Override
+        public SortedSet<Integer> tailSet(Integer fromElement) {
+            return new TreeSet<>(this).tailSet(fromElement);
+        }
+
+        @Override
+        public Integer first() {
+            int first = codes.nextSetBit(0);
+            if (first < 0) {
+                throw new NoSuchElementException();
+            }
+            return first;
+        }
+
+        @Override
+        public Integer last() {
+            if (codes.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return codes.length() - 1;
+        }
+    }
+}
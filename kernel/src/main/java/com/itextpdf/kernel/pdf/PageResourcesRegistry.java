@@ -0,0 +1,189 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.pdf.PdfResources.ResourceNameGenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Document-level registry of page resources, which is used when {@link WriterProperties#useSharedPageResources()}
+ * is enabled.
+ * <p>
+ * A resource added to the resources of several pages gets the same name on each of them, so pages which use
+ * the same resources end up with equal resource dictionaries. When a page is flushed, its resource dictionary
+ * is replaced with a reference to an already registered dictionary with the same content, so that it is
+ * written only once. As the resources of a page are final at the moment the page is flushed, shared
+ * dictionaries are never modified afterwards and don't need to be copied on write.
+ */
+final class PageResourcesRegistry {
+    private final PdfDocument document;
+    private final Map<PdfObject, PdfName> resourceNames = new WeakHashMap<>();
+    private final Map<String, ResourceNameGenerator> nameGenerators = new HashMap<>();
+    private final Map<String, PdfIndirectReference> sharedResources = new HashMap<>();
+
+    PageResourcesRegistry(PdfDocument document) {
+        this.document = document;
+    }
+
+    /**
+     * Gets the document-level name of the resource. If the resource hasn't been registered yet or its registered
+     * name is already taken in the passed resources by another object, a new name is generated.
+     *
+     * @param resources the page resources the resource is going to be added to
+     * @param resource  the resource object
+     * @param nameGen   the page-level name generator for the resource type
+     *
+     * @return the name of the resource
+     */
+    PdfName getResourceName(PdfResources resources, PdfObject resource, ResourceNameGenerator nameGen) {
+        if (resource instanceof PdfPrimitiveObject) {
+            return nameGen.generate(resources);
+        }
+        // Indirect resources are registered by their references, which outlive the objects once they are flushed
+        // or released, so that the resource gets the same name when it's read again.
+        PdfObject key = resource.getIndirectReference() != null ? resource.getIndirectReference() : resource;
+        PdfName name = resourceNames.get(key);
+        if (name == null && key != resource) {
+            name = resourceNames.get(resource);
+        }
+        if (name != null && !isNameTaken(resources, nameGen.getResourceType(), name)) {
+            return name;
+        }
+        ResourceNameGenerator documentNameGen = nameGenerators.get(nameGen.getPrefix());
+        if (documentNameGen == null) {
+            documentNameGen = new ResourceNameGenerator(nameGen.getResourceType(), nameGen.getPrefix());
+            nameGenerators.put(nameGen.getPrefix(), documentNameGen);
+        }
+        PdfName newName = documentNameGen.generate(resources);
+        if (name == null) {
+            resourceNames.put(key, newName);
+        }
+        return newName;
+    }
+
+    /**
+     * Replaces the direct resource dictionary of the page being flushed with the reference to the registered
+     * dictionary with the same content or registers the page resource dictionary if there is no such one.
+     *
+     * @param page the page which is being flushed
+     */
+    void shareResources(PdfPage page) {
+        PdfDictionary pageDict = page.getPdfObject();
+        if (document.properties.appendMode && !pageDict.isModified()) {
+            return;
+        }
+        PdfObject resources = pageDict.get(PdfName.Resources, false);
+        if (!(resources instanceof PdfDictionary) || resources.getIndirectReference() != null) {
+            return;
+        }
+        StringBuilder key = new StringBuilder();
+        if (!appendKey(key, resources)) {
+            return;
+        }
+        String resourcesKey = key.toString();
+        PdfIndirectReference shared = sharedResources.get(resourcesKey);
+        if (shared == null) {
+            resources.makeIndirect(document);
+            sharedResources.put(resourcesKey, resources.getIndirectReference());
+        } else {
+            pageDict.put(PdfName.Resources, shared);
+        }
+    }
+
+    private boolean appendKey(StringBuilder key, PdfObject object) {
+        PdfIndirectReference reference = object.isIndirectReference()
+                ? (PdfIndirectReference) object : object.getIndirectReference();
+        if (reference == null && object.checkState(PdfObject.MUST_BE_INDIRECT)) {
+            reference = object.makeIndirect(document).getIndirectReference();
+        }
+        if (reference != null) {
+            key.append(reference.getObjNumber()).append(' ').append(reference.getGenNumber()).append(" R ");
+            return true;
+        }
+        switch (object.getType()) {
+            case PdfObject.NAME:
+            case PdfObject.NUMBER:
+            case PdfObject.BOOLEAN:
+            case PdfObject.NULL:
+                key.append(object).append(' ');
+                return true;
+            case PdfObject.ARRAY:
+                key.append("[ ");
+                PdfArray array = (PdfArray) object;
+                for (int i = 0; i < array.size(); i++) {
+                    if (!appendKey(key, array.get(i, false))) {
+                        return false;
+                    }
+                }
+                key.append("] ");
+                return true;
+            case PdfObject.DICTIONARY:
+                PdfDictionary dictionary = (PdfDictionary) object;
+                List<PdfName> keys = new ArrayList<>(dictionary.keySet());
+                Collections.sort(keys);
+                key.append("<< ");
+                for (PdfName name : keys) {
+                    key.append(name).append(' ');
+                    if (!appendKey(key, dictionary.get(name, false))) {
+                        return false;
+                    }
+                }
+                key.append(">> ");
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNameTaken(PdfResources resources, PdfName resourceType, PdfName name) {
+        PdfDictionary resourceCategory = resources.getPdfObject().getAsDictionary(resourceType);
+        return resourceCategory != null && resourceCategory.containsKey(name);
+    }
+}
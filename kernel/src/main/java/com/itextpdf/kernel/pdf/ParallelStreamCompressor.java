@@ -0,0 +1,283 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.source.DeflaterOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses the content of {@link PdfStream} objects on a pool of worker threads ahead of writing them.
+ * <p>
+ * The compressed bytes are only kept until the stream is written by {@link PdfOutputStream}, which
+ * then skips the deflating step. As the same compression level and the same {@link DeflaterOutputStream}
+ * settings are used, the output is byte-identical to the output of the serial compression.
+ * <p>
+ * The streams are compressed in windows, the total size of the content compressed ahead of writing is limited by
+ * {@link #WINDOW_SIZE_PER_WORKER} bytes per worker thread. The compressed content of a window is released when
+ * the next window is compressed, so the writer is expected to write the streams of a window before that.
+ * <p>
+ * The worker threads are shared by all the flushing passes of the writer and are stopped by {@link #close()}.
+ * The idle worker threads are also stopped after a timeout, in case the writer is never closed.
+ */
+class ParallelStreamCompressor {
+    /**
+     * The size of the stream content which is compressed ahead of writing per worker thread at a time.
+     */
+    static final long WINDOW_SIZE_PER_WORKER = 4 * 1024 * 1024;
+
+    private static final long IDLE_WORKER_TIMEOUT_SECONDS = 30;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final int workersCount;
+    private final Map<PdfStream, CompressedStreamData> compressedStreams = new IdentityHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    ParallelStreamCompressor(int workersCount) {
+        this.workersCount = workersCount;
+    }
+
+    /**
+     * Checks whether the stream is going to be compressed with the Flate filter on writing
+     * and its content can be compressed in advance.
+     *
+     * @param stream           the stream to check
+     * @param compressionLevel the compression level which will be applied to the stream
+     *
+     * @return true if the stream content can be compressed in advance, false otherwise
+     */
+    static boolean isCompressionCandidate(PdfStream stream, int compressionLevel) {
+        if (stream instanceof PdfObjectStream || stream.getInputStream() != null
+                || compressionLevel == CompressionConstants.NO_COMPRESSION) {
+            return false;
+        }
+        if (stream.getOutputStream() == null
+                || !(stream.getOutputStream().getOutputStream() instanceof ByteArrayOutputStream)) {
+            return false;
+        }
+        return !stream.containsKey(PdfName.Filter) && !stream.containsKey(PdfName.DecodeParms)
+                && !PdfName.Metadata.equals(stream.getAsName(PdfName.Type));
+    }
+
+    /**
+     * Gets the size of the content of a stream which is a compression candidate.
+     *
+     * @param stream the stream which is a compression candidate
+     *
+     * @return the size of the stream content
+     */
+    static int getContentSize(PdfStream stream) {
+        return ((ByteArrayOutputStream) stream.getOutputStream().getOutputStream()).size();
+    }
+
+    /**
+     * Compresses the content of the passed streams in parallel and keeps the results until the streams are written.
+     * The compressed content of the streams passed to the previous call and not written yet is released.
+     *
+     * @param streams           the streams to compress
+     * @param compressionLevels the compression levels to be used for the corresponding streams
+     */
+    void compress(List<PdfStream> streams, List<Integer> compressionLevels) {
+        compressedStreams.clear();
+        if (streams.isEmpty()) {
+            return;
+        }
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(workersCount, workersCount, IDLE_WORKER_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), runnable -> {
+                        Thread thread = new Thread(runnable, "pdf-stream-compression");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        try {
+            List<Future<CompressedStreamData>> results = new ArrayList<>(streams.size());
+            for (int i = 0; i < streams.size(); i++) {
+                ByteArrayOutputStream source =
+                        (ByteArrayOutputStream) streams.get(i).getOutputStream().getOutputStream();
+                results.add(executor.submit(new CompressionTask(source, (int) compressionLevels.get(i))));
+            }
+            for (int i = 0; i < streams.size(); i++) {
+                try {
+                    compressedStreams.put(streams.get(i), results.get(i).get());
+                } catch (ExecutionException e) {
+                    // The stream will be compressed on writing, which will report the failure in a usual way
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the compressed content of the stream, if it has been compressed in advance and the stream
+     * content has not been changed since then. The latter is checked by comparing the digest of the current
+     * stream content with the one calculated by the worker thread, which is much cheaper than deflating it.
+     * The compressed content is released by this call.
+     *
+     * @param stream           the stream which is being written
+     * @param compressionLevel the compression level which has to be applied to the stream
+     *
+     * @return compressed content of the stream, or null if the stream has to be compressed on the calling thread
+     */
+    ByteArrayOutputStream takeCompressedData(PdfStream stream, int compressionLevel) {
+        CompressedStreamData data = compressedStreams.remove(stream);
+        if (data == null || data.compressionLevel != compressionLevel || stream.getOutputStream() == null
+                || !(stream.getOutputStream().getOutputStream() instanceof ByteArrayOutputStream)) {
+            return null;
+        }
+        ByteArrayOutputStream source = (ByteArrayOutputStream) stream.getOutputStream().getOutputStream();
+        if (source.size() != data.sourceSize || !MessageDigest.isEqual(data.sourceDigest, digest(source))) {
+            return null;
+        }
+        return data.compressedContent;
+    }
+
+    /**
+     * Releases the compressed content of the streams which have not been written.
+     */
+    void clear() {
+        compressedStreams.clear();
+    }
+
+    /**
+     * Releases the compressed content and stops the worker threads.
+     */
+    void close() {
+        clear();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static byte[] digest(ByteArrayOutputStream source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+        try {
+            source.writeTo(new DigestingOutputStream(digest));
+        } catch (IOException e) {
+            return null;
+        }
+        return digest.digest();
+    }
+
+    private static final class CompressionTask implements Callable<CompressedStreamData> {
+        private final ByteArrayOutputStream source;
+        private final int compressionLevel;
+
+        CompressionTask(ByteArrayOutputStream source, int compressionLevel) {
+            this.source = source;
+            this.compressionLevel = compressionLevel;
+        }
+
+        @Override
+        public CompressedStreamData call() throws Exception {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            DeflaterOutputStream zip = new DeflaterOutputStream(compressed, compressionLevel);
+            source.writeTo(zip);
+            zip.finish();
+            byte[] sourceDigest = digest(source);
+            if (sourceDigest == null) {
+                throw new IOException(DIGEST_ALGORITHM + " digest is not available");
+            }
+            return new CompressedStreamData(compressed, compressionLevel, source.size(), sourceDigest);
+        }
+    }
+
+    private static final class CompressedStreamData {
+        final ByteArrayOutputStream compressedContent;
+        final int compressionLevel;
+        final int sourceSize;
+        final byte[] sourceDigest;
+
+        CompressedStreamData(ByteArrayOutputStream compressedContent, int compressionLevel, int sourceSize,
+                byte[] sourceDigest) {
+            this.compressedContent = compressedContent;
+            this.compressionLevel = compressionLevel;
+            this.sourceSize = sourceSize;
+            this.sourceDigest = sourceDigest;
+        }
+    }
+
+    /**
+     * Passes the written bytes to the digest.
+     */
+    private static final class DigestingOutputStream extends OutputStream {
+        private final MessageDigest digest;
+
+        DigestingOutputStream(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+    }
+}
@@ -180,8 +180,9 @@ public class PdfDocument implements IEventDispatcher, Closeable {
     protected TagStructureContext tagStructureContext;
     /**
      * Cache of already serialized objects from this document for smart mode.
+     * Kept in access order, so that the least recently used entries can be evicted when its size is limited.
      */
-    Map<PdfIndirectReference, byte[]> serializedObjectsCache = new HashMap<>();
+    Map<PdfIndirectReference, byte[]> serializedObjectsCache = new LinkedHashMap<>(16, 0.75f, true);
     /**
      * Handler which will be used for decompression of pdf streams.
      */
@@ -201,6 +202,7 @@ public class PdfDocument implements IEventDispatcher, Closeable {
     private PdfString modifiedDocumentId;
     private PdfFont defaultFont = null;
     private EncryptedEmbeddedStreamsHandler encryptedEmbeddedStreamsHandler;
+    private PageResourcesRegistry pageResourcesRegistry;
 
     /**
      * Open PDF document in reading mode.
@@ -802,6 +804,30 @@ public class PdfDocument implements IEventDispatcher, Closeable {
         return properties.appendMode;
     }
 
+    /**
+     * Returns {@code true} if marked content references of the existing tag structure are resolved lazily,
+     * page by page, and {@code false} otherwise. See {@link StampingProperties#useLazyTagStructureLoading()}.
+     *
+     * @return {@code true} if the tag structure is loaded lazily, and {@code false} otherwise.
+     */
+    public boolean isLazyTagStructureLoading() {
+        checkClosingStatus();
+        return properties.lazyTagStructureLoading;
+    }
+
+    /**
+     * Gets the registry of page resources which is used when {@link WriterProperties#useSharedPageResources()}
+     * is enabled.
+     *
+     * @return the registry of page resources or {@code null} if page resources are not shared
+     */
+    PageResourcesRegistry getPageResourcesRegistry() {
+        if (pageResourcesRegistry == null && writer != null && writer.properties.sharedPageResources) {
+            pageResourcesRegistry = new PageResourcesRegistry(this);
+        }
+        return pageResourcesRegistry;
+    }
+
     /**
      * Creates next available indirect reference.
      *
@@ -932,14 +958,16 @@ public class PdfDocument implements IEventDispatcher, Closeable {
                     }
 
                     writer.flushModifiedWaitingObjects(forbiddenToFlush);
-                    for (int i = 0; i < xref.size(); i++) {
-                        PdfIndirectReference indirectReference = xref.get(i);
-                        if (indirectReference != null && !indirectReference.isFree() && indirectReference.checkState(
-                                PdfObject.MODIFIED) && !indirectReference.checkState(PdfObject.FLUSHED)
-                                && !forbiddenToFlush.contains(indirectReference)) {
+                    List<PdfIndirectReference> modifiedReferences = xref.takeModifiedReferences();
+                    Collections.sort(modifiedReferences);
+                    for (PdfIndirectReference indirectReference : modifiedReferences) {
+                        if (!indirectReference.isFree() && indirectReference.checkState(PdfObject.MODIFIED)
+                                && !indirectReference.checkState(PdfObject.FLUSHED)
+                                && !forbiddenToFlush.contains(indirectReference) && xref.contains(indirectReference)) {
                             indirectReference.setFree();
                         }
                     }
+                    xref.addModifiedReferences(modifiedReferences);
                 } else {
                     if (catalog.isOCPropertiesMayHaveChanged()) {
                         catalog.getPdfObject().put(PdfName.OCProperties, catalog.getOCProperties(false).getPdfObject());
@@ -958,7 +986,12 @@ public class PdfDocument implements IEventDispatcher, Closeable {
                         }
                     }
 
+                    int compressedUpToPage = 0;
                     for (int pageNum = 1; pageNum <= getNumberOfPages(); pageNum++) {
+                        if (pageNum > compressedUpToPage) {
+                            // the pages of the previous window have been flushed by now
+                            compressedUpToPage = writer.compressPageContentStreams(pageNum, forbiddenToFlush);
+                        }
                         PdfPage page = getPage(pageNum);
                         if (page != null) {
                             page.flush();
@@ -2023,6 +2056,10 @@ public class PdfDocument implements IEventDispatcher, Closeable {
                     memoryLimitsAwareHandler = new MemoryLimitsAwareHandler(reader.tokens.getSafeFile().length());
                 }
                 xref.setMemoryLimitsAwareHandler(memoryLimitsAwareHandler);
+                if (writer == null) {
+                    // in reading mode only the accessed references are kept as objects
+                    xref.useCompactStorage(this);
+                }
                 reader.readPdf();
                 if (reader.decrypt != null && reader.decrypt.isEmbeddedFilesOnly()) {
                     encryptedEmbeddedStreamsHandler.storeAllEmbeddedStreams();
@@ -322,7 +322,13 @@ public class PdfIndirectReference extends PdfObject implements Comparable<PdfInd
      * @param state special flag of current object
      */
     protected PdfObject setState(short state) {
-        return super.setState(state);
+        boolean mustBeFlushed = (state & MUST_BE_FLUSHED) != 0 && !checkState(MUST_BE_FLUSHED);
+        boolean modified = (state & MODIFIED) != 0 && !checkState(MODIFIED);
+        super.setState(state);
+        if ((mustBeFlushed || modified) && pdfDocument != null) {
+            pdfDocument.getXref().onStateSet(this, mustBeFlushed, modified);
+        }
+        return this;
     }
 
     void setObjStreamNumber(int objectStreamNumber) {
@@ -340,17 +340,21 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                             && (allowCompression || userDefinedCompression)) {
                         // compress
                         updateCompressionFilter(pdfStream);
-                        byteArrayStream = new ByteArrayOutputStream();
-                        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, pdfStream.getCompressionLevel());
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
+                        byteArrayStream = getCompressedStreamData(pdfStream);
+                        if (byteArrayStream == null) {
+                            byteArrayStream = new ByteArrayOutputStream();
+                            DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream,
+                                    pdfStream.getCompressionLevel());
+                            if (pdfStream instanceof PdfObjectStream) {
+                                PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
+                                ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
+                                ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
+                            } else {
+                                assert pdfStream.getOutputStream() != null : "Error in outputStream";
+                                ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
+                            }
+                            zip.finish();
                         }
-                        zip.finish();
                     } else {
                         if (pdfStream instanceof PdfObjectStream) {
                             PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
@@ -385,6 +389,17 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
         }
     }
 
+    /**
+     * Gets the content of the stream which has already been compressed with its compression level, if any.
+     *
+     * @param pdfStream the stream which is being written
+     *
+     * @return compressed stream content, or null if the stream content has to be compressed on writing
+     */
+    ByteArrayOutputStream getCompressedStreamData(PdfStream pdfStream) {
+        return null;
+    }
+
     protected boolean checkEncryption(PdfStream pdfStream) {
         if (crypto == null || (crypto.isEmbeddedFilesOnly() && !document.doesStreamBelongToEmbeddedFile(pdfStream))) {
             return false;
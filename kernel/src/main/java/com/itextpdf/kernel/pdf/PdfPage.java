@@ -307,6 +307,7 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
         if (initResourcesField) {
             this.resources = new PdfResources(resources);
             this.resources.setReadOnly(readOnly);
+            this.resources.setRegistry(getDocument().getPageResourcesRegistry());
         }
         return resources;
     }
@@ -525,6 +526,10 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
         } else if (resources.isModified() && !resources.isReadOnly()) {
             put(PdfName.Resources, resources.getPdfObject());
         }
+        PageResourcesRegistry resourcesRegistry = getDocument().getPageResourcesRegistry();
+        if (resourcesRegistry != null) {
+            resourcesRegistry.shareResources(this);
+        }
         if (flushResourcesContentStreams) {
             getDocument().checkIsoConformance(this, IsoKey.PAGE);
             flushResourcesContentStreams();
@@ -61,6 +61,7 @@ import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
 import com.itextpdf.kernel.exceptions.XrefCycledReferencesException;
 import com.itextpdf.kernel.pdf.filters.FilterHandlers;
 import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+import com.itextpdf.kernel.xmp.XMPConst;
 import com.itextpdf.kernel.xmp.XMPException;
 import com.itextpdf.kernel.xmp.XMPMeta;
 import com.itextpdf.kernel.xmp.XMPMetaFactory;
@@ -645,7 +646,9 @@ public class PdfReader implements Closeable {
 
             try {
                 if (xmpMeta == null && pdfDocument.getXmpMetadata() != null) {
-                    xmpMeta = XMPMetaFactory.parseFromBuffer(pdfDocument.getXmpMetadata());
+                    // Only the identification properties are needed, so the packet is not parsed completely
+                    xmpMeta = XMPMetaFactory.parsePropertiesFromBuffer(pdfDocument.getXmpMetadata(),
+                            XMPConst.NS_PDFA_ID, XMPConst.PART, XMPConst.CONFORMANCE);
                 }
                 if (xmpMeta != null) {
                     pdfAConformanceLevel = PdfAConformanceLevel.getConformanceLevel(xmpMeta);
@@ -1302,6 +1305,8 @@ public class PdfReader implements Closeable {
                 PdfIndirectReference reference = xref.get(num);
                 if (reference != null && reference.getGenNumber() == gen) {
                     reference.fixOffset(pos);
+                    // keeps the fixed offset if the reference is stored in a compact form
+                    xref.add(reference);
                 }
             }
         }
@@ -87,6 +87,7 @@ public class PdfResources extends PdfObjectWrapper<PdfDictionary> {
 
     private boolean readOnly = false;
     private boolean isModified = false;
+    private PageResourcesRegistry registry;
 
     /**
      * Creates new instance from given dictionary.
@@ -488,13 +489,17 @@ public class PdfResources extends PdfObjectWrapper<PdfDictionary> {
         PdfName resName = getResourceName(resource);
 
         if (resName == null) {
-            resName = nameGen.generate(this);
+            resName = registry == null ? nameGen.generate(this) : registry.getResourceName(this, resource, nameGen);
             addResource(resource, nameGen.getResourceType(), resName);
         }
 
         return resName;
     }
 
+    void setRegistry(PageResourcesRegistry registry) {
+        this.registry = registry;
+    }
+
     protected void buildResources(PdfDictionary dictionary) {
         for (PdfName resourceType : dictionary.keySet()) {
             if (getPdfObject().get(resourceType) == null) {
@@ -583,6 +588,15 @@ public class PdfResources extends PdfObjectWrapper<PdfDictionary> {
             return resourceType;
         }
 
+        /**
+         * Gets the prefix used for generating names.
+         *
+         * @return the prefix of the generated names.
+         */
+        public String getPrefix() {
+            return prefix;
+        }
+
         /**
          * Generates new (unique) resource name.
          *
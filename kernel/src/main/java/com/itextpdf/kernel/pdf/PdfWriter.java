@@ -45,15 +45,19 @@ package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.commons.utils.FileUtil;
 import com.itextpdf.io.logs.IoLogMessageConstant;
+import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.kernel.utils.ICopyFilter;
 import com.itextpdf.kernel.utils.NullCopyFilter;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,7 +83,11 @@ public class PdfWriter extends PdfOutputStream {
     /**
      * Is used in smart mode to serialize and store serialized objects content.
      */
-    private SmartModePdfObjectsSerializer smartModeSerializer = new SmartModePdfObjectsSerializer();
+    private SmartModePdfObjectsSerializer smartModeSerializer;
+    /**
+     * Is used to compress streams on worker threads ahead of writing them.
+     */
+    private ParallelStreamCompressor streamCompressor;
 
     /**
      * Create a PdfWriter writing to the passed File and with default writer properties.
@@ -185,6 +193,15 @@ public class PdfWriter extends PdfOutputStream {
         return this;
     }
 
+    /**
+     * Gets the statistics of the smart mode deduplication of copied objects.
+     *
+     * @return {@link SmartModeStatistics} snapshot, or null if no object has been copied in smart mode yet
+     */
+    public SmartModeStatistics getSmartModeStatistics() {
+        return smartModeSerializer == null ? null : smartModeSerializer.getStatistics();
+    }
+
     protected void initCryptoIfSpecified(PdfVersion version) {
         EncryptionProperties encryptProps = properties.encryptionProperties;
         if (properties.isStandardEncryptionUsed()) {
@@ -287,8 +304,8 @@ public class PdfWriter extends PdfOutputStream {
         SerializedObjectContent serializedContent = null;
         if (properties.smartMode && tryToFindDuplicate && !checkTypeOfPdfDictionary(obj, PdfName.Page) &&
                 !checkTypeOfPdfDictionary(obj, PdfName.OCG) && !checkTypeOfPdfDictionary(obj, PdfName.OCMD)) {
-            serializedContent = smartModeSerializer.serializeObject(obj);
-            PdfIndirectReference objectRef = smartModeSerializer.getSavedSerializedObject(serializedContent);
+            serializedContent = getSmartModeSerializer().serializeObject(obj);
+            PdfIndirectReference objectRef = getSmartModeSerializer().getSavedSerializedObject(serializedContent);
             if (objectRef != null) {
                 copiedObjects.put(indirectReference, objectRef);
                 return objectRef.refersTo;
@@ -299,7 +316,7 @@ public class PdfWriter extends PdfOutputStream {
         if (indirectReference != null) {
             PdfIndirectReference indRef = newObject.makeIndirect(documentTo).getIndirectReference();
             if (serializedContent != null) {
-                smartModeSerializer.saveSerializedObject(serializedContent, indRef);
+                getSmartModeSerializer().saveSerializedObject(serializedContent, indRef);
             }
             copiedObjects.put(indirectReference, indRef);
         }
@@ -342,26 +359,52 @@ public class PdfWriter extends PdfOutputStream {
      */
     protected void flushWaitingObjects(Set<PdfIndirectReference> forbiddenToFlush) {
         PdfXrefTable xref = document.getXref();
-        boolean needFlush = true;
-        while (needFlush) {
-            needFlush = false;
-            for (int i = 1; i < xref.size(); i++) {
-                PdfIndirectReference indirectReference = xref.get(i);
-                if (indirectReference != null && !indirectReference.isFree()
-                        && indirectReference.checkState(PdfObject.MUST_BE_FLUSHED)
-                        && !forbiddenToFlush.contains(indirectReference)) {
-                    PdfObject obj = indirectReference.getRefersTo(false);
+        // Only the references which got MUST_BE_FLUSHED state are visited. Each pass goes in the ascending order
+        // of object numbers, the objects marked during the pass are flushed in the same pass if their number is
+        // greater than the one of the object being flushed, as a scan over the whole table would do.
+        List<PdfIndirectReference> waitingReferences = xref.takeMustBeFlushedReferences();
+        List<PdfIndirectReference> notFlushedReferences = new ArrayList<>();
+        while (!waitingReferences.isEmpty()) {
+            List<PdfIndirectReference> sortedReferences = waitingReferences;
+            Collections.sort(sortedReferences);
+            int compressedUpTo = 0;
+            PriorityQueue<PdfIndirectReference> queue = new PriorityQueue<>(waitingReferences);
+            waitingReferences = new ArrayList<>();
+            PdfIndirectReference indirectReference;
+            while ((indirectReference = queue.poll()) != null) {
+                if (compressedUpTo < sortedReferences.size() && indirectReference.getObjNumber()
+                        >= sortedReferences.get(compressedUpTo).getObjNumber()) {
+                    // the streams of the previous window have been written by now
+                    compressedUpTo = compressWaitingStreams(sortedReferences, compressedUpTo, forbiddenToFlush,
+                            PdfObject.MUST_BE_FLUSHED);
+                }
+                if (!indirectReference.isFree() && indirectReference.checkState(PdfObject.MUST_BE_FLUSHED)
+                        && xref.contains(indirectReference)) {
+                    PdfObject obj = forbiddenToFlush.contains(indirectReference) ? null
+                            : indirectReference.getRefersTo(false);
                     if (obj != null) {
                         obj.flush();
-                        needFlush = true;
+                    } else {
+                        notFlushedReferences.add(indirectReference);
+                    }
+                }
+                for (PdfIndirectReference markedReference : xref.takeMustBeFlushedReferences()) {
+                    if (markedReference.getObjNumber() > indirectReference.getObjNumber()) {
+                        queue.add(markedReference);
+                    } else {
+                        waitingReferences.add(markedReference);
                     }
                 }
             }
         }
+        xref.addMustBeFlushedReferences(notFlushedReferences);
         if (objectStream != null && objectStream.getSize() > 0) {
             objectStream.flush();
             objectStream = null;
         }
+        if (streamCompressor != null) {
+            streamCompressor.clear();
+        }
     }
 
     /**
@@ -372,25 +415,179 @@ public class PdfWriter extends PdfOutputStream {
      */
     protected void flushModifiedWaitingObjects(Set<PdfIndirectReference> forbiddenToFlush) {
         PdfXrefTable xref = document.getXref();
-        for (int i = 1; i < xref.size(); i++) {
-            PdfIndirectReference indirectReference = xref.get(i);
-            if (null != indirectReference && !indirectReference.isFree() && !forbiddenToFlush.contains(
-                    indirectReference)) {
-                boolean isModified = indirectReference.checkState(PdfObject.MODIFIED);
-                if (isModified) {
-                    PdfObject obj = indirectReference.getRefersTo(false);
-                    if (obj != null) {
-                        if (!obj.equals(objectStream)) {
-                            obj.flush();
-                        }
+        // Only the references which got MODIFIED state are visited, in the ascending order of object numbers.
+        // The visited references are kept tracked, since the document still needs them after flushing.
+        List<PdfIndirectReference> modifiedReferences = xref.takeModifiedReferences();
+        Collections.sort(modifiedReferences);
+        int compressedUpTo = 0;
+        PriorityQueue<PdfIndirectReference> queue = new PriorityQueue<>(modifiedReferences);
+        List<PdfIndirectReference> visitedReferences = new ArrayList<>(modifiedReferences.size());
+        PdfIndirectReference indirectReference;
+        while ((indirectReference = queue.poll()) != null) {
+            if (compressedUpTo < modifiedReferences.size() && indirectReference.getObjNumber()
+                    >= modifiedReferences.get(compressedUpTo).getObjNumber()) {
+                compressedUpTo = compressWaitingStreams(modifiedReferences, compressedUpTo, forbiddenToFlush,
+                        PdfObject.MODIFIED);
+            }
+            visitedReferences.add(indirectReference);
+            if (!indirectReference.isFree() && !forbiddenToFlush.contains(indirectReference)
+                    && indirectReference.checkState(PdfObject.MODIFIED) && xref.contains(indirectReference)) {
+                PdfObject obj = indirectReference.getRefersTo(false);
+                if (obj != null) {
+                    if (!obj.equals(objectStream)) {
+                        obj.flush();
                     }
                 }
             }
+            for (PdfIndirectReference markedReference : xref.takeModifiedReferences()) {
+                if (markedReference.getObjNumber() > indirectReference.getObjNumber()) {
+                    queue.add(markedReference);
+                } else {
+                    visitedReferences.add(markedReference);
+                }
+            }
         }
+        xref.addModifiedReferences(visitedReferences);
         if (objectStream != null && objectStream.getSize() > 0) {
             objectStream.flush();
             objectStream = null;
         }
+        if (streamCompressor != null) {
+            streamCompressor.clear();
+        }
+    }
+
+    /**
+     * Compresses the content streams of the next window of pages on worker threads, if parallel stream
+     * compression is enabled. The pages of the window are to be flushed before the next window is compressed.
+     *
+     * @param startPageNum     the number of the first page of the window
+     * @param forbiddenToFlush a {@link Set} of {@link PdfIndirectReference references} that are forbidden to be flushed
+     *                         automatically
+     *
+     * @return the number of the last page of the window
+     */
+    int compressPageContentStreams(int startPageNum, Set<PdfIndirectReference> forbiddenToFlush) {
+        int numberOfPages = document.getNumberOfPages();
+        if (properties.streamCompressionWorkersCount < 2) {
+            return numberOfPages;
+        }
+        List<PdfStream> streams = new ArrayList<>();
+        List<Integer> compressionLevels = new ArrayList<>();
+        long windowSize = 0;
+        int pageNum = startPageNum;
+        for (; pageNum <= numberOfPages && windowSize < getCompressionWindowSize(); pageNum++) {
+            PdfPage page = document.getPage(pageNum);
+            if (page == null || page.isFlushed()) {
+                continue;
+            }
+            PdfObject contents = page.getPdfObject().get(PdfName.Contents);
+            if (contents != null && contents.isArray()) {
+                for (PdfObject content : (PdfArray) contents) {
+                    if (content != null) {
+                        windowSize += addCompressionCandidate(content.getIndirectReference(), forbiddenToFlush,
+                                (short) 0, streams, compressionLevels);
+                    }
+                }
+            } else if (contents != null) {
+                windowSize += addCompressionCandidate(contents.getIndirectReference(), forbiddenToFlush, (short) 0,
+                        streams, compressionLevels);
+            }
+        }
+        compressStreams(streams, compressionLevels);
+        return pageNum - 1;
+    }
+
+    /**
+     * Compresses the content of the next window of the given streams which are waiting to be written
+     * on worker threads, if parallel stream compression is enabled. The streams of the window are to be written
+     * before the next window is compressed.
+     *
+     * @param references       the references to the candidate objects in the order they are written
+     * @param start            the index of the first reference of the window
+     * @param forbiddenToFlush a {@link Set} of {@link PdfIndirectReference references} that are forbidden to be flushed
+     *                         automatically
+     * @param requiredState    the state the indirect reference of the stream shall have
+     *
+     * @return the index of the first reference after the window
+     */
+    int compressWaitingStreams(List<PdfIndirectReference> references, int start,
+            Set<PdfIndirectReference> forbiddenToFlush, short requiredState) {
+        if (properties.streamCompressionWorkersCount < 2) {
+            return references.size();
+        }
+        List<PdfStream> streams = new ArrayList<>();
+        List<Integer> compressionLevels = new ArrayList<>();
+        long windowSize = 0;
+        int end = start;
+        for (; end < references.size() && windowSize < getCompressionWindowSize(); end++) {
+            windowSize += addCompressionCandidate(references.get(end), forbiddenToFlush, requiredState,
+                    streams, compressionLevels);
+        }
+        compressStreams(streams, compressionLevels);
+        return end;
+    }
+
+    private long getCompressionWindowSize() {
+        return properties.streamCompressionWorkersCount * ParallelStreamCompressor.WINDOW_SIZE_PER_WORKER;
+    }
+
+    private int addCompressionCandidate(PdfIndirectReference indirectReference,
+            Set<PdfIndirectReference> forbiddenToFlush, short requiredState, List<PdfStream> streams,
+            List<Integer> compressionLevels) {
+        if (indirectReference == null || indirectReference.isFree() || indirectReference.checkState(PdfObject.FLUSHED)
+                || !indirectReference.checkState(requiredState) || forbiddenToFlush.contains(indirectReference)) {
+            return 0;
+        }
+        PdfObject obj = indirectReference.getRefersTo(false);
+        if (obj == null || obj.getType() != PdfObject.STREAM) {
+            return 0;
+        }
+        PdfStream stream = (PdfStream) obj;
+        int compressionLevel = stream.getCompressionLevel() == CompressionConstants.UNDEFINED_COMPRESSION
+                ? getCompressionLevel() : stream.getCompressionLevel();
+        if (!ParallelStreamCompressor.isCompressionCandidate(stream, compressionLevel)) {
+            return 0;
+        }
+        streams.add(stream);
+        compressionLevels.add(compressionLevel);
+        return ParallelStreamCompressor.getContentSize(stream);
+    }
+
+    private void compressStreams(List<PdfStream> streams, List<Integer> compressionLevels) {
+        if (streams.size() > 1) {
+            if (streamCompressor == null) {
+                streamCompressor = new ParallelStreamCompressor(properties.streamCompressionWorkersCount);
+            }
+            streamCompressor.compress(streams, compressionLevels);
+        } else if (streamCompressor != null) {
+            // releases the content of the previous window
+            streamCompressor.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Also stops the threads of the parallel stream compression, if it was used.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (streamCompressor != null) {
+                streamCompressor.close();
+            }
+        }
+    }
+
+    @Override
+    ByteArrayOutputStream getCompressedStreamData(PdfStream pdfStream) {
+        if (streamCompressor == null) {
+            return null;
+        }
+        return streamCompressor.takeCompressedData(pdfStream, pdfStream.getCompressionLevel());
     }
 
     /**
@@ -432,6 +629,14 @@ public class PdfWriter extends PdfOutputStream {
         }
     }
 
+    private SmartModePdfObjectsSerializer getSmartModeSerializer() {
+        if (smartModeSerializer == null) {
+            smartModeSerializer = new SmartModePdfObjectsSerializer(properties.smartModeFingerprints,
+                    properties.smartModeCacheSizeLimit);
+        }
+        return smartModeSerializer;
+    }
+
     private void markArrayContentToFlush(PdfArray array) {
         for (int i = 0; i < array.size(); i++) {
             markObjectToFlush(array.get(i, false));
@@ -50,9 +50,13 @@ import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.kernel.actions.data.ITextCoreProductData;
 
 import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -72,6 +76,14 @@ public class PdfXrefTable {
     private static final byte[] freeXRefEntry = ByteUtils.getIsoBytes("f \n");
     private static final byte[] inUseXRefEntry = ByteUtils.getIsoBytes("n \n");
 
+    private static final int COMPACT_TYPE_SHIFT = 62;
+    private static final long COMPACT_VALUE_MASK = (1L << COMPACT_TYPE_SHIFT) - 1;
+    private static final long COMPACT_IN_USE = 1;
+    private static final long COMPACT_FREE = 2;
+    private static final long COMPACT_COMPRESSED = 3;
+    private static final int COMPACT_OBJ_STREAM_SHIFT = 31;
+    private static final long COMPACT_INDEX_MASK = (1L << COMPACT_OBJ_STREAM_SHIFT) - 1;
+
     private PdfIndirectReference[] xref;
     private int count = 0;
     private boolean readingCompleted;
@@ -84,6 +96,40 @@ public class PdfXrefTable {
      */
     private final TreeMap<Integer, PdfIndirectReference> freeReferencesLinkedList;
 
+    /**
+     * Document whose read cross-reference entries are stored in a compact form, or {@code null}
+     * if all the entries are stored as {@link PdfIndirectReference} instances.
+     */
+    private PdfDocument compactStorageDocument;
+
+    /**
+     * Packed read entries: two upper bits hold the entry type, the rest hold either the offset
+     * or the object stream number and the index inside that object stream.
+     */
+    private long[] compactEntries;
+    private int[] compactGenerations;
+
+    /**
+     * Indirect references created on demand for the packed entries. They are only weakly held,
+     * so that the references which are not used anymore could be collected.
+     */
+    private HashMap<Integer, CompactReferenceHolder> materializedReferences;
+    private ReferenceQueue<PdfIndirectReference> collectedReferences;
+
+    /**
+     * References which got {@link PdfObject#MUST_BE_FLUSHED} state, so that the waiting objects could be
+     * flushed without scanning the whole table.
+     */
+    private List<PdfIndirectReference> mustBeFlushedReferences = new ArrayList<>();
+    private int mustBeFlushedCompactionThreshold = INITIAL_CAPACITY;
+
+    /**
+     * References which got {@link PdfObject#MODIFIED} state, only tracked in append mode,
+     * where only the modified objects are written.
+     */
+    private List<PdfIndirectReference> modifiedReferences = new ArrayList<>();
+    private int modifiedCompactionThreshold = INITIAL_CAPACITY;
+
     /**
      * Creates a {@link PdfXrefTable} which will be used to store xref structure of the pdf document.
      * Capacity and {@link MemoryLimitsAwareHandler} instance would be set by default values.
@@ -152,7 +198,15 @@ public class PdfXrefTable {
         int objNr = reference.getObjNumber();
         this.count = Math.max(this.count, objNr);
         ensureCount(objNr);
-        xref[objNr] = reference;
+        if (compactStorageDocument == null) {
+            xref[objNr] = reference;
+        } else if (storeCompactly(reference)) {
+            xref[objNr] = null;
+        } else {
+            xref[objNr] = reference;
+            compactEntries[objNr] = 0;
+            materializedReferences.remove(objNr);
+        }
         return reference;
     }
 
@@ -178,6 +232,13 @@ public class PdfXrefTable {
                 countOfIndirectObjects++;
             }
         }
+        if (compactStorageDocument != null) {
+            for (final long entry : compactEntries) {
+                if (entry != 0 && getCompactType(entry) != COMPACT_FREE) {
+                    countOfIndirectObjects++;
+                }
+            }
+        }
 
         return countOfIndirectObjects;
     }
@@ -192,7 +253,11 @@ public class PdfXrefTable {
         if (index > count) {
             return null;
         }
-        return xref[index];
+        PdfIndirectReference reference = xref[index];
+        if (reference == null && compactStorageDocument != null && compactEntries[index] != 0) {
+            reference = materializeCompactReference(index);
+        }
+        return reference;
     }
 
     /**
@@ -445,6 +510,34 @@ public class PdfXrefTable {
         return readingCompleted;
     }
 
+    /**
+     * Switches the table to the compact storage of the entries read from the document cross-reference
+     * sections. Such entries are kept in primitive arrays and {@link PdfIndirectReference} instances
+     * for them are created on demand by {@link #get(int)} and only weakly held by the table.
+     *
+     * <p>
+     * The compact storage shall only be used for documents which are opened in reading mode,
+     * because the state of the references which are not reachable anymore is not preserved.
+     *
+     * @param pdfDocument is the current {@link PdfDocument document}
+     */
+    void useCompactStorage(PdfDocument pdfDocument) {
+        compactStorageDocument = pdfDocument;
+        compactEntries = new long[xref.length];
+        compactGenerations = new int[xref.length];
+        materializedReferences = new HashMap<>();
+        collectedReferences = new ReferenceQueue<>();
+    }
+
+    /**
+     * Check if the compact storage of the read entries is used.
+     *
+     * @return true if the read entries are stored in a compact form and false otherwise
+     */
+    boolean isCompactStorageUsed() {
+        return compactStorageDocument != null;
+    }
+
     /**
      * Set up appropriate state for the free references list.
      *
@@ -455,6 +548,11 @@ public class PdfXrefTable {
 
         // ensure zero object is free
         xref[0].setState(PdfObject.FREE);
+        if (compactStorageDocument != null) {
+            // free references are never reused in reading mode, there is no need to restore the whole list
+            freeReferencesLinkedList.put(0, xref[0]);
+            return;
+        }
         TreeSet<Integer> freeReferences = new TreeSet<>();
         for (int i = 1; i < size(); ++i) {
             PdfIndirectReference ref = xref[i];
@@ -513,6 +611,87 @@ public class PdfXrefTable {
         return (PdfIndirectReference) reference.setState(PdfObject.MODIFIED);
     }
 
+    /**
+     * Registers the states set for the reference, so that the reference could be found
+     * among the waiting or modified ones without scanning the table.
+     *
+     * @param reference     the reference whose state was changed
+     * @param mustBeFlushed whether {@link PdfObject#MUST_BE_FLUSHED} state was set
+     * @param modified      whether {@link PdfObject#MODIFIED} state was set
+     */
+    void onStateSet(PdfIndirectReference reference, boolean mustBeFlushed, boolean modified) {
+        PdfDocument document = reference.getDocument();
+        if (document.writer == null) {
+            return;
+        }
+        if (mustBeFlushed) {
+            if (mustBeFlushedReferences.size() >= mustBeFlushedCompactionThreshold) {
+                // Objects flushed directly keep their entries, drop them so that the list follows the waiting ones
+                retainReferencesInState(mustBeFlushedReferences, PdfObject.MUST_BE_FLUSHED);
+                mustBeFlushedCompactionThreshold = Math.max(INITIAL_CAPACITY, 2 * mustBeFlushedReferences.size());
+            }
+            mustBeFlushedReferences.add(reference);
+        }
+        if (modified && document.properties.appendMode) {
+            if (modifiedReferences.size() >= modifiedCompactionThreshold) {
+                retainReferencesInState(modifiedReferences, PdfObject.MODIFIED);
+                modifiedCompactionThreshold = Math.max(INITIAL_CAPACITY, 2 * modifiedReferences.size());
+            }
+            modifiedReferences.add(reference);
+        }
+    }
+
+    /**
+     * Takes the references which got {@link PdfObject#MUST_BE_FLUSHED} state since the previous call.
+     * The references which are not flushed by the caller shall be returned with
+     * {@link #addMustBeFlushedReferences(List)}.
+     *
+     * @return the list of references, possibly with the ones which are already flushed
+     */
+    List<PdfIndirectReference> takeMustBeFlushedReferences() {
+        if (mustBeFlushedReferences.isEmpty()) {
+            return Collections.<PdfIndirectReference>emptyList();
+        }
+        List<PdfIndirectReference> references = mustBeFlushedReferences;
+        mustBeFlushedReferences = new ArrayList<>();
+        return references;
+    }
+
+    void addMustBeFlushedReferences(List<PdfIndirectReference> references) {
+        mustBeFlushedReferences.addAll(references);
+    }
+
+    /**
+     * Takes the references which got {@link PdfObject#MODIFIED} state in append mode since the previous call.
+     * The references shall be returned with {@link #addModifiedReferences(List)} as long as they may be needed.
+     *
+     * @return the list of references, possibly with the ones which are already flushed or freed
+     */
+    List<PdfIndirectReference> takeModifiedReferences() {
+        if (modifiedReferences.isEmpty()) {
+            return Collections.<PdfIndirectReference>emptyList();
+        }
+        List<PdfIndirectReference> references = modifiedReferences;
+        modifiedReferences = new ArrayList<>();
+        return references;
+    }
+
+    void addModifiedReferences(List<PdfIndirectReference> references) {
+        modifiedReferences.addAll(references);
+    }
+
+    /**
+     * Checks whether the reference is the one stored in this table for its object number.
+     *
+     * @param reference the reference to check
+     *
+     * @return {@code true} if the reference is stored in this table, {@code false} otherwise
+     */
+    boolean contains(PdfIndirectReference reference) {
+        int objNr = reference.getObjNumber();
+        return objNr > 0 && get(objNr) == reference;
+    }
+
     /**
      * Clear the state of the cross-reference table.
      */
@@ -522,8 +701,26 @@ public class PdfXrefTable {
                 continue;
             }
             xref[i] = null;
+            if (compactStorageDocument != null && compactEntries[i] != 0
+                    && getCompactType(compactEntries[i]) != COMPACT_FREE) {
+                compactEntries[i] = 0;
+                materializedReferences.remove(i);
+            }
         }
         count = 1;
+        mustBeFlushedReferences.clear();
+        modifiedReferences.clear();
+    }
+
+    private static void retainReferencesInState(List<PdfIndirectReference> references, short requiredState) {
+        int size = 0;
+        for (PdfIndirectReference reference : references) {
+            if (reference.checkState(requiredState) && !reference.checkState(PdfObject.FLUSHED)
+                    && !reference.isFree()) {
+                references.set(size++, reference);
+            }
+        }
+        references.subList(size, references.size()).clear();
     }
 
     private List<Integer> createSections(PdfDocument document, boolean dropObjectsFromObjectStream) {
@@ -650,5 +847,85 @@ public class PdfXrefTable {
         PdfIndirectReference[] newXref = new PdfIndirectReference[capacity];
         System.arraycopy(this.xref, 0, newXref, 0, this.xref.length);
         this.xref = newXref;
+        if (compactStorageDocument != null) {
+            compactEntries = Arrays.copyOf(compactEntries, capacity);
+            compactGenerations = Arrays.copyOf(compactGenerations, capacity);
+        }
+    }
+
+    private boolean storeCompactly(PdfIndirectReference reference) {
+        int objNr = reference.getObjNumber();
+        // zero entry is used directly by the free references list
+        if (objNr == 0 || reference.getDocument() != compactStorageDocument || reference.refersTo != null
+                || reference.getGenNumber() < 0 || reference.checkState(PdfObject.READING)
+                || reference.checkState(PdfObject.MODIFIED) || reference.checkState(PdfObject.FLUSHED)) {
+            return false;
+        }
+        long entry;
+        if (reference.getObjStreamNumber() != 0) {
+            if (reference.isFree() || reference.getObjStreamNumber() < 0
+                    || reference.offsetOrIndex < 0 || reference.offsetOrIndex > COMPACT_INDEX_MASK) {
+                return false;
+            }
+            entry = COMPACT_COMPRESSED << COMPACT_TYPE_SHIFT
+                    | (long) reference.getObjStreamNumber() << COMPACT_OBJ_STREAM_SHIFT | reference.offsetOrIndex;
+        } else {
+            if (reference.offsetOrIndex < 0 || reference.offsetOrIndex > COMPACT_VALUE_MASK) {
+                return false;
+            }
+            entry = (reference.isFree() ? COMPACT_FREE : COMPACT_IN_USE) << COMPACT_TYPE_SHIFT
+                    | reference.offsetOrIndex;
+        }
+        compactEntries[objNr] = entry;
+        compactGenerations[objNr] = reference.getGenNumber();
+        CompactReferenceHolder holder = materializedReferences.get(objNr);
+        if (holder != null && holder.get() != reference) {
+            materializedReferences.remove(objNr);
+        }
+        return true;
+    }
+
+    private PdfIndirectReference materializeCompactReference(int objNr) {
+        expungeCollectedReferences();
+        CompactReferenceHolder holder = materializedReferences.get(objNr);
+        PdfIndirectReference reference = holder == null ? null : holder.get();
+        if (reference != null) {
+            return reference;
+        }
+        long entry = compactEntries[objNr];
+        long value = entry & COMPACT_VALUE_MASK;
+        reference = new PdfIndirectReference(compactStorageDocument, objNr, compactGenerations[objNr]);
+        long type = getCompactType(entry);
+        if (type == COMPACT_COMPRESSED) {
+            reference.setObjStreamNumber((int) (value >>> COMPACT_OBJ_STREAM_SHIFT));
+            reference.setIndex(value & COMPACT_INDEX_MASK);
+        } else {
+            reference.setOffset(value);
+            if (type == COMPACT_FREE) {
+                reference.setState(PdfObject.FREE);
+            }
+        }
+        materializedReferences.put(objNr, new CompactReferenceHolder(reference, collectedReferences));
+        return reference;
+    }
+
+    private void expungeCollectedReferences() {
+        CompactReferenceHolder holder;
+        while ((holder = (CompactReferenceHolder) collectedReferences.poll()) != null) {
+            materializedReferences.remove(holder.objNr, holder);
+        }
+    }
+
+    private static long getCompactType(long entry) {
+        return entry >>> COMPACT_TYPE_SHIFT;
+    }
+
+    private static final class CompactReferenceHolder extends WeakReference<PdfIndirectReference> {
+        private final int objNr;
+
+        CompactReferenceHolder(PdfIndirectReference reference, ReferenceQueue<PdfIndirectReference> queue) {
+            super(reference, queue);
+            this.objNr = reference.getObjNumber();
+        }
     }
 }
@@ -53,6 +53,10 @@ class SerializedObjectContent {
         this.hash = calculateHash(serializedContent);
     }
 
+    int size() {
+        return serializedContent.length;
+    }
+
     @Override
     public boolean equals(Object obj) {
         return obj instanceof SerializedObjectContent
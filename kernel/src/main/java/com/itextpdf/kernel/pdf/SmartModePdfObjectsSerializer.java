@@ -47,32 +47,93 @@ import com.itextpdf.kernel.exceptions.PdfException;
 
 import java.security.MessageDigest;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 class SmartModePdfObjectsSerializer {
+    /**
+     * Approximate number of bytes occupied by a single cache entry in addition to the serialized content itself:
+     * the map entry, the {@link SerializedObjectContent} instance and the byte array header.
+     */
+    static final int CACHE_ENTRY_OVERHEAD = 96;
+
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    private static final int FINGERPRINT_LENGTH = 32;
+
     private MessageDigest md5;
-    private HashMap<SerializedObjectContent, PdfIndirectReference> serializedContentToObj = new HashMap<>();
+    private MessageDigest fingerprintDigest;
+    private final long maxCacheSize;
+    private final long maxSerializedObjectsCount;
+    private long cacheSize;
+    private long hitsCount;
+    private long missesCount;
+    private long evictionsCount;
+    private LinkedHashMap<SerializedObjectContent, PdfIndirectReference> serializedContentToObj =
+            new LinkedHashMap<>(16, 0.75f, true);
 
     SmartModePdfObjectsSerializer() {
+        this(false, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates the serializer.
+     *
+     * @param useFingerprints if true, objects are identified by the SHA-256 digest of their serialized content
+     *                        instead of the full serialized content. Serialized content of referenced objects
+     *                        is replaced by their digests as well, so only fixed-size fingerprints are kept
+     * @param maxCacheSize    approximate maximum size in bytes of the cache of already written objects.
+     *                        Least recently used entries are evicted once the limit is exceeded. The same limit
+     *                        is applied to the per-document caches of serialized objects
+     */
+    SmartModePdfObjectsSerializer(boolean useFingerprints, long maxCacheSize) {
+        if (maxCacheSize < 0) {
+            throw new IllegalArgumentException("Smart mode cache size limit shall not be negative.");
+        }
         try {
             md5 = MessageDigest.getInstance("MD5");
+            if (useFingerprints) {
+                fingerprintDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+            }
         } catch (Exception e) {
             throw new PdfException(e);
         }
+        this.maxCacheSize = maxCacheSize;
+        this.maxSerializedObjectsCount = useFingerprints
+                ? maxCacheSize / (FINGERPRINT_LENGTH + CACHE_ENTRY_OVERHEAD) : Long.MAX_VALUE;
     }
 
     public void saveSerializedObject(SerializedObjectContent serializedContent, PdfIndirectReference objectReference) {
-        serializedContentToObj.put(serializedContent, objectReference);
+        if (serializedContentToObj.put(serializedContent, objectReference) == null) {
+            cacheSize += serializedContent.size() + CACHE_ENTRY_OVERHEAD;
+            evictIfNeeded();
+        }
     }
 
     public PdfIndirectReference getSavedSerializedObject(SerializedObjectContent serializedContent) {
         if (serializedContent != null) {
-            return serializedContentToObj.get(serializedContent);
+            PdfIndirectReference reference = serializedContentToObj.get(serializedContent);
+            if (reference != null) {
+                ++hitsCount;
+            } else {
+                ++missesCount;
+            }
+            return reference;
         }
         return null;
     }
 
+    /**
+     * Gets the snapshot of the current state of the cache of already written objects.
+     *
+     * @return {@link SmartModeStatistics} instance
+     */
+    public SmartModeStatistics getStatistics() {
+        return new SmartModeStatistics(hitsCount, missesCount, evictionsCount, serializedContentToObj.size(),
+                cacheSize);
+    }
+
     public SerializedObjectContent serializeObject(PdfObject obj) {
         if (!obj.isStream() && !obj.isDictionary()) {
             return null;
@@ -89,8 +150,11 @@ class SmartModePdfObjectsSerializer {
                 serObject(obj, bb, level, serializedCache);
             } catch (SelfReferenceException e) {
                 return null;
+            } finally {
+                // evict only when the whole object is serialized, not to lose the self reference markers
+                evictSerializedObjectsIfNeeded(serializedCache);
             }
-            content = bb.toByteArray();
+            content = toSerializedContent(bb);
         }
         return new SerializedObjectContent(content);
     }
@@ -110,7 +174,7 @@ class SmartModePdfObjectsSerializer {
             reference = (PdfIndirectReference) obj;
             byte[] cached = serializedCache.get(reference);
             if (cached != null) {
-                bb.append(cached);
+                bb.append("$I").append(cached);
                 return;
             } else {
 
@@ -147,8 +211,9 @@ class SmartModePdfObjectsSerializer {
         }
 
         if (savedBb != null) {
-            serializedCache.put(reference, bb.toByteArray());
-            savedBb.append(bb.getInternalBuffer(), 0, bb.size());
+            byte[] content = toSerializedContent(bb);
+            serializedCache.put(reference, content);
+            savedBb.append("$I").append(content);
         }
     }
 
@@ -179,6 +244,32 @@ class SmartModePdfObjectsSerializer {
         bb.append("$\\A");
     }
 
+    private byte[] toSerializedContent(ByteBuffer bb) {
+        if (fingerprintDigest == null) {
+            return bb.toByteArray();
+        }
+        fingerprintDigest.update(bb.getInternalBuffer(), 0, bb.size());
+        return fingerprintDigest.digest();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<SerializedObjectContent> iterator = serializedContentToObj.keySet().iterator();
+        while (cacheSize > maxCacheSize && iterator.hasNext()) {
+            SerializedObjectContent eldest = iterator.next();
+            iterator.remove();
+            cacheSize -= eldest.size() + CACHE_ENTRY_OVERHEAD;
+            ++evictionsCount;
+        }
+    }
+
+    private void evictSerializedObjectsIfNeeded(Map<PdfIndirectReference, byte[]> serializedCache) {
+        Iterator<PdfIndirectReference> iterator = serializedCache.keySet().iterator();
+        while (serializedCache.size() > maxSerializedObjectsCount && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
     private boolean isKeyRefersBack(PdfDictionary dic, PdfName key) {
         // TODO review this method?
         // ignore recursive call
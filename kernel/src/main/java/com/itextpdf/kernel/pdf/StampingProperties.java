@@ -49,6 +49,7 @@ public class StampingProperties extends DocumentProperties {
 
     protected boolean appendMode = false;
     protected boolean preserveEncryption = false;
+    protected boolean lazyTagStructureLoading = false;
 
     public StampingProperties() {
     }
@@ -57,6 +58,7 @@ public class StampingProperties extends DocumentProperties {
         super(other);
         this.appendMode = other.appendMode;
         this.preserveEncryption = other.preserveEncryption;
+        this.lazyTagStructureLoading = other.lazyTagStructureLoading;
     }
 
     /**
@@ -77,4 +79,17 @@ public class StampingProperties extends DocumentProperties {
         this.preserveEncryption = true;
         return this;
     }
+
+    /**
+     * Defines if marked content references of the existing tag structure will be resolved lazily.
+     * By default, the whole structure tree is walked when the document is opened. In lazy mode
+     * marked content references are only resolved for the pages which tags are actually accessed or modified,
+     * and they are released as soon as the page is flushed. This is useful for stamping of large tagged documents
+     * in which only a few pages are edited.
+     * @return this {@link StampingProperties} instance
+     */
+    public StampingProperties useLazyTagStructureLoading() {
+        this.lazyTagStructureLoading = true;
+        return this;
+    }
 }
@@ -60,8 +60,30 @@ public class WriterProperties {
      * and reused if there's an object with the same content later.
      */
     protected boolean smartMode;
+
+    /**
+     * Indicates if smart mode compares objects by their fixed-size fingerprints instead of full serialized content.
+     */
+    protected boolean smartModeFingerprints;
+
+    /**
+     * Approximate maximum size in bytes of the smart mode cache of already written objects.
+     */
+    protected long smartModeCacheSizeLimit;
     protected boolean addXmpMetadata;
+
+    /**
+     * The number of worker threads used to compress streams in advance, 0 means that streams are compressed
+     * on the writing thread.
+     */
+    protected int streamCompressionWorkersCount;
     protected boolean addUAXmpMetadata;
+
+    /**
+     * Indicates if equal resources of the pages get the same names and pages with equal resources share
+     * one resource dictionary.
+     */
+    protected boolean sharedPageResources;
     protected PdfVersion pdfVersion;
     protected EncryptionProperties encryptionProperties;
     /**
@@ -76,6 +98,8 @@ public class WriterProperties {
 
     public WriterProperties() {
         smartMode = false;
+        smartModeFingerprints = false;
+        smartModeCacheSizeLimit = Long.MAX_VALUE;
         addUAXmpMetadata = false;
         compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
         isFullCompression = null;
@@ -109,6 +133,33 @@ public class WriterProperties {
         return this;
     }
 
+    /**
+     * Enables smart mode with bounded memory consumption.
+     * <br>
+     * Unlike {@link #useSmartMode()}, objects are identified by the SHA-256 digest of their content,
+     * so only fixed-size fingerprints are kept in memory instead of the full serialized content of
+     * every copied dictionary and stream. When the approximate size of the cache exceeds the passed limit,
+     * least recently used entries are evicted, which means that an object may be written more than once
+     * if its previous copy has already been evicted.
+     * <br>
+     * The efficiency of the deduplication can be checked via {@link PdfWriter#getSmartModeStatistics()}.
+     *
+     * @param cacheSizeLimit approximate maximum size in bytes of the cache of already written objects
+     *
+     * @return this {@link WriterProperties} instance
+     *
+     * @throws IllegalArgumentException if the passed limit is negative
+     */
+    public WriterProperties useSmartModeWithFingerprints(long cacheSizeLimit) {
+        if (cacheSizeLimit < 0) {
+            throw new IllegalArgumentException("Smart mode cache size limit shall not be negative.");
+        }
+        this.smartMode = true;
+        this.smartModeFingerprints = true;
+        this.smartModeCacheSizeLimit = cacheSizeLimit;
+        return this;
+    }
+
     /**
      * If true, default XMPMetadata based on {@link PdfDocumentInfo} will be added.
      * For PDF 2.0 documents, metadata will be added in any case.
@@ -132,6 +183,39 @@ public class WriterProperties {
         return this;
     }
 
+    /**
+     * Enables compression of streams on a pool of worker threads.
+     * <br>
+     * Streams waiting to be written on document closing or flushing are compressed in parallel in advance,
+     * and then written sequentially, so that the resultant document is byte-identical to the document
+     * written with the serial compression. Streams created from an {@link java.io.InputStream},
+     * streams read in stamping mode and object streams are still compressed on the writing thread.
+     *
+     * @param workersCount the number of worker threads, the value less than 2 disables parallel compression
+     *
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties useParallelStreamCompression(int workersCount) {
+        this.streamCompressionWorkersCount = workersCount;
+        return this;
+    }
+
+    /**
+     * Enables sharing of page resources.
+     * <br>
+     * When enabled, a resource (such as a font, an image or an extended graphics state) added to several pages
+     * gets the same name on each of them, and pages which end up with equal resource dictionaries refer to
+     * a single /Resources dictionary, which is written only once. Unlike {@link #useSmartMode()}, no content
+     * of the written objects is kept or hashed: the resource dictionaries are compared when the pages are flushed.
+     * Only the pages whose resource dictionary is a direct object are shared.
+     *
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties useSharedPageResources() {
+        this.sharedPageResources = true;
+        return this;
+    }
+
     /**
      * Defines if full compression mode is enabled. If enabled, not only the content of the pdf document will be
      * compressed, but also the pdf document inner structure.
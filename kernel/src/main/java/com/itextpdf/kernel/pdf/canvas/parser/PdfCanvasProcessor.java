@@ -69,6 +69,7 @@ import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.Matrix;
 import com.itextpdf.kernel.geom.NoninvertibleTransformException;
 import com.itextpdf.kernel.geom.Path;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfIndirectReference;
@@ -90,6 +91,7 @@ import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.util.ContentOperandsList;
 import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
 import com.itextpdf.kernel.pdf.colorspace.PdfCieBasedCs;
 import com.itextpdf.kernel.pdf.colorspace.PdfColorSpace;
@@ -110,6 +112,8 @@ import java.util.*;
 public class PdfCanvasProcessor {
     public static final String DEFAULT_OPERATOR = "DefaultOperator";
 
+    private static final int MAX_RESOLVED_OPERATORS = 256;
+
     /**
      * Listener that will be notified of render events
      */
@@ -139,6 +143,11 @@ public class PdfCanvasProcessor {
      */
     private Map<String, IContentOperator> operators;
 
+    /**
+     * Operators resolved by their literals, so that the lookup doesn't create a string for every operation.
+     */
+    private final Map<PdfLiteral, IContentOperator> resolvedOperators = new HashMap<>();
+
     /**
      * Resources for the content stream.
      * Current resources are always at the top of the stack.
@@ -227,6 +236,7 @@ public class PdfCanvasProcessor {
      * @return the existing registered operator, if any
      */
     public IContentOperator registerContentOperator(String operatorString, IContentOperator operator) {
+        resolvedOperators.clear();
         return operators.put(operatorString, operator);
     }
 
@@ -275,9 +285,9 @@ public class PdfCanvasProcessor {
         this.resourcesStack.push(resources);
         PdfTokenizer tokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(contentBytes)));
         PdfCanvasParser ps = new PdfCanvasParser(tokeniser, resources);
-        List<PdfObject> operands = new ArrayList<>();
+        ContentOperandsList operands = new ContentOperandsList();
         try {
-            while (ps.parse(operands).size() > 0) {
+            while (ps.parseOperation(operands).size() > 0) {
                 PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
                 invokeOperator(operator, operands);
             }
@@ -297,10 +307,21 @@ public class PdfCanvasProcessor {
      * @param page the page to process
      */
     public void processPageContent(PdfPage page) {
-        initClippingPath(page);
+        processPageContent(page.getCropBox(), page.getContentBytes(), page.getResources());
+    }
+
+    /**
+     * Processes the already loaded content of a page.
+     *
+     * @param cropBox      the crop box of the page, which defines the initial clipping path
+     * @param contentBytes the content bytes of the page
+     * @param resources    the resources of the page
+     */
+    void processPageContent(Rectangle cropBox, byte[] contentBytes, PdfResources resources) {
+        initClippingPath(cropBox);
         ParserGraphicsState gs = getGraphicsState();
         eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
-        processContent(page.getContentBytes(), page.getResources());
+        processContent(contentBytes, resources);
     }
 
     /**
@@ -447,9 +468,15 @@ public class PdfCanvasProcessor {
      * @param operands a list with operands
      */
     protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
-        IContentOperator op = operators.get(operator.toString());
+        IContentOperator op = resolvedOperators.get(operator);
         if (op == null) {
-            op = operators.get(DEFAULT_OPERATOR);
+            op = operators.get(operator.toString());
+            if (op == null) {
+                op = operators.get(DEFAULT_OPERATOR);
+            }
+            if (resolvedOperators.size() < MAX_RESOLVED_OPERATORS) {
+                resolvedOperators.put(operator, op);
+            }
         }
         op.invoke(this, operator, operands);
     }
@@ -587,9 +614,20 @@ public class PdfCanvasProcessor {
         textMatrix = new Matrix(adjustBy, 0).multiply(textMatrix);
     }
 
-    private void initClippingPath(PdfPage page) {
+    /**
+     * Gets the content bytes of the form XObject which is going to be processed.
+     *
+     * @param xObjectStream the form XObject stream
+     *
+     * @return the decoded content bytes of the form XObject
+     */
+    byte[] getFormXObjectContentBytes(PdfStream xObjectStream) {
+        return xObjectStream.getBytes();
+    }
+
+    private void initClippingPath(Rectangle cropBox) {
         Path clippingPath = new Path();
-        clippingPath.rectangle(page.getCropBox());
+        clippingPath.rectangle(cropBox);
         getGraphicsState().setClippingPath(clippingPath);
     }
 
@@ -741,12 +779,12 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float a = ((PdfNumber) operands.get(0)).floatValue();
-            float b = ((PdfNumber) operands.get(1)).floatValue();
-            float c = ((PdfNumber) operands.get(2)).floatValue();
-            float d = ((PdfNumber) operands.get(3)).floatValue();
-            float e = ((PdfNumber) operands.get(4)).floatValue();
-            float f = ((PdfNumber) operands.get(5)).floatValue();
+            float a = getFloatOperand(operands, 0);
+            float b = getFloatOperand(operands, 1);
+            float c = getFloatOperand(operands, 2);
+            float d = getFloatOperand(operands, 3);
+            float e = getFloatOperand(operands, 4);
+            float f = getFloatOperand(operands, 5);
 
             processor.textLineMatrix = new Matrix(a, b, c, d, e, f);
             processor.textMatrix = processor.textLineMatrix;
@@ -769,7 +807,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float ty = ((PdfNumber) operands.get(1)).floatValue();
+            float ty = getFloatOperand(operands, 1);
 
             List<PdfObject> tlOperands = new ArrayList<PdfObject>(1);
             tlOperands.add(0, new PdfNumber(-ty));
@@ -786,8 +824,8 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float tx = ((PdfNumber) operands.get(0)).floatValue();
-            float ty = ((PdfNumber) operands.get(1)).floatValue();
+            float tx = getFloatOperand(operands, 0);
+            float ty = getFloatOperand(operands, 1);
 
             Matrix translationMatrix = new Matrix(tx, ty);
             processor.textMatrix = translationMatrix.multiply(processor.textLineMatrix);
@@ -804,7 +842,7 @@ public class PdfCanvasProcessor {
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
             PdfName fontResourceName = (PdfName) operands.get(0);
-            float size = ((PdfNumber) operands.get(1)).floatValue();
+            float size = getFloatOperand(operands, 1);
 
             PdfDictionary fontsDictionary = processor.getResources().getResource(PdfName.Font);
             PdfDictionary fontDict = fontsDictionary.getAsDictionary(fontResourceName);
@@ -838,8 +876,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber rise = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setTextRise(rise.floatValue());
+            processor.getGraphicsState().setTextRise(getFloatOperand(operands, 0));
         }
     }
 
@@ -851,8 +888,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber leading = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setLeading(leading.floatValue());
+            processor.getGraphicsState().setLeading(getFloatOperand(operands, 0));
         }
     }
 
@@ -864,8 +900,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber scale = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setHorizontalScaling(scale.floatValue());
+            processor.getGraphicsState().setHorizontalScaling(getFloatOperand(operands, 0));
         }
     }
 
@@ -877,8 +912,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber charSpace = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setCharSpacing(charSpace.floatValue());
+            processor.getGraphicsState().setCharSpacing(getFloatOperand(operands, 0));
         }
     }
 
@@ -890,8 +924,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber wordSpace = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setWordSpacing(wordSpace.floatValue());
+            processor.getGraphicsState().setWordSpacing(getFloatOperand(operands, 0));
         }
     }
 
@@ -951,12 +984,12 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float a = ((PdfNumber) operands.get(0)).floatValue();
-            float b = ((PdfNumber) operands.get(1)).floatValue();
-            float c = ((PdfNumber) operands.get(2)).floatValue();
-            float d = ((PdfNumber) operands.get(3)).floatValue();
-            float e = ((PdfNumber) operands.get(4)).floatValue();
-            float f = ((PdfNumber) operands.get(5)).floatValue();
+            float a = getFloatOperand(operands, 0);
+            float b = getFloatOperand(operands, 1);
+            float c = getFloatOperand(operands, 2);
+            float d = getFloatOperand(operands, 3);
+            float e = getFloatOperand(operands, 4);
+            float f = getFloatOperand(operands, 5);
             Matrix matrix = new Matrix(a, b, c, d, e, f);
             try {
                 processor.getGraphicsState().updateCtm(matrix);
@@ -1043,7 +1076,7 @@ public class PdfCanvasProcessor {
     private static Color getColor(int nOperands, List<PdfObject> operands) {
         float[] c = new float[nOperands];
         for (int i = 0; i < nOperands; i++) {
-            c[i] = ((PdfNumber) operands.get(i)).floatValue();
+            c[i] = getFloatOperand(operands, i);
         }
 
         switch (nOperands) {
@@ -1057,10 +1090,21 @@ public class PdfCanvasProcessor {
         return null;
     }
 
+    /**
+     * Gets a numeric operand as float. If the operands were parsed into a {@link ContentOperandsList},
+     * no {@link PdfNumber} is created for the operand.
+     */
+    private static float getFloatOperand(List<PdfObject> operands, int index) {
+        if (operands instanceof ContentOperandsList) {
+            return (float) ((ContentOperandsList) operands).getNumber(index);
+        }
+        return ((PdfNumber) operands.get(index)).floatValue();
+    }
+
     private static float[] getColorants(List<PdfObject> operands) {
         float[] c = new float[operands.size() - 1];
         for (int i = 0; i < operands.size() - 1; i++) {
-            c[i] = ((PdfNumber) operands.get(i)).floatValue();
+            c[i] = getFloatOperand(operands, i);
         }
         return c;
     }
@@ -1347,7 +1391,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            float lineWidth = ((PdfNumber) operands.get(0)).floatValue();
+            float lineWidth = getFloatOperand(operands, 0);
             processor.getGraphicsState().setLineWidth(lineWidth);
         }
     }
@@ -1389,7 +1433,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            float miterLimit = ((PdfNumber) operands.get(0)).floatValue();
+            float miterLimit = getFloatOperand(operands, 0);
             processor.getGraphicsState().setMiterLimit(miterLimit);
         }
     }
@@ -1426,7 +1470,7 @@ public class PdfCanvasProcessor {
             // this is probably not necessary (if we fail on this, probably the entire content stream processing
             // operation should be rejected
             byte[] contentBytes;
-            contentBytes = xObjectStream.getBytes();
+            contentBytes = processor.getFormXObjectContentBytes(xObjectStream);
             final PdfArray matrix = xObjectStream.getAsArray(PdfName.Matrix);
 
             new PushGraphicsStateOperator().invoke(processor, null, null);
@@ -1476,8 +1520,8 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
+            float x = getFloatOperand(operands, 0);
+            float y = getFloatOperand(operands, 1);
             processor.currentPath.moveTo(x, y);
         }
     }
@@ -1491,8 +1535,8 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
+            float x = getFloatOperand(operands, 0);
+            float y = getFloatOperand(operands, 1);
             processor.currentPath.lineTo(x, y);
         }
     }
@@ -1506,12 +1550,12 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x1 = ((PdfNumber) operands.get(0)).floatValue();
-            float y1 = ((PdfNumber) operands.get(1)).floatValue();
-            float x2 = ((PdfNumber) operands.get(2)).floatValue();
-            float y2 = ((PdfNumber) operands.get(3)).floatValue();
-            float x3 = ((PdfNumber) operands.get(4)).floatValue();
-            float y3 = ((PdfNumber) operands.get(5)).floatValue();
+            float x1 = getFloatOperand(operands, 0);
+            float y1 = getFloatOperand(operands, 1);
+            float x2 = getFloatOperand(operands, 2);
+            float y2 = getFloatOperand(operands, 3);
+            float x3 = getFloatOperand(operands, 4);
+            float y3 = getFloatOperand(operands, 5);
             processor.currentPath.curveTo(x1, y1, x2, y2, x3, y3);
         }
     }
@@ -1525,10 +1569,10 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x2 = ((PdfNumber) operands.get(0)).floatValue();
-            float y2 = ((PdfNumber) operands.get(1)).floatValue();
-            float x3 = ((PdfNumber) operands.get(2)).floatValue();
-            float y3 = ((PdfNumber) operands.get(3)).floatValue();
+            float x2 = getFloatOperand(operands, 0);
+            float y2 = getFloatOperand(operands, 1);
+            float x3 = getFloatOperand(operands, 2);
+            float y3 = getFloatOperand(operands, 3);
             processor.currentPath.curveTo(x2, y2, x3, y3);
         }
     }
@@ -1542,10 +1586,10 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x1 = ((PdfNumber) operands.get(0)).floatValue();
-            float y1 = ((PdfNumber) operands.get(1)).floatValue();
-            float x3 = ((PdfNumber) operands.get(2)).floatValue();
-            float y3 = ((PdfNumber) operands.get(3)).floatValue();
+            float x1 = getFloatOperand(operands, 0);
+            float y1 = getFloatOperand(operands, 1);
+            float x3 = getFloatOperand(operands, 2);
+            float y3 = getFloatOperand(operands, 3);
             processor.currentPath.curveFromTo(x1, y1, x3, y3);
         }
     }
@@ -1572,10 +1616,10 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
-            float w = ((PdfNumber) operands.get(2)).floatValue();
-            float h = ((PdfNumber) operands.get(3)).floatValue();
+            float x = getFloatOperand(operands, 0);
+            float y = getFloatOperand(operands, 1);
+            float w = getFloatOperand(operands, 2);
+            float h = getFloatOperand(operands, 3);
             processor.currentPath.rectangle(x, y, w, h);
         }
     }
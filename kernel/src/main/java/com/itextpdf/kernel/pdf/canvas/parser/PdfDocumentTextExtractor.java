@@ -0,0 +1,372 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Extracts text from the pages of a document on a pool of worker threads.
+ * <p>
+ * {@link PdfDocument} is not thread-safe, so everything that requires reading the document (the content
+ * of the pages and of the form XObjects, the objects reachable from the page resources and the fonts)
+ * is loaded on the calling thread, page by page. The loaded pages are then processed by independent
+ * {@link PdfCanvasProcessor} instances on the worker threads. Fonts are shared between the pages and
+ * between the subsequent calls of the same extractor.
+ * <p>
+ * The extraction strategies are called on the worker threads. The data of the text and path events is fully
+ * loaded, so it can be used freely. The image data is not preloaded, as most of the strategies don't need it:
+ * {@link EventType#RENDER_IMAGE} events are passed to the strategy while holding the lock of the document reading,
+ * so the image (e.g. {@link com.itextpdf.kernel.pdf.xobject.PdfImageXObject#getImageBytes()}) may only be read
+ * while handling the event and not later, e.g. in {@link ITextExtractionStrategy#getResultantText()}.
+ * <p>
+ * The document must not be used by other threads while the text is being extracted.
+ */
+public class PdfDocumentTextExtractor {
+    private static final int PAGES_IN_FLIGHT_PER_WORKER = 2;
+
+    private final PdfDocument pdfDocument;
+    private final int workersCount;
+    private final Map<PdfObject, PdfFont> fonts = new ConcurrentHashMap<>();
+    private final Object readLock = new Object();
+
+    /**
+     * Creates a new extractor of the text of the passed document.
+     *
+     * @param pdfDocument  the document to extract the text from
+     * @param workersCount the number of worker threads, the value less than 2 means that the text is extracted
+     *                     on the calling thread
+     */
+    public PdfDocumentTextExtractor(PdfDocument pdfDocument, int workersCount) {
+        this.pdfDocument = pdfDocument;
+        this.workersCount = workersCount;
+    }
+
+    /**
+     * Extracts the text of all the pages of the document.
+     *
+     * @param strategySupplier the supplier of the extraction strategies, a new strategy is requested for each page
+     *
+     * @return the text of the pages in page order
+     */
+    public List<String> getTextFromPages(Supplier<? extends ITextExtractionStrategy> strategySupplier) {
+        return getTextFromPages(1, pdfDocument.getNumberOfPages(), strategySupplier);
+    }
+
+    /**
+     * Extracts the text of the pages in the passed range.
+     *
+     * @param fromPage         the number of the first page, starting from 1
+     * @param toPage           the number of the last page, inclusive
+     * @param strategySupplier the supplier of the extraction strategies, a new strategy is requested for each page
+     *
+     * @return the text of the pages in page order
+     */
+    public List<String> getTextFromPages(int fromPage, int toPage,
+            Supplier<? extends ITextExtractionStrategy> strategySupplier) {
+        List<String> result = new ArrayList<>(Math.max(0, toPage - fromPage + 1));
+        if (workersCount < 2 || fromPage >= toPage) {
+            for (int i = fromPage; i <= toPage; i++) {
+                result.add(new ExtractionTask(loadPage(i), strategySupplier.get()).call());
+            }
+            return result;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workersCount, toPage - fromPage + 1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-text-extraction");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            Deque<Future<String>> pendingPages = new ArrayDeque<>();
+            for (int i = fromPage; i <= toPage; i++) {
+                LoadedPage page = loadPage(i);
+                pendingPages.add(executor.submit(new ExtractionTask(page, strategySupplier.get())));
+                // Bounds the number of loaded pages kept in memory
+                if (pendingPages.size() >= workersCount * PAGES_IN_FLIGHT_PER_WORKER) {
+                    result.add(getResult(pendingPages.poll()));
+                }
+            }
+            while (!pendingPages.isEmpty()) {
+                result.add(getResult(pendingPages.poll()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private static String getResult(Future<String> pageText) {
+        try {
+            return pageText.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(KernelExceptionMessageConstant.TEXT_EXTRACTION_WAS_INTERRUPTED, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(e.getCause());
+        }
+    }
+
+    private LoadedPage loadPage(int pageNumber) {
+        synchronized (readLock) {
+            PdfPage page = pdfDocument.getPage(pageNumber);
+            LoadedPage loadedPage = new LoadedPage(page.getCropBox(), page.getContentBytes(), page.getResources());
+            loadResources(loadedPage.resources.getPdfObject(), loadedPage,
+                    Collections.newSetFromMap(new IdentityHashMap<PdfObject, Boolean>()),
+                    Collections.newSetFromMap(new IdentityHashMap<PdfObject, Boolean>()));
+            return loadedPage;
+        }
+    }
+
+    private void loadResources(PdfDictionary resources, LoadedPage page, Set<PdfObject> visitedResources,
+            Set<PdfObject> visitedObjects) {
+        if (!visitedResources.add(resources)) {
+            return;
+        }
+        loadObject(resources, visitedObjects);
+        PdfDictionary fontResources = resources.getAsDictionary(PdfName.Font);
+        if (fontResources != null) {
+            for (PdfName name : fontResources.keySet()) {
+                loadFont(fontResources.getAsDictionary(name));
+            }
+        }
+        PdfDictionary extGStates = resources.getAsDictionary(PdfName.ExtGState);
+        if (extGStates != null) {
+            for (PdfName name : extGStates.keySet()) {
+                PdfDictionary extGState = extGStates.getAsDictionary(name);
+                PdfArray font = extGState == null ? null : extGState.getAsArray(PdfName.Font);
+                if (font != null) {
+                    loadFont(font.getAsDictionary(0));
+                }
+            }
+        }
+        PdfDictionary xObjects = resources.getAsDictionary(PdfName.XObject);
+        if (xObjects != null) {
+            for (PdfName name : xObjects.keySet()) {
+                PdfStream xObject = xObjects.getAsStream(name);
+                if (xObject != null && PdfName.Form.equals(xObject.getAsName(PdfName.Subtype))
+                        && !page.formContents.containsKey(xObject)) {
+                    page.formContents.put(xObject, xObject.getBytes());
+                    PdfDictionary formResources = xObject.getAsDictionary(PdfName.Resources);
+                    if (formResources != null) {
+                        loadResources(formResources, page, visitedResources, visitedObjects);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves all the indirect objects reachable from the passed one, so that the worker threads
+     * don't need to read them.
+     */
+    private static void loadObject(PdfObject object, Set<PdfObject> visited) {
+        if (object.isDictionary() || object.isStream()) {
+            PdfDictionary dictionary = (PdfDictionary) object;
+            for (PdfName key : dictionary.keySet()) {
+                if (PdfName.Parent.equals(key) || PdfName.P.equals(key)) {
+                    continue;
+                }
+                PdfObject value = dictionary.get(key);
+                if (value != null && visited.add(value)) {
+                    loadObject(value, visited);
+                }
+            }
+        } else if (object.isArray()) {
+            PdfArray array = (PdfArray) object;
+            for (int i = 0; i < array.size(); i++) {
+                PdfObject item = array.get(i);
+                if (item != null && visited.add(item)) {
+                    loadObject(item, visited);
+                }
+            }
+        }
+    }
+
+    private void loadFont(PdfDictionary fontDict) {
+        if (fontDict == null || fonts.containsKey(getFontKey(fontDict))) {
+            return;
+        }
+        try {
+            fonts.put(getFontKey(fontDict), PdfFontFactory.createFont(fontDict));
+        } catch (RuntimeException e) {
+            // The font may not be used by the content, if it is, the failure is reported on processing
+        }
+    }
+
+    private PdfFont getFont(PdfDictionary fontDict) {
+        PdfObject key = getFontKey(fontDict);
+        PdfFont font = fonts.get(key);
+        if (font == null) {
+            synchronized (readLock) {
+                font = fonts.get(key);
+                if (font == null) {
+                    font = PdfFontFactory.createFont(fontDict);
+                    fonts.put(key, font);
+                }
+            }
+        }
+        return font;
+    }
+
+    private static PdfObject getFontKey(PdfDictionary fontDict) {
+        return fontDict.getIndirectReference() == null ? fontDict : fontDict.getIndirectReference();
+    }
+
+    private static final class LoadedPage {
+        private final Rectangle cropBox;
+        private final byte[] contentBytes;
+        private final PdfResources resources;
+        private final Map<PdfStream, byte[]> formContents = new IdentityHashMap<>();
+
+        LoadedPage(Rectangle cropBox, byte[] contentBytes, PdfResources resources) {
+            this.cropBox = cropBox;
+            this.contentBytes = contentBytes;
+            this.resources = resources;
+        }
+    }
+
+    private final class ExtractionTask implements Callable<String> {
+        private final LoadedPage page;
+        private final ITextExtractionStrategy strategy;
+
+        ExtractionTask(LoadedPage page, ITextExtractionStrategy strategy) {
+            this.page = page;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public String call() {
+            new LoadedPageProcessor(page, strategy).processPageContent(page.cropBox, page.contentBytes,
+                    page.resources);
+            return strategy.getResultantText();
+        }
+    }
+
+    private final class LoadedPageProcessor extends PdfCanvasProcessor {
+        private final LoadedPage page;
+
+        LoadedPageProcessor(LoadedPage page, ITextExtractionStrategy strategy) {
+            super(new ImageReadLockingListener(strategy));
+            this.page = page;
+        }
+
+        @Override
+        protected PdfFont getFont(PdfDictionary fontDict) {
+            return PdfDocumentTextExtractor.this.getFont(fontDict);
+        }
+
+        @Override
+        byte[] getFormXObjectContentBytes(PdfStream xObjectStream) {
+            byte[] contentBytes = page.formContents.get(xObjectStream);
+            if (contentBytes == null) {
+                synchronized (readLock) {
+                    contentBytes = xObjectStream.getBytes();
+                }
+            }
+            return contentBytes;
+        }
+    }
+
+    /**
+     * Passes the image events to the listener while holding the read lock, as reading the image data
+     * requires reading the document.
+     */
+    private final class ImageReadLockingListener implements IEventListener {
+        private final IEventListener listener;
+
+        ImageReadLockingListener(IEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            if (type == EventType.RENDER_IMAGE) {
+                synchronized (readLock) {
+                    listener.eventOccurred(data, type);
+                }
+            } else {
+                listener.eventOccurred(data, type);
+            }
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return listener.getSupportedEvents();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.geom.Vector;
+import com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link LocationTextExtractionStrategy} which keeps the baselines of the collected text chunks in a uniform grid,
+ * so that the text of any number of page regions can be extracted after processing the page once.
+ * <p>
+ * {@link #getResultantText(Rectangle)} returns the same text as {@link LocationTextExtractionStrategy} wrapped into
+ * a {@link FilteredTextEventListener} with a {@link TextRegionEventFilter} for the same region, except that the
+ * baselines are tested with the text rise removed. Only the chunks from the grid cells which overlap the region
+ * are tested against it.
+ */
+public class IndexedLocationTextExtractionStrategy extends LocationTextExtractionStrategy {
+    private static final float CELL_SIZE = 32;
+
+    /**
+     * Chunks which span more cells than this are not put into the grid and are tested for every region.
+     */
+    private static final int MAX_CELLS_PER_CHUNK = 64;
+
+    private final Map<Long, List<Integer>> cells = new HashMap<>();
+    private final List<Integer> largeChunks = new ArrayList<>();
+    private int indexedChunksCount = 0;
+    private TextChunk lastIndexedChunk;
+
+    /**
+     * Creates a new text extraction strategy.
+     */
+    public IndexedLocationTextExtractionStrategy() {
+        super();
+    }
+
+    /**
+     * Creates a new text extraction strategy with a custom {@link ITextChunkLocationStrategy} implementation.
+     *
+     * @param strat the custom strategy
+     */
+    public IndexedLocationTextExtractionStrategy(ITextChunkLocationStrategy strat) {
+        super(strat);
+    }
+
+    /**
+     * Returns the text of the chunks whose baseline intersects the passed region.
+     *
+     * @param region the region of the page, in the default user space units
+     * @return the text of the region
+     */
+    public String getResultantText(Rectangle region) {
+        List<TextChunk> textChunks = getTextChunks();
+        updateIndex(textChunks);
+
+        BitSet candidates = new BitSet(textChunks.size());
+        int fromX = toCell(region.getLeft());
+        int toX = toCell(region.getRight());
+        int fromY = toCell(region.getBottom());
+        int toY = toCell(region.getTop());
+        if ((long) (toX - fromX + 1) * (toY - fromY + 1) > cells.size()) {
+            for (List<Integer> cell : cells.values()) {
+                addAll(candidates, cell);
+            }
+        } else {
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    List<Integer> cell = cells.get(toKey(x, y));
+                    if (cell != null) {
+                        addAll(candidates, cell);
+                    }
+                }
+            }
+        }
+        addAll(candidates, largeChunks);
+
+        List<TextChunk> chunksInRegion = new ArrayList<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            ITextChunkLocation location = textChunks.get(i).getLocation();
+            Vector start = location.getStartLocation();
+            Vector end = location.getEndLocation();
+            if (region.intersectsLine(start.get(Vector.I1), start.get(Vector.I2), end.get(Vector.I1),
+                    end.get(Vector.I2))) {
+                chunksInRegion.add(textChunks.get(i));
+            }
+        }
+        return getResultantText(chunksInRegion);
+    }
+
+    private void updateIndex(List<TextChunk> textChunks) {
+        // With actual text the last chunk may be replaced by the merged one, which has different bounds
+        if (indexedChunksCount > 0 && textChunks.get(indexedChunksCount - 1) != lastIndexedChunk) {
+            cells.clear();
+            largeChunks.clear();
+            indexedChunksCount = 0;
+        }
+        for (int i = indexedChunksCount; i < textChunks.size(); i++) {
+            ITextChunkLocation location = textChunks.get(i).getLocation();
+            Vector start = location.getStartLocation();
+            Vector end = location.getEndLocation();
+            int fromX = toCell(Math.min(start.get(Vector.I1), end.get(Vector.I1)));
+            int toX = toCell(Math.max(start.get(Vector.I1), end.get(Vector.I1)));
+            int fromY = toCell(Math.min(start.get(Vector.I2), end.get(Vector.I2)));
+            int toY = toCell(Math.max(start.get(Vector.I2), end.get(Vector.I2)));
+            if ((long) (toX - fromX + 1) * (toY - fromY + 1) > MAX_CELLS_PER_CHUNK) {
+                largeChunks.add(i);
+                continue;
+            }
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    long key = toKey(x, y);
+                    List<Integer> cell = cells.get(key);
+                    if (cell == null) {
+                        cell = new ArrayList<>();
+                        cells.put(key, cell);
+                    }
+                    cell.add(i);
+                }
+            }
+        }
+        indexedChunksCount = textChunks.size();
+        lastIndexedChunk = indexedChunksCount == 0 ? null : textChunks.get(indexedChunksCount - 1);
+    }
+
+    private static void addAll(BitSet candidates, List<Integer> chunkIndices) {
+        for (int chunkIndex : chunkIndices) {
+            candidates.set(chunkIndex);
+        }
+    }
+
+    private static int toCell(float coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long toKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
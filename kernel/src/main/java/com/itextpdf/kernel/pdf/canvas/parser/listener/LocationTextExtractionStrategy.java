@@ -183,7 +183,16 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
     public String getResultantText() {
         if (DUMP_STATE) dumpState();
 
-        List<TextChunk> textChunks = new ArrayList<>(locationalResult);
+        return getResultantText(new ArrayList<>(locationalResult));
+    }
+
+    /**
+     * Builds the text of the passed chunks. The passed list is sorted in place.
+     *
+     * @param textChunks the chunks to build the text of, in the order they were rendered
+     * @return the text of the chunks
+     */
+    String getResultantText(List<TextChunk> textChunks) {
         sortWithMarks(textChunks);
 
         StringBuilder sb = new StringBuilder();
@@ -210,6 +219,15 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
         return sb.toString();
     }
 
+    /**
+     * Gets the chunks collected so far, in the order they were rendered.
+     *
+     * @return the collected chunks
+     */
+    List<TextChunk> getTextChunks() {
+        return locationalResult;
+    }
+
     /**
      * Determines if a space character should be inserted between a previous chunk and the current chunk.
      * This method is exposed as a callback so subclasses can fine time the algorithm for determining whether a space should be inserted or not.
@@ -269,34 +287,30 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
     private void sortWithMarks(List<TextChunk> textChunks) {
         Map<TextChunk, TextChunkMarks> marks = new HashMap<>();
         List<TextChunk> toSort = new ArrayList<>();
+        // Base chunks grouped by their distance from the origin perpendicular to the baseline, so that only
+        // the chunks on the same line are checked for each mark. Built on the first mark.
+        Map<Integer, List<Integer>> basesByDistPerpendicular = null;
 
         for (int markInd = 0; markInd < textChunks.size(); markInd++) {
             ITextChunkLocation location = textChunks.get(markInd).getLocation();
             if (location.getStartLocation().equals(location.getEndLocation())) {
-                boolean foundBaseToAttachTo = false;
-                for (int baseInd = 0; baseInd < textChunks.size(); baseInd++) {
-                    if (markInd != baseInd) {
-                        ITextChunkLocation baseLocation = textChunks.get(baseInd).getLocation();
-                        if (!baseLocation.getStartLocation().equals(baseLocation.getEndLocation()) && TextChunkLocationDefaultImp.containsMark(baseLocation, location)) {
-                            TextChunkMarks currentMarks = marks.get(textChunks.get(baseInd));
-                            if (currentMarks == null) {
-                                currentMarks = new TextChunkMarks();
-                                marks.put(textChunks.get(baseInd), currentMarks);
-                            }
-
-                            if (markInd < baseInd) {
-                                currentMarks.preceding.add(textChunks.get(markInd));
-                            } else {
-                                currentMarks.succeeding.add(textChunks.get(markInd));
-                            }
-
-                            foundBaseToAttachTo = true;
-                            break;
-                        }
-                    }
+                if (basesByDistPerpendicular == null) {
+                    basesByDistPerpendicular = groupBasesByDistPerpendicular(textChunks);
                 }
+                int baseInd = findBaseToAttachTo(textChunks, basesByDistPerpendicular, location);
+                if (baseInd >= 0) {
+                    TextChunkMarks currentMarks = marks.get(textChunks.get(baseInd));
+                    if (currentMarks == null) {
+                        currentMarks = new TextChunkMarks();
+                        marks.put(textChunks.get(baseInd), currentMarks);
+                    }
 
-                if (!foundBaseToAttachTo) {
+                    if (markInd < baseInd) {
+                        currentMarks.preceding.add(textChunks.get(markInd));
+                    } else {
+                        currentMarks.succeeding.add(textChunks.get(markInd));
+                    }
+                } else {
                     toSort.add(textChunks.get(markInd));
                 }
             } else {
@@ -336,6 +350,50 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
         }
     }
 
+    private static Map<Integer, List<Integer>> groupBasesByDistPerpendicular(List<TextChunk> textChunks) {
+        Map<Integer, List<Integer>> bases = new HashMap<>();
+        for (int baseInd = 0; baseInd < textChunks.size(); baseInd++) {
+            ITextChunkLocation baseLocation = textChunks.get(baseInd).getLocation();
+            if (!baseLocation.getStartLocation().equals(baseLocation.getEndLocation())) {
+                List<Integer> line = bases.get(baseLocation.distPerpendicular());
+                if (line == null) {
+                    line = new ArrayList<>();
+                    bases.put(baseLocation.distPerpendicular(), line);
+                }
+                line.add(baseInd);
+            }
+        }
+        return bases;
+    }
+
+    /**
+     * Finds the first base chunk which contains the mark, the same one the linear search over all the chunks
+     * would find.
+     */
+    private static int findBaseToAttachTo(List<TextChunk> textChunks, Map<Integer, List<Integer>> bases,
+            ITextChunkLocation markLocation) {
+        int found = -1;
+        int distPerpendicular = markLocation.distPerpendicular();
+        for (int dist = distPerpendicular - TextChunkLocationDefaultImp.DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION;
+                dist <= distPerpendicular + TextChunkLocationDefaultImp.DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION;
+                dist++) {
+            List<Integer> line = bases.get(dist);
+            if (line == null) {
+                continue;
+            }
+            for (int baseInd : line) {
+                if (found >= 0 && baseInd > found) {
+                    break;
+                }
+                if (TextChunkLocationDefaultImp.containsMark(textChunks.get(baseInd).getLocation(), markLocation)) {
+                    found = baseInd;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
     public interface ITextChunkLocationStrategy {
         ITextChunkLocation createLocation(TextRenderInfo renderInfo, LineSegment baseline);
     }
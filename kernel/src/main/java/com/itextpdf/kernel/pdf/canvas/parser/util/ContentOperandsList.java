@@ -0,0 +1,285 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A list of content stream operands which keeps the numeric operands in a primitive form.
+ * <br>
+ * {@link PdfNumber} instances for the numeric operands are only created when they are requested
+ * via {@link #get(int)}, while {@link #getNumber(int)} reads their values without creating any objects.
+ * The list is meant to be reused for all the operations of a content stream,
+ * see {@link PdfCanvasParser#parseOperation(ContentOperandsList)}.
+ */
+public class ContentOperandsList extends AbstractList<PdfObject> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Numbers with more significant digits can't be parsed exactly with a single division.
+     */
+    private static final int MAX_FAST_PARSED_DIGITS = 15;
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private PdfObject[] objects = new PdfObject[INITIAL_CAPACITY];
+    private boolean[] numeric = new boolean[INITIAL_CAPACITY];
+    private double[] numbers = new double[INITIAL_CAPACITY];
+    private int[] numberContentOffsets = new int[INITIAL_CAPACITY];
+    private int[] numberContentLengths = new int[INITIAL_CAPACITY];
+    private final ByteBuffer numberContents = new ByteBuffer(64);
+    private int size;
+
+    /**
+     * Creates an empty list of operands.
+     */
+    public ContentOperandsList() {
+        super();
+    }
+
+    /**
+     * Adds the number the tokenizer is currently positioned at.
+     *
+     * @param tokenizer the tokenizer with the current token of {@link PdfTokenizer.TokenType#Number} type
+     */
+    public void addNumber(PdfTokenizer tokenizer) {
+        ensureCapacity(size + 1);
+        int offset = numberContents.size();
+        tokenizer.appendByteContent(numberContents);
+        int length = numberContents.size() - offset;
+        objects[size] = null;
+        numeric[size] = true;
+        numbers[size] = parseNumber(numberContents.getInternalBuffer(), offset, length);
+        numberContentOffsets[size] = offset;
+        numberContentLengths[size] = length;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Gets the value of the numeric operand without creating a {@link PdfNumber} for it.
+     *
+     * @param index the index of the operand
+     * @return the value of the operand
+     * @throws ClassCastException if the operand is not a number
+     */
+    public double getNumber(int index) {
+        checkIndex(index);
+        if (numeric[index]) {
+            return numbers[index];
+        }
+        return ((PdfNumber) objects[index]).doubleValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PdfObject get(int index) {
+        checkIndex(index);
+        PdfObject object = objects[index];
+        if (object == null && numeric[index]) {
+            int offset = numberContentOffsets[index];
+            object = new PdfNumber(Arrays.copyOfRange(numberContents.getInternalBuffer(), offset,
+                    offset + numberContentLengths[index]));
+            objects[index] = object;
+        }
+        return object;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PdfObject set(int index, PdfObject element) {
+        PdfObject previous = get(index);
+        objects[index] = element;
+        numeric[index] = false;
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(int index, PdfObject element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        objects[index] = element;
+        numeric[index] = false;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PdfObject remove(int index) {
+        PdfObject removed = get(index);
+        shift(index + 1, index, size - index - 1);
+        size--;
+        objects[size] = null;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        numberContents.reset();
+        modCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Parses a number the same way as {@link PdfNumber} does, but without creating intermediate objects
+     * for the numbers which can be parsed exactly.
+     *
+     * @param content the array containing the number
+     * @param offset the offset of the number in the array
+     * @param length the length of the number
+     * @return the parsed value or {@link Double#NaN} if the content is not a number
+     */
+    static double parseNumber(byte[] content, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (content[i] == '-' || content[i] == '+')) {
+            negative = content[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean hasDigits = false;
+        boolean hasPoint = false;
+        for (; i < end; i++) {
+            byte b = content[i];
+            if (b >= '0' && b <= '9') {
+                hasDigits = true;
+                if (mantissa != 0 || b != '0') {
+                    significantDigits++;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (hasPoint) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !hasPoint) {
+                hasPoint = true;
+            } else {
+                return parseNumberSlowly(content, offset, length);
+            }
+        }
+        if (!hasDigits || significantDigits > MAX_FAST_PARSED_DIGITS || fractionDigits >= POWERS_OF_TEN.length) {
+            return parseNumberSlowly(content, offset, length);
+        }
+        // both values are exact, so the single division is rounded in the same way as Double.parseDouble does
+        double value = fractionDigits == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double parseNumberSlowly(byte[] content, int offset, int length) {
+        try {
+            return Double.parseDouble(new String(content, offset, length, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(objects, from, objects, to, length);
+        System.arraycopy(numeric, from, numeric, to, length);
+        System.arraycopy(numbers, from, numbers, to, length);
+        System.arraycopy(numberContentOffsets, from, numberContentOffsets, to, length);
+        System.arraycopy(numberContentLengths, from, numberContentLengths, to, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > objects.length) {
+            int newCapacity = Math.max(capacity, objects.length << 1);
+            objects = Arrays.copyOf(objects, newCapacity);
+            numeric = Arrays.copyOf(numeric, newCapacity);
+            numbers = Arrays.copyOf(numbers, newCapacity);
+            numberContentOffsets = Arrays.copyOf(numberContentOffsets, newCapacity);
+            numberContentLengths = Arrays.copyOf(numberContentLengths, newCapacity);
+        }
+    }
+}
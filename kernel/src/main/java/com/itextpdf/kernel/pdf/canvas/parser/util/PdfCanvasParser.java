@@ -45,6 +45,8 @@ package com.itextpdf.kernel.pdf.canvas.parser.util;
 
 import com.itextpdf.commons.utils.MessageFormatUtil;
 import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
 import com.itextpdf.kernel.pdf.PdfArray;
@@ -67,6 +69,10 @@ import java.util.List;
  */
 public class PdfCanvasParser {
 
+    private static final byte[] BI = ByteUtils.getIsoBytes("BI");
+
+    private static final int OPERATORS_CACHE_SIZE = 128;
+
     /**
      * Holds value of property tokeniser.
      */
@@ -74,6 +80,14 @@ public class PdfCanvasParser {
 
     private PdfResources currentResources;
 
+    /**
+     * Operators read by {@link #parseOperation(ContentOperandsList)}, so that the same literal instance
+     * is used for all the occurrences of an operator in the content.
+     */
+    private final PdfLiteral[] cachedOperators = new PdfLiteral[OPERATORS_CACHE_SIZE];
+    private final byte[][] cachedOperatorsContent = new byte[OPERATORS_CACHE_SIZE][];
+    private final ByteBuffer operatorContent = new ByteBuffer(8);
+
     /**
      * Creates a new instance of PdfContentParser
      * @param tokeniser the tokeniser with the content
@@ -129,6 +143,37 @@ public class PdfCanvasParser {
         return ls;
     }
 
+    /**
+     * Parses a single command from the content in the same way as {@link #parse(List)} does,
+     * but keeps the numeric operands in a primitive form and reuses the literals of the operators.
+     * The returned list will be empty if the end of content was reached.
+     * @param operands the list to use, it will be cleared before using
+     * @return the same list given as argument
+     * @throws IOException on error
+     */
+    public ContentOperandsList parseOperation(ContentOperandsList operands) throws IOException {
+        operands.clear();
+        while (nextValidToken()) {
+            final PdfTokenizer.TokenType type = tokeniser.getTokenType();
+            if (type == PdfTokenizer.TokenType.Number) {
+                operands.addNumber(tokeniser);
+            } else if (type == PdfTokenizer.TokenType.Other) {
+                if (tokeniser.tokenValueEqualsTo(BI)) {
+                    PdfStream inlineImageAsStream = InlineImageParsingUtils.parse(this, currentResources.getResource(PdfName.ColorSpace));
+                    operands.clear();
+                    operands.add(inlineImageAsStream);
+                    operands.add(new PdfLiteral("EI"));
+                } else {
+                    operands.add(readOperator());
+                }
+                break;
+            } else {
+                operands.add(readCurrentObject());
+            }
+        }
+        return operands;
+    }
+
     /**
      * Gets the tokeniser.
      * @return the tokeniser.
@@ -195,6 +240,24 @@ public class PdfCanvasParser {
     public PdfObject readObject() throws IOException {
         if (!nextValidToken())
             return null;
+        return readCurrentObject();
+    }
+
+    /**
+     * Reads the next token skipping over the comments.
+     * @return <CODE>true</CODE> if a token was read, <CODE>false</CODE> if the end of content was reached
+     * @throws IOException on error
+     */
+    public boolean nextValidToken() throws IOException {
+        while (tokeniser.nextToken()) {
+            if (tokeniser.getTokenType() == PdfTokenizer.TokenType.Comment)
+                continue;
+            return true;
+        }
+        return false;
+    }
+
+    private PdfObject readCurrentObject() throws IOException {
         final PdfTokenizer.TokenType type = tokeniser.getTokenType();
         switch (type) {
             case StartDic: {
@@ -216,17 +279,32 @@ public class PdfCanvasParser {
         }
     }
 
-    /**
-     * Reads the next token skipping over the comments.
-     * @return <CODE>true</CODE> if a token was read, <CODE>false</CODE> if the end of content was reached
-     * @throws IOException on error
-     */
-    public boolean nextValidToken() throws IOException {
-        while (tokeniser.nextToken()) {
-            if (tokeniser.getTokenType() == PdfTokenizer.TokenType.Comment)
-                continue;
-            return true;
+    private PdfLiteral readOperator() {
+        operatorContent.reset();
+        tokeniser.appendByteContent(operatorContent);
+        byte[] content = operatorContent.getInternalBuffer();
+        int length = operatorContent.size();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + content[i];
         }
-        return false;
+        int slot = hash & (OPERATORS_CACHE_SIZE - 1);
+        byte[] cachedContent = cachedOperatorsContent[slot];
+        if (cachedContent != null && cachedContent.length == length) {
+            boolean equal = true;
+            for (int i = 0; i < length && equal; i++) {
+                equal = cachedContent[i] == content[i];
+            }
+            if (equal) {
+                return cachedOperators[slot];
+            }
+        }
+        byte[] operatorBytes = operatorContent.toByteArray();
+        PdfLiteral operator = new PdfLiteral(operatorBytes);
+        if (cachedContent == null) {
+            cachedOperatorsContent[slot] = operatorBytes;
+            cachedOperators[slot] = operator;
+        }
+        return operator;
     }
 }
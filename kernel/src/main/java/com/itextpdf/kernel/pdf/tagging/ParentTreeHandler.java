@@ -49,6 +49,7 @@ import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
 import com.itextpdf.kernel.pdf.IsoKey;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfNull;
@@ -61,6 +62,7 @@ import com.itextpdf.kernel.pdf.PdfStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -92,13 +94,31 @@ class ParentTreeHandler {
     private Map<PdfIndirectReference, Integer> xObjectToStructParentsInd;
 
     /**
-     * Init ParentTreeHandler. On init the parent tree is read and stored in this instance.
+     * Original parent tree entries which are not claimed by any of the resolved pages yet. These entries are
+     * written to the resultant parent tree as is. Only used in lazy mode, otherwise {@code null}.
+     */
+    private Map<Integer, PdfObject> unresolvedParentTreeEntries;
+
+    /**
+     * Pages which marked content references were already resolved. Only used in lazy mode, otherwise {@code null}.
+     */
+    private Set<PdfIndirectReference> resolvedPages;
+
+    /**
+     * Init ParentTreeHandler. On init the parent tree is read and stored in this instance. If the document
+     * tag structure is loaded lazily, marked content references are resolved for every page on the first access.
      */
     ParentTreeHandler(PdfStructTreeRoot structTreeRoot) {
         this.structTreeRoot = structTreeRoot;
         parentTree = new PdfNumTree(structTreeRoot.getDocument().getCatalog(), PdfName.ParentTree);
         xObjectToStructParentsInd = new HashMap<>();
-        registerAllMcrs();
+        pageToPageMcrs = new HashMap<>();
+        if (structTreeRoot.getDocument().isLazyTagStructureLoading()) {
+            unresolvedParentTreeEntries = readParentTreeEntries();
+            resolvedPages = new HashSet<>();
+        } else {
+            registerAllMcrs();
+        }
         pageToStructParentsInd = new HashMap<>();
     }
 
@@ -106,16 +126,20 @@ class ParentTreeHandler {
      * Gets a list of all marked content references on the page.
      */
     public PageMcrsContainer getPageMarkedContentReferences(PdfPage page) {
-        return pageToPageMcrs.get(page.getPdfObject().getIndirectReference());
+        PdfIndirectReference pageRef = page.getPdfObject().getIndirectReference();
+        resolvePageMcrsIfNeeded(pageRef);
+        return pageToPageMcrs.get(pageRef);
     }
 
     // Mind that this method searches among items contained in page's content stream  only
     public PdfMcr findMcrByMcid(PdfDictionary pageDict, int mcid) {
+        resolvePageMcrsIfNeeded(pageDict.getIndirectReference());
         PageMcrsContainer pageMcrs = pageToPageMcrs.get(pageDict.getIndirectReference());
         return pageMcrs != null ? pageMcrs.getPageContentStreamsMcrs().get(mcid) : null;
     }
 
     public PdfObjRef findObjRefByStructParentIndex(PdfDictionary pageDict, int structParentIndex) {
+        resolvePageMcrsIfNeeded(pageDict.getIndirectReference());
         PageMcrsContainer pageMcrs = pageToPageMcrs.get(pageDict.getIndirectReference());
         return pageMcrs != null ? (PdfObjRef) pageMcrs.getObjRefs().get(structParentIndex) : null;
     }
@@ -137,11 +161,11 @@ class ParentTreeHandler {
      *             call.
      */
     public void createParentTreeEntryForPage(PdfPage page) {
-        PageMcrsContainer mcrs = getPageMarkedContentReferences(page);
+        // pages which were never resolved in lazy mode keep their original parent tree entries
+        PageMcrsContainer mcrs = pageToPageMcrs.remove(page.getPdfObject().getIndirectReference());
         if (mcrs == null) {
             return;
         }
-        pageToPageMcrs.remove(page.getPdfObject().getIndirectReference());
 
         if (updateStructParentTreeEntries(page, mcrs)) {
             structTreeRoot.setModified();
@@ -153,6 +177,12 @@ class ParentTreeHandler {
         if (page.isFlushed() || pageToPageMcrs.get(indRef) == null) {
             return;
         }
+        if (isLazy()) {
+            // marked content references of the page can't be changed anymore, so its parent tree entries
+            // are created right away and the references are released
+            createParentTreeEntryForPage(page);
+            return;
+        }
         // TODO checking for XObject-related mcrs is here to keep up the same behaviour that should be fixed in the scope of DEVSIX-3351
         boolean hasNonObjRefMcr = pageToPageMcrs.get(indRef).getPageContentStreamsMcrs().size() > 0 ||
                 pageToPageMcrs.get(indRef).getPageResourceXObjects().size() > 0;
@@ -162,14 +192,40 @@ class ParentTreeHandler {
         }
     }
 
+    /**
+     * Creates parent tree entries for all the pages which marked content references are still held by this handler.
+     * In lazy mode this allows to avoid iterating over all the pages of the document.
+     */
+    public void createParentTreeEntriesForRemainingPages() {
+        PdfDocument document = structTreeRoot.getDocument();
+        for (PdfIndirectReference pageRef : new ArrayList<>(pageToPageMcrs.keySet())) {
+            PdfObject pageDict = pageRef.getRefersTo();
+            PdfPage page = pageDict instanceof PdfDictionary ? document.getPage((PdfDictionary) pageDict) : null;
+            if (page != null) {
+                createParentTreeEntryForPage(page);
+            }
+        }
+    }
+
     public PdfDictionary buildParentTree() {
+        if (isLazy()) {
+            for (Map.Entry<Integer, PdfObject> entry : unresolvedParentTreeEntries.entrySet()) {
+                parentTree.addEntry((int) entry.getKey(), entry.getValue());
+            }
+            unresolvedParentTreeEntries.clear();
+        }
         return (PdfDictionary) parentTree.buildTree().makeIndirect(structTreeRoot.getDocument());
     }
 
     public void registerMcr(PdfMcr mcr) {
+        resolvePageMcrsIfNeeded(mcr.getPageIndirectReference());
         registerMcr(mcr, false);
     }
 
+    boolean isLazy() {
+        return resolvedPages != null;
+    }
+
     private void registerMcr(PdfMcr mcr, boolean registeringOnInit) {
         PdfIndirectReference mcrPageIndRef = mcr.getPageIndirectReference();
         if (mcrPageIndRef == null || (!(mcr instanceof PdfObjRef) && mcr.getMcid() < 0)) {
@@ -207,7 +263,8 @@ class ParentTreeHandler {
                 logger.error(IoLogMessageConstant.XOBJECT_HAS_NO_STRUCT_PARENTS);
             }
             pageMcrs.putXObjectMcr(stmIndRef, mcr);
-            if (registeringOnInit) {
+            // in lazy mode the stream might have been already modified by the time the page is resolved
+            if (registeringOnInit && !isLazy()) {
                 xObjectStream.release();
             }
         } else if (mcr instanceof PdfObjRef) {
@@ -242,6 +299,7 @@ class ParentTreeHandler {
             throw new PdfException(
                     KernelExceptionMessageConstant.CANNOT_REMOVE_MARKED_CONTENT_REFERENCE_BECAUSE_ITS_PAGE_WAS_ALREADY_FLUSHED);
         }
+        resolvePageMcrsIfNeeded(pageDict.getIndirectReference());
         PageMcrsContainer pageMcrs = pageToPageMcrs.get(pageDict.getIndirectReference());
         if (pageMcrs != null) {
             PdfObject stm;
@@ -279,42 +337,147 @@ class ParentTreeHandler {
     }
 
     private void registerAllMcrs() {
-        pageToPageMcrs = new HashMap<>();
+        Set<PdfDictionary> mcrParents = new LinkedHashSet<>();
+        for (PdfObject entryValue : readParentTreeEntries().values()) {
+            collectMcrParents(entryValue, mcrParents);
+        }
+
+        for (PdfObject mcrParent : mcrParents) {
+            PdfStructElem mcrParentStructElem = new PdfStructElem((PdfDictionary) mcrParent);
+            for (IStructureNode kid : mcrParentStructElem.getKids()) {
+                if (kid instanceof PdfMcr) {
+                    registerMcr((PdfMcr) kid, true);
+                }
+            }
+        }
+    }
+
+    private Map<Integer, PdfObject> readParentTreeEntries() {
         // we create new number tree and not using parentTree, because we want parentTree to be empty
         Map<Integer, PdfObject> parentTreeEntries = new PdfNumTree(structTreeRoot.getDocument().getCatalog(),
                 PdfName.ParentTree).getNumbers();
-        Set<PdfDictionary> mcrParents = new LinkedHashSet<>();
         int maxStructParentIndex = -1;
-        for (Map.Entry<Integer, PdfObject> entry : parentTreeEntries.entrySet()) {
-            if (entry.getKey() > maxStructParentIndex) {
-                maxStructParentIndex = (int) entry.getKey();
+        for (Integer structParentIndex : parentTreeEntries.keySet()) {
+            if (structParentIndex > maxStructParentIndex) {
+                maxStructParentIndex = (int) structParentIndex;
+            }
+        }
+        structTreeRoot.getPdfObject().put(PdfName.ParentTreeNextKey, new PdfNumber(maxStructParentIndex + 1));
+        return parentTreeEntries;
+    }
+
+    /**
+     * Resolves marked content references of the page in lazy mode, if that wasn't done yet. Only the parent tree
+     * entries of the page content stream, of the page annotations and of the page resources XObjects are looked up,
+     * which means that the structure tree is only walked from the structure elements referenced by these entries.
+     *
+     * @param pageRef indirect reference to the page which marked content references are to be resolved
+     */
+    private void resolvePageMcrsIfNeeded(PdfIndirectReference pageRef) {
+        if (!isLazy() || pageRef == null || !resolvedPages.add(pageRef)) {
+            return;
+        }
+        PdfObject pageObj = pageRef.getRefersTo();
+        if (!(pageObj instanceof PdfDictionary) || pageObj.isFlushed()) {
+            return;
+        }
+        PdfDictionary pageDict = (PdfDictionary) pageObj;
+
+        Map<Integer, PdfObject> claimedEntries = new LinkedHashMap<>();
+        claimParentTreeEntry(pageDict.getAsNumber(PdfName.StructParents), claimedEntries);
+        PdfArray annots = pageDict.getAsArray(PdfName.Annots);
+        if (annots != null) {
+            for (int i = 0; i < annots.size(); ++i) {
+                PdfDictionary annot = annots.getAsDictionary(i);
+                if (annot != null) {
+                    claimParentTreeEntry(annot.getAsNumber(PdfName.StructParent), claimedEntries);
+                }
             }
+        }
+        PdfDictionary xObjects = getInheritedResources(pageDict);
+        xObjects = xObjects != null ? xObjects.getAsDictionary(PdfName.XObject) : null;
+        if (xObjects != null) {
+            for (PdfName xObjectName : xObjects.keySet()) {
+                PdfStream xObject = xObjects.getAsStream(xObjectName);
+                if (xObject != null) {
+                    claimParentTreeEntry(xObject.getAsNumber(PdfName.StructParents), claimedEntries);
+                }
+            }
+        }
 
-            PdfObject entryValue = entry.getValue();
-            if (entryValue.isDictionary()) {
-                mcrParents.add((PdfDictionary) entryValue);
-            } else if (entryValue.isArray()) {
-                PdfArray parentsArray = (PdfArray) entryValue;
-                for (int i = 0; i < parentsArray.size(); ++i) {
-                    PdfDictionary parent = parentsArray.getAsDictionary(i);
-                    if (parent != null) {
-                        mcrParents.add(parent);
-                    }
+        Map<PdfDictionary, Boolean> parentsWithPageMcrs = new HashMap<>();
+        for (Map.Entry<Integer, PdfObject> entry : claimedEntries.entrySet()) {
+            Set<PdfDictionary> mcrParents = new LinkedHashSet<>();
+            collectMcrParents(entry.getValue(), mcrParents);
+            boolean entryHasPageMcrs = false;
+            for (PdfDictionary mcrParent : mcrParents) {
+                Boolean parentHasPageMcrs = parentsWithPageMcrs.get(mcrParent);
+                if (parentHasPageMcrs == null) {
+                    parentHasPageMcrs = registerPageMcrs(mcrParent, pageRef);
+                    parentsWithPageMcrs.put(mcrParent, parentHasPageMcrs);
                 }
+                entryHasPageMcrs = entryHasPageMcrs || (boolean) parentHasPageMcrs;
+            }
+            if (!entryHasPageMcrs) {
+                // the entry belongs to another page, e.g. to the /Pg of a form XObject which is also used
+                // on this page, so it is left for that page to claim
+                unresolvedParentTreeEntries.put(entry.getKey(), entry.getValue());
             }
         }
-        structTreeRoot.getPdfObject().put(PdfName.ParentTreeNextKey, new PdfNumber(maxStructParentIndex + 1));
+    }
 
-        for (PdfObject mcrParent : mcrParents) {
-            PdfStructElem mcrParentStructElem = new PdfStructElem((PdfDictionary) mcrParent);
-            for (IStructureNode kid : mcrParentStructElem.getKids()) {
-                if (kid instanceof PdfMcr) {
-                    registerMcr((PdfMcr) kid, true);
+    private void claimParentTreeEntry(PdfNumber structParentIndex, Map<Integer, PdfObject> claimedEntries) {
+        if (structParentIndex != null) {
+            PdfObject entryValue = unresolvedParentTreeEntries.remove(structParentIndex.intValue());
+            if (entryValue != null) {
+                claimedEntries.put(structParentIndex.intValue(), entryValue);
+            }
+        }
+    }
+
+    /**
+     * Registers the marked content references of the page among the kids of the structure element. The element
+     * might also contain marked content references of other pages, they are resolved together with their own pages.
+     *
+     * @return {@code true} if any of the kids belongs to the page
+     */
+    private boolean registerPageMcrs(PdfDictionary mcrParent, PdfIndirectReference pageRef) {
+        boolean registered = false;
+        for (IStructureNode kid : new PdfStructElem(mcrParent).getKids()) {
+            if (kid instanceof PdfMcr && pageRef.equals(((PdfMcr) kid).getPageIndirectReference())) {
+                registerMcr((PdfMcr) kid, true);
+                registered = true;
+            }
+        }
+        return registered;
+    }
+
+    private static void collectMcrParents(PdfObject entryValue, Set<PdfDictionary> mcrParents) {
+        if (entryValue.isDictionary()) {
+            mcrParents.add((PdfDictionary) entryValue);
+        } else if (entryValue.isArray()) {
+            PdfArray parentsArray = (PdfArray) entryValue;
+            for (int i = 0; i < parentsArray.size(); ++i) {
+                PdfDictionary parent = parentsArray.getAsDictionary(i);
+                if (parent != null) {
+                    mcrParents.add(parent);
                 }
             }
         }
     }
 
+    private static PdfDictionary getInheritedResources(PdfDictionary pageDict) {
+        PdfDictionary node = pageDict;
+        while (node != null) {
+            PdfDictionary resources = node.getAsDictionary(PdfName.Resources);
+            if (resources != null) {
+                return resources;
+            }
+            node = node.getAsDictionary(PdfName.Parent);
+        }
+        return null;
+    }
+
     private boolean updateStructParentTreeEntries(PdfPage page, PageMcrsContainer mcrs) {
         boolean res = false;
 
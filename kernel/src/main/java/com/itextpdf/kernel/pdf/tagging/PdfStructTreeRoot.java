@@ -350,8 +350,12 @@ public class PdfStructTreeRoot extends PdfObjectWrapper<PdfDictionary> implement
 
     @Override
     public void flush() {
-        for (int i = 0; i < getDocument().getNumberOfPages(); ++i) {
-            createParentTreeEntryForPage(getDocument().getPage(i + 1));
+        if (getParentTreeHandler().isLazy()) {
+            getParentTreeHandler().createParentTreeEntriesForRemainingPages();
+        } else {
+            for (int i = 0; i < getDocument().getNumberOfPages(); ++i) {
+                createParentTreeEntryForPage(getDocument().getPage(i + 1));
+            }
         }
         getPdfObject().put(PdfName.ParentTree, getParentTreeHandler().buildParentTree());
         getPdfObject().put(PdfName.ParentTreeNextKey, new PdfNumber((int) getDocument().getNextStructParentIndex()));
@@ -160,6 +160,7 @@ public class CompareTool {
     private boolean encryptionCompareEnabled = false;
 
     private boolean useCachedPagesForComparison = true;
+    private int pageFingerprintComparisonParallelism = 0;
     private IMetaInfo metaInfo;
 
     private String gsExec;
@@ -245,6 +246,42 @@ public class CompareTool {
         return this;
     }
 
+    /**
+     * Enables comparison of page fingerprints before visual comparison, using as many threads as there are
+     * available processors.
+     *
+     * @return this {@link CompareTool} instance.
+     * @see #enablePageFingerprintComparison(int)
+     */
+    public CompareTool enablePageFingerprintComparison() {
+        return enablePageFingerprintComparison(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Enables comparison of page fingerprints before visual comparison.
+     * <p>
+     * Before rendering the documents with Ghostscript, the fingerprints of their pages are calculated in-process:
+     * digests of the page content streams, resources, annotations and other rendering related page entries.
+     * Only the pages whose fingerprints differ are rendered and compared with ImageMagick, so comparing
+     * documents which render the same way doesn't require any external tool or temporary image files.
+     * Pages with equal fingerprints are reported as visually equal; the report for the rest of the pages
+     * is the same as without this option. If the documents have different numbers of pages or can't be
+     * fingerprinted, all the pages are compared visually.
+     * <p>
+     * This option affects both {@link #compareVisually} and {@link #compareByContent} methods.
+     *
+     * @param parallelism the maximum number of threads to calculate fingerprints with. Pages of both documents
+     *                    are split into ranges which are processed in parallel.
+     * @return this {@link CompareTool} instance.
+     */
+    public CompareTool enablePageFingerprintComparison(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+        }
+        this.pageFingerprintComparisonParallelism = parallelism;
+        return this;
+    }
+
     /**
      * Sets the maximum errors count which will be returned as the result of the comparison.
      *
@@ -1015,6 +1052,15 @@ public class CompareTool {
             createIgnoredAreasPdfs(outPath, ignoredAreas);
         }
 
+        List<Integer> pagesToRender = null;
+        if (pageFingerprintComparisonParallelism > 0) {
+            pagesToRender = findPagesWithDifferentFingerprints(equalPages);
+            if (pagesToRender != null && pagesToRender.isEmpty()) {
+                System.out.println("Page fingerprints are equal, no pages to render.");
+                return null;
+            }
+        }
+
         GhostscriptHelper ghostscriptHelper = null;
         try {
             ghostscriptHelper = new GhostscriptHelper(gsExec);
@@ -1022,12 +1068,41 @@ public class CompareTool {
             throw new CompareToolExecutionException(e.getMessage());
         }
 
-        ghostscriptHelper.runGhostScriptImageGeneration(outPdf, outPath, outImage);
-        ghostscriptHelper.runGhostScriptImageGeneration(cmpPdf, outPath, cmpImage);
-        return compareImagesOfPdfs(outPath, differenceImagePrefix, equalPages);
+        String pageList = pagesToRender == null ? null : toPageList(pagesToRender);
+        ghostscriptHelper.runGhostScriptImageGeneration(outPdf, outPath, outImage, pageList);
+        ghostscriptHelper.runGhostScriptImageGeneration(cmpPdf, outPath, cmpImage, pageList);
+        return compareImagesOfPdfs(outPath, differenceImagePrefix, equalPages, pagesToRender);
+    }
+
+    private List<Integer> findPagesWithDifferentFingerprints(List<Integer> equalPages) throws InterruptedException {
+        List<Integer> differentPages;
+        try {
+            differentPages = new PageFingerprintCalculator(pageFingerprintComparisonParallelism, metaInfo)
+                    .findDifferentPages(outPdf, getOutReaderProperties(), cmpPdf, getCmpReaderProperties());
+        } catch (IOException | RuntimeException e) {
+            LoggerFactory.getLogger(CompareTool.class).warn(
+                    "Page fingerprints can't be calculated, all pages are to be compared visually: " + e.getMessage());
+            return null;
+        }
+        if (differentPages != null && equalPages != null) {
+            differentPages.removeAll(equalPages);
+        }
+        return differentPages;
+    }
+
+    private static String toPageList(List<Integer> pages) {
+        StringBuilder sb = new StringBuilder();
+        for (int page : pages) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(page + 1);
+        }
+        return sb.toString();
     }
 
-    private String compareImagesOfPdfs(String outPath, String differenceImagePrefix, List<Integer> equalPages) throws IOException, InterruptedException {
+    private String compareImagesOfPdfs(String outPath, String differenceImagePrefix, List<Integer> equalPages,
+            List<Integer> renderedPages) throws IOException, InterruptedException {
         File[] imageFiles = FileUtil.listFilesInDirectoryByFilter(outPath, new PngFileFilter(outPdfName));
         File[] cmpImageFiles = FileUtil.listFilesInDirectoryByFilter(outPath, new CmpPngFileFilter(cmpPdfName));
         boolean bUnexpectedNumberOfPages = false;
@@ -1058,10 +1133,12 @@ public class CompareTool {
         String differentPagesFail = null;
 
         for (int i = 0; i < cnt; i++) {
-            if (equalPages != null && equalPages.contains(i))
+            // images are numbered sequentially, so the page number is taken from the rendered page list if any
+            int page = renderedPages == null ? i : (int) renderedPages.get(i);
+            if (equalPages != null && equalPages.contains(page))
                 continue;
-            System.out.println("Comparing page " + Integer.toString(i + 1) + ": " + UrlUtil.getNormalizedFileUriString(imageFiles[i].getName()) + " ...");
-            System.out.println("Comparing page " + Integer.toString(i + 1) + ": " + UrlUtil.getNormalizedFileUriString(imageFiles[i].getName()) + " ...");
+            System.out.println("Comparing page " + Integer.toString(page + 1) + ": " + UrlUtil.getNormalizedFileUriString(imageFiles[i].getName()) + " ...");
+            System.out.println("Comparing page " + Integer.toString(page + 1) + ": " + UrlUtil.getNormalizedFileUriString(imageFiles[i].getName()) + " ...");
             FileInputStream is1 = new FileInputStream(imageFiles[i].getAbsolutePath());
             FileInputStream is2 = new FileInputStream(cmpImageFiles[i].getAbsolutePath());
             boolean cmpResult = compareStreams(is1, is2);
@@ -1069,9 +1146,9 @@ public class CompareTool {
             is2.close();
             if (!cmpResult) {
                 differentPagesFail = "Page is different!";
-                diffPages.add(i + 1);
+                diffPages.add(page + 1);
                 if (compareExecIsOk) {
-                    String diffName = outPath + differenceImagePrefix + Integer.toString(i + 1) + ".png";
+                    String diffName = outPath + differenceImagePrefix + Integer.toString(page + 1) + ".png";
                     if (!imageMagickHelper.runImageMagickImageCompare(imageFiles[i].getAbsolutePath(),
                             cmpImageFiles[i].getAbsolutePath(), diffName)) {
                         File diffFile = new File(diffName);
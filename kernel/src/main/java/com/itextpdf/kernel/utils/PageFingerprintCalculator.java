@@ -0,0 +1,369 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.commons.actions.contexts.IMetaInfo;
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.DocumentProperties;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfBoolean;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+/**
+ * Calculates fingerprints of the pages of two documents in order to find out which pages may render differently.
+ * <p>
+ * A page fingerprint is a digest over everything which is reachable from the page dictionary and may affect
+ * its rendering: content streams, resources, annotations with their appearances, the form fields of widgets
+ * with their parents and inherited page attributes.
+ * Dictionaries are hashed with sorted keys, streams with their raw (decrypted, but not decoded) bytes, and shared
+ * objects are hashed once and then referred to by the order of their first occurrence, so that documents which
+ * only differ in object numbers, object order or cross-reference layout get equal fingerprints. Other pages
+ * referenced from a page (e.g. by link destinations) are not followed.
+ * <p>
+ * The document-level state which changes the rendering of pages is hashed into every fingerprint as well: the default
+ * optional content configuration and the /NeedAppearances flag of the interactive form.
+ * <p>
+ * Equal fingerprints mean that the pages render the same way. Different fingerprints don't necessarily mean
+ * that the pages look different, so such pages are still to be compared visually.
+ * <p>
+ * Page ranges are processed in parallel, each of them with its own {@link PdfDocument} instance, as
+ * documents opened for reading don't support concurrent access.
+ */
+final class PageFingerprintCalculator {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final PdfName[] INHERITABLE_PAGE_ATTRIBUTES = new PdfName[] {PdfName.Resources, PdfName.MediaBox,
+            PdfName.CropBox, PdfName.Rotate};
+
+    private final int parallelism;
+
+    private final IMetaInfo metaInfo;
+
+    /**
+     * Creates a new calculator.
+     *
+     * @param parallelism the maximum number of threads to be used, 1 means that all the pages are processed
+     *                    in the calling thread
+     * @param metaInfo the meta info to be passed to the opened documents
+     */
+    PageFingerprintCalculator(int parallelism, IMetaInfo metaInfo) {
+        this.parallelism = parallelism;
+        this.metaInfo = metaInfo;
+    }
+
+    /**
+     * Finds the pages whose fingerprints differ.
+     *
+     * @param outPdf the path to the output document
+     * @param outProperties the properties to read the output document with
+     * @param cmpPdf the path to the cmp document
+     * @param cmpProperties the properties to read the cmp document with
+     * @return zero-based numbers of the pages whose fingerprints differ in ascending order, or {@code null} if
+     * the documents have different numbers of pages
+     * @throws IOException if any of the documents can't be read
+     * @throws InterruptedException if the current thread is interrupted while waiting for the fingerprints
+     */
+    List<Integer> findDifferentPages(String outPdf, ReaderProperties outProperties, String cmpPdf,
+            ReaderProperties cmpProperties) throws IOException, InterruptedException {
+        int numberOfPages = getNumberOfPages(outPdf, outProperties);
+        if (numberOfPages != getNumberOfPages(cmpPdf, cmpProperties)) {
+            return null;
+        }
+        byte[][] outFingerprints = new byte[numberOfPages][];
+        byte[][] cmpFingerprints = new byte[numberOfPages][];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        // each document is split to give every thread some work even when only one pair is compared
+        int rangesPerDocument = Math.max(1, Math.min(numberOfPages, (parallelism + 1) / 2));
+        int rangeSize = (numberOfPages + rangesPerDocument - 1) / rangesPerDocument;
+        for (int start = 0; start < numberOfPages; start += rangeSize) {
+            int rangeStart = start;
+            int rangeEnd = Math.min(numberOfPages, start + rangeSize);
+            tasks.add(() -> calculateFingerprints(outPdf, outProperties, rangeStart, rangeEnd, outFingerprints));
+            tasks.add(() -> calculateFingerprints(cmpPdf, cmpProperties, rangeStart, rangeEnd, cmpFingerprints));
+        }
+        ParallelTaskUtil.runTasks(tasks, parallelism);
+
+        List<Integer> differentPages = new ArrayList<>();
+        for (int i = 0; i < numberOfPages; i++) {
+            if (!Arrays.equals(outFingerprints[i], cmpFingerprints[i])) {
+                differentPages.add(i);
+            }
+        }
+        return differentPages;
+    }
+
+    /**
+     * Calculates the fingerprint of a single page.
+     *
+     * @param page the page dictionary
+     * @param catalog the catalog of the document of the page
+     * @return the fingerprint of the page
+     */
+    static byte[] calculateFingerprint(PdfDictionary page, PdfDictionary catalog) {
+        FingerprintWriter writer = new FingerprintWriter(page);
+        writer.write(page);
+        // inherited attributes are hashed separately as /Parent isn't followed
+        for (PdfName attribute : INHERITABLE_PAGE_ATTRIBUTES) {
+            if (!page.containsKey(attribute)) {
+                writer.write(getInheritedAttribute(page, attribute));
+            }
+        }
+        // the default optional content configuration decides which optional content is visible
+        PdfDictionary ocProperties = catalog.getAsDictionary(PdfName.OCProperties);
+        writer.write(ocProperties == null ? null : ocProperties.get(PdfName.D));
+        // viewers regenerate the appearances of the form fields if this flag is set
+        PdfDictionary acroForm = catalog.getAsDictionary(PdfName.AcroForm);
+        writer.write(acroForm == null ? null : acroForm.get(PdfName.NeedAppearances));
+        return writer.digest();
+    }
+
+    private int getNumberOfPages(String pdf, ReaderProperties properties) throws IOException {
+        try (PdfDocument document = openDocument(pdf, properties)) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    private PdfDocument openDocument(String pdf, ReaderProperties properties) throws IOException {
+        return new PdfDocument(new PdfReader(pdf, properties), new DocumentProperties().setEventCountingMetaInfo(metaInfo));
+    }
+
+    private static PdfObject getInheritedAttribute(PdfDictionary page, PdfName attribute) {
+        PdfDictionary node = page.getAsDictionary(PdfName.Parent);
+        // the depth is limited to not loop on broken page trees
+        for (int depth = 0; node != null && depth < 256; depth++) {
+            PdfObject value = node.get(attribute);
+            if (value != null) {
+                return value;
+            }
+            node = node.getAsDictionary(PdfName.Parent);
+        }
+        return null;
+    }
+
+    private Void calculateFingerprints(String pdf, ReaderProperties properties, int start, int end,
+            byte[][] fingerprints) throws IOException {
+        try (PdfDocument document = openDocument(pdf, properties)) {
+            PdfDictionary catalog = document.getCatalog().getPdfObject();
+            for (int i = start; i < end; i++) {
+                fingerprints[i] = calculateFingerprint(document.getPage(i + 1).getPdfObject(), catalog);
+            }
+        }
+        return null;
+    }
+
+    private static class FingerprintWriter {
+        private final MessageDigest digest;
+        private final PdfDictionary page;
+        private final Map<PdfObject, Integer> visitedObjects = new IdentityHashMap<>();
+        private final byte[] buffer = new byte[8];
+
+        FingerprintWriter(PdfDictionary page) {
+            this.page = page;
+            try {
+                this.digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new PdfException(e);
+            }
+        }
+
+        byte[] digest() {
+            return digest.digest();
+        }
+
+        void write(PdfObject object) {
+            if (object != null && object.isIndirectReference()) {
+                object = ((PdfIndirectReference) object).getRefersTo();
+            }
+            if (object == null) {
+                digest.update((byte) 'n');
+                return;
+            }
+            if (object.getIndirectReference() != null) {
+                Integer order = visitedObjects.get(object);
+                if (order != null) {
+                    digest.update((byte) 'r');
+                    writeLong(order);
+                    return;
+                }
+                visitedObjects.put(object, visitedObjects.size());
+                if (object != page && object.isDictionary()
+                        && PdfName.Page.equals(((PdfDictionary) object).getAsName(PdfName.Type))) {
+                    digest.update((byte) 'p');
+                    return;
+                }
+            }
+            switch (object.getType()) {
+                case PdfObject.DICTIONARY:
+                    digest.update((byte) 'd');
+                    writeDictionary((PdfDictionary) object, false);
+                    break;
+                case PdfObject.STREAM:
+                    digest.update((byte) 's');
+                    writeDictionary((PdfStream) object, true);
+                    byte[] bytes = ((PdfStream) object).getBytes(false);
+                    writeBytes(bytes == null ? new byte[0] : bytes);
+                    break;
+                case PdfObject.ARRAY:
+                    PdfArray array = (PdfArray) object;
+                    digest.update((byte) 'a');
+                    writeLong(array.size());
+                    for (int i = 0; i < array.size(); i++) {
+                        write(array.get(i, false));
+                    }
+                    break;
+                case PdfObject.NAME:
+                    digest.update((byte) '/');
+                    writeBytes(((PdfName) object).getValue().getBytes(StandardCharsets.UTF_8));
+                    break;
+                case PdfObject.NUMBER:
+                    digest.update((byte) 'f');
+                    writeLong(Double.doubleToLongBits(((PdfNumber) object).getValue()));
+                    break;
+                case PdfObject.STRING:
+                    digest.update((byte) '(');
+                    writeBytes(((PdfString) object).getValueBytes());
+                    break;
+                case PdfObject.BOOLEAN:
+                    digest.update((byte) (((PdfBoolean) object).getValue() ? 't' : 'F'));
+                    break;
+                default:
+                    digest.update((byte) 'l');
+                    writeBytes(object.toString().getBytes(StandardCharsets.UTF_8));
+                    break;
+            }
+        }
+
+        private void writeDictionary(PdfDictionary dictionary, boolean isStream) {
+            PdfName type = dictionary.getAsName(PdfName.Type);
+            // the parents of page tree nodes lead to all the other pages, inherited page attributes
+            // are handled separately
+            boolean isPageTreeNode = PdfName.Page.equals(type) || PdfName.Pages.equals(type);
+            boolean isWidget = PdfName.Widget.equals(dictionary.getAsName(PdfName.Subtype));
+            for (PdfName key : new TreeSet<>(dictionary.keySet())) {
+                if ((isStream && PdfName.Length.equals(key)) || (isPageTreeNode && PdfName.Parent.equals(key))) {
+                    continue;
+                }
+                write(key);
+                if (isWidget && PdfName.Parent.equals(key)) {
+                    writeField(dictionary.get(key, false));
+                } else {
+                    write(dictionary.get(key, false));
+                }
+            }
+            digest.update((byte) 'e');
+        }
+
+        /**
+         * Writes a form field which is a parent of a widget together with its own parents, as the widget inherits
+         * its value, default appearance and flags from them. The kids are skipped, so that the widgets of
+         * the field on other pages don't change the fingerprint.
+         */
+        private void writeField(PdfObject object) {
+            if (object != null && object.isIndirectReference()) {
+                object = ((PdfIndirectReference) object).getRefersTo();
+            }
+            if (object == null || !object.isDictionary()) {
+                write(object);
+                return;
+            }
+            if (object.getIndirectReference() != null) {
+                Integer order = visitedObjects.get(object);
+                if (order != null) {
+                    digest.update((byte) 'r');
+                    writeLong(order);
+                    return;
+                }
+                visitedObjects.put(object, visitedObjects.size());
+            }
+            PdfDictionary field = (PdfDictionary) object;
+            digest.update((byte) 'd');
+            for (PdfName key : new TreeSet<>(field.keySet())) {
+                if (PdfName.Kids.equals(key)) {
+                    continue;
+                }
+                write(key);
+                if (PdfName.Parent.equals(key)) {
+                    writeField(field.get(key, false));
+                } else {
+                    write(field.get(key, false));
+                }
+            }
+            digest.update((byte) 'e');
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeLong(bytes.length);
+            digest.update(bytes);
+        }
+
+        private void writeLong(long value) {
+            for (int i = 0; i < 8; i++) {
+                buffer[i] = (byte) (value >>> (56 - 8 * i));
+            }
+            digest.update(buffer);
+        }
+    }
+}
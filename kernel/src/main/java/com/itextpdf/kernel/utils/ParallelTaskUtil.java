@@ -0,0 +1,118 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This file is a helper class for internal usage only.
+ * Be aware that it's API and functionality may be changed in the future.
+ */
+public final class ParallelTaskUtil {
+
+    private ParallelTaskUtil() {
+        // Empty constructor.
+    }
+
+    /**
+     * Runs the tasks on a pool of at most {@code parallelism} threads, which is created for this call only.
+     * If only one thread is allowed or there is only one task, the tasks are run in the calling thread.
+     * <p>
+     * The exception of the first failed task in the order of the tasks is rethrown: {@link IOException} and
+     * {@link RuntimeException} as they are, other exceptions wrapped into {@link PdfException}.
+     *
+     * @param tasks       the tasks to run
+     * @param parallelism the maximum number of threads to be used
+     * @param <T>         the type of the task results
+     *
+     * @return the results of the tasks in the order of the tasks
+     *
+     * @throws IOException          if any of the tasks throws it
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the tasks
+     */
+    public static <T> List<T> runTasks(List<? extends Callable<T>> tasks, int parallelism)
+            throws IOException, InterruptedException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (parallelism <= 1 || tasks.size() <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new PdfException(e);
+                }
+            }
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()));
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new PdfException(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+}
@@ -48,15 +48,26 @@ import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.commons.actions.contexts.IMetaInfo;
 import com.itextpdf.kernel.exceptions.KernelExceptionMessageConstant;
 import com.itextpdf.kernel.pdf.DocumentProperties;
+import com.itextpdf.kernel.pdf.PageFlushingHelper;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfOutline;
+import com.itextpdf.kernel.pdf.PdfOutputStream;
 import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfWriter;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
@@ -135,6 +146,43 @@ public class PdfSplitter {
         return extractPageRanges(splitRanges);
     }
 
+    /**
+     * Splits a document into smaller documents with size smaller than the passed size, in a single pass.
+     * <p>
+     * Unlike {@link #splitBySize(long)}, each part is passed to the listener as soon as its pages are copied,
+     * and the objects of the copied pages are released with {@link PageFlushingHelper#releaseDeep(int)}. So
+     * as long as the listener closes the passed documents, the memory consumption doesn't depend on
+     * the size of the source document. The estimated sizes of the objects are kept in a primitive array indexed
+     * by object number, so the objects shared between pages, like fonts and images, are estimated only once.
+     * <p>
+     * A part always contains at least one page, so it exceeds the passed size if a single page does.
+     *
+     * @param size          the maximum size of each part in bytes
+     * @param documentReady the listener which is notified when a part is ready, it is supposed to close the
+     *                      passed document
+     */
+    public void splitBySize(long size, IDocumentReadyListener documentReady) {
+        int numOfPages = pdfDocument.getNumberOfPages();
+        PageFlushingHelper flushingHelper = new PageFlushingHelper(pdfDocument);
+        PartSizeCounter counter = new PartSizeCounter(pdfDocument.getTrailer());
+        int partStart = 1;
+
+        for (int pageNum = 1; pageNum <= numOfPages; pageNum++) {
+            long pageLength = counter.countPage(pdfDocument.getPage(pageNum).getPdfObject());
+            if (pageNum != partStart && counter.exceeds(pageLength, size)) {
+                counter.discardPage();
+                copyPart(partStart, pageNum - 1, documentReady, flushingHelper);
+                partStart = pageNum;
+                counter.startNewPart();
+                counter.countPage(pdfDocument.getPage(pageNum).getPdfObject());
+            }
+            counter.addPage();
+        }
+        if (partStart <= numOfPages) {
+            copyPart(partStart, numOfPages, documentReady, flushingHelper);
+        }
+    }
+
     /**
      * Splits the document by page numbers.
      *
@@ -257,6 +305,17 @@ public class PdfSplitter {
         return new PdfWriter(new ByteArrayOutputStream());
     }
 
+    private void copyPart(int startPage, int endPage, IDocumentReadyListener documentReady,
+            PageFlushingHelper flushingHelper) {
+        PageRange pageRange = new PageRange().addPageSequence(startPage, endPage);
+        PdfDocument partDocument = createPdfDocument(pageRange);
+        pdfDocument.copyPagesTo(startPage, endPage, partDocument);
+        documentReady.documentReady(partDocument, pageRange);
+        for (int pageNum = startPage; pageNum <= endPage; pageNum++) {
+            flushingHelper.releaseDeep(pageNum);
+        }
+    }
+
     private PdfDocument createPdfDocument(PageRange currentPageRange) {
         PdfDocument newDocument = new PdfDocument(getNextPdfWriter(currentPageRange), new DocumentProperties().setEventCountingMetaInfo(metaInfo));
         if (pdfDocument.isTagged() && preserveTagged)
@@ -402,10 +461,134 @@ public class PdfSplitter {
         return new PageRange().addPageSequence(startPage, currentPage - 1);
     }
 
-    private long xrefLength(int size) {
+    private static long xrefLength(int size) {
         return 20L * (size + 1);
     }
 
+    /**
+     * Estimates the size of the part being built, page by page. The objects reachable from the trailer are
+     * counted in each part, other pages referred to by the page objects, e.g. by link destinations, are not counted.
+     */
+    private static final class PartSizeCounter {
+        private final BitSet trailerObjects = new BitSet();
+        private final long trailerLength;
+        private final int trailerObjectsCount;
+
+        private BitSet partObjects;
+        private long partLength;
+        private int partObjectsCount;
+
+        private final BitSet pageObjects = new BitSet();
+        private int[] pageObjectNumbers = new int[16];
+        private int pageObjectsCount;
+        private long pageLength;
+
+        // Estimated lengths of the objects by object number, 0 if not estimated yet
+        private long[] objectLengths = new long[16];
+
+        PartSizeCounter(PdfDictionary trailer) {
+            partObjects = trailerObjects;
+            countPage(trailer);
+            addPage();
+            trailerLength = partLength;
+            trailerObjectsCount = partObjectsCount;
+            startNewPart();
+        }
+
+        long countPage(PdfDictionary page) {
+            pageLength = 0;
+            Deque<PdfObject> toVisit = new ArrayDeque<>();
+            toVisit.push(page);
+            while (!toVisit.isEmpty()) {
+                PdfObject obj = toVisit.pop();
+                if (obj.isDictionary() || obj.isStream()) {
+                    PdfName type = ((PdfDictionary) obj).getAsName(PdfName.Type);
+                    if (obj != page && (PdfName.Page.equals(type) || PdfName.Pages.equals(type))) {
+                        continue;
+                    }
+                }
+                PdfIndirectReference ref = obj.getIndirectReference();
+                if (ref != null) {
+                    int objNumber = ref.getObjNumber();
+                    if (partObjects.get(objNumber) || pageObjects.get(objNumber)) {
+                        continue;
+                    }
+                    pageObjects.set(objNumber);
+                    if (pageObjectsCount == pageObjectNumbers.length) {
+                        pageObjectNumbers = Arrays.copyOf(pageObjectNumbers, pageObjectsCount * 2);
+                    }
+                    pageObjectNumbers[pageObjectsCount++] = objNumber;
+                    pageLength += getObjectLength(objNumber, obj);
+                }
+                if (obj.isArray()) {
+                    PdfArray array = (PdfArray) obj;
+                    for (int i = 0; i < array.size(); i++) {
+                        pushIfNotNull(toVisit, array.get(i));
+                    }
+                } else if (obj.isDictionary() || obj.isStream()) {
+                    PdfDictionary dict = (PdfDictionary) obj;
+                    for (PdfName name : dict.keySet()) {
+                        pushIfNotNull(toVisit, dict.get(name));
+                    }
+                }
+            }
+            return pageLength;
+        }
+
+        boolean exceeds(long pageLength, long size) {
+            return partLength + pageLength + xrefLength(partObjectsCount + pageObjectsCount) > size;
+        }
+
+        void addPage() {
+            partObjects.or(pageObjects);
+            partLength += pageLength;
+            partObjectsCount += pageObjectsCount;
+            discardPage();
+        }
+
+        void discardPage() {
+            for (int i = 0; i < pageObjectsCount; i++) {
+                pageObjects.clear(pageObjectNumbers[i]);
+            }
+            pageObjectsCount = 0;
+            pageLength = 0;
+        }
+
+        void startNewPart() {
+            partObjects = (BitSet) trailerObjects.clone();
+            partLength = trailerLength;
+            partObjectsCount = trailerObjectsCount;
+        }
+
+        private long getObjectLength(int objNumber, PdfObject obj) {
+            if (objNumber >= objectLengths.length) {
+                objectLengths = Arrays.copyOf(objectLengths, Math.max(objectLengths.length * 2, objNumber + 1));
+            }
+            if (objectLengths[objNumber] == 0) {
+                PdfOutputStream os = new PdfOutputStream(new IdleOutputStream());
+                if (obj.isStream()) {
+                    // Only the dictionary is serialized, the stream data is taken into account by its length
+                    os.write(new PdfDictionary((PdfDictionary) obj));
+                    PdfNumber length = ((PdfStream) obj).getAsNumber(PdfName.Length);
+                    objectLengths[objNumber] = os.getCurrentPos()
+                            + Math.max(((PdfStream) obj).getLength(), length == null ? 0 : length.intValue());
+                } else {
+                    os.write(obj.clone());
+                    objectLengths[objNumber] = os.getCurrentPos();
+                }
+                // Distinguishes the estimated empty objects from the not estimated ones
+                objectLengths[objNumber] = Math.max(objectLengths[objNumber], 1);
+            }
+            return objectLengths[objNumber];
+        }
+
+        private static void pushIfNotNull(Deque<PdfObject> toVisit, PdfObject obj) {
+            if (obj != null) {
+                toVisit.push(obj);
+            }
+        }
+    }
+
     private static final class SplitReadyListener implements IDocumentReadyListener {
 
         private List<PdfDocument> splitDocuments;
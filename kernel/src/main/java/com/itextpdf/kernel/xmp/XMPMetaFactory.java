@@ -32,6 +32,7 @@ package com.itextpdf.kernel.xmp;
 
 import com.itextpdf.kernel.xmp.impl.XMPMetaImpl;
 import com.itextpdf.kernel.xmp.impl.XMPMetaParser;
+import com.itextpdf.kernel.xmp.impl.XMPPropertyScanner;
 import com.itextpdf.kernel.xmp.impl.XMPSchemaRegistryImpl;
 import com.itextpdf.kernel.xmp.impl.XMPSerializerHelper;
 import com.itextpdf.kernel.xmp.options.ParseOptions;
@@ -169,6 +170,33 @@ public final class XMPMetaFactory {
         return XMPMetaParser.parse(buffer, options);
     }
 
+    /**
+     * Creates an <code>XMPMeta</code>-object with the simple properties of one schema read from a byte-buffer.
+     * The packet is scanned with a SAX parser which stops as soon as all the requested properties are found,
+     * neither the XML DOM nor the complete XMP tree are built. Arrays, structures and qualifiers are skipped and
+     * aliases are not resolved, use {@link #parseFromBuffer(byte[])} to read them. If the packet is not a well-formed
+     * XML, it is parsed with {@link #parseFromBuffer(byte[])} which is able to fix some of the problems, and
+     * the returned object contains all the properties.
+     *
+     * @param buffer    a byte buffer containing an XMP packet
+     * @param schemaNS  the namespace URI of the schema of the properties
+     * @param propNames the names of the properties to read, all the simple properties of the schema are read if none
+     *                  is passed
+     * @return Returns the <code>XMPMeta</code>-object with the found properties.
+     * @throws XMPException If the packet could not be parsed.
+     */
+    public static XMPMeta parsePropertiesFromBuffer(byte[] buffer, String schemaNS, String... propNames)
+            throws XMPException {
+        try {
+            return XMPPropertyScanner.scan(buffer, schemaNS, propNames);
+        } catch (XMPException e) {
+            if (e.getErrorCode() == XMPError.BADXML || e.getErrorCode() == XMPError.BADSTREAM) {
+                return parseFromBuffer(buffer);
+            }
+            throw e;
+        }
+    }
+
     /**
      * Serializes an <code>XMPMeta</code>-object as RDF into an <code>OutputStream</code>
      * with default options.
@@ -0,0 +1,240 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.xmp.impl;
+
+import com.itextpdf.kernel.utils.XmlProcessorCreator;
+import com.itextpdf.kernel.xmp.XMPConst;
+import com.itextpdf.kernel.xmp.XMPError;
+import com.itextpdf.kernel.xmp.XMPException;
+import com.itextpdf.kernel.xmp.XMPMetaFactory;
+import com.itextpdf.kernel.xmp.XMPSchemaRegistry;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads the simple properties of one schema from an XMP packet with a SAX parser, without building the XML DOM
+ * and the complete XMP node tree. The parsing stops as soon as all the requested properties are found.
+ *
+ * <p>
+ * Only the simple properties are read: the ones written as attributes of <code>rdf:Description</code>
+ * and the ones written as its child elements with a text or an <code>rdf:resource</code> value.
+ * Arrays, structures and qualifiers are skipped, aliases are not resolved.
+ */
+public final class XMPPropertyScanner {
+
+    private XMPPropertyScanner() {
+        // Empty constructor
+    }
+
+    /**
+     * Scans the XMP packet for the simple properties of the schema.
+     *
+     * @param buffer    the XMP packet
+     * @param schemaNS  the namespace URI of the schema
+     * @param propNames the names of the properties to read, all the simple properties of the schema are read if none
+     *                  is passed
+     *
+     * @return the metadata object with the found properties
+     *
+     * @throws XMPException if the packet is not a well-formed XML
+     */
+    public static XMPMetaImpl scan(byte[] buffer, String schemaNS, String... propNames) throws XMPException {
+        PropertyHandler handler = new PropertyHandler(schemaNS, propNames);
+        try {
+            XMLReader reader = XmlProcessorCreator.createSafeXMLReader(true, false);
+            reader.setContentHandler(handler);
+            reader.setErrorHandler(null);
+            reader.parse(new InputSource(new ByteArrayInputStream(buffer)));
+        } catch (AllPropertiesFoundException ignored) {
+            // All the requested properties are read, the rest of the packet is not needed
+        } catch (PropertyException e) {
+            throw e.xmpException;
+        } catch (SAXException e) {
+            throw new XMPException(e.getMessage(), XMPError.BADXML, e);
+        } catch (IOException e) {
+            throw new XMPException("Error reading the XML-file", XMPError.BADSTREAM, e);
+        }
+        return handler.meta;
+    }
+
+    private static final class PropertyHandler extends DefaultHandler {
+        private final String schemaNS;
+        private final Set<String> remainingNames;
+        private final boolean readAll;
+        private final XMPMetaImpl meta = new XMPMetaImpl();
+
+        // Tells for each open element whether it is rdf:RDF
+        private final Deque<Boolean> rdfElements = new ArrayDeque<>();
+        private int descriptionDepth = -1;
+        private int propertyDepth = -1;
+        private String propertyName;
+        private String propertyPrefix;
+        private boolean complexProperty;
+        private final StringBuilder propertyValue = new StringBuilder();
+
+        PropertyHandler(String schemaNS, String[] propNames) {
+            this.schemaNS = schemaNS;
+            this.remainingNames = new HashSet<>(Arrays.asList(propNames));
+            this.readAll = propNames.length == 0;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            boolean parentIsRdf = Boolean.TRUE.equals(rdfElements.peek());
+            rdfElements.push(XMPConst.NS_RDF.equals(uri) && "RDF".equals(localName));
+            int depth = rdfElements.size();
+            if (propertyDepth != -1) {
+                // A property with child elements is an array, a structure or has qualifiers
+                complexProperty = true;
+            } else if (parentIsRdf && XMPConst.NS_RDF.equals(uri) && "Description".equals(localName)) {
+                // Only the top-level descriptions contain the properties, the nested ones describe
+                // the fields of structures
+                descriptionDepth = depth;
+                for (int i = 0; i < attributes.getLength(); ++i) {
+                    if (schemaNS.equals(attributes.getURI(i))) {
+                        addProperty(getPrefix(attributes.getQName(i)), attributes.getLocalName(i),
+                                attributes.getValue(i));
+                    }
+                }
+            } else if (depth == descriptionDepth + 1 && schemaNS.equals(uri) && isRequested(localName)) {
+                String resource = attributes.getValue(XMPConst.NS_RDF, "resource");
+                if (resource != null) {
+                    addProperty(getPrefix(qName), localName, resource);
+                } else if (attributes.getValue(XMPConst.NS_RDF, "parseType") == null) {
+                    propertyDepth = depth;
+                    propertyName = localName;
+                    propertyPrefix = getPrefix(qName);
+                    complexProperty = false;
+                    propertyValue.setLength(0);
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (propertyDepth != -1) {
+                propertyValue.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            int depth = rdfElements.size();
+            if (depth == propertyDepth) {
+                propertyDepth = -1;
+                if (!complexProperty) {
+                    addProperty(propertyPrefix, propertyName, propertyValue.toString());
+                }
+            } else if (depth == descriptionDepth) {
+                descriptionDepth = -1;
+            }
+            rdfElements.pop();
+        }
+
+        private boolean isRequested(String name) {
+            return readAll || remainingNames.contains(name);
+        }
+
+        private void addProperty(String prefix, String name, String value) throws SAXException {
+            if (!isRequested(name) || meta.doesPropertyExist(schemaNS, name)) {
+                return;
+            }
+            try {
+                XMPSchemaRegistry registry = XMPMetaFactory.getSchemaRegistry();
+                if (registry.getNamespacePrefix(schemaNS) == null) {
+                    registry.registerNamespace(schemaNS, prefix);
+                }
+                meta.setProperty(schemaNS, name, value);
+            } catch (XMPException e) {
+                throw new PropertyException(e);
+            }
+            remainingNames.remove(name);
+            if (!readAll && remainingNames.isEmpty()) {
+                throw new AllPropertiesFoundException();
+            }
+        }
+
+        private static String getPrefix(String qName) {
+            int colon = qName.indexOf(':');
+            return colon == -1 ? "ns" : qName.substring(0, colon);
+        }
+    }
+
+    /**
+     * Stops the parsing once all the requested properties are read.
+     */
+    private static final class AllPropertiesFoundException extends SAXException {
+        private static final long serialVersionUID = 6475213812471598372L;
+
+        AllPropertiesFoundException() {
+            super("All the requested properties are found");
+        }
+    }
+
+    /**
+     * Carries the failure to set a property out of the parsing.
+     */
+    private static final class PropertyException extends SAXException {
+        private static final long serialVersionUID = -2379085113645872451L;
+
+        private final XMPException xmpException;
+
+        PropertyException(XMPException xmpException) {
+            super(xmpException);
+            this.xmpException = xmpException;
+        }
+    }
+}
@@ -23,6 +23,8 @@
 package com.itextpdf.kernel.font;
 
 import com.itextpdf.io.font.CMapEncoding;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.TrueTypeFont;
 import com.itextpdf.io.font.otf.Glyph;
@@ -32,11 +34,17 @@ import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
@@ -48,6 +56,8 @@ public class PdfType0FontTest extends ExtendedITextTest {
     public static final String DESTINATION_FOLDER = "./target/test/resources/com/itextpdf/kernel/font/PdfType0FontTest/";
     public static final String SOURCE_FOLDER = "./src/test/resources/com/itextpdf/kernel/font/PdfType0FontTest/";
 
+    private BitSet usedGlyphsOfLastFont;
+
     @Test
     public void trueTypeFontAndCmapConstructorTest() throws IOException {
         TrueTypeFont ttf = new TrueTypeFont(SOURCE_FOLDER + "NotoSerif-Regular_v1.7.ttf");
@@ -128,4 +138,62 @@ public class PdfType0FontTest extends ExtendedITextTest {
         Assert.assertEquals("Identity-H", PdfType0Font.getUniMapFromOrdering("Identity", true));
         Assert.assertEquals("Identity-V", PdfType0Font.getUniMapFromOrdering("Identity", false));
     }
+
+    @Test
+    public void subsetCacheReusesSubsetAcrossDocumentsTest() throws IOException {
+        FontProgram fontProgram = FontProgramFactory.createFont(SOURCE_FOLDER + "NotoSerif-Regular_v1.7.ttf");
+        FontSubsetCache.enable();
+        try {
+            byte[] firstFontFile = getEmbeddedFontFile(createDocumentWithText(fontProgram, "Hello"));
+            BitSet usedGlyphs = usedGlyphsOfLastFont;
+            byte[] cachedSubset = FontSubsetCache.get(fontProgram, usedGlyphs, true);
+            Assert.assertNotNull(cachedSubset);
+
+            byte[] secondFontFile = getEmbeddedFontFile(createDocumentWithText(fontProgram, "Hello"));
+            Assert.assertArrayEquals(firstFontFile, secondFontFile);
+            Assert.assertSame(cachedSubset, FontSubsetCache.get(fontProgram, usedGlyphsOfLastFont, true));
+
+            createDocumentWithText(fontProgram, "World");
+            Assert.assertNull(FontSubsetCache.get(fontProgram, usedGlyphs, false));
+            Assert.assertNotEquals(usedGlyphs, usedGlyphsOfLastFont);
+            Assert.assertNotNull(FontSubsetCache.get(fontProgram, usedGlyphsOfLastFont, true));
+        } finally {
+            FontSubsetCache.disable();
+        }
+        Assert.assertNull(FontSubsetCache.get(fontProgram, usedGlyphsOfLastFont, true));
+    }
+
+    @Test
+    public void usedGlyphsSetReflectsWrittenGlyphsTest() throws IOException {
+        FontProgram fontProgram = FontProgramFactory.createFont(SOURCE_FOLDER + "NotoSerif-Regular_v1.7.ttf");
+        createDocumentWithText(fontProgram, "Hello");
+        Assert.assertEquals(4, usedGlyphsOfLastFont.cardinality());
+        Assert.assertTrue(usedGlyphsOfLastFont.get(fontProgram.getGlyph('H').getCode()));
+        Assert.assertTrue(usedGlyphsOfLastFont.get(fontProgram.getGlyph('o').getCode()));
+        Assert.assertFalse(usedGlyphsOfLastFont.get(fontProgram.getGlyph('W').getCode()));
+    }
+
+    private byte[] createDocumentWithText(FontProgram fontProgram, String text) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        PdfType0Font font = (PdfType0Font) PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H);
+        new PdfCanvas(pdfDocument.addNewPage()).beginText().setFontAndSize(font, 12).showText(text).endText();
+        pdfDocument.close();
+        usedGlyphsOfLastFont = new BitSet();
+        for (int code : font.usedGlyphs) {
+            usedGlyphsOfLastFont.set(code);
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] getEmbeddedFontFile(byte[] pdf) throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        PdfDictionary fontDict = pdfDocument.getFirstPage().getResources().getResource(PdfName.Font)
+                .getAsDictionary(new PdfName("F1"));
+        PdfStream fontFile = fontDict.getAsArray(PdfName.DescendantFonts).getAsDictionary(0)
+                .getAsDictionary(PdfName.FontDescriptor).getAsStream(PdfName.FontFile2);
+        byte[] bytes = fontFile.getBytes();
+        pdfDocument.close();
+        return bytes;
+    }
 }
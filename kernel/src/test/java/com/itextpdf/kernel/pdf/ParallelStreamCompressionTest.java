@@ -0,0 +1,214 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class ParallelStreamCompressionTest extends ExtendedITextTest {
+
+    @Test
+    public void parallelCompressionOutputIsIdenticalTest() throws IOException {
+        byte[] serial = createDocument(new WriterProperties());
+        byte[] parallel = createDocument(new WriterProperties().useParallelStreamCompression(4));
+
+        Assert.assertArrayEquals(serial, parallel);
+    }
+
+    @Test
+    public void parallelCompressionWithFullCompressionOutputIsIdenticalTest() throws IOException {
+        byte[] serial = createDocument(new WriterProperties().setFullCompressionMode(true)
+                .setCompressionLevel(CompressionConstants.BEST_COMPRESSION));
+        byte[] parallel = createDocument(new WriterProperties().setFullCompressionMode(true)
+                .setCompressionLevel(CompressionConstants.BEST_COMPRESSION).useParallelStreamCompression(3));
+
+        Assert.assertArrayEquals(serial, parallel);
+    }
+
+    @Test
+    public void parallelCompressionInAppendModeOutputIsIdenticalTest() throws IOException {
+        byte[] source = createDocument(new WriterProperties());
+
+        byte[] serial = appendPages(source, new WriterProperties());
+        byte[] parallel = appendPages(source, new WriterProperties().useParallelStreamCompression(2));
+
+        Assert.assertArrayEquals(serial, parallel);
+    }
+
+    @Test
+    public void streamsAreCompressedInAdvanceTest() throws IOException {
+        CompressedStreamsCountingWriter serialWriter =
+                new CompressedStreamsCountingWriter(new ByteArrayOutputStream(), new WriterProperties());
+        createDocument(serialWriter);
+        Assert.assertEquals(0, serialWriter.getCompressedInAdvanceCount());
+
+        CompressedStreamsCountingWriter parallelWriter = new CompressedStreamsCountingWriter(
+                new ByteArrayOutputStream(), new WriterProperties().useParallelStreamCompression(4));
+        createDocument(parallelWriter);
+        // At least the content streams of all the pages are compressed by the worker threads
+        Assert.assertTrue(parallelWriter.getCompressedInAdvanceCount() >= 20);
+    }
+
+    @Test
+    public void changedStreamContentIsCompressedAgainTest() {
+        ParallelStreamCompressor compressor = new ParallelStreamCompressor(2);
+        try {
+            PdfStream unchanged = new PdfStream("unchanged content".getBytes(StandardCharsets.ISO_8859_1));
+            compressor.compress(Collections.singletonList(unchanged),
+                    Collections.singletonList(CompressionConstants.DEFAULT_COMPRESSION));
+            Assert.assertNotNull(compressor.takeCompressedData(unchanged, CompressionConstants.DEFAULT_COMPRESSION));
+
+            // The content is replaced with the bytes of the same length after it has been compressed in advance
+            PdfStream changed = new PdfStream("original content".getBytes(StandardCharsets.ISO_8859_1));
+            compressor.compress(Collections.singletonList(changed),
+                    Collections.singletonList(CompressionConstants.DEFAULT_COMPRESSION));
+            changed.setData("modified content".getBytes(StandardCharsets.ISO_8859_1));
+            Assert.assertNull(compressor.takeCompressedData(changed, CompressionConstants.DEFAULT_COMPRESSION));
+        } finally {
+            compressor.close();
+        }
+    }
+
+    @Test
+    public void compressingNextWindowReleasesPreviousWindowTest() {
+        ParallelStreamCompressor compressor = new ParallelStreamCompressor(2);
+        try {
+            PdfStream first = new PdfStream("first window".getBytes(StandardCharsets.ISO_8859_1));
+            PdfStream second = new PdfStream("second window".getBytes(StandardCharsets.ISO_8859_1));
+            compressor.compress(Collections.singletonList(first),
+                    Collections.singletonList(CompressionConstants.DEFAULT_COMPRESSION));
+            compressor.compress(Collections.singletonList(second),
+                    Collections.singletonList(CompressionConstants.DEFAULT_COMPRESSION));
+            Assert.assertNull(compressor.takeCompressedData(first, CompressionConstants.DEFAULT_COMPRESSION));
+            Assert.assertNotNull(compressor.takeCompressedData(second, CompressionConstants.DEFAULT_COMPRESSION));
+        } finally {
+            compressor.close();
+        }
+    }
+
+    private static byte[] createDocument(WriterProperties properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        createDocument(new PdfWriter(baos, properties));
+        return baos.toByteArray();
+    }
+
+    private static void createDocument(PdfWriter writer) throws IOException {
+        writer.properties.setInitialDocumentId(new PdfString("initial id"))
+                .setModifiedDocumentId(new PdfString("modified id"));
+        try (PdfDocument pdfDoc = new PdfDocument(writer)) {
+            PdfFont font = PdfFontFactory.createFont();
+            for (int i = 0; i < 20; i++) {
+                drawPage(pdfDoc.addNewPage(), font, i);
+            }
+            setFixedDates(pdfDoc);
+        }
+    }
+
+    private static byte[] appendPages(byte[] source, WriterProperties properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        properties.setModifiedDocumentId(new PdfString("modified id"));
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfReader(new java.io.ByteArrayInputStream(source)),
+                new PdfWriter(baos, properties), new StampingProperties().useAppendMode())) {
+            PdfFont font = PdfFontFactory.createFont();
+            for (int i = 0; i < 5; i++) {
+                drawPage(pdfDoc.addNewPage(), font, i);
+            }
+            setFixedDates(pdfDoc);
+        }
+        return baos.toByteArray();
+    }
+
+    private static void drawPage(PdfPage page, PdfFont font, int pageNumber) {
+        PdfCanvas canvas = new PdfCanvas(page);
+        canvas.beginText().setFontAndSize(font, 12);
+        for (int line = 0; line < 50; line++) {
+            canvas.setTextMatrix(36, 800 - line * 15)
+                    .showText("Page " + pageNumber + ", line " + line + ": the quick brown fox jumps over the lazy dog");
+        }
+        canvas.endText();
+        for (int i = 0; i < 100; i++) {
+            canvas.rectangle(i * 5, pageNumber * 3, 4, 4);
+        }
+        canvas.fill().release();
+    }
+
+    private static void setFixedDates(PdfDocument pdfDoc) {
+        PdfDictionary info = pdfDoc.getDocumentInfo().getPdfObject();
+        info.put(PdfName.CreationDate, new PdfString("D:20230101000000Z"));
+        info.put(PdfName.ModDate, new PdfString("D:20230101000000Z"));
+    }
+
+    private static class CompressedStreamsCountingWriter extends PdfWriter {
+        private int compressedInAdvanceCount = 0;
+
+        CompressedStreamsCountingWriter(OutputStream os, WriterProperties properties) {
+            super(os, properties);
+        }
+
+        int getCompressedInAdvanceCount() {
+            return compressedInAdvanceCount;
+        }
+
+        @Override
+        com.itextpdf.io.source.ByteArrayOutputStream getCompressedStreamData(PdfStream pdfStream) {
+            com.itextpdf.io.source.ByteArrayOutputStream compressedData = super.getCompressedStreamData(pdfStream);
+            if (compressedData != null) {
+                compressedInAdvanceCount++;
+            }
+            return compressedData;
+        }
+    }
+}
@@ -61,6 +61,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import static org.junit.Assert.assertTrue;
@@ -364,6 +365,100 @@ public class ParentTreeTest extends ExtendedITextTest {
         assertTrue(checkParentTree(outFile, cmpFile));
     }
 
+    @Test
+    public void lazyTagStructureLoadingUntouchedPagesTest() throws IOException {
+        String srcFile = sourceFolder + "cmp_parentTreeTest03.pdf";
+        String outFile = destinationFolder + "lazyTagStructureLoadingUntouchedPagesTest.pdf";
+
+        PdfDocument document = new PdfDocument(new PdfReader(srcFile), new PdfWriter(outFile),
+                new StampingProperties().useLazyTagStructureLoading());
+        Assert.assertTrue(document.isLazyTagStructureLoading());
+        Assert.assertEquals(2, document.getStructTreeRoot().getPageMarkedContentReferences(document.getPage(3)).size());
+        document.close();
+
+        assertTrue(checkParentTree(outFile, srcFile));
+    }
+
+    @Test
+    public void lazyTagStructureLoadingModifiedPagesTest() throws IOException {
+        String srcFile = sourceFolder + "cmp_parentTreeTest03.pdf";
+        String outFile = destinationFolder + "lazyTagStructureLoadingModifiedPagesTest.pdf";
+        String cmpFile = destinationFolder + "lazyTagStructureLoadingModifiedPagesTest_eager.pdf";
+
+        modifyTaggedPages(new PdfDocument(new PdfReader(srcFile), new PdfWriter(cmpFile)));
+        modifyTaggedPages(new PdfDocument(new PdfReader(srcFile), new PdfWriter(outFile),
+                new StampingProperties().useLazyTagStructureLoading()));
+
+        assertTrue(checkParentTree(outFile, cmpFile));
+    }
+
+    @Test
+    public void lazyTagStructureLoadingXObjectsTest() throws IOException {
+        String srcFile = sourceFolder + "severalXObjectsOnOnePageTest.pdf";
+
+        PdfDocument eagerDocument = new PdfDocument(new PdfReader(srcFile));
+        int eagerMcrsCount = eagerDocument.getStructTreeRoot()
+                .getPageMarkedContentReferences(eagerDocument.getFirstPage()).size();
+        eagerDocument.close();
+
+        PdfDocument lazyDocument = new PdfDocument(new PdfReader(srcFile), new PdfWriter(new ByteArrayOutputStream()),
+                new StampingProperties().useLazyTagStructureLoading());
+        Assert.assertEquals(eagerMcrsCount, lazyDocument.getStructTreeRoot()
+                .getPageMarkedContentReferences(lazyDocument.getFirstPage()).size());
+        lazyDocument.close();
+    }
+
+    @Test
+    public void lazyTagStructureLoadingXObjectSharedWithOtherPageTest() throws IOException {
+        String srcFile = destinationFolder + "lazyTagStructureLoadingXObjectSharedWithOtherPageTest_src.pdf";
+        String outFile = destinationFolder + "lazyTagStructureLoadingXObjectSharedWithOtherPageTest.pdf";
+        String cmpFile = destinationFolder + "lazyTagStructureLoadingXObjectSharedWithOtherPageTest_eager.pdf";
+
+        // the tagged XObjects of the page are also used on a new first page, which is not their /Pg
+        PdfDocument sharingDocument = new PdfDocument(new PdfReader(sourceFolder + "severalXObjectsOnOnePageTest.pdf"),
+                new PdfWriter(srcFile));
+        PdfDictionary xObjects = sharingDocument.getFirstPage().getPdfObject().getAsDictionary(PdfName.Resources)
+                .getAsDictionary(PdfName.XObject);
+        PdfPage sharingPage = sharingDocument.addNewPage(1);
+        sharingPage.getResources().getPdfObject().put(PdfName.XObject, xObjects);
+        sharingDocument.close();
+
+        PdfDocument eagerDocument = new PdfDocument(new PdfReader(srcFile), new PdfWriter(cmpFile));
+        int eagerMcrsCount = eagerDocument.getStructTreeRoot()
+                .getPageMarkedContentReferences(eagerDocument.getPage(2)).size();
+        eagerDocument.close();
+
+        PdfDocument lazyDocument = new PdfDocument(new PdfReader(srcFile), new PdfWriter(outFile),
+                new StampingProperties().useLazyTagStructureLoading());
+        // the sharing page is resolved first, it must not take the parent tree entries of the XObjects
+        lazyDocument.getStructTreeRoot().getPageMarkedContentReferences(lazyDocument.getPage(1));
+        Assert.assertEquals(eagerMcrsCount, lazyDocument.getStructTreeRoot()
+                .getPageMarkedContentReferences(lazyDocument.getPage(2)).size());
+        lazyDocument.close();
+
+        assertTrue(checkParentTree(outFile, cmpFile));
+    }
+
+    private static void modifyTaggedPages(PdfDocument document) throws IOException {
+        PdfStructElem doc = (PdfStructElem) document.getStructTreeRoot().getKids().get(0);
+
+        PdfPage page = document.getPage(3);
+        PdfCanvas canvas = new PdfCanvas(page);
+        canvas.beginText();
+        canvas.setFontAndSize(PdfFontFactory.createFont(StandardFonts.COURIER), 24);
+        canvas.setTextMatrix(1, 0, 0, 1, 32, 256);
+        PdfStructElem paragraph = doc.addKid(new PdfStructElem(document, PdfName.P, page));
+        canvas.openTag(new CanvasTag(paragraph.addKid(new PdfMcrNumber(page, paragraph))));
+        canvas.showText("Appended");
+        canvas.closeTag();
+        canvas.endText();
+        canvas.release();
+        page.flush();
+
+        document.getTagStructureContext().removePageTags(document.getPage(5));
+        document.close();
+    }
+
     private boolean checkParentTree(String outFileName, String cmpFileName) throws IOException {
         PdfReader outReader = new PdfReader(outFileName);
         PdfDocument outDocument = new PdfDocument(outReader);
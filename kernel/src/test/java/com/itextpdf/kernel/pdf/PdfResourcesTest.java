@@ -142,4 +142,81 @@ public class PdfResourcesTest extends ExtendedITextTest {
         // Check that when changing an existing resource category dictionary, the flag PdfObject.MODIFIED will be set for it
         Assert.assertTrue(resourceCategoryDict.isModified());
     }
+
+    @Test
+    public void sharedPageResourcesTest() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos, new WriterProperties().useSharedPageResources()));
+        PdfExtGState egs1 = new PdfExtGState().setFillOpacity(0.5f);
+        PdfExtGState egs2 = new PdfExtGState().setFillOpacity(0.7f);
+
+        PdfResources resources = document.addNewPage().getResources();
+        Assert.assertEquals("Gs1", resources.addExtGState(egs1).getValue());
+        Assert.assertEquals("Gs2", resources.addExtGState(egs2).getValue());
+        resources = document.addNewPage().getResources();
+        Assert.assertEquals("Gs2", resources.addExtGState(egs2).getValue());
+        Assert.assertEquals("Gs1", resources.addExtGState(egs1).getValue());
+        resources = document.addNewPage().getResources();
+        Assert.assertEquals("Gs2", resources.addExtGState(egs2).getValue());
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfObject resources1 = document.getPage(1).getPdfObject().get(PdfName.Resources, false);
+        PdfObject resources2 = document.getPage(2).getPdfObject().get(PdfName.Resources, false);
+        PdfObject resources3 = document.getPage(3).getPdfObject().get(PdfName.Resources, false);
+        Assert.assertTrue(resources1.isIndirectReference());
+        Assert.assertEquals(resources1, resources2);
+        Assert.assertNotEquals(resources1, resources3);
+        Assert.assertEquals(2, document.getPage(2).getResources().getResourceNames().size());
+        Assert.assertEquals(1, document.getPage(3).getResources().getResourceNames().size());
+        document.close();
+    }
+
+    @Test
+    public void sharedPageResourcesRereadResourceTest() throws Exception {
+        ByteArrayOutputStream source = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(source));
+        PdfDictionary egs = new PdfExtGState().setFillOpacity(0.5f).getPdfObject();
+        egs.makeIndirect(document);
+        document.getCatalog().put(new PdfName("TestExtGState"), egs);
+        document.addNewPage();
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(source.toByteArray())),
+                new PdfWriter(new ByteArrayOutputStream(), new WriterProperties().useSharedPageResources()));
+        egs = document.getCatalog().getPdfObject().getAsDictionary(new PdfName("TestExtGState"));
+        PdfIndirectReference reference = egs.getIndirectReference();
+        PdfPage page = document.addNewPage();
+        Assert.assertEquals("Gs1", page.getResources().addExtGState(new PdfExtGState(egs)).getValue());
+        PdfDictionary pageResources = page.getResources().getPdfObject();
+        page.flush();
+        // the resources of the page are shared, so they are flushed separately
+        pageResources.flush();
+        PdfExtGState other = new PdfExtGState().setFillOpacity(0.7f);
+        Assert.assertEquals("Gs2", document.addNewPage().getResources().addExtGState(other).getValue());
+
+        egs.release();
+        PdfDictionary rereadEgs = (PdfDictionary) reference.getRefersTo();
+        Assert.assertNotSame(egs, rereadEgs);
+        // the resource is registered by its reference, so it gets the same name as before
+        Assert.assertEquals("Gs1",
+                document.addNewPage().getResources().addExtGState(new PdfExtGState(rereadEgs)).getValue());
+        document.close();
+    }
+
+    @Test
+    public void sharedPageResourcesNameTakenTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream(),
+                new WriterProperties().useSharedPageResources()));
+        PdfExtGState egs1 = new PdfExtGState().setFillOpacity(0.5f);
+        PdfExtGState egs2 = new PdfExtGState().setFillOpacity(0.7f);
+
+        Assert.assertEquals("Gs1", document.addNewPage().getResources().addExtGState(egs1).getValue());
+        PdfResources resources = document.addNewPage().getResources();
+        resources.addResource(egs2.getPdfObject(), PdfName.ExtGState, new PdfName("Gs1"));
+        // the name of egs1 is already taken on the second page, so a new document-level name is generated
+        Assert.assertEquals("Gs2", resources.addExtGState(egs1).getValue());
+        Assert.assertEquals("Gs1", document.addNewPage().getResources().addExtGState(egs1).getValue());
+        document.close();
+    }
 }
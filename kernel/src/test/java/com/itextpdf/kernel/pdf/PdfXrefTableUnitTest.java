@@ -47,6 +47,10 @@ import com.itextpdf.kernel.exceptions.MemoryLimitsAwareException;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -148,4 +152,90 @@ public class PdfXrefTableUnitTest extends ExtendedITextTest {
 
         Assert.assertEquals(20, xrefTable.getCapacity());
     }
+
+    @Test
+    public void compactStorageCreatesReferencesOnDemandTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfXrefTable table = new PdfXrefTable();
+        table.useCompactStorage(document);
+        Assert.assertTrue(table.isCompactStorageUsed());
+
+        table.add(new PdfIndirectReference(document, 1, 0, 15));
+        table.add((PdfIndirectReference) new PdfIndirectReference(document, 2, 3, 0).setState(PdfObject.FREE));
+        PdfIndirectReference compressed = new PdfIndirectReference(document, 3, 0, 7);
+        compressed.setObjStreamNumber(1);
+        table.add(compressed);
+
+        PdfIndirectReference inUse = table.get(1);
+        Assert.assertEquals(15, inUse.getOffset());
+        Assert.assertEquals(0, inUse.getGenNumber());
+        Assert.assertFalse(inUse.isFree());
+        Assert.assertSame(document, inUse.getDocument());
+        Assert.assertSame(inUse, table.get(1));
+
+        PdfIndirectReference free = table.get(2);
+        Assert.assertTrue(free.isFree());
+        Assert.assertEquals(3, free.getGenNumber());
+
+        compressed = table.get(3);
+        Assert.assertEquals(1, compressed.getObjStreamNumber());
+        Assert.assertEquals(7, compressed.getIndex());
+
+        Assert.assertNull(table.get(4));
+        Assert.assertEquals(2, table.getCountOfIndirectObjects());
+        document.close();
+    }
+
+    @Test
+    public void compactStorageKeepsReferencesInReadingStateTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfXrefTable table = new PdfXrefTable();
+        table.useCompactStorage(document);
+
+        PdfIndirectReference reading = (PdfIndirectReference) new PdfIndirectReference(document, 40, 0, 0)
+                .setState(PdfObject.READING);
+        table.add(reading);
+        table.add(new PdfIndirectReference(document, 41, 0, 100));
+
+        Assert.assertSame(reading, table.get(40));
+        Assert.assertEquals(42, table.size());
+
+        table.clear();
+        Assert.assertNull(table.get(41));
+        document.close();
+    }
+
+    @Test
+    public void mustBeFlushedReferencesAreTrackedTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfXrefTable table = document.getXref();
+        table.takeMustBeFlushedReferences();
+
+        PdfIndirectReference reference = new PdfDictionary().makeIndirect(document).getIndirectReference();
+        reference.setState(PdfObject.MUST_BE_FLUSHED);
+        reference.setState(PdfObject.MUST_BE_FLUSHED);
+
+        List<PdfIndirectReference> references = table.takeMustBeFlushedReferences();
+        Assert.assertEquals(1, references.size());
+        Assert.assertSame(reference, references.get(0));
+        Assert.assertTrue(table.takeMustBeFlushedReferences().isEmpty());
+        document.close();
+    }
+
+    @Test
+    public void modifiedReferencesAreTrackedInAppendModeOnlyTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new PdfDocument(new PdfWriter(baos)).addNewPage().getDocument().close();
+
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        new PdfDictionary().makeIndirect(document);
+        Assert.assertTrue(document.getXref().takeModifiedReferences().isEmpty());
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())),
+                new PdfWriter(new ByteArrayOutputStream()), new StampingProperties().useAppendMode());
+        PdfIndirectReference reference = new PdfDictionary().makeIndirect(document).getIndirectReference();
+        Assert.assertTrue(document.getXref().takeModifiedReferences().contains(reference));
+        document.close();
+    }
 }
@@ -56,7 +56,7 @@ public class SmartModePdfObjectsSerializerTest extends ExtendedITextTest {
         SerializedObjectContent serializedObject = serializer.serializeObject(dict1);
 
         //It is essential to serialize object with huge amount of memory
-        StringBuilder stringBytes = new StringBuilder().append("$D$N/FirstDict$A$S");
+        StringBuilder stringBytes = new StringBuilder().append("$D$N/FirstDict$I$A$S");
         String end = "$D$\\D$\\A$\\D";
         for (int i = 0; i < 10000; i++) {
             stringBytes.append("\0");
@@ -68,4 +68,103 @@ public class SmartModePdfObjectsSerializerTest extends ExtendedITextTest {
 
         Assert.assertEquals(expected, serializedObject);
     }
+
+    @Test
+    public void fingerprintsOfEqualObjectsTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+
+        PdfDictionary dict1 = createDictionaryWithIndirectArray(document, 10000);
+        PdfDictionary dict2 = createDictionaryWithIndirectArray(document, 10000);
+        PdfDictionary dict3 = createDictionaryWithIndirectArray(document, 10001);
+
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(true, Long.MAX_VALUE);
+        SerializedObjectContent serializedObject1 = serializer.serializeObject(dict1);
+        SerializedObjectContent serializedObject2 = serializer.serializeObject(dict2);
+        SerializedObjectContent serializedObject3 = serializer.serializeObject(dict3);
+
+        // SHA-256 digest is stored instead of the whole serialized content
+        Assert.assertEquals(32, serializedObject1.size());
+        Assert.assertEquals(serializedObject1, serializedObject2);
+        Assert.assertNotEquals(serializedObject1, serializedObject3);
+    }
+
+    @Test
+    public void cacheEvictionAndStatisticsTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        long entrySize = 32 + SmartModePdfObjectsSerializer.CACHE_ENTRY_OVERHEAD;
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(true, 2 * entrySize);
+
+        SerializedObjectContent[] serializedObjects = new SerializedObjectContent[3];
+        for (int i = 0; i < serializedObjects.length; i++) {
+            PdfDictionary dict = createDictionaryWithIndirectArray(document, i + 1);
+            serializedObjects[i] = serializer.serializeObject(dict);
+            Assert.assertNull(serializer.getSavedSerializedObject(serializedObjects[i]));
+            serializer.saveSerializedObject(serializedObjects[i], dict.getIndirectReference());
+        }
+
+        // The first saved object is evicted as the least recently used one
+        Assert.assertNull(serializer.getSavedSerializedObject(serializedObjects[0]));
+        Assert.assertNotNull(serializer.getSavedSerializedObject(serializedObjects[2]));
+
+        SmartModeStatistics statistics = serializer.getStatistics();
+        Assert.assertEquals(1, statistics.getHitsCount());
+        Assert.assertEquals(4, statistics.getMissesCount());
+        Assert.assertEquals(1, statistics.getEvictionsCount());
+        Assert.assertEquals(2, statistics.getCachedObjectsCount());
+        Assert.assertEquals(2 * entrySize, statistics.getCacheSize());
+    }
+
+    @Test
+    public void fingerprintsOfIndirectAndDirectObjectsDifferTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+
+        PdfDictionary dictWithIndirectValue = new PdfDictionary();
+        dictWithIndirectValue.makeIndirect(document);
+        dictWithIndirectValue.put(PdfName.A, new PdfName("Value").makeIndirect(document).getIndirectReference());
+
+        PdfDictionary dictWithDirectValue = new PdfDictionary();
+        dictWithDirectValue.makeIndirect(document);
+        dictWithDirectValue.put(PdfName.A, new PdfName("Value"));
+
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(true, Long.MAX_VALUE);
+        Assert.assertNotEquals(serializer.serializeObject(dictWithIndirectValue),
+                serializer.serializeObject(dictWithDirectValue));
+    }
+
+    @Test
+    public void serializedObjectsCacheEvictionTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        long entrySize = 32 + SmartModePdfObjectsSerializer.CACHE_ENTRY_OVERHEAD;
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(true, 2 * entrySize);
+
+        PdfDictionary[] dicts = new PdfDictionary[3];
+        SerializedObjectContent[] serializedObjects = new SerializedObjectContent[dicts.length];
+        for (int i = 0; i < dicts.length; i++) {
+            dicts[i] = createDictionaryWithIndirectArray(document, i + 1);
+            serializedObjects[i] = serializer.serializeObject(dicts[i]);
+            Assert.assertTrue(document.serializedObjectsCache.size() <= 2);
+        }
+
+        // Evicted entries are serialized again with the same result
+        Assert.assertEquals(serializedObjects[0], serializer.serializeObject(dicts[0]));
+        Assert.assertTrue(document.serializedObjectsCache.size() <= 2);
+    }
+
+    @Test
+    public void negativeCacheSizeLimitTest() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new SmartModePdfObjectsSerializer(true, -1));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new WriterProperties().useSmartModeWithFingerprints(-1));
+    }
+
+    private static PdfDictionary createDictionaryWithIndirectArray(PdfDocument document, int stringLength) {
+        PdfArray array = new PdfArray();
+        array.makeIndirect(document);
+        array.add(new PdfString(new byte[stringLength]));
+
+        PdfDictionary dict = new PdfDictionary();
+        dict.makeIndirect(document);
+        dict.put(new PdfName("Array"), array.getIndirectReference());
+        return dict;
+    }
 }
@@ -452,6 +452,55 @@ public class SmartModeTest extends ExtendedITextTest {
         }
     }
 
+    @Test
+    public void smartModeWithFingerprintsCopyingInPdfSamePagesDifferentXObjectsTest() throws IOException {
+        String srcFile = sourceFolder + "identicalPagesDifferentXObjects.pdf";
+        String dstFile = destinationFolder + "smartModeWithFingerprintsCopyingInPdfSamePagesDifferentXObjects.pdf";
+
+        PdfWriter writer = new PdfWriter(dstFile, new WriterProperties().useSmartModeWithFingerprints(1024 * 1024));
+        try (PdfDocument pdfDest = new PdfDocument(writer)) {
+
+            try (PdfDocument pdfSrc = new PdfDocument(new PdfReader(srcFile))) {
+                pdfSrc.copyPagesTo(1, pdfSrc.getNumberOfPages(), pdfDest);
+            }
+
+            PdfIndirectReference expectedImgRes = pdfDest.getPage(1).getPdfObject()
+                    .getAsDictionary(PdfName.Resources)
+                    .getAsDictionary(PdfName.XObject)
+                    .getAsStream(new PdfName("Im1")).getIndirectReference();
+
+            for (int i = 2; i <= 99; i++) {
+                PdfIndirectReference pagesImgRes = pdfDest.getPage(i).getPdfObject()
+                        .getAsDictionary(PdfName.Resources)
+                        .getAsDictionary(PdfName.XObject)
+                        .getAsStream(new PdfName("Im1")).getIndirectReference();
+
+                Assert.assertEquals(expectedImgRes, pagesImgRes);
+            }
+
+            SmartModeStatistics statistics = writer.getSmartModeStatistics();
+            Assert.assertTrue(statistics.getHitsCount() > 0);
+            Assert.assertEquals(0, statistics.getEvictionsCount());
+        }
+    }
+
+    @Test
+    public void smartModeWithFingerprintsCacheLimitTest() throws IOException {
+        String srcFile = sourceFolder + "identicalPagesDifferentXObjects.pdf";
+        String dstFile = destinationFolder + "smartModeWithFingerprintsCacheLimit.pdf";
+
+        PdfWriter writer = new PdfWriter(dstFile, new WriterProperties().useSmartModeWithFingerprints(256));
+        try (PdfDocument pdfDest = new PdfDocument(writer)) {
+            try (PdfDocument pdfSrc = new PdfDocument(new PdfReader(srcFile))) {
+                pdfSrc.copyPagesTo(1, pdfSrc.getNumberOfPages(), pdfDest);
+            }
+
+            SmartModeStatistics statistics = writer.getSmartModeStatistics();
+            Assert.assertTrue(statistics.getEvictionsCount() > 0);
+            Assert.assertTrue(statistics.getCacheSize() <= 256);
+        }
+    }
+
     @Test
     public void smartCopyingOfArrayWithStringsTest() throws IOException {
         String srcFile = sourceFolder + "keyValueStructure.pdf";
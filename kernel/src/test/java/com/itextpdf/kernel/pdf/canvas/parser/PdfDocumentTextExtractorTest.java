@@ -0,0 +1,242 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.SimpleTextExtractionStrategy;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfDocumentTextExtractorTest extends ExtendedITextTest {
+
+    private static final String sourceFolder = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/";
+
+    @Test
+    public void parallelExtractionMatchesSerialExtractionTest() throws IOException {
+        String inFile = sourceFolder + "aliceInWonderland.pdf";
+        List<String> expected = new ArrayList<>();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile))) {
+            for (int i = 1; i <= pdfDocument.getNumberOfPages(); i++) {
+                expected.add(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(i)));
+            }
+        }
+
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile))) {
+            List<String> actual = new PdfDocumentTextExtractor(pdfDocument, 4)
+                    .getTextFromPages(() -> new LocationTextExtractionStrategy());
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void pageRangeExtractionTest() throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument(6))))) {
+            PdfDocumentTextExtractor extractor = new PdfDocumentTextExtractor(pdfDocument, 3);
+            Assert.assertEquals(Arrays.asList("Page 2\nForm 2", "Page 3\nForm 3", "Page 4\nForm 4"),
+                    extractor.getTextFromPages(2, 4, () -> new SimpleTextExtractionStrategy()));
+            Assert.assertEquals(6, extractor.getTextFromPages(() -> new SimpleTextExtractionStrategy()).size());
+        }
+    }
+
+    @Test
+    public void singleWorkerExtractionTest() throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument(2))))) {
+            Assert.assertEquals(Arrays.asList("Page 1\nForm 1", "Page 2\nForm 2"),
+                    new PdfDocumentTextExtractor(pdfDocument, 1)
+                            .getTextFromPages(() -> new SimpleTextExtractionStrategy()));
+        }
+    }
+
+    @Test
+    public void imageBytesExtractionTest() throws IOException {
+        byte[] document = createDocumentWithImages(40);
+        List<String> expected;
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(document)))) {
+            expected = new PdfDocumentTextExtractor(pdfDocument, 1)
+                    .getTextFromPages(() -> new ImageBytesStrategy());
+        }
+        ConcurrentReadsDetectingSource source = new ConcurrentReadsDetectingSource(
+                new RandomAccessSourceFactory().createSource(document));
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(source, new ReaderProperties()))) {
+            // images are read on the worker threads while the next pages are loaded on the calling thread
+            Assert.assertEquals(expected, new PdfDocumentTextExtractor(pdfDocument, 4)
+                    .getTextFromPages(() -> new ImageBytesStrategy()));
+        }
+        Assert.assertEquals(40, new HashSet<>(expected).size());
+        Assert.assertFalse(source.concurrentReads);
+    }
+
+    private static byte[] createDocumentWithImages(int numberOfPages) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos))) {
+            for (int i = 1; i <= numberOfPages; i++) {
+                byte[] pixels = new byte[64 * 64 * 3];
+                Arrays.fill(pixels, (byte) i);
+                new PdfCanvas(pdfDocument.addNewPage()).addImageFittedIntoRectangle(
+                        ImageDataFactory.create(64, 64, 3, 8, pixels, null), new Rectangle(36, 600, 64, 64), false);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] createDocument(int numberOfPages) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos))) {
+            PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+            for (int i = 1; i <= numberOfPages; i++) {
+                PdfFormXObject form = new PdfFormXObject(new Rectangle(200, 50));
+                new PdfCanvas(form, pdfDocument).beginText().setFontAndSize(font, 12)
+                        .showText("Form " + i).endText();
+                new PdfCanvas(pdfDocument.addNewPage()).beginText().setFontAndSize(font, 12)
+                        .moveText(36, 700).showText("Page " + i).endText()
+                        .addXObjectAt(form, 36, 600);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static class ImageBytesStrategy implements ITextExtractionStrategy {
+        private final StringBuilder result = new StringBuilder();
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            byte[] imageBytes = ((ImageRenderInfo) data).getImage().getImageBytes();
+            result.append(imageBytes.length).append(':').append(Arrays.hashCode(imageBytes)).append('\n');
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return Collections.singleton(EventType.RENDER_IMAGE);
+        }
+
+        @Override
+        public String getResultantText() {
+            return result.toString();
+        }
+    }
+
+    /**
+     * Detects the reads of the document from several threads at once. Bulk reads, e.g. of stream bytes,
+     * are slowed down to make the overlapping reads likely to happen.
+     */
+    private static class ConcurrentReadsDetectingSource implements IRandomAccessSource {
+        private final IRandomAccessSource source;
+        private final AtomicInteger activeReads = new AtomicInteger();
+        private volatile boolean concurrentReads;
+
+        ConcurrentReadsDetectingSource(IRandomAccessSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public int get(long position) throws IOException {
+            startRead();
+            try {
+                return source.get(position);
+            } finally {
+                activeReads.decrementAndGet();
+            }
+        }
+
+        @Override
+        public int get(long position, byte[] bytes, int off, int len) throws IOException {
+            startRead();
+            try {
+                Thread.sleep(1);
+                return source.get(position, bytes, off, len);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                activeReads.decrementAndGet();
+            }
+        }
+
+        @Override
+        public long length() {
+            return source.length();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+
+        private void startRead() {
+            if (activeReads.incrementAndGet() > 1) {
+                concurrentReads = true;
+            }
+        }
+    }
+}
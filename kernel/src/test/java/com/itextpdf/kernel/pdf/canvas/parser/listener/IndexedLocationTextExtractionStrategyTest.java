@@ -0,0 +1,116 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class IndexedLocationTextExtractionStrategyTest extends ExtendedITextTest {
+
+    private static final String sourceFolder = "./src/test/resources/com/itextpdf/kernel/parser/";
+
+    @Test
+    public void pageTextMatchesLocationStrategyTest() throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(
+                new PdfReader(sourceFolder + "LocationExtractionTest/aliceInWonderland.pdf"))) {
+            for (int i = 1; i <= 5; i++) {
+                PdfPage page = pdfDocument.getPage(i);
+                Assert.assertEquals(PdfTextExtractor.getTextFromPage(page, new LocationTextExtractionStrategy()),
+                        PdfTextExtractor.getTextFromPage(page, new IndexedLocationTextExtractionStrategy()));
+            }
+        }
+    }
+
+    @Test
+    public void regionTextMatchesRegionFilterTest() throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(
+                new PdfReader(sourceFolder + "LocationExtractionTest/aliceInWonderland.pdf"))) {
+            PdfPage page = pdfDocument.getPage(2);
+            IndexedLocationTextExtractionStrategy strategy = new IndexedLocationTextExtractionStrategy();
+            PdfTextExtractor.getTextFromPage(page, strategy);
+
+            Rectangle pageSize = page.getPageSize();
+            float width = pageSize.getWidth() / 3;
+            float height = pageSize.getHeight() / 5;
+            for (int x = 0; x < 3; x++) {
+                for (int y = 0; y < 5; y++) {
+                    assertRegionText(page, strategy, new Rectangle(x * width, y * height, width, height));
+                }
+            }
+            assertRegionText(page, strategy, new Rectangle(100, 400, 300, 3));
+            assertRegionText(page, strategy, pageSize);
+            assertRegionText(page, strategy, new Rectangle(-1000, -1000, 5000, 5000));
+        }
+    }
+
+    @Test
+    public void textWithDiacriticsTest() throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(
+                new PdfReader(sourceFolder + "PdfTextExtractorTest/diacriticShiftedLessThanTwo.pdf"))) {
+            PdfPage page = pdfDocument.getPage(1);
+            IndexedLocationTextExtractionStrategy strategy = new IndexedLocationTextExtractionStrategy();
+            String text = PdfTextExtractor.getTextFromPage(page, strategy);
+            Assert.assertEquals(PdfTextExtractor.getTextFromPage(page, new LocationTextExtractionStrategy()), text);
+            Assert.assertEquals(text, strategy.getResultantText(page.getPageSize()));
+        }
+    }
+
+    private static void assertRegionText(PdfPage page, IndexedLocationTextExtractionStrategy strategy,
+            Rectangle region) {
+        String expected = PdfTextExtractor.getTextFromPage(page, new FilteredTextEventListener(
+                new LocationTextExtractionStrategy(), new TextRegionEventFilter(region)));
+        Assert.assertEquals(expected, strategy.getResultantText(region));
+    }
+}
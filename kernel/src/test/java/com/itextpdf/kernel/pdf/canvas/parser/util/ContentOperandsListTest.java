@@ -0,0 +1,117 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class ContentOperandsListTest extends ExtendedITextTest {
+
+    @Test
+    public void parseNumberTest() {
+        String[] numbers = new String[] {"0", "-0", "12", "+7", "-.5", "5.", "3.14159", "0.1", "-0.333333333333333",
+                "123456789012345", "1234567890123456789", "0.00000000000000000000001", "1.2.3", "--1", "-", ".",
+                "72.000000001", "595.276", "841.89"};
+        for (String number : numbers) {
+            byte[] content = ByteUtils.getIsoBytes(number);
+            double expected = new PdfNumber(content).doubleValue();
+            double actual = ContentOperandsList.parseNumber(content, 0, content.length);
+            Assert.assertEquals(number, Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+        }
+    }
+
+    @Test
+    public void numbersAreCreatedOnDemandTest() {
+        ContentOperandsList operands = new ContentOperandsList();
+        operands.addNumber(createTokenizerAtFirstToken("1.5"));
+        operands.add(new PdfName("F1"));
+        operands.addNumber(createTokenizerAtFirstToken("-2"));
+
+        Assert.assertEquals(3, operands.size());
+        Assert.assertEquals(1.5, operands.getNumber(0), 0);
+        Assert.assertEquals(-2, operands.getNumber(2), 0);
+
+        PdfObject number = operands.get(0);
+        Assert.assertEquals("1.5", number.toString());
+        Assert.assertSame(number, operands.get(0));
+        Assert.assertEquals(new PdfName("F1"), operands.get(1));
+
+        operands.remove(0);
+        Assert.assertEquals(-2, operands.getNumber(1), 0);
+        operands.add(0, new PdfNumber(3));
+        Assert.assertEquals(3, operands.getNumber(0), 0);
+
+        operands.clear();
+        Assert.assertTrue(operands.isEmpty());
+    }
+
+    @Test
+    public void parseOperationTest() throws IOException {
+        String content = "q 1 0 0 1 10.5 20 cm % comment\n/F1 12 Tf [(a) -250 (b)] TJ Q q Q";
+        PdfCanvasParser parser = new PdfCanvasParser(createTokenizer(content), new PdfResources());
+        PdfCanvasParser expectedParser = new PdfCanvasParser(createTokenizer(content), new PdfResources());
+        ContentOperandsList operands = new ContentOperandsList();
+        List<PdfObject> expected = new ArrayList<>();
+        List<PdfLiteral> operators = new ArrayList<>();
+        while (parser.parseOperation(operands).size() > 0) {
+            expectedParser.parse(expected);
+            Assert.assertEquals(expected.toString(), operands.toString());
+            operators.add((PdfLiteral) operands.get(operands.size() - 1));
+        }
+        Assert.assertEquals(0, expectedParser.parse(expected).size());
+        Assert.assertEquals(7, operators.size());
+        Assert.assertSame(operators.get(0), operators.get(5));
+    }
+
+    private static PdfTokenizer createTokenizer(String content) {
+        return new PdfTokenizer(new RandomAccessFileOrArray(
+                new RandomAccessSourceFactory().createSource(ByteUtils.getIsoBytes(content))));
+    }
+
+    private static PdfTokenizer createTokenizerAtFirstToken(String content) {
+        PdfTokenizer tokenizer = createTokenizer(content);
+        try {
+            tokenizer.nextToken();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return tokenizer;
+    }
+}
@@ -42,6 +42,7 @@
  */
 package com.itextpdf.kernel.pdf.xobject;
 
+import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.io.util.UrlUtil;
 import com.itextpdf.kernel.geom.Rectangle;
@@ -58,6 +59,8 @@ import com.itextpdf.test.annotations.type.IntegrationTest;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -216,6 +219,57 @@ public class PdfImageXObjectTest extends ExtendedITextTest {
         Assert.assertNull(new CompareTool().compareByContent(destFilename, cmpFilename, DESTINATION_FOLDER));
     }
 
+    @Test
+    public void keepDeflatedRgbaPngTest() throws IOException {
+        assertKeptDeflatedPngDecodesAsDecodedPng("sRGBImage.png");
+    }
+
+    @Test
+    public void keepDeflatedRgba16BpcPngTest() throws IOException {
+        assertKeptDeflatedPngDecodesAsDecodedPng("rgba16Bpc.png");
+    }
+
+    @Test
+    public void keepDeflatedGrayAlphaPngTest() throws IOException {
+        assertKeptDeflatedPngDecodesAsDecodedPng("graya8Bpc.png");
+        assertKeptDeflatedPngDecodesAsDecodedPng("graya8BpcWithoutProfile.png");
+    }
+
+    private void assertKeptDeflatedPngDecodesAsDecodedPng(String imageFilename) throws IOException {
+        byte[] imageBytes = Files.readAllBytes(Paths.get(SOURCE_FOLDER + imageFilename));
+        String decodedFilename = DESTINATION_FOLDER + "decoded_" + imageFilename + ".pdf";
+        String deflatedFilename = DESTINATION_FOLDER + "deflated_" + imageFilename + ".pdf";
+        writeImage(decodedFilename, ImageDataFactory.createPng(imageBytes));
+        writeImage(deflatedFilename, ImageDataFactory.createPng(imageBytes, true));
+
+        try (PdfDocument decodedDoc = new PdfDocument(new PdfReader(decodedFilename));
+                PdfDocument deflatedDoc = new PdfDocument(new PdfReader(deflatedFilename))) {
+            PdfStream decodedStream = decodedDoc.getFirstPage().getResources().getResource(PdfName.XObject)
+                    .getAsStream(new PdfName("Im1"));
+            PdfStream deflatedStream = deflatedDoc.getFirstPage().getResources().getResource(PdfName.XObject)
+                    .getAsStream(new PdfName("Im1"));
+            PdfStream decodedMask = decodedStream.getAsStream(PdfName.SMask);
+            PdfStream deflatedMask = deflatedStream.getAsStream(PdfName.SMask);
+
+            Assert.assertEquals(PdfName.FlateDecode, deflatedStream.get(PdfName.Filter));
+            Assert.assertEquals(PdfName.FlateDecode, deflatedMask.get(PdfName.Filter));
+            Assert.assertEquals(decodedStream.getAsNumber(PdfName.BitsPerComponent),
+                    deflatedStream.getAsNumber(PdfName.BitsPerComponent));
+            Assert.assertEquals(decodedStream.get(PdfName.ColorSpace).toString(),
+                    deflatedStream.get(PdfName.ColorSpace).toString());
+            Assert.assertArrayEquals(decodedStream.getBytes(), deflatedStream.getBytes());
+            Assert.assertArrayEquals(decodedMask.getBytes(), deflatedMask.getBytes());
+        }
+    }
+
+    private static void writeImage(String outFilename, ImageData image) throws IOException {
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(outFilename))) {
+            PdfImageXObject imageXObject = new PdfImageXObject(image);
+            new PdfCanvas(pdfDoc.addNewPage()).addXObjectFittedIntoRectangle(imageXObject,
+                    new Rectangle(50, 500, imageXObject.getWidth(), imageXObject.getHeight()));
+        }
+    }
+
     private void convertAndCompare(String outFilename, String cmpFilename, String imageFilename)
             throws IOException {
 
@@ -118,6 +118,18 @@ public class CompareToolTest extends ExtendedITextTest {
                 .compareXmls(destinationFolder + "tagged_pdf.report.xml", sourceFolder + "cmp_report02.xml"));
     }
 
+    @Test
+    public void compareByContentWithPageFingerprintsTest() throws InterruptedException, IOException {
+        // pages are equal by fingerprints, so Ghostscript and ImageMagick are not needed
+        CompareTool compareTool = new CompareTool("invalid_gs_exec", "invalid_compare_exec")
+                .enablePageFingerprintComparison();
+        String outPdf = sourceFolder + "tagged_pdf.pdf";
+        String cmpPdf = sourceFolder + "cmp_tagged_pdf.pdf";
+        String result = compareTool.compareByContent(outPdf, cmpPdf, destinationFolder);
+        Assert.assertNotNull("CompareTool must return differences found between the files", result);
+        Assert.assertTrue(result.contains("Compare by content fails. No visual differences"));
+    }
+
     @Test
     public void compareToolErrorReportTest03()
             throws InterruptedException, IOException, ParserConfigurationException, SAXException {
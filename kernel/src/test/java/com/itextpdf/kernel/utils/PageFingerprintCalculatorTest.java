@@ -0,0 +1,269 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfBoolean;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.annot.PdfLinkAnnotation;
+import com.itextpdf.kernel.pdf.annot.PdfWidgetAnnotation;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.layer.PdfLayer;
+import com.itextpdf.kernel.pdf.navigation.PdfExplicitDestination;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PageFingerprintCalculatorTest extends ExtendedITextTest {
+
+    public static final String destinationFolder = "./target/test/com/itextpdf/kernel/utils/PageFingerprintCalculatorTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void equalPagesWithDifferentFileLayoutTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "equalPagesWithDifferentFileLayout.pdf";
+        String cmpPdf = destinationFolder + "cmp_equalPagesWithDifferentFileLayout.pdf";
+        createDocument(outPdf, new WriterProperties(), 5, -1);
+        createDocument(cmpPdf, new WriterProperties().setFullCompressionMode(true), 5, -1);
+
+        for (int parallelism : new int[] {1, 4}) {
+            List<Integer> differentPages = new PageFingerprintCalculator(parallelism, null)
+                    .findDifferentPages(outPdf, new ReaderProperties(), cmpPdf, new ReaderProperties());
+            Assert.assertEquals(Collections.<Integer>emptyList(), differentPages);
+        }
+    }
+
+    @Test
+    public void differentPagesAreFoundTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "differentPagesAreFound.pdf";
+        String cmpPdf = destinationFolder + "cmp_differentPagesAreFound.pdf";
+        createDocument(outPdf, new WriterProperties(), 7, 4);
+        createDocument(cmpPdf, new WriterProperties(), 7, -1);
+
+        for (int parallelism : new int[] {1, 3, 16}) {
+            List<Integer> differentPages = new PageFingerprintCalculator(parallelism, null)
+                    .findDifferentPages(outPdf, new ReaderProperties(), cmpPdf, new ReaderProperties());
+            Assert.assertEquals(Arrays.asList(4), differentPages);
+        }
+    }
+
+    @Test
+    public void differentNumberOfPagesTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "differentNumberOfPages.pdf";
+        String cmpPdf = destinationFolder + "cmp_differentNumberOfPages.pdf";
+        createDocument(outPdf, new WriterProperties(), 2, -1);
+        createDocument(cmpPdf, new WriterProperties(), 3, -1);
+
+        Assert.assertNull(new PageFingerprintCalculator(2, null)
+                .findDifferentPages(outPdf, new ReaderProperties(), cmpPdf, new ReaderProperties()));
+    }
+
+    @Test
+    public void compareVisuallyWithoutExternalToolsTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "compareVisuallyWithoutExternalTools.pdf";
+        String cmpPdf = destinationFolder + "cmp_compareVisuallyWithoutExternalTools.pdf";
+        createDocument(outPdf, new WriterProperties(), 3, -1);
+        createDocument(cmpPdf, new WriterProperties().setFullCompressionMode(true), 3, -1);
+
+        // external tools are never run for pages with equal fingerprints, so invalid commands are fine here
+        CompareTool compareTool = new CompareTool("invalid_gs_exec", "invalid_compare_exec")
+                .enablePageFingerprintComparison(2);
+        Assert.assertNull(compareTool.compareVisually(outPdf, cmpPdf, destinationFolder, "diff_"));
+        Assert.assertNull(compareTool.compareByContent(outPdf, cmpPdf, destinationFolder));
+    }
+
+    @Test
+    public void compareVisuallyRendersDifferentPagesTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "compareVisuallyRendersDifferentPages.pdf";
+        String cmpPdf = destinationFolder + "cmp_compareVisuallyRendersDifferentPages.pdf";
+        createDocument(outPdf, new WriterProperties(), 3, 1);
+        createDocument(cmpPdf, new WriterProperties(), 3, -1);
+
+        CompareTool compareTool = new CompareTool("invalid_gs_exec", "invalid_compare_exec")
+                .enablePageFingerprintComparison(2);
+        Assert.assertThrows(CompareTool.CompareToolExecutionException.class,
+                () -> compareTool.compareVisually(outPdf, cmpPdf, destinationFolder, "diff_"));
+    }
+
+    @Test
+    public void differentDefaultOptionalContentConfigurationTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "differentDefaultOptionalContentConfiguration.pdf";
+        String cmpPdf = destinationFolder + "cmp_differentDefaultOptionalContentConfiguration.pdf";
+        createDocumentWithLayer(outPdf, false, false);
+        createDocumentWithLayer(cmpPdf, true, false);
+
+        List<Integer> differentPages = new PageFingerprintCalculator(2, null)
+                .findDifferentPages(outPdf, new ReaderProperties(), cmpPdf, new ReaderProperties());
+        Assert.assertEquals(Arrays.asList(0, 1), differentPages);
+    }
+
+    @Test
+    public void differentNeedAppearancesTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "differentNeedAppearances.pdf";
+        String cmpPdf = destinationFolder + "cmp_differentNeedAppearances.pdf";
+        createDocumentWithLayer(outPdf, true, true);
+        createDocumentWithLayer(cmpPdf, true, false);
+
+        List<Integer> differentPages = new PageFingerprintCalculator(2, null)
+                .findDifferentPages(outPdf, new ReaderProperties(), cmpPdf, new ReaderProperties());
+        Assert.assertEquals(Arrays.asList(0, 1), differentPages);
+    }
+
+    @Test
+    public void differentInheritedFieldValueTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "differentInheritedFieldValue.pdf";
+        String cmpPdf = destinationFolder + "cmp_differentInheritedFieldValue.pdf";
+        createDocumentWithWidget(outPdf, "value", 36);
+        createDocumentWithWidget(cmpPdf, "other value", 36);
+
+        List<Integer> differentPages = new PageFingerprintCalculator(2, null)
+                .findDifferentPages(outPdf, new ReaderProperties(), cmpPdf, new ReaderProperties());
+        Assert.assertEquals(Arrays.asList(0, 1), differentPages);
+    }
+
+    @Test
+    public void differentWidgetOfFieldOnOtherPageTest() throws IOException, InterruptedException {
+        String outPdf = destinationFolder + "differentWidgetOfFieldOnOtherPage.pdf";
+        String cmpPdf = destinationFolder + "cmp_differentWidgetOfFieldOnOtherPage.pdf";
+        createDocumentWithWidget(outPdf, "value", 36);
+        createDocumentWithWidget(cmpPdf, "value", 200);
+
+        List<Integer> differentPages = new PageFingerprintCalculator(2, null)
+                .findDifferentPages(outPdf, new ReaderProperties(), cmpPdf, new ReaderProperties());
+        Assert.assertEquals(Arrays.asList(1), differentPages);
+    }
+
+    @Test
+    public void invalidParallelismTest() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new CompareTool().enablePageFingerprintComparison(0));
+    }
+
+    private static void createDocumentWithLayer(String path, boolean layerOn, boolean needAppearances)
+            throws IOException {
+        try (PdfDocument document = new PdfDocument(new PdfWriter(path))) {
+            PdfLayer layer = new PdfLayer("layer", document);
+            layer.setOn(layerOn);
+            for (int i = 0; i < 2; i++) {
+                new PdfCanvas(document.addNewPage())
+                        .beginLayer(layer)
+                        .rectangle(36, 700, 100, 20)
+                        .fill()
+                        .endLayer();
+            }
+            PdfDictionary acroForm = new PdfDictionary();
+            acroForm.put(PdfName.Fields, new PdfArray());
+            acroForm.put(PdfName.NeedAppearances, PdfBoolean.valueOf(needAppearances));
+            document.getCatalog().put(PdfName.AcroForm, acroForm);
+        }
+    }
+
+    private static void createDocumentWithWidget(String path, String value, float secondWidgetX)
+            throws IOException {
+        try (PdfDocument document = new PdfDocument(new PdfWriter(path))) {
+            PdfDictionary parent = new PdfDictionary();
+            parent.put(PdfName.FT, PdfName.Tx);
+            parent.put(PdfName.T, new PdfString("parent"));
+            parent.put(PdfName.DA, new PdfString("/Helv 12 Tf 0 g"));
+            parent.makeIndirect(document);
+            PdfDictionary field = new PdfDictionary();
+            field.put(PdfName.T, new PdfString("field"));
+            field.put(PdfName.V, new PdfString(value));
+            field.put(PdfName.Parent, parent);
+            field.makeIndirect(document);
+            PdfArray widgets = new PdfArray();
+            for (int i = 0; i < 2; i++) {
+                PdfWidgetAnnotation widget = new PdfWidgetAnnotation(
+                        new Rectangle(i == 0 ? 36 : secondWidgetX, 700, 100, 20));
+                widget.getPdfObject().put(PdfName.Parent, field);
+                document.addNewPage().addAnnotation(widget);
+                widgets.add(widget.getPdfObject());
+            }
+            field.put(PdfName.Kids, widgets);
+            parent.put(PdfName.Kids, new PdfArray(field));
+            PdfDictionary acroForm = new PdfDictionary();
+            acroForm.put(PdfName.Fields, new PdfArray(parent));
+            document.getCatalog().put(PdfName.AcroForm, acroForm);
+        }
+    }
+
+    private static void createDocument(String path, WriterProperties properties, int numberOfPages,
+            int changedPage) throws IOException {
+        try (PdfDocument document = new PdfDocument(new PdfWriter(path, properties))) {
+            for (int i = 0; i < numberOfPages; i++) {
+                PdfPage page = document.addNewPage();
+                new PdfCanvas(page)
+                        .beginText()
+                        .setFontAndSize(PdfFontFactory.createFont(StandardFonts.HELVETICA), 12)
+                        .moveText(36, 700)
+                        .showText(i == changedPage ? "Changed page " + (i + 1) : "Page " + (i + 1))
+                        .endText();
+                page.addAnnotation(new PdfLinkAnnotation(new Rectangle(36, 680, 100, 20))
+                        .setDestination(PdfExplicitDestination.createFit(document.getPage(1))));
+            }
+        }
+    }
+}
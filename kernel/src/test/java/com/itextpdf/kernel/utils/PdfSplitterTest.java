@@ -257,6 +257,41 @@ public class PdfSplitterTest extends ExtendedITextTest{
         }
     }
 
+    @Test
+    public void splitDocumentBySizeWithListener() throws IOException, InterruptedException {
+        String inputFileName = sourceFolder + "splitBySize.pdf";
+        PdfDocument inputPdfDoc = new PdfDocument(new PdfReader(inputFileName));
+        PdfSplitter splitter = new PdfSplitter(inputPdfDoc) {
+
+            int partNumber = 1;
+
+            @Override
+            protected PdfWriter getNextPdfWriter(PageRange documentPageRange) {
+                try {
+                    return new PdfWriter(destinationFolder + "splitBySizeWithListener_part" + String.valueOf(partNumber++) + ".pdf");
+                } catch (FileNotFoundException e) {
+                    throw new RuntimeException();
+                }
+            }
+        };
+
+        final List<Integer> partPageCounts = new ArrayList<>();
+        splitter.splitBySize(100000, new PdfSplitter.IDocumentReadyListener() {
+            @Override
+            public void documentReady(PdfDocument pdfDocument, PageRange pageRange) {
+                partPageCounts.add(pdfDocument.getNumberOfPages());
+                pdfDocument.close();
+            }
+        });
+        inputPdfDoc.close();
+
+        Assert.assertEquals(4, partPageCounts.size());
+        for (int i = 1; i <= 4; ++i) {
+            Assert.assertNull(new CompareTool().compareByContent(destinationFolder + "splitBySizeWithListener_part" + i + ".pdf",
+                                                                 sourceFolder + "cmp/" + "cmp_splitBySize_part" + i + ".pdf", destinationFolder, "diff_"));
+        }
+    }
+
     @Test
     @LogMessages(messages = {
             @LogMessage(messageTemplate = IoLogMessageConstant.SOURCE_DOCUMENT_HAS_ACROFORM_DICTIONARY , count = 10)
@@ -0,0 +1,155 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.itextpdf.kernel.xmp.impl;
+
+import com.itextpdf.kernel.utils.XmlProcessorCreator;
+import com.itextpdf.kernel.xmp.XMPConst;
+import com.itextpdf.kernel.xmp.XMPException;
+import com.itextpdf.kernel.xmp.XMPMeta;
+import com.itextpdf.kernel.xmp.XMPMetaFactory;
+import com.itextpdf.test.ExceptionTestUtil;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class XMPPropertyScannerTest extends ExtendedITextTest {
+
+    private static final String XMP_HEADER = "<?xpacket begin=\"\" id=\"W5M0MpCehiHzreSzNTczkc9d\"?>\n"
+            + "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\">\n"
+            + "    <rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\">\n";
+
+    private static final String XMP_FOOTER = "    </rdf:RDF>\n"
+            + "</x:xmpmeta>\n"
+            + "<?xpacket end=\"r\"?>";
+
+    @Before
+    public void resetXmlParserFactoryToDefault() {
+        XmlProcessorCreator.setXmlParserFactory(null);
+    }
+
+    @Test
+    public void elementFormPropertiesTest() throws XMPException {
+        String xmp = XMP_HEADER
+                + "        <rdf:Description rdf:about=\"\" xmlns:pdfaid=\"http://www.aiim.org/pdfa/ns/id/\">\n"
+                + "            <pdfaid:part>2</pdfaid:part>\n"
+                + "            <pdfaid:conformance>U</pdfaid:conformance>\n"
+                + "        </rdf:Description>\n"
+                + XMP_FOOTER;
+        XMPMeta meta = XMPPropertyScanner.scan(xmp.getBytes(StandardCharsets.UTF_8), XMPConst.NS_PDFA_ID,
+                XMPConst.PART, XMPConst.CONFORMANCE);
+        Assert.assertEquals("2", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.PART));
+        Assert.assertEquals("U", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.CONFORMANCE));
+    }
+
+    @Test
+    public void attributeFormPropertiesTest() throws XMPException {
+        String xmp = XMP_HEADER
+                + "        <rdf:Description rdf:about=\"\" xmlns:dc=\"http://purl.org/dc/elements/1.1/\"/>\n"
+                + "        <rdf:Description rdf:about=\"\" xmlns:pdfaid=\"http://www.aiim.org/pdfa/ns/id/\"\n"
+                + "            pdfaid:part=\"1\" pdfaid:conformance=\"B\"/>\n"
+                + XMP_FOOTER;
+        XMPMeta meta = XMPPropertyScanner.scan(xmp.getBytes(StandardCharsets.UTF_8), XMPConst.NS_PDFA_ID,
+                XMPConst.PART, XMPConst.CONFORMANCE);
+        Assert.assertEquals("1", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.PART));
+        Assert.assertEquals("B", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.CONFORMANCE));
+    }
+
+    @Test
+    public void propertiesAfterNestedDescriptionTest() throws XMPException {
+        String xmp = XMP_HEADER
+                + "        <rdf:Description rdf:about=\"\" xmlns:pdfaid=\"http://www.aiim.org/pdfa/ns/id/\"\n"
+                + "            xmlns:pdfaExtension=\"http://www.aiim.org/pdfa/ns/extension/\"\n"
+                + "            xmlns:pdfaSchema=\"http://www.aiim.org/pdfa/ns/schema#\">\n"
+                + "            <pdfaExtension:schemas>\n"
+                + "                <rdf:Bag>\n"
+                + "                    <rdf:li>\n"
+                + "                        <rdf:Description>\n"
+                + "                            <pdfaSchema:prefix>ext</pdfaSchema:prefix>\n"
+                + "                            <pdfaid:part>9</pdfaid:part>\n"
+                + "                        </rdf:Description>\n"
+                + "                    </rdf:li>\n"
+                + "                </rdf:Bag>\n"
+                + "            </pdfaExtension:schemas>\n"
+                + "            <pdfaid:part>2</pdfaid:part>\n"
+                + "            <pdfaid:conformance>B</pdfaid:conformance>\n"
+                + "        </rdf:Description>\n"
+                + XMP_FOOTER;
+        XMPMeta meta = XMPPropertyScanner.scan(xmp.getBytes(StandardCharsets.UTF_8), XMPConst.NS_PDFA_ID,
+                XMPConst.PART, XMPConst.CONFORMANCE);
+        Assert.assertEquals("2", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.PART));
+        Assert.assertEquals("B", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.CONFORMANCE));
+    }
+
+    @Test
+    public void complexAndNotRequestedPropertiesAreSkippedTest() throws XMPException {
+        String xmp = XMP_HEADER
+                + "        <rdf:Description rdf:about=\"\" xmlns:dc=\"http://purl.org/dc/elements/1.1/\">\n"
+                + "            <dc:title><rdf:Alt><rdf:li xml:lang=\"x-default\">Title</rdf:li></rdf:Alt></dc:title>\n"
+                + "            <dc:format>application/pdf</dc:format>\n"
+                + "            <dc:source>source</dc:source>\n"
+                + "        </rdf:Description>\n"
+                + XMP_FOOTER;
+        XMPMeta meta = XMPPropertyScanner.scan(xmp.getBytes(StandardCharsets.UTF_8), XMPConst.NS_DC,
+                "title", "format");
+        Assert.assertFalse(meta.doesPropertyExist(XMPConst.NS_DC, "title"));
+        Assert.assertFalse(meta.doesPropertyExist(XMPConst.NS_DC, "source"));
+        Assert.assertEquals("application/pdf", meta.getPropertyString(XMPConst.NS_DC, "format"));
+    }
+
+    @Test
+    public void allSimplePropertiesOfSchemaTest() throws XMPException {
+        String xmp = XMP_HEADER
+                + "        <rdf:Description rdf:about=\"\" xmlns:pdfaid=\"http://www.aiim.org/pdfa/ns/id/\"\n"
+                + "            xmlns:xmp=\"http://ns.adobe.com/xap/1.0/\" xmp:CreatorTool=\"tool\" pdfaid:part=\"3\">\n"
+                + "            <pdfaid:conformance>A</pdfaid:conformance>\n"
+                + "        </rdf:Description>\n"
+                + XMP_FOOTER;
+        XMPMeta meta = XMPMetaFactory.parsePropertiesFromBuffer(xmp.getBytes(StandardCharsets.UTF_8),
+                XMPConst.NS_PDFA_ID);
+        Assert.assertEquals("3", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.PART));
+        Assert.assertEquals("A", meta.getPropertyString(XMPConst.NS_PDFA_ID, XMPConst.CONFORMANCE));
+        Assert.assertFalse(meta.doesPropertyExist(XMPConst.NS_XMP, "CreatorTool"));
+    }
+
+    @Test
+    public void xxeIsRejectedTest() {
+        String xmp = "<?xpacket begin=\"\" id=\"W5M0MpCehiHzreSzNTczkc9d\"?>\n"
+                + "<!DOCTYPE foo [ <!ENTITY xxe SYSTEM \"xxe-data.txt\" > ]>\n"
+                + "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\">\n"
+                + "    <rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\">\n"
+                + "        <rdf:Description rdf:about=\"\" xmlns:pdfaid=\"http://www.aiim.org/pdfa/ns/id/\">\n"
+                + "            <pdfaid:part>&xxe;1</pdfaid:part>\n"
+                + "        </rdf:Description>\n"
+                + XMP_FOOTER;
+        Exception e = Assert.assertThrows(XMPException.class, () -> XMPMetaFactory.parsePropertiesFromBuffer(
+                xmp.getBytes(StandardCharsets.UTF_8), XMPConst.NS_PDFA_ID, XMPConst.PART));
+        Assert.assertEquals(ExceptionTestUtil.getDoctypeIsDisallowedExceptionMessage(), e.getMessage());
+    }
+}
@@ -58,6 +58,7 @@ import com.itextpdf.layout.properties.BorderRadius;
 import com.itextpdf.layout.properties.FontKerning;
 import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.properties.Property;
+import com.itextpdf.layout.properties.PropertyMap;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.TransparentColor;
 import com.itextpdf.layout.properties.Underline;
@@ -65,7 +66,6 @@ import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.splitting.ISplitCharacters;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -78,11 +78,15 @@ import java.util.Map;
 public abstract class ElementPropertyContainer<T extends IPropertyContainer> extends AbstractIdentifiableElement
         implements IPropertyContainer {
 
-    protected Map<Integer, Object> properties = new HashMap<>();
+    protected Map<Integer, Object> properties = new PropertyMap();
 
     @Override
     public void setProperty(int property, Object value) {
-        properties.put(property, value);
+        if (properties instanceof PropertyMap) {
+            ((PropertyMap) properties).put(property, value);
+        } else {
+            properties.put(property, value);
+        }
     }
 
     @Override
@@ -92,12 +96,18 @@ public abstract class ElementPropertyContainer<T extends IPropertyContainer> ext
 
     @Override
     public boolean hasOwnProperty(int property) {
-        return properties.containsKey(property);
+        // properties field is accessible to subclasses, so it may be not a PropertyMap
+        return properties instanceof PropertyMap ? ((PropertyMap) properties).containsKey(property)
+                : properties.containsKey(property);
     }
 
     @Override
     public void deleteOwnProperty(int property) {
-        properties.remove(property);
+        if (properties instanceof PropertyMap) {
+            ((PropertyMap) properties).remove(property);
+        } else {
+            properties.remove(property);
+        }
     }
 
     @Override
@@ -107,7 +117,8 @@ public abstract class ElementPropertyContainer<T extends IPropertyContainer> ext
 
     @Override
     public <T1> T1 getOwnProperty(int property) {
-        return (T1) properties.<T1>get(property);
+        return (T1) (properties instanceof PropertyMap ? ((PropertyMap) properties).get(property)
+                : properties.get(property));
     }
 
     @Override
@@ -144,21 +144,11 @@ public abstract class RootElement<T extends IPropertyContainer> extends ElementP
         return hasOwnProperty(property);
     }
 
-    @Override
-    public boolean hasOwnProperty(int property) {
-        return properties.containsKey(property);
-    }
-
     @Override
     public <T1> T1 getProperty(int property) {
         return this.<T1>getOwnProperty(property);
     }
 
-    @Override
-    public <T1> T1 getOwnProperty(int property) {
-        return (T1) properties.<T1>get(property);
-    }
-
     @Override
     public <T1> T1 getDefaultProperty(int property) {
         try {
@@ -196,16 +186,6 @@ public abstract class RootElement<T extends IPropertyContainer> extends ElementP
         }
     }
 
-    @Override
-    public void deleteOwnProperty(int property) {
-        properties.remove(property);
-    }
-
-    @Override
-    public void setProperty(int property, Object value) {
-        properties.put(property, value);
-    }
-
     /**
      * Gets the rootRenderer attribute, a specialized {@link IRenderer} that
      * acts as the root object that other {@link IRenderer renderers} descend
@@ -49,6 +49,7 @@ import com.itextpdf.kernel.pdf.tagutils.AccessibilityProperties;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.properties.Property;
+import com.itextpdf.layout.properties.PropertyMap;
 import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.renderer.CellRenderer;
 import com.itextpdf.layout.renderer.IRenderer;
@@ -57,7 +58,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 
 /**
@@ -185,7 +185,7 @@ public class Cell extends BlockElement<Cell> {
         Cell newCell = new Cell(rowspan, colspan);
         newCell.row = row;
         newCell.col = col;
-        newCell.properties = new HashMap<>(properties);
+        newCell.properties = new PropertyMap(properties);
         if (null != styles) {
             newCell.styles = new LinkedHashSet<>(styles);
         }
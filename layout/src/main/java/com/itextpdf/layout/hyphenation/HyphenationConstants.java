@@ -48,4 +48,14 @@ package com.itextpdf.layout.hyphenation;
 public class HyphenationConstants {
 
     public static final String HYPHENATION_DEFAULT_RESOURCE = "com/itextpdf/hyph/";
+
+    /**
+     * The extension of the hyphenation pattern files in XML format.
+     */
+    public static final String XML_PATTERN_FILE_EXTENSION = ".xml";
+
+    /**
+     * The extension of the precompiled hyphenation pattern files, see {@link HyphenationPatternCompiler}.
+     */
+    public static final String COMPILED_PATTERN_FILE_EXTENSION = ".bin";
 }
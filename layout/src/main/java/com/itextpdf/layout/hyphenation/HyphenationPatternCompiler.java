@@ -0,0 +1,326 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.hyphenation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compiles hyphenation patterns in XML format into a binary format which can be loaded without parsing.
+ * <p>
+ * The binary format is a dump of the arrays of a {@link HyphenationTree} after its patterns were loaded and
+ * optimized: the ternary tree of patterns, the interletter values, the character class map and the exceptions.
+ * Loading it is a matter of bulk-copying these arrays, so that neither XML parsing nor tree building is needed.
+ * The format is versioned; files of an unknown version are ignored by {@link Hyphenator} in favor of XML files.
+ * <p>
+ * The patterns of the hyph module are compiled by {@link #main(String[])} during the build of that module and are
+ * shipped next to the XML files, which {@link Hyphenator} falls back to. The same method can be used to compile
+ * custom patterns into a directory registered with
+ * {@link Hyphenator#registerAdditionalHyphenationFileDirectory(String)}.
+ */
+public final class HyphenationPatternCompiler {
+
+    private static final int MAGIC = 0x49544859; // "ITHY"
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte STRING_ITEM = 0;
+
+    private static final byte HYPHEN_ITEM = 1;
+
+    private HyphenationPatternCompiler() {
+    }
+
+    /**
+     * Compiles all the XML pattern files in the directory into binary files placed next to them.
+     *
+     * @param args the first argument is the directory with XML pattern files, the optional second one is
+     *             the output directory
+     * @throws IOException if a file can't be read or written
+     * @throws HyphenationException if a pattern file can't be parsed
+     */
+    public static void main(String[] args) throws IOException, HyphenationException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: HyphenationPatternCompiler <patterns directory> [output directory]");
+        }
+        File sourceDirectory = new File(args[0]);
+        File outputDirectory = args.length > 1 ? new File(args[1]) : sourceDirectory;
+        File[] files = sourceDirectory.listFiles();
+        if (files == null) {
+            throw new IOException("Not a directory: " + sourceDirectory);
+        }
+        if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
+            throw new IOException("Can't create directory: " + outputDirectory);
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isFile() && name.endsWith(HyphenationConstants.XML_PATTERN_FILE_EXTENSION)) {
+                String baseName = name.substring(0, name.length() - HyphenationConstants.XML_PATTERN_FILE_EXTENSION.length());
+                compile(file, new File(outputDirectory, baseName + HyphenationConstants.COMPILED_PATTERN_FILE_EXTENSION));
+            }
+        }
+    }
+
+    /**
+     * Compiles an XML pattern file into a binary file.
+     *
+     * @param patternFile the XML pattern file
+     * @param compiledFile the binary file to write
+     * @throws IOException if a file can't be read or written
+     * @throws HyphenationException if the pattern file can't be parsed
+     */
+    public static void compile(File patternFile, File compiledFile) throws IOException, HyphenationException {
+        HyphenationTree tree = new HyphenationTree();
+        try (InputStream in = new FileInputStream(patternFile)) {
+            tree.loadPatterns(in, patternFile.getName());
+        }
+        try (OutputStream out = new FileOutputStream(compiledFile)) {
+            write(tree, out);
+        }
+    }
+
+    /**
+     * Writes the loaded hyphenation tree in the binary format.
+     *
+     * @param tree the hyphenation tree with loaded patterns
+     * @param out the stream to write to, it is not closed by this method
+     * @throws IOException if the stream can't be written
+     */
+    public static void write(HyphenationTree tree, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        writeTernaryTree(tree, data);
+        writeTernaryTree(tree.classmap, data);
+        int valuesLength = tree.vspace.length();
+        data.writeInt(valuesLength);
+        data.write(tree.vspace.getArray(), 0, valuesLength);
+        data.writeInt(tree.stoplist.size());
+        for (String word : tree.stoplist.keySet()) {
+            List<?> items = tree.stoplist.get(word);
+            data.writeUTF(word);
+            data.writeInt(items.size());
+            for (Object item : items) {
+                if (item instanceof Hyphen) {
+                    Hyphen hyphen = (Hyphen) item;
+                    data.writeByte(HYPHEN_ITEM);
+                    writeNullableString(hyphen.preBreak, data);
+                    writeNullableString(hyphen.noBreak, data);
+                    writeNullableString(hyphen.postBreak, data);
+                } else {
+                    data.writeByte(STRING_ITEM);
+                    data.writeUTF((String) item);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a hyphenation tree in the binary format.
+     *
+     * @param in the stream to read from, it is not closed by this method
+     * @return the hyphenation tree, or {@code null} if the stream doesn't contain a tree of a supported format version
+     * @throws IOException if the stream can't be read or is corrupted
+     */
+    public static HyphenationTree read(InputStream in) throws IOException {
+        return read(in instanceof FileInputStream ? map((FileInputStream) in) : readToDirectBuffer(in));
+    }
+
+    /**
+     * Reads a hyphenation tree in the binary format.
+     *
+     * @param buffer the buffer to read from, starting at its position
+     * @return the hyphenation tree, or {@code null} if the buffer doesn't contain a tree of a supported format version
+     * @throws IOException if the buffer is corrupted
+     */
+    public static HyphenationTree read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            HyphenationTree tree = new HyphenationTree();
+            readTernaryTree(tree, buffer);
+            readTernaryTree(tree.classmap, buffer);
+            int valuesLength = buffer.getInt();
+            // One spare byte, so that the allocation doesn't grow the array
+            ByteVector values = new ByteVector(valuesLength + 1);
+            values.alloc(valuesLength);
+            buffer.get(values.getArray(), 0, valuesLength);
+            values.trimToSize();
+            tree.vspace = values;
+            int exceptionsCount = buffer.getInt();
+            tree.stoplist = new HashMap<>(Math.max(23, exceptionsCount * 4 / 3 + 1));
+            for (int i = 0; i < exceptionsCount; i++) {
+                String word = readString(buffer);
+                int itemsCount = buffer.getInt();
+                List<Object> items = new ArrayList<>(itemsCount);
+                for (int j = 0; j < itemsCount; j++) {
+                    if (buffer.get() == HYPHEN_ITEM) {
+                        items.add(new Hyphen(readNullableString(buffer), readNullableString(buffer),
+                                readNullableString(buffer)));
+                    } else {
+                        items.add(readString(buffer));
+                    }
+                }
+                tree.stoplist.put(word, items);
+            }
+            return tree;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of compiled hyphenation patterns", e);
+        }
+    }
+
+    private static ByteBuffer map(FileInputStream in) throws IOException {
+        FileChannel channel = in.getChannel();
+        long position = channel.position();
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+    }
+
+    private static ByteBuffer readToDirectBuffer(InputStream in) throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(in);
+        // the streams of resources packed into jars know the size of the entry, so the buffer doesn't grow usually
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(in.available(), 8192) + 1);
+        while (channel.read(buffer) != -1) {
+            if (!buffer.hasRemaining()) {
+                ByteBuffer grownBuffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                buffer.flip();
+                grownBuffer.put(buffer);
+                buffer = grownBuffer;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeTernaryTree(TernaryTree tree, DataOutputStream data) throws IOException {
+        data.writeChar(tree.root);
+        data.writeChar(tree.freenode);
+        data.writeInt(tree.length);
+        int nodesCount = tree.lo.length;
+        data.writeInt(nodesCount);
+        writeChars(tree.lo, nodesCount, data);
+        writeChars(tree.hi, nodesCount, data);
+        writeChars(tree.eq, nodesCount, data);
+        writeChars(tree.sc, nodesCount, data);
+        data.writeInt(tree.kv.length());
+        writeChars(tree.kv.getArray(), tree.kv.length(), data);
+    }
+
+    private static void readTernaryTree(TernaryTree tree, ByteBuffer buffer) {
+        tree.root = buffer.getChar();
+        tree.freenode = buffer.getChar();
+        tree.length = buffer.getInt();
+        int nodesCount = buffer.getInt();
+        tree.lo = readChars(buffer, nodesCount);
+        tree.hi = readChars(buffer, nodesCount);
+        tree.eq = readChars(buffer, nodesCount);
+        tree.sc = readChars(buffer, nodesCount);
+        tree.kv = new CharVector(readChars(buffer, buffer.getInt()));
+    }
+
+    private static void writeChars(char[] chars, int count, DataOutputStream data) throws IOException {
+        for (int i = 0; i < count; i++) {
+            data.writeChar(chars[i]);
+        }
+    }
+
+    private static char[] readChars(ByteBuffer buffer, int count) {
+        char[] chars = new char[count];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + 2 * count);
+        return chars;
+    }
+
+    private static void writeNullableString(String str, DataOutputStream data) throws IOException {
+        data.writeBoolean(str != null);
+        if (str != null) {
+            data.writeUTF(str);
+        }
+    }
+
+    private static String readNullableString(ByteBuffer buffer) {
+        return buffer.get() != 0 ? readString(buffer) : null;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return decodeModifiedUtf8(bytes);
+    }
+
+    // DataOutputStream.writeUTF produces modified UTF-8, which differs from the standard one for '\0' and
+    // supplementary characters, so it can't be decoded with a Charset
+    private static String decodeModifiedUtf8(byte[] bytes) {
+        char[] chars = new char[bytes.length];
+        int count = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            int b = bytes[i++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[i++] & 0x3F) << 6) | (bytes[i++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
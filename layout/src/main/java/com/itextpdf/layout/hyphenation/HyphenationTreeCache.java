@@ -18,20 +18,19 @@
 
 package com.itextpdf.layout.hyphenation;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * This is a cache for HyphenationTree instances.
+ * This is a cache for HyphenationTree instances. The cache is safe for concurrent use without locking.
  */
 public class HyphenationTreeCache {
 
     /** Contains the cached hyphenation trees */
-    private Map<String, HyphenationTree> hyphenTrees = new HashMap<>();
+    private final Map<String, HyphenationTree> hyphenTrees = new ConcurrentHashMap<>();
     /** Used to avoid multiple error messages for the same language if a pattern file is missing. */
-    private Set<String> missingHyphenationTrees;
+    private final Set<String> missingHyphenationTrees = ConcurrentHashMap.newKeySet();
 
     /**
      * Looks in the cache if a hyphenation tree is available and returns it if it is found.
@@ -47,13 +46,11 @@ public class HyphenationTreeCache {
         }
 
         // first try to find it in the cache
-        if (hyphenTrees.containsKey(key)) {
-            return hyphenTrees.get(key);
-        } else if (hyphenTrees.containsKey(lang)) {
-            return hyphenTrees.get(lang);
-        } else {
-            return null;
+        HyphenationTree hTree = hyphenTrees.get(key);
+        if (hTree == null) {
+            hTree = hyphenTrees.get(lang);
         }
+        return hTree;
     }
 
     /**
@@ -95,7 +92,9 @@ public class HyphenationTreeCache {
      * @param hTree the hyphenation tree
      */
     public void cache(String key, HyphenationTree hTree) {
-        hyphenTrees.put(key, hTree);
+        if (key != null && hTree != null) {
+            hyphenTrees.put(key, hTree);
+        }
     }
 
     /**
@@ -105,10 +104,9 @@ public class HyphenationTreeCache {
      * @param key the key (ex. "de_CH" or "en")
      */
     public void noteMissing(String key) {
-        if (missingHyphenationTrees == null) {
-            missingHyphenationTrees = new HashSet<>();
+        if (key != null) {
+            missingHyphenationTrees.add(key);
         }
-        missingHyphenationTrees.add(key);
     }
 
     /**
@@ -119,6 +117,6 @@ public class HyphenationTreeCache {
      * @return true if the hyphenation tree is unavailable
      */
     public boolean isMissing(String key) {
-        return (missingHyphenationTrees != null && missingHyphenationTrees.contains(key));
+        return key != null && missingHyphenationTrees.contains(key);
     }
 }
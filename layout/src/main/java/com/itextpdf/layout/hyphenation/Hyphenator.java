@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This class is the main entry point to the hyphenation package.
@@ -39,16 +40,14 @@ public final class Hyphenator {
 
     private static final char SOFT_HYPHEN = '\u00ad';
 
-    private static final Object staticLock = new Object();
-
     /**
      * Logging instance.
      */
     private static Logger log = LoggerFactory.getLogger(Hyphenator.class);
 
-    private static HyphenationTreeCache hTreeCache;
+    private static volatile HyphenationTreeCache hTreeCache = new HyphenationTreeCache();
 
-    private static List<String> additionalHyphenationFileDirectories;
+    private static final List<String> additionalHyphenationFileDirectories = new CopyOnWriteArrayList<>();
 
     protected String lang;
     protected String country;
@@ -86,17 +85,13 @@ public final class Hyphenator {
     }
 
     /**
-     * Registers additional file directories.
+     * Registers additional file directories. The pattern files compiled with {@link HyphenationPatternCompiler}
+     * are preferred to the XML ones in these directories.
      *
      * @param directory directory to register
      */
     public static void registerAdditionalHyphenationFileDirectory(String directory) {
-        synchronized (staticLock) {
-            if (additionalHyphenationFileDirectories == null) {
-                additionalHyphenationFileDirectories = new ArrayList<>();
-            }
-            additionalHyphenationFileDirectories.add(directory);
-        }
+        additionalHyphenationFileDirectories.add(directory);
     }
 
     /**
@@ -105,11 +100,6 @@ public final class Hyphenator {
      * @return the default (static) hyphenation tree cache
      */
     public static HyphenationTreeCache getHyphenationTreeCache() {
-        synchronized (staticLock) {
-            if (hTreeCache == null) {
-                hTreeCache = new HyphenationTreeCache();
-            }
-        }
         return hTreeCache;
     }
 
@@ -117,9 +107,7 @@ public final class Hyphenator {
      * Clears the default hyphenation tree cache. This method can be used if the underlying data files are changed at runtime.
      */
     public static void clearHyphenationTreeCache() {
-        synchronized (staticLock) {
-            hTreeCache = new HyphenationTreeCache();
-        }
+        hTreeCache = new HyphenationTreeCache();
     }
 
     /**
@@ -192,7 +180,7 @@ public final class Hyphenator {
 
         HyphenationTree hTree;
         // first try to find it in the cache
-        hTree = getHyphenationTreeCache().getHyphenationTree(lang, country);
+        hTree = cache.getHyphenationTree(lang, country);
         if (hTree != null) {
             return hTree;
         }
@@ -202,18 +190,23 @@ public final class Hyphenator {
             key = llccKey;
         }
 
-        if (additionalHyphenationFileDirectories != null) {
-            for (String dir : additionalHyphenationFileDirectories) {
-                hTree = getHyphenationTree(dir, key);
-                if (hTree != null) {
-                    break;
-                }
+        for (String dir : additionalHyphenationFileDirectories) {
+            hTree = getHyphenationTree(dir, key);
+            if (hTree != null) {
+                break;
             }
         }
 
         if (hTree == null) {
-            // get from the default directory
-            InputStream defaultHyphenationResourceStream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + key + ".xml");
+            // get from the default directory, the patterns compiled during the build of the hyph module go first
+            String compiledName = key + HyphenationConstants.COMPILED_PATTERN_FILE_EXTENSION;
+            hTree = getCompiledHyphenationTree(ResourceUtil.getResourceStream(
+                    HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + compiledName), compiledName);
+        }
+
+        if (hTree == null) {
+            InputStream defaultHyphenationResourceStream = ResourceUtil.getResourceStream(
+                    HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + key + HyphenationConstants.XML_PATTERN_FILE_EXTENSION);
             if (defaultHyphenationResourceStream != null) {
                 hTree = getHyphenationTree(defaultHyphenationResourceStream, key);
             }
@@ -228,15 +221,30 @@ public final class Hyphenator {
     }
 
     /**
-     * Load tree from xml file using configuration settings.
+     * Load tree from precompiled or xml file using configuration settings.
      *
      * @param searchDirectory the directory to search the file into
      * @param key language key for the requested hyphenation file
      * @return the requested HyphenationTree or null if it is not available
      */
     public static HyphenationTree getHyphenationTree(String searchDirectory, String key) {
+        // try the precompiled file first
+        File compiledFile = new File(searchDirectory, key + HyphenationConstants.COMPILED_PATTERN_FILE_EXTENSION);
+        if (compiledFile.isFile()) {
+            try {
+                HyphenationTree hTree = getCompiledHyphenationTree(new FileInputStream(compiledFile), compiledFile.getName());
+                if (hTree != null) {
+                    return hTree;
+                }
+            } catch (IOException ioe) {
+                if (log.isDebugEnabled()) {
+                    log.debug("I/O problem while trying to load " + compiledFile.getName() + ": " + ioe.getMessage());
+                }
+            }
+        }
+
         // try the raw XML file
-        String name = key + ".xml";
+        String name = key + HyphenationConstants.XML_PATTERN_FILE_EXTENSION;
         try {
             InputStream fis = new FileInputStream(searchDirectory + File.separator + name);
             return getHyphenationTree(fis, name);
@@ -276,6 +284,29 @@ public final class Hyphenator {
         return hTree;
     }
 
+    /**
+     * Load tree from the stream with patterns precompiled by {@link HyphenationPatternCompiler}.
+     *
+     * @param in the input stream to load the tree from
+     * @param name unique key representing country-language combination
+     * @return the requested HyphenationTree or null if it is not available or was compiled in an unsupported format
+     */
+    public static HyphenationTree getCompiledHyphenationTree(InputStream in, String name) {
+        if (in == null) {
+            return null;
+        }
+        try {
+            return HyphenationPatternCompiler.read(in);
+        } catch (IOException ex) {
+            log.error("Can't load precompiled patterns " + name + ": " + ex.getMessage());
+            return null;
+        } finally {
+            try {
+                in.close();
+            } catch (Exception ignored) {}
+        }
+    }
+
     /**
      * Hyphenates a word.
      *
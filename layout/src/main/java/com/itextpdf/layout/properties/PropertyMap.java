@@ -0,0 +1,454 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.properties;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A {@link Map} of layout properties which is backed by arrays and is accessible by primitive {@code int} keys.
+ * <p>
+ * Most of the property containers have only a few properties, so they are stored as a sorted array of keys
+ * and an array of values. When the number of properties grows, the values are stored in an array indexed
+ * by the property key directly, with keys beyond the {@link Property} range kept in a separate sorted map.
+ * The {@code null} values are supported.
+ * <p>
+ * The {@code int} overloads of {@link #get(int)}, {@link #containsKey(int)}, {@link #put(int, Object)}
+ * and {@link #remove(int)} do not box the key. Iteration goes in the ascending order of keys.
+ * This class is not thread-safe.
+ */
+public class PropertyMap extends AbstractMap<Integer, Object> {
+
+    private static final int SPARSE_MAX_SIZE = 16;
+
+    private static final int DENSE_MAX_CAPACITY = 256;
+
+    private static final int[] EMPTY_KEYS = new int[0];
+
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    /** Marks a property with {@code null} value in the dense array, where {@code null} means an absent property. */
+    private static final Object NULL_VALUE = new Object();
+
+    private int[] keys = EMPTY_KEYS;
+    private Object[] values = EMPTY_VALUES;
+    private int size;
+
+    private Object[] denseValues;
+    private int denseSize;
+    private TreeMap<Integer, Object> overflow;
+
+    private EntrySet entrySet;
+
+    /**
+     * Creates an empty {@link PropertyMap}.
+     */
+    public PropertyMap() {
+    }
+
+    /**
+     * Creates a {@link PropertyMap} with the same mappings as the given map.
+     *
+     * @param properties the map whose mappings are to be placed in this map
+     */
+    public PropertyMap(Map<Integer, Object> properties) {
+        putAll(properties);
+    }
+
+    /**
+     * Gets the value of the property.
+     *
+     * @param key the property key
+     * @return the value of the property, or {@code null} if there is no such property
+     */
+    public Object get(int key) {
+        if (denseValues == null) {
+            int index = indexOf(key);
+            return index >= 0 ? values[index] : null;
+        }
+        if (key >= 0 && key < denseValues.length) {
+            Object value = denseValues[key];
+            return value == NULL_VALUE ? null : value;
+        }
+        return overflow != null ? overflow.get(key) : null;
+    }
+
+    /**
+     * Checks whether there is a property with the given key.
+     *
+     * @param key the property key
+     * @return {@code true} if there is a property with the given key, even if its value is {@code null}
+     */
+    public boolean containsKey(int key) {
+        if (denseValues == null) {
+            return indexOf(key) >= 0;
+        }
+        if (key >= 0 && key < denseValues.length) {
+            return denseValues[key] != null;
+        }
+        return overflow != null && overflow.containsKey(key);
+    }
+
+    /**
+     * Sets the value of the property.
+     *
+     * @param key the property key
+     * @param value the value of the property, may be {@code null}
+     * @return the previous value of the property, or {@code null} if there was no such property
+     */
+    public Object put(int key, Object value) {
+        if (denseValues == null) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                Object previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            if (size < SPARSE_MAX_SIZE) {
+                insertSparse(-index - 1, key, value);
+                return null;
+            }
+            convertToDense();
+        }
+        if (key >= 0 && key < DENSE_MAX_CAPACITY) {
+            if (key >= denseValues.length) {
+                denseValues = Arrays.copyOf(denseValues, Math.min(DENSE_MAX_CAPACITY,
+                        Math.max(key + 1, denseValues.length * 2)));
+            }
+            Object previous = denseValues[key];
+            denseValues[key] = value == null ? NULL_VALUE : value;
+            if (previous == null) {
+                denseSize++;
+            }
+            return previous == NULL_VALUE ? null : previous;
+        }
+        if (overflow == null) {
+            overflow = new TreeMap<>();
+        }
+        return overflow.put(key, value);
+    }
+
+    /**
+     * Removes the property.
+     *
+     * @param key the property key
+     * @return the value of the removed property, or {@code null} if there was no such property
+     */
+    public Object remove(int key) {
+        if (denseValues == null) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return null;
+            }
+            Object previous = values[index];
+            removeSparse(index);
+            return previous;
+        }
+        if (key >= 0 && key < denseValues.length) {
+            Object previous = denseValues[key];
+            if (previous == null) {
+                return null;
+            }
+            denseValues[key] = null;
+            denseSize--;
+            return previous == NULL_VALUE ? null : previous;
+        }
+        return overflow != null ? overflow.remove(key) : null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public Object put(Integer key, Object value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public void putAll(Map<? extends Integer, ?> m) {
+        if (m instanceof PropertyMap && isEmpty()) {
+            copyFrom((PropertyMap) m);
+        } else {
+            for (Map.Entry<? extends Integer, ?> entry : m.entrySet()) {
+                put((int) entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        if (denseValues == null) {
+            return size;
+        }
+        return denseSize + (overflow != null ? overflow.size() : 0);
+    }
+
+    @Override
+    public void clear() {
+        keys = EMPTY_KEYS;
+        values = EMPTY_VALUES;
+        size = 0;
+        denseValues = null;
+        denseSize = 0;
+        overflow = null;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertSparse(int index, int key, Object value) {
+        if (size == keys.length) {
+            int capacity = Math.min(SPARSE_MAX_SIZE, Math.max(4, size * 2));
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    private void removeSparse(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        values[size] = null;
+    }
+
+    private void convertToDense() {
+        int capacity = 0;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] >= 0 && keys[i] < DENSE_MAX_CAPACITY) {
+                capacity = keys[i] + 1;
+            }
+        }
+        int[] sparseKeys = keys;
+        Object[] sparseValues = values;
+        int sparseSize = size;
+        keys = EMPTY_KEYS;
+        values = EMPTY_VALUES;
+        size = 0;
+        denseValues = new Object[Math.max(capacity, 2 * SPARSE_MAX_SIZE)];
+        for (int i = 0; i < sparseSize; i++) {
+            put(sparseKeys[i], sparseValues[i]);
+        }
+    }
+
+    private void copyFrom(PropertyMap other) {
+        if (other.denseValues == null) {
+            keys = Arrays.copyOf(other.keys, other.size);
+            values = Arrays.copyOf(other.values, other.size);
+            size = other.size;
+        } else {
+            keys = EMPTY_KEYS;
+            values = EMPTY_VALUES;
+            size = 0;
+            denseValues = other.denseValues.clone();
+            denseSize = other.denseSize;
+            overflow = other.overflow != null ? new TreeMap<>(other.overflow) : null;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<Integer, Object>> {
+        @Override
+        public Iterator<Map.Entry<Integer, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return PropertyMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            PropertyMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<Integer, Object>> {
+        // index of the next sparse entry or the next dense key to check
+        private int next;
+        private int lastKey;
+        private boolean canRemove;
+        // in dense mode negative keys of the overflow map go before the dense keys and the rest go after them
+        private Iterator<Map.Entry<Integer, Object>> negativeOverflowIterator;
+        private Iterator<Map.Entry<Integer, Object>> positiveOverflowIterator;
+        private Iterator<Map.Entry<Integer, Object>> lastOverflowIterator;
+
+        @Override
+        public boolean hasNext() {
+            if (denseValues == null) {
+                return next < size;
+            }
+            if (overflow != null && negativeOverflowIterator == null) {
+                negativeOverflowIterator = overflow.headMap(0).entrySet().iterator();
+            }
+            if (negativeOverflowIterator != null && negativeOverflowIterator.hasNext()) {
+                return true;
+            }
+            while (next < denseValues.length && denseValues[next] == null) {
+                next++;
+            }
+            if (next < denseValues.length) {
+                return true;
+            }
+            if (overflow != null && positiveOverflowIterator == null) {
+                positiveOverflowIterator = overflow.tailMap(0).entrySet().iterator();
+            }
+            return positiveOverflowIterator != null && positiveOverflowIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<Integer, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            lastOverflowIterator = null;
+            if (denseValues == null) {
+                lastKey = keys[next++];
+                return new PropertyEntry(lastKey);
+            }
+            if (negativeOverflowIterator != null && negativeOverflowIterator.hasNext()) {
+                lastOverflowIterator = negativeOverflowIterator;
+                return negativeOverflowIterator.next();
+            }
+            if (next < denseValues.length) {
+                lastKey = next++;
+                return new PropertyEntry(lastKey);
+            }
+            lastOverflowIterator = positiveOverflowIterator;
+            return positiveOverflowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            if (lastOverflowIterator != null) {
+                lastOverflowIterator.remove();
+            } else {
+                PropertyMap.this.remove(lastKey);
+                if (denseValues == null) {
+                    next--;
+                }
+            }
+        }
+    }
+
+    private final class PropertyEntry implements Map.Entry<Integer, Object> {
+        private final int key;
+
+        PropertyEntry(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public Integer getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return get(key);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            Object value = getValue();
+            return getKey().equals(that.getKey()) && (value == null ? that.getValue() == null : value.equals(that.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -92,6 +92,7 @@ import com.itextpdf.layout.properties.BoxSizingPropertyValue;
 import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.properties.OverflowPropertyValue;
 import com.itextpdf.layout.properties.Property;
+import com.itextpdf.layout.properties.PropertyMap;
 import com.itextpdf.layout.properties.Transform;
 import com.itextpdf.layout.properties.TransparentColor;
 import com.itextpdf.layout.properties.UnitValue;
@@ -100,7 +101,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -162,7 +162,7 @@ public abstract class AbstractRenderer implements IRenderer {
     protected boolean flushed = false;
     protected LayoutArea occupiedArea;
     protected IRenderer parent;
-    protected Map<Integer, Object> properties = new HashMap<>();
+    protected Map<Integer, Object> properties = new PropertyMap();
     protected boolean isLastRendererForModelElement = true;
 
     /**
@@ -281,7 +281,7 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     @Override
     public boolean hasOwnProperty(int property) {
-        return properties.containsKey(property);
+        return containsOwnProperty(property);
     }
 
     /**
@@ -300,7 +300,7 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     @Override
     public void deleteOwnProperty(int property) {
-        properties.remove(property);
+        removeOwnProperty(property);
     }
 
     /**
@@ -310,8 +310,8 @@ public abstract class AbstractRenderer implements IRenderer {
      * @param property the property key to be deleted
      */
     public void deleteProperty(int property) {
-        if (properties.containsKey(property)) {
-            properties.remove(property);
+        if (containsOwnProperty(property)) {
+            removeOwnProperty(property);
         } else {
             if (modelElement != null) {
                 modelElement.deleteOwnProperty(property);
@@ -325,7 +325,7 @@ public abstract class AbstractRenderer implements IRenderer {
     @Override
     public <T1> T1 getProperty(int key) {
         Object property;
-        if ((property = properties.get(key)) != null || properties.containsKey(key)) {
+        if ((property = getOwnPropertyValue(key)) != null || containsOwnProperty(key)) {
             return (T1) property;
         }
         if (modelElement != null && ((property = modelElement.<T1>getProperty(key)) != null || modelElement.hasProperty(key))) {
@@ -346,7 +346,7 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     @Override
     public <T1> T1 getOwnProperty(int property) {
-        return (T1) properties.get(property);
+        return (T1) getOwnPropertyValue(property);
     }
 
     /**
@@ -363,7 +363,11 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     @Override
     public void setProperty(int property, Object value) {
-        properties.put(property, value);
+        if (properties instanceof PropertyMap) {
+            ((PropertyMap) properties).put(property, value);
+        } else {
+            properties.put(property, value);
+        }
     }
 
     /**
@@ -1732,6 +1736,24 @@ public abstract class AbstractRenderer implements IRenderer {
         }
     }
     
+    private Object getOwnPropertyValue(int property) {
+        // properties field is accessible to subclasses, so it may be not a PropertyMap
+        return properties instanceof PropertyMap ? ((PropertyMap) properties).get(property) : properties.get(property);
+    }
+
+    private boolean containsOwnProperty(int property) {
+        return properties instanceof PropertyMap ? ((PropertyMap) properties).containsKey(property)
+                : properties.containsKey(property);
+    }
+
+    private void removeOwnProperty(int property) {
+        if (properties instanceof PropertyMap) {
+            ((PropertyMap) properties).remove(property);
+        } else {
+            properties.remove(property);
+        }
+    }
+
     protected Map<Integer, Object> getOwnProperties() {
         return properties;
     }
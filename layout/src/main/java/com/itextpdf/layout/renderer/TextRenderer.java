@@ -952,13 +952,19 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                     // It does not apply to occurrences of the byte value 32 in multiple-byte codes.
                     //
                     // For PdfType0Font we must add word manually with glyph offsets
+                    final short advance = (short) (FontProgram.convertGlyphSpaceToTextSpace((float) wordSpacing)
+                            / fontSize.getValue());
+                    // spaces are usually represented by the same glyph instance, so the adjusted copy is shared
+                    Glyph spaceGlyph = null;
+                    Glyph spaceGlyphCopy = null;
                     for (int gInd = line.start; gInd < line.end; gInd++) {
                         if (TextUtil.isUni0020(line.get(gInd))) {
-                            final short advance = (short) (FontProgram.convertGlyphSpaceToTextSpace((float) wordSpacing)
-                                    / fontSize.getValue());
-                            Glyph copy = new Glyph(line.get(gInd));
-                            copy.setXAdvance(advance);
-                            line.set(gInd, copy);
+                            if (line.get(gInd) != spaceGlyph) {
+                                spaceGlyph = line.get(gInd);
+                                spaceGlyphCopy = new Glyph(spaceGlyph);
+                                spaceGlyphCopy.setXAdvance(advance);
+                            }
+                            line.set(gInd, spaceGlyphCopy);
                         }
                     }
                 } else {
@@ -1687,22 +1693,19 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         }
     }
 
-    private float getCharWidth(Glyph g, float fontSize, Float hScale, Float characterSpacing, Float wordSpacing) {
-        if (hScale == null)
-            hScale = 1f;
-
-        float resultWidth = g.getWidth() * fontSize * (float) hScale;
+    private float getCharWidth(Glyph g, float fontSize, float hScale, Float characterSpacing, Float wordSpacing) {
+        float resultWidth = g.getWidth() * fontSize * hScale;
         if (characterSpacing != null) {
-            resultWidth += FontProgram.convertGlyphSpaceToTextSpace((float) characterSpacing * (float) hScale);
+            resultWidth += FontProgram.convertGlyphSpaceToTextSpace((float) characterSpacing * hScale);
         }
         if (wordSpacing != null && g.getUnicode() == ' ') {
-            resultWidth += FontProgram.convertGlyphSpaceToTextSpace((float) wordSpacing * (float) hScale);
+            resultWidth += FontProgram.convertGlyphSpaceToTextSpace((float) wordSpacing * hScale);
         }
         return resultWidth;
     }
 
-    private float scaleXAdvance(float xAdvance, float fontSize, Float hScale) {
-        return xAdvance * fontSize * (float) hScale;
+    private float scaleXAdvance(float xAdvance, float fontSize, float hScale) {
+        return xAdvance * fontSize * hScale;
     }
 
     private float getGlyphLineWidth(GlyphLine glyphLine, float fontSize, float hScale, Float characterSpacing, Float wordSpacing) {
@@ -0,0 +1,166 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.hyphenation;
+
+import com.itextpdf.io.util.ResourceUtil;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class HyphenationPatternCompilerTest extends ExtendedITextTest {
+
+    private static final String DESTINATION_FOLDER =
+            "./target/test/com/itextpdf/layout/hyphenation/HyphenationPatternCompilerTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(DESTINATION_FOLDER);
+    }
+
+    @Test
+    public void compiledGermanPatternsHyphenateAsXmlTest() throws Exception {
+        assertCompiledTreeHyphenatesAsXml("de", new String[] {"Annuitätendarlehen", "verheiratet", "Silbentrennung",
+                "Donaudampfschifffahrt"});
+    }
+
+    @Test
+    public void compiledEnglishPatternsHyphenateAsXmlTest() throws Exception {
+        // en patterns have exceptions, which are stored in the stoplist
+        assertCompiledTreeHyphenatesAsXml("en", new String[] {"honorificabilitudinitatibus", "hyphenation",
+                "associate", "present", "table"});
+    }
+
+    @Test
+    public void recompiledTreeIsIdenticalTest() throws Exception {
+        HyphenationTree tree = loadXmlTree("de");
+        byte[] compiled = compile(tree);
+        byte[] recompiled = compile(HyphenationPatternCompiler.read(new ByteArrayInputStream(compiled)));
+        Assert.assertArrayEquals(compiled, recompiled);
+    }
+
+    @Test
+    public void spareValuesCapacityIsNotWrittenTest() throws IOException {
+        HyphenationTree tree = loadXmlTree("de");
+        byte[] compiled = compile(tree);
+        int valuesLength = tree.vspace.length();
+        ByteVector values = new ByteVector(valuesLength + 100);
+        values.alloc(valuesLength);
+        System.arraycopy(tree.vspace.getArray(), 0, values.getArray(), 0, valuesLength);
+        tree.vspace = values;
+        Assert.assertArrayEquals(compiled, compile(tree));
+
+        HyphenationTree compiledTree = HyphenationPatternCompiler.read(new ByteArrayInputStream(compiled));
+        Assert.assertEquals(valuesLength, compiledTree.vspace.length());
+        Assert.assertEquals(valuesLength, compiledTree.vspace.capacity());
+    }
+
+    @Test
+    public void compiledFileInDirectoryHyphenatesAsXmlTest() throws IOException {
+        HyphenationTree xmlTree = loadXmlTree("en");
+        // no XML file in the directory, so the tree can only be read from the mapped compiled file
+        try (OutputStream out = new FileOutputStream(
+                new File(DESTINATION_FOLDER, "en" + HyphenationConstants.COMPILED_PATTERN_FILE_EXTENSION))) {
+            HyphenationPatternCompiler.write(xmlTree, out);
+        }
+        HyphenationTree compiledTree = Hyphenator.getHyphenationTree(DESTINATION_FOLDER, "en");
+        Assert.assertNotNull(compiledTree);
+        for (String word : new String[] {"honorificabilitudinitatibus", "hyphenation", "associate", "present"}) {
+            Assert.assertEquals(String.valueOf(xmlTree.hyphenate(word, 2, 2)),
+                    String.valueOf(compiledTree.hyphenate(word, 2, 2)));
+        }
+    }
+
+    @Test
+    public void unsupportedFormatIsIgnoredTest() throws IOException {
+        byte[] compiled = compile(loadXmlTree("de"));
+        // corrupt the format version
+        compiled[7]++;
+        Assert.assertNull(HyphenationPatternCompiler.read(new ByteArrayInputStream(compiled)));
+        Assert.assertNull(HyphenationPatternCompiler.read(new ByteArrayInputStream(new byte[] {1, 2, 3})));
+    }
+
+    @Test
+    public void truncatedFileTest() throws IOException {
+        byte[] compiled = compile(loadXmlTree("de"));
+        byte[] truncated = new byte[compiled.length / 2];
+        System.arraycopy(compiled, 0, truncated, 0, truncated.length);
+        Assert.assertNull(Hyphenator.getCompiledHyphenationTree(new ByteArrayInputStream(truncated), "de"));
+    }
+
+    private static void assertCompiledTreeHyphenatesAsXml(String lang, String[] words) throws IOException {
+        HyphenationTree xmlTree = loadXmlTree(lang);
+        HyphenationTree compiledTree = HyphenationPatternCompiler.read(new ByteArrayInputStream(compile(xmlTree)));
+        Assert.assertNotNull(compiledTree);
+        for (String word : words) {
+            Hyphenation expected = xmlTree.hyphenate(word, 2, 2);
+            Hyphenation actual = compiledTree.hyphenate(word, 2, 2);
+            Assert.assertEquals(String.valueOf(expected), String.valueOf(actual));
+        }
+    }
+
+    private static HyphenationTree loadXmlTree(String lang) {
+        InputStream stream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + lang
+                + HyphenationConstants.XML_PATTERN_FILE_EXTENSION);
+        HyphenationTree tree = Hyphenator.getHyphenationTree(stream, lang);
+        Assert.assertNotNull(tree);
+        return tree;
+    }
+
+    private static byte[] compile(HyphenationTree tree) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HyphenationPatternCompiler.write(tree, out);
+        return out.toByteArray();
+    }
+}
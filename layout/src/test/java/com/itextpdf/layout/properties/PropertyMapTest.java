@@ -0,0 +1,142 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.properties;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class PropertyMapTest extends ExtendedITextTest {
+
+    @Test
+    public void sparseNullValueTest() {
+        PropertyMap map = new PropertyMap();
+        map.put(Property.FONT_SIZE, null);
+        Assert.assertTrue(map.containsKey(Property.FONT_SIZE));
+        Assert.assertNull(map.get(Property.FONT_SIZE));
+        Assert.assertFalse(map.containsKey(Property.FONT));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void denseNullValueTest() {
+        PropertyMap map = new PropertyMap();
+        for (int i = 0; i < 40; i++) {
+            map.put(i, (Object) i);
+        }
+        map.put(Property.FONT_SIZE, null);
+        Assert.assertTrue(map.containsKey(Property.FONT_SIZE));
+        Assert.assertNull(map.get(Property.FONT_SIZE));
+        Assert.assertNull(map.remove(Property.FONT_SIZE));
+        Assert.assertFalse(map.containsKey(Property.FONT_SIZE));
+        Assert.assertEquals(39, map.size());
+    }
+
+    @Test
+    public void sameBehaviourAsHashMapTest() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            PropertyMap map = new PropertyMap();
+            Map<Integer, Object> expected = new HashMap<>();
+            int range = round % 2 == 0 ? 20 : 400;
+            for (int i = 0; i < 500; i++) {
+                int key = random.nextInt(range) - 2;
+                int operation = random.nextInt(4);
+                if (operation == 0) {
+                    Assert.assertEquals(expected.remove(key), map.remove(key));
+                } else if (operation == 1) {
+                    Object value = random.nextInt(5) == 0 ? null : (Object) Integer.valueOf(i);
+                    Assert.assertEquals(expected.put(key, value), map.put(key, value));
+                } else {
+                    Assert.assertEquals(expected.get(key), map.get(key));
+                    Assert.assertEquals(expected.containsKey(key), map.containsKey(key));
+                }
+                Assert.assertEquals(expected.size(), map.size());
+            }
+            Assert.assertEquals(expected, map);
+            Assert.assertEquals(new TreeMap<>(expected).keySet().toString(), map.keySet().toString());
+            Assert.assertEquals(expected, new PropertyMap(map));
+            Assert.assertEquals(expected, new HashMap<>(map));
+        }
+    }
+
+    @Test
+    public void iteratorRemoveTest() {
+        for (int count : new int[] {10, 100}) {
+            PropertyMap map = new PropertyMap();
+            for (int i = 0; i < count; i++) {
+                map.put(i * 3, "value" + i);
+            }
+            map.put(1000, "overflow");
+            Iterator<Map.Entry<Integer, Object>> iterator = map.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Integer, Object> entry = iterator.next();
+                if (entry.getKey() % 2 == 0) {
+                    iterator.remove();
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(i * 3 % 2 != 0, map.containsKey(i * 3));
+            }
+            Assert.assertFalse(map.containsKey(1000));
+            Assert.assertEquals(count / 2, map.size());
+        }
+    }
+
+    @Test
+    public void entrySetValueTest() {
+        PropertyMap map = new PropertyMap();
+        map.put(Property.FONT_SIZE, (Object) 10);
+        map.entrySet().iterator().next().setValue(12);
+        Assert.assertEquals(12, map.get(Property.FONT_SIZE));
+    }
+}
@@ -52,13 +52,17 @@ import com.itextpdf.commons.bouncycastle.cert.ocsp.IBasicOCSPResp;
 import com.itextpdf.commons.utils.DateTimeUtil;
 import com.itextpdf.commons.utils.MessageFormatUtil;
 import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.WindowRandomAccessSource;
 import com.itextpdf.kernel.pdf.DocumentProperties;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.ReaderProperties;
 import com.itextpdf.signatures.LtvVerification.CertificateOption;
 
 import java.io.ByteArrayInputStream;
@@ -70,7 +74,9 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -110,6 +116,29 @@ public class LtvVerifier extends RootStoreVerifier {
 
     private SignatureUtil sgnUtil;
 
+    /**
+     * The document passed to the verifier, revisions are read from the views of its source.
+     */
+    private PdfDocument latestDocument;
+
+    /**
+     * Names of the signatures of the latest revision ordered by the revision they were applied in.
+     */
+    private List<String> revisionSignatureNames;
+
+    /**
+     * Lengths of the revisions signed by the corresponding signatures from {@link #revisionSignatureNames}.
+     */
+    private List<Long> revisionLengths;
+    private int revisionIndex;
+    private PdfDocument dssDocument;
+
+    /**
+     * Parsed CRLs and OCSP responses from the DSS streams, shared between revisions.
+     */
+    private final Map<String, X509CRL> crlCache = new HashMap<>();
+    private final Map<String, IBasicOCSPResp> ocspCache = new HashMap<>();
+
     /**
      * Creates a VerificationData object for a PdfReader
      *
@@ -178,8 +207,12 @@ public class LtvVerifier extends RootStoreVerifier {
         if (result == null) {
             result = new ArrayList<>();
         }
-        while (pkcs7 != null) {
-            result.addAll(verifySignature());
+        try {
+            while (pkcs7 != null) {
+                result.addAll(verifySignature());
+            }
+        } finally {
+            closeRevisionDocuments();
         }
         return result;
     }
@@ -310,27 +343,49 @@ public class LtvVerifier extends RootStoreVerifier {
             cal = pkcs7.getSignDate();
         }
         signDate = cal.getTime();
-        List<String> names = sgnUtil.getSignatureNames();
-        if (names.size() > 1) {
-            signatureName = names.get(names.size() - 2);
-            try (PdfReader readerTmp = new PdfReader(sgnUtil.extractRevision(signatureName))) {
-                document = new PdfDocument(readerTmp, new DocumentProperties().setEventCountingMetaInfo(metaInfo));
-                this.acroForm = PdfAcroForm.getAcroForm(document, true);
-                this.sgnUtil = new SignatureUtil(document);
-                names = sgnUtil.getSignatureNames();
-                signatureName = names.get(names.size() - 1);
-                pkcs7 = coversWholeDocument();
-                LOGGER.info(
-                        MessageFormatUtil.format("Checking {0}signature {1}", pkcs7.isTsp()
-                                ? "document-level timestamp "
-                                : "", signatureName));
-            }
+        // The DSS of the current revision is used to verify the previous one, so its document
+        // is kept open until the next switch
+        if (dssDocument != null && dssDocument != latestDocument) {
+            dssDocument.close();
+        }
+        dssDocument = document;
+        if (revisionIndex > 0) {
+            revisionIndex--;
+            // The revision is read through a window over the source of the latest revision, the file is not
+            // copied and the already indexed signatures are not searched for again
+            IRandomAccessSource revisionSource = new WindowRandomAccessSource(
+                    latestDocument.getReader().getSafeFile().createSourceView(), 0,
+                    (long) revisionLengths.get(revisionIndex));
+            document = new PdfDocument(new PdfReader(revisionSource, new ReaderProperties()),
+                    new DocumentProperties().setEventCountingMetaInfo(metaInfo));
+            this.acroForm = PdfAcroForm.getAcroForm(document, true);
+            this.sgnUtil = new SignatureUtil(document);
+            signatureName = revisionSignatureNames.get(revisionIndex);
+            pkcs7 = coversWholeDocument();
+            LOGGER.info(
+                    MessageFormatUtil.format("Checking {0}signature {1}", pkcs7.isTsp()
+                            ? "document-level timestamp "
+                            : "", signatureName));
         } else {
             LOGGER.info("No signatures in revision");
             pkcs7 = null;
         }
     }
 
+    /**
+     * Closes the documents of the previous revisions opened by the verifier, the latest document
+     * passed by the caller is left open.
+     */
+    private void closeRevisionDocuments() {
+        if (dssDocument != null && dssDocument != latestDocument && !dssDocument.isClosed()) {
+            dssDocument.close();
+        }
+        if (document != null && document != latestDocument && !document.isClosed()) {
+            document.close();
+        }
+        dssDocument = null;
+    }
+
     /**
      * Gets a list of X509CRL objects from a Document Security Store.
      *
@@ -350,7 +405,15 @@ public class LtvVerifier extends RootStoreVerifier {
         }
         for (int i = 0; i < crlarray.size(); i++) {
             PdfStream stream = crlarray.getAsStream(i);
-            crls.add((X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(stream.getBytes())));
+            String cacheKey = getCacheKey(stream);
+            X509CRL crl = cacheKey == null ? null : crlCache.get(cacheKey);
+            if (crl == null) {
+                crl = (X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(stream.getBytes()));
+                if (cacheKey != null) {
+                    crlCache.put(cacheKey, crl);
+                }
+            }
+            crls.add(crl);
         }
         return crls;
     }
@@ -373,6 +436,16 @@ public class LtvVerifier extends RootStoreVerifier {
         }
         for (int i = 0; i < ocsparray.size(); i++) {
             PdfStream stream = ocsparray.getAsStream(i);
+            String cacheKey = getCacheKey(stream);
+            if (cacheKey != null && ocspCache.containsKey(cacheKey)) {
+                IBasicOCSPResp cachedResponse = ocspCache.get(cacheKey);
+                // Unsuccessful responses are cached as null
+                if (cachedResponse != null) {
+                    ocsps.add(cachedResponse);
+                }
+                continue;
+            }
+            IBasicOCSPResp basicResponse = null;
             IOCSPResp ocspResponse;
             try {
                 ocspResponse = BOUNCY_CASTLE_FACTORY.createOCSPResp(stream.getBytes());
@@ -381,10 +454,14 @@ public class LtvVerifier extends RootStoreVerifier {
             }
             if (ocspResponse.getStatus() == 0) {
                 try {
-                    ocsps.add(BOUNCY_CASTLE_FACTORY.createBasicOCSPResp(ocspResponse.getResponseObject()));
+                    basicResponse = BOUNCY_CASTLE_FACTORY.createBasicOCSPResp(ocspResponse.getResponseObject());
                 } catch (AbstractOCSPException e) {
                     throw new GeneralSecurityException(e.toString());
                 }
+                ocsps.add(basicResponse);
+            }
+            if (cacheKey != null) {
+                ocspCache.put(cacheKey, basicResponse);
             }
         }
         return ocsps;
@@ -392,9 +469,11 @@ public class LtvVerifier extends RootStoreVerifier {
 
     protected void initLtvVerifier(PdfDocument document) throws GeneralSecurityException {
         this.document = document;
+        this.latestDocument = document;
         this.acroForm = PdfAcroForm.getAcroForm(document, true);
         this.sgnUtil = new SignatureUtil(document);
         List<String> names = sgnUtil.getSignatureNames();
+        indexRevisions(names);
         signatureName = names.get(names.size() - 1);
         this.signDate = DateTimeUtil.getCurrentTimeDate();
         pkcs7 = coversWholeDocument();
@@ -406,6 +485,34 @@ public class LtvVerifier extends RootStoreVerifier {
                         signatureName));
     }
 
+    /**
+     * Remembers the signed revisions of the document, so that they could be opened directly
+     * from the source of the latest revision.
+     */
+    private void indexRevisions(List<String> names) {
+        revisionSignatureNames = names;
+        revisionLengths = new ArrayList<>(names.size());
+        for (String name : names) {
+            PdfArray byteRange = sgnUtil.getSignature(name).getByteRange();
+            int rangeSize = byteRange.size();
+            revisionLengths.add(byteRange.getAsNumber(rangeSize - 2).longValue()
+                    + byteRange.getAsNumber(rangeSize - 1).longValue());
+        }
+        revisionIndex = names.size() - 1;
+    }
+
+    /**
+     * Gets the key of the DSS stream in the caches of parsed validation data. The same object at the same offset
+     * is the same in all the revisions, as they share the same source.
+     */
+    private static String getCacheKey(PdfStream stream) {
+        PdfIndirectReference reference = stream.getIndirectReference();
+        if (reference == null) {
+            return null;
+        }
+        return reference.getObjNumber() + " " + reference.getGenNumber() + " " + reference.getOffset();
+    }
+
     /**
      * Checks if the signature covers the whole document
      * and throws an exception if the document was altered
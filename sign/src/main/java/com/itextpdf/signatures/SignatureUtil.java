@@ -62,6 +62,7 @@ import com.itextpdf.kernel.pdf.PdfNull;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.utils.ParallelTaskUtil;
 import com.itextpdf.signatures.exceptions.SignExceptionMessageConstant;
 
 import java.io.IOException;
@@ -70,8 +71,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
 
 /**
  * Utility class that provides several convenience methods concerning digital signatures.
@@ -140,6 +144,77 @@ public class SignatureUtil {
         if (signature == null) {
             return null;
         }
+        PdfPKCS7 pk = createPkcs7(signature, securityProvider);
+        updateByteRange(pk, signature);
+        return pk;
+    }
+
+    /**
+     * Prepares {@link PdfPKCS7} instances for all the signatures of the document, see
+     * {@link #readSignatureData(String, String)}.
+     * <p>
+     * The digests of all the /ByteRange entries are calculated in a single pass over the file: each part
+     * of the file is read once and passed to all the signatures which cover it, so the parts signed by several
+     * signatures are not read again for each of them.
+     *
+     * @param securityProvider the security provider or null for the default provider
+     * @return the map of the signature field names to the {@link PdfPKCS7} instances, in the order of
+     * {@link #getSignatureNames()}
+     */
+    public Map<String, PdfPKCS7> readAllSignaturesData(String securityProvider) {
+        List<String> names = getSignatureNames();
+        List<PdfSignature> signatures = new ArrayList<>(names.size());
+        Map<String, PdfPKCS7> result = new LinkedHashMap<>();
+        for (String name : names) {
+            PdfSignature signature = getSignature(name);
+            signatures.add(signature);
+            result.put(name, createPkcs7(signature, securityProvider));
+        }
+        updateByteRanges(new ArrayList<>(result.values()), signatures);
+        return result;
+    }
+
+    /**
+     * Checks the integrity and the authenticity of all the signatures of the document, see
+     * {@link PdfPKCS7#verifySignatureIntegrityAndAuthenticity()}. The digests are calculated as in
+     * {@link #readAllSignaturesData(String)}, then the signatures are verified in parallel.
+     * <p>
+     * In order to check that the signatures cover the current {@link PdfDocument} please
+     * use {@link #signatureCoversWholeDocument(String)} method.
+     *
+     * @param securityProvider the security provider or null for the default provider
+     * @param parallelism      the maximum number of threads to be used, 1 means that all the signatures are
+     *                         verified in the calling thread
+     * @return the map of the signature field names to the verification results, in the order of
+     * {@link #getSignatureNames()}
+     */
+    public Map<String, Boolean> verifyAllSignatures(String securityProvider, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+        }
+        Map<String, PdfPKCS7> signaturesData = readAllSignaturesData(securityProvider);
+        List<Callable<Boolean>> tasks = new ArrayList<>(signaturesData.size());
+        for (PdfPKCS7 pk : signaturesData.values()) {
+            tasks.add(() -> pk.verifySignatureIntegrityAndAuthenticity());
+        }
+        List<Boolean> verified;
+        try {
+            verified = ParallelTaskUtil.runTasks(tasks, parallelism);
+        } catch (IOException e) {
+            throw new PdfException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(e);
+        }
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        int i = 0;
+        for (String name : signaturesData.keySet()) {
+            result.put(name, verified.get(i++));
+        }
+        return result;
+    }
+
+    private PdfPKCS7 createPkcs7(PdfSignature signature, String securityProvider) {
         try {
             PdfName sub = signature.getSubFilter();
             PdfString contents = signature.getContents();
@@ -154,7 +229,6 @@ public class SignatureUtil {
             } else {
                 pk = new PdfPKCS7(PdfEncodings.convertToBytes(contents.getValue(), null), sub, securityProvider);
             }
-            updateByteRange(pk, signature);
             PdfString date = signature.getDate();
             if (date != null) {
                 pk.setSignDate(PdfDate.decode(date.toString()));
@@ -224,6 +298,89 @@ public class SignatureUtil {
         }
     }
 
+    /* Updates the /ByteRange of all the signatures reading each part of the file once */
+    private void updateByteRanges(List<PdfPKCS7> pkcs7s, List<PdfSignature> signatures) {
+        IRandomAccessSource source = document.getReader().getSafeFile().createSourceView();
+        try {
+            List<PdfPKCS7> sweptPkcs7s = new ArrayList<>();
+            List<long[]> sweptRanges = new ArrayList<>();
+            TreeSet<Long> boundaries = new TreeSet<>();
+            for (int i = 0; i < pkcs7s.size(); ++i) {
+                long[] range = signatures.get(i).getByteRange().toLongArray();
+                if (isOrderedRangeWithinSource(range, source.length())) {
+                    sweptPkcs7s.add(pkcs7s.get(i));
+                    sweptRanges.add(range);
+                    for (int j = 0; j < range.length; j += 2) {
+                        boundaries.add(range[j]);
+                        boundaries.add(range[j] + range[j + 1]);
+                    }
+                } else {
+                    // Overlapping or truncated parts can't be read in the file order, the signature is read separately
+                    updateByteRange(pkcs7s.get(i), signatures.get(i));
+                }
+            }
+            byte[] buf = new byte[8192];
+            List<PdfPKCS7> coveringPkcs7s = new ArrayList<>();
+            Long start = boundaries.isEmpty() ? null : boundaries.first();
+            while (start != null) {
+                Long end = boundaries.higher(start);
+                if (end == null) {
+                    break;
+                }
+                coveringPkcs7s.clear();
+                for (int i = 0; i < sweptRanges.size(); ++i) {
+                    if (rangeCovers(sweptRanges.get(i), (long) start, (long) end)) {
+                        coveringPkcs7s.add(sweptPkcs7s.get(i));
+                    }
+                }
+                long position = (long) start;
+                while (!coveringPkcs7s.isEmpty() && position < end) {
+                    int rd = source.get(position, buf, 0, (int) Math.min(buf.length, end - position));
+                    if (rd <= 0) {
+                        break;
+                    }
+                    for (PdfPKCS7 pk : coveringPkcs7s) {
+                        pk.update(buf, 0, rd);
+                    }
+                    position += rd;
+                }
+                start = end;
+            }
+        } catch (Exception e) {
+            throw new PdfException(e);
+        } finally {
+            try {
+                source.close();
+            } catch (IOException e) {
+                // this really shouldn't ever happen - the source view we use is based on a Safe view, which is a no-op anyway
+                throw new PdfException(e);
+            }
+        }
+    }
+
+    private static boolean isOrderedRangeWithinSource(long[] range, long sourceLength) {
+        if (range.length == 0 || range.length % 2 != 0) {
+            return false;
+        }
+        long previousEnd = 0;
+        for (int j = 0; j < range.length; j += 2) {
+            if (range[j] < previousEnd || range[j + 1] < 0 || range[j] + range[j + 1] > sourceLength) {
+                return false;
+            }
+            previousEnd = range[j] + range[j + 1];
+        }
+        return true;
+    }
+
+    private static boolean rangeCovers(long[] range, long start, long end) {
+        for (int j = 0; j < range.length; j += 2) {
+            if (range[j] <= start && end <= range[j] + range[j + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Gets the field names that have signatures and are signed.
      *
@@ -24,7 +24,12 @@ package com.itextpdf.signatures;
 
 import com.itextpdf.bouncycastleconnector.BouncyCastleFactoryCreator;
 import com.itextpdf.commons.bouncycastle.IBouncyCastleFactory;
+import com.itextpdf.commons.bouncycastle.cert.ocsp.AbstractOCSPException;
+import com.itextpdf.commons.bouncycastle.cert.ocsp.IBasicOCSPResp;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.signatures.LtvVerification.CertificateOption;
 import com.itextpdf.test.ExtendedITextTest;
@@ -33,9 +38,11 @@ import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.BouncyCastleIntegrationTest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.Security;
+import java.security.cert.X509CRL;
 import java.util.List;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -283,4 +290,75 @@ public class LtvVerifierIntegrationTest extends ExtendedITextTest {
             ltvVerifier.switchToPreviousRevision();
         }
     }
+
+    @Test
+    public void severalRevisionsMatchExtractedRevisionsTest()
+            throws IOException, GeneralSecurityException, AbstractOCSPException {
+        assertRevisionsMatchExtractedRevisions(SOURCE_FOLDER + "severalConsequentSignatures.pdf");
+    }
+
+    @Test
+    public void revisionsWithDssMatchExtractedRevisionsTest()
+            throws IOException, GeneralSecurityException, AbstractOCSPException {
+        assertRevisionsMatchExtractedRevisions(SOURCE_FOLDER + "signingCertHasChainWithOcspOnlyForChildCert.pdf");
+    }
+
+    /**
+     * Walks through all the revisions of the document and checks that each of them is the same as
+     * the one extracted with {@link SignatureUtil#extractRevision(String)} and opened as a separate document,
+     * and that the validation data read from its DSS is the same as the one parsed without the cache.
+     */
+    private static void assertRevisionsMatchExtractedRevisions(String src)
+            throws IOException, GeneralSecurityException, AbstractOCSPException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(src))) {
+            SignatureUtil latestSignatureUtil = new SignatureUtil(pdfDocument);
+            List<String> names = latestSignatureUtil.getSignatureNames();
+            LtvVerifier verifier = new LtvVerifier(pdfDocument);
+            for (int i = names.size() - 1; i >= 0; --i) {
+                String name = names.get(i);
+                Assert.assertEquals(name, verifier.signatureName);
+                try (PdfDocument revision = new PdfDocument(
+                        new PdfReader(latestSignatureUtil.extractRevision(name)))) {
+                    Assert.assertEquals(revision.getNumberOfPdfObjects(), verifier.document.getNumberOfPdfObjects());
+                    PdfPKCS7 expectedPkcs7 = new SignatureUtil(revision).readSignatureData(name);
+                    Assert.assertEquals(expectedPkcs7.isTsp(), verifier.pkcs7.isTsp());
+                    Assert.assertEquals(expectedPkcs7.getSigningCertificate(), verifier.pkcs7.getSigningCertificate());
+
+                    verifier.switchToPreviousRevision();
+
+                    PdfDictionary expectedDss = revision.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS);
+                    assertCrlsMatch(expectedDss, verifier);
+                    assertOcspsMatch(expectedDss, verifier);
+                }
+            }
+            Assert.assertNull(verifier.pkcs7);
+        }
+    }
+
+    private static void assertCrlsMatch(PdfDictionary expectedDss, LtvVerifier verifier)
+            throws GeneralSecurityException {
+        List<X509CRL> crls = verifier.getCRLsFromDSS();
+        PdfArray expectedCrls = expectedDss == null ? null : expectedDss.getAsArray(PdfName.CRLs);
+        Assert.assertEquals(expectedCrls == null ? 0 : expectedCrls.size(), crls.size());
+        List<X509CRL> cachedCrls = verifier.getCRLsFromDSS();
+        for (int i = 0; i < crls.size(); ++i) {
+            Assert.assertEquals(SignUtils.parseCrlFromStream(
+                    new ByteArrayInputStream(expectedCrls.getAsStream(i).getBytes())), crls.get(i));
+            Assert.assertSame(crls.get(i), cachedCrls.get(i));
+        }
+    }
+
+    private static void assertOcspsMatch(PdfDictionary expectedDss, LtvVerifier verifier)
+            throws GeneralSecurityException, IOException, AbstractOCSPException {
+        List<IBasicOCSPResp> ocsps = verifier.getOCSPResponsesFromDSS();
+        PdfArray expectedOcsps = expectedDss == null ? null : expectedDss.getAsArray(PdfName.OCSPs);
+        Assert.assertEquals(expectedOcsps == null ? 0 : expectedOcsps.size(), ocsps.size());
+        List<IBasicOCSPResp> cachedOcsps = verifier.getOCSPResponsesFromDSS();
+        for (int i = 0; i < ocsps.size(); ++i) {
+            IBasicOCSPResp expectedOcsp = BOUNCY_CASTLE_FACTORY.createBasicOCSPResp(BOUNCY_CASTLE_FACTORY
+                    .createOCSPResp(expectedOcsps.getAsStream(i).getBytes()).getResponseObject());
+            Assert.assertArrayEquals(expectedOcsp.getEncoded(), ocsps.get(i).getEncoded());
+            Assert.assertSame(ocsps.get(i), cachedOcsps.get(i));
+        }
+    }
 }
@@ -68,6 +68,21 @@ public class LtvVerifierUnitTest extends ExtendedITextTest {
         Assert.assertSame(list, verifier.verify(list));
     }
 
+    @Test
+    public void verifyClosesRevisionDocumentsTest() throws GeneralSecurityException, IOException {
+        PdfDocument latestDocument = new PdfDocument(new PdfReader(new FileInputStream(SOURCE_FOLDER + "ltvDoc.pdf")));
+        LtvVerifier verifier = new LtvVerifier(latestDocument);
+        verifier.switchToPreviousRevision();
+        PdfDocument revisionDocument = verifier.document;
+        Assert.assertNotSame(latestDocument, revisionDocument);
+        verifier.pkcs7 = null;
+
+        verifier.verify(null);
+        Assert.assertTrue(revisionDocument.isClosed());
+        Assert.assertFalse(latestDocument.isClosed());
+        latestDocument.close();
+    }
+
     @Test
     public void getCRLsFromDSSCRLsNullTest() throws GeneralSecurityException, IOException {
         LtvVerifier verifier = new LtvVerifier(new PdfDocument(new PdfReader(new FileInputStream(SOURCE_FOLDER + "ltvDoc.pdf"))));
@@ -59,7 +59,10 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Category(BouncyCastleIntegrationTest.class)
 public class SignatureUtilTest extends ExtendedITextTest {
@@ -84,6 +87,39 @@ public class SignatureUtilTest extends ExtendedITextTest {
         Assert.assertEquals("Signature1", signatureNames.get(0));
     }
 
+    @Test
+    public void readAllSignaturesDataTest() throws IOException, GeneralSecurityException {
+        String inPdf = sourceFolder + "severalConsequentSignatures.pdf";
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(inPdf))) {
+            SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+            Map<String, PdfPKCS7> signaturesData = signatureUtil.readAllSignaturesData(null);
+
+            Assert.assertEquals(signatureUtil.getSignatureNames(), new ArrayList<>(signaturesData.keySet()));
+            for (Map.Entry<String, PdfPKCS7> entry : signaturesData.entrySet()) {
+                PdfPKCS7 expected = signatureUtil.readSignatureData(entry.getKey());
+                Assert.assertEquals(expected.verifySignatureIntegrityAndAuthenticity(),
+                        entry.getValue().verifySignatureIntegrityAndAuthenticity());
+            }
+        }
+    }
+
+    @Test
+    public void verifyAllSignaturesTest() throws IOException, GeneralSecurityException {
+        String inPdf = sourceFolder + "severalConsequentSignatures.pdf";
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(inPdf))) {
+            SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+            Map<String, Boolean> results = signatureUtil.verifyAllSignatures(null, 4);
+
+            List<String> signatureNames = signatureUtil.getSignatureNames();
+            Assert.assertEquals(signatureNames, new ArrayList<>(results.keySet()));
+            for (String name : signatureNames) {
+                Assert.assertEquals(signatureUtil.readSignatureData(name).verifySignatureIntegrityAndAuthenticity(),
+                        results.get(name));
+            }
+            Assert.assertEquals(results, signatureUtil.verifyAllSignatures(null, 1));
+        }
+    }
+
     @Test
     public void getSignaturesTest02() throws IOException {
         String inPdf = sourceFolder + "simpleDocument.pdf";
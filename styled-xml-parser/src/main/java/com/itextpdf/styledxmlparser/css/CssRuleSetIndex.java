@@ -0,0 +1,480 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.styledxmlparser.css;
+
+import com.itextpdf.styledxmlparser.CommonAttributeConstants;
+import com.itextpdf.styledxmlparser.CssRuleSetComparator;
+import com.itextpdf.styledxmlparser.css.media.CssMediaRule;
+import com.itextpdf.styledxmlparser.css.media.MediaDeviceDescription;
+import com.itextpdf.styledxmlparser.css.pseudo.CssPseudoElementNode;
+import com.itextpdf.styledxmlparser.css.selector.CssSelector;
+import com.itextpdf.styledxmlparser.css.selector.item.CssClassSelectorItem;
+import com.itextpdf.styledxmlparser.css.selector.item.CssIdSelectorItem;
+import com.itextpdf.styledxmlparser.css.selector.item.CssSeparatorSelectorItem;
+import com.itextpdf.styledxmlparser.css.selector.item.CssTagSelectorItem;
+import com.itextpdf.styledxmlparser.css.selector.item.ICssSelectorItem;
+import com.itextpdf.styledxmlparser.node.IElementNode;
+import com.itextpdf.styledxmlparser.node.INode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled index of the rule sets of a {@link CssStyleSheet}, which allows to find the rule sets
+ * matching a node without checking the selector of every rule set in the style sheet.
+ * <p>
+ * Rule sets with a {@link CssSelector} are put into buckets by the rightmost compound selector:
+ * by id if it has an id selector, otherwise by class, otherwise by tag name, and the rest go to
+ * the universal bucket. For a node only the buckets of its id, classes and tag name are checked.
+ * Rule sets are ordered by specificity and source order once, when the index is built.
+ * Besides, the keys which the selector requires from the ancestors of a node are stored, so that
+ * descendant and child combinators can be rejected by a Bloom filter of the ancestors' keys before
+ * the selector is actually matched.
+ * <p>
+ * Statements which can't be indexed (e.g. page rules) are matched as is, in their source order.
+ */
+final class CssRuleSetIndex {
+
+    private static final int TAG_KEY = 0;
+    private static final int CLASS_KEY = 1;
+    private static final int ID_KEY = 2;
+
+    private static final int[] EMPTY_KEYS = new int[0];
+
+    /** The rule sets by the id of the rightmost compound selector. */
+    private final Map<String, List<IndexedRuleSet>> idBuckets = new HashMap<>();
+
+    /** The rule sets by a class of the rightmost compound selector. */
+    private final Map<String, List<IndexedRuleSet>> classBuckets = new HashMap<>();
+
+    /** The rule sets by the tag name of the rightmost compound selector. */
+    private final Map<String, List<IndexedRuleSet>> tagBuckets = new HashMap<>();
+
+    /** The rule sets the rightmost compound selector of which has no id, class or tag name. */
+    private final List<IndexedRuleSet> universalBucket = new ArrayList<>();
+
+    /** All indexed rule sets, ordered by specificity and source order. */
+    private final List<IndexedRuleSet> indexedRuleSets = new ArrayList<>();
+
+    /** The statements which are matched as is. */
+    private final List<UnindexedStatement> unindexedStatements = new ArrayList<>();
+
+    /**
+     * Creates a new {@link CssRuleSetIndex} instance.
+     *
+     * @param statements the statements of the style sheet
+     */
+    CssRuleSetIndex(List<CssStatement> statements) {
+        int[] sourceOrder = new int[1];
+        for (CssStatement statement : statements) {
+            addStatement(statement, Collections.<CssMediaRule>emptyList(), sourceOrder);
+        }
+        Collections.sort(indexedRuleSets, new Comparator<IndexedRuleSet>() {
+            @Override
+            public int compare(IndexedRuleSet o1, IndexedRuleSet o2) {
+                if (o1.specificity != o2.specificity) {
+                    return o1.specificity < o2.specificity ? -1 : 1;
+                }
+                return Integer.compare(o1.sourceOrder, o2.sourceOrder);
+            }
+        });
+        for (int i = 0; i < indexedRuleSets.size(); i++) {
+            IndexedRuleSet indexedRuleSet = indexedRuleSets.get(i);
+            indexedRuleSet.rank = i;
+            addToBucket(indexedRuleSet);
+        }
+    }
+
+    /**
+     * Gets the rule sets matching the node, ordered in the same way as {@link CssRuleSetComparator} orders them,
+     * with the source order kept for the rule sets of the same specificity.
+     *
+     * @param node the node
+     * @param deviceDescription the media device description
+     * @return the matching rule sets
+     */
+    List<CssRuleSet> getCssRuleSets(INode node, MediaDeviceDescription deviceDescription) {
+        List<IndexedRuleSet> matched = new ArrayList<>();
+        if (node instanceof CssPseudoElementNode) {
+            // the selector items of pseudo element selectors are checked against the parent node,
+            // so the index keys of the node itself are of no use
+            for (IndexedRuleSet indexedRuleSet : indexedRuleSets) {
+                if (indexedRuleSet.matches(node, deviceDescription, null)) {
+                    matched.add(indexedRuleSet);
+                }
+            }
+        } else if (node instanceof IElementNode) {
+            collectMatchingRuleSets((IElementNode) node, deviceDescription, matched);
+        }
+
+        List<CssRuleSet> unindexedRuleSets = null;
+        List<Integer> unindexedSourceOrders = null;
+        for (UnindexedStatement unindexedStatement : unindexedStatements) {
+            if (!mediaMatches(unindexedStatement.mediaRules, deviceDescription)) {
+                continue;
+            }
+            List<CssRuleSet> ruleSets = unindexedStatement.statement.getCssRuleSets(node, deviceDescription);
+            if (!ruleSets.isEmpty()) {
+                if (unindexedRuleSets == null) {
+                    unindexedRuleSets = new ArrayList<>();
+                    unindexedSourceOrders = new ArrayList<>();
+                }
+                for (CssRuleSet ruleSet : ruleSets) {
+                    unindexedRuleSets.add(ruleSet);
+                    unindexedSourceOrders.add(unindexedStatement.sourceOrder);
+                }
+            }
+        }
+
+        if (unindexedRuleSets == null) {
+            List<CssRuleSet> result = new ArrayList<>(matched.size());
+            for (IndexedRuleSet indexedRuleSet : matched) {
+                result.add(indexedRuleSet.ruleSet);
+            }
+            return result;
+        }
+        return mergeInSourceOrder(matched, unindexedRuleSets, unindexedSourceOrders);
+    }
+
+    private void collectMatchingRuleSets(IElementNode element, MediaDeviceDescription deviceDescription,
+            List<IndexedRuleSet> matched) {
+        AncestorFilter ancestorFilter = new AncestorFilter(element);
+        int bucketsCount = 0;
+
+        String id = element.getAttribute(CommonAttributeConstants.ID);
+        if (id != null) {
+            bucketsCount += collectFromBucket(idBuckets.get(id), element, deviceDescription, ancestorFilter, matched);
+        }
+        String classAttr = element.getAttribute(CommonAttributeConstants.CLASS);
+        if (classAttr != null && classAttr.length() > 0) {
+            String[] classNames = classAttr.split(" ");
+            for (int i = 0; i < classNames.length; i++) {
+                String className = classNames[i].trim();
+                if (className.length() == 0 || isDuplicate(classNames, i, className)) {
+                    continue;
+                }
+                bucketsCount += collectFromBucket(classBuckets.get(className), element, deviceDescription,
+                        ancestorFilter, matched);
+            }
+        }
+        String tagName = element.name();
+        if (tagName != null) {
+            bucketsCount += collectFromBucket(tagBuckets.get(tagName), element, deviceDescription, ancestorFilter,
+                    matched);
+        }
+        bucketsCount += collectFromBucket(universalBucket, element, deviceDescription, ancestorFilter, matched);
+
+        if (bucketsCount > 1) {
+            // every bucket is ordered by rank already, only the buckets need to be interleaved
+            Collections.sort(matched, new Comparator<IndexedRuleSet>() {
+                @Override
+                public int compare(IndexedRuleSet o1, IndexedRuleSet o2) {
+                    return Integer.compare(o1.rank, o2.rank);
+                }
+            });
+        }
+    }
+
+    private static int collectFromBucket(List<IndexedRuleSet> bucket, IElementNode element,
+            MediaDeviceDescription deviceDescription, AncestorFilter ancestorFilter, List<IndexedRuleSet> matched) {
+        if (bucket == null) {
+            return 0;
+        }
+        int sizeBefore = matched.size();
+        for (IndexedRuleSet indexedRuleSet : bucket) {
+            if (indexedRuleSet.matches(element, deviceDescription, ancestorFilter)) {
+                matched.add(indexedRuleSet);
+            }
+        }
+        return matched.size() > sizeBefore ? 1 : 0;
+    }
+
+    private static boolean isDuplicate(String[] classNames, int index, String className) {
+        for (int i = 0; i < index; i++) {
+            if (className.equals(classNames[i].trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<CssRuleSet> mergeInSourceOrder(List<IndexedRuleSet> matched,
+            List<CssRuleSet> unindexedRuleSets, List<Integer> unindexedSourceOrders) {
+        List<IndexedRuleSet> matchedInSourceOrder = new ArrayList<>(matched);
+        Collections.sort(matchedInSourceOrder, new Comparator<IndexedRuleSet>() {
+            @Override
+            public int compare(IndexedRuleSet o1, IndexedRuleSet o2) {
+                return Integer.compare(o1.sourceOrder, o2.sourceOrder);
+            }
+        });
+        List<CssRuleSet> result = new ArrayList<>(matched.size() + unindexedRuleSets.size());
+        int i = 0;
+        int j = 0;
+        while (i < matchedInSourceOrder.size() || j < unindexedRuleSets.size()) {
+            if (j == unindexedRuleSets.size() || i < matchedInSourceOrder.size()
+                    && matchedInSourceOrder.get(i).sourceOrder < (int) unindexedSourceOrders.get(j)) {
+                result.add(matchedInSourceOrder.get(i++).ruleSet);
+            } else {
+                result.add(unindexedRuleSets.get(j++));
+            }
+        }
+        // the sort is stable, so the rule sets of the same specificity stay in the source order
+        Collections.sort(result, new CssRuleSetComparator());
+        return result;
+    }
+
+    private static boolean mediaMatches(List<CssMediaRule> mediaRules, MediaDeviceDescription deviceDescription) {
+        for (CssMediaRule mediaRule : mediaRules) {
+            if (!mediaRule.matchMediaDevice(deviceDescription)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addStatement(CssStatement statement, List<CssMediaRule> mediaRules, int[] sourceOrder) {
+        // exact class checks, since subclasses may override the matching logic
+        if (statement.getClass() == CssRuleSet.class
+                && ((CssRuleSet) statement).getSelector().getClass() == CssSelector.class) {
+            indexedRuleSets.add(new IndexedRuleSet((CssRuleSet) statement, mediaRules, sourceOrder[0]++));
+        } else if (statement.getClass() == CssMediaRule.class) {
+            List<CssMediaRule> nestedMediaRules = new ArrayList<>(mediaRules);
+            nestedMediaRules.add((CssMediaRule) statement);
+            for (CssStatement childStatement : ((CssMediaRule) statement).getStatements()) {
+                addStatement(childStatement, nestedMediaRules, sourceOrder);
+            }
+        } else if (statement.getClass() == CssNestedAtRule.class) {
+            for (CssStatement childStatement : ((CssNestedAtRule) statement).getStatements()) {
+                addStatement(childStatement, mediaRules, sourceOrder);
+            }
+        } else {
+            unindexedStatements.add(new UnindexedStatement(statement, mediaRules, sourceOrder[0]++));
+        }
+    }
+
+    private void addToBucket(IndexedRuleSet indexedRuleSet) {
+        List<ICssSelectorItem> items = indexedRuleSet.selector.getSelectorItems();
+        String id = null;
+        String className = null;
+        String tagName = null;
+        for (int i = items.size() - 1; i >= 0 && !(items.get(i) instanceof CssSeparatorSelectorItem); i--) {
+            ICssSelectorItem item = items.get(i);
+            if (item instanceof CssIdSelectorItem) {
+                id = ((CssIdSelectorItem) item).getId();
+            } else if (item instanceof CssClassSelectorItem) {
+                className = ((CssClassSelectorItem) item).getClassName();
+            } else if (item instanceof CssTagSelectorItem && !((CssTagSelectorItem) item).isUniversal()) {
+                tagName = ((CssTagSelectorItem) item).getTagName();
+            }
+        }
+        if (id != null) {
+            getBucket(idBuckets, id).add(indexedRuleSet);
+        } else if (className != null) {
+            getBucket(classBuckets, className).add(indexedRuleSet);
+        } else if (tagName != null) {
+            getBucket(tagBuckets, tagName).add(indexedRuleSet);
+        } else {
+            universalBucket.add(indexedRuleSet);
+        }
+    }
+
+    private static List<IndexedRuleSet> getBucket(Map<String, List<IndexedRuleSet>> buckets, String key) {
+        List<IndexedRuleSet> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    private static int keyHash(String key, int keyType) {
+        return key.hashCode() * 3 + keyType;
+    }
+
+    /**
+     * Collects the keys of the compound selectors which must match ancestors of the node, that is
+     * the ones separated from the rightmost compound selector by descendant and child combinators only.
+     */
+    private static int[] collectAncestorKeys(List<ICssSelectorItem> items) {
+        List<Integer> keys = new ArrayList<>();
+        boolean isAncestorCompound = false;
+        for (int i = items.size() - 1; i >= 0; i--) {
+            ICssSelectorItem item = items.get(i);
+            if (item instanceof CssSeparatorSelectorItem) {
+                char separator = ((CssSeparatorSelectorItem) item).getSeparator();
+                if (separator != ' ' && separator != '>') {
+                    break;
+                }
+                isAncestorCompound = true;
+            } else if (isAncestorCompound) {
+                if (item instanceof CssIdSelectorItem) {
+                    keys.add(keyHash(((CssIdSelectorItem) item).getId(), ID_KEY));
+                } else if (item instanceof CssClassSelectorItem) {
+                    keys.add(keyHash(((CssClassSelectorItem) item).getClassName(), CLASS_KEY));
+                } else if (item instanceof CssTagSelectorItem && !((CssTagSelectorItem) item).isUniversal()) {
+                    keys.add(keyHash(((CssTagSelectorItem) item).getTagName(), TAG_KEY));
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            return EMPTY_KEYS;
+        }
+        int[] result = new int[keys.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) keys.get(i);
+        }
+        return result;
+    }
+
+    private static final class IndexedRuleSet {
+        final CssRuleSet ruleSet;
+        final CssSelector selector;
+        final List<CssMediaRule> mediaRules;
+        final int specificity;
+        final int sourceOrder;
+        final int[] ancestorKeys;
+        int rank;
+
+        IndexedRuleSet(CssRuleSet ruleSet, List<CssMediaRule> mediaRules, int sourceOrder) {
+            this.ruleSet = ruleSet;
+            this.selector = (CssSelector) ruleSet.getSelector();
+            this.mediaRules = mediaRules;
+            this.specificity = selector.calculateSpecificity();
+            this.sourceOrder = sourceOrder;
+            this.ancestorKeys = collectAncestorKeys(selector.getSelectorItems());
+        }
+
+        boolean matches(INode node, MediaDeviceDescription deviceDescription, AncestorFilter ancestorFilter) {
+            if (ancestorFilter != null) {
+                for (int key : ancestorKeys) {
+                    if (!ancestorFilter.mightContain(key)) {
+                        return false;
+                    }
+                }
+            }
+            return mediaMatches(mediaRules, deviceDescription) && selector.matches(node);
+        }
+    }
+
+    private static final class UnindexedStatement {
+        final CssStatement statement;
+        final List<CssMediaRule> mediaRules;
+        final int sourceOrder;
+
+        UnindexedStatement(CssStatement statement, List<CssMediaRule> mediaRules, int sourceOrder) {
+            this.statement = statement;
+            this.mediaRules = mediaRules;
+            this.sourceOrder = sourceOrder;
+        }
+    }
+
+    /**
+     * Bloom filter of the id, class and tag name keys of the ancestors of a node. It is filled lazily,
+     * since most of the selectors don't have descendant or child combinators.
+     */
+    private static final class AncestorFilter {
+        private static final int BITS_MASK = 511;
+
+        private final IElementNode element;
+        private long[] bits;
+
+        AncestorFilter(IElementNode element) {
+            this.element = element;
+        }
+
+        boolean mightContain(int key) {
+            if (bits == null) {
+                fill();
+            }
+            int hash = mix(key);
+            return isSet(hash & BITS_MASK) && isSet((hash >>> 16) & BITS_MASK);
+        }
+
+        private void fill() {
+            bits = new long[(BITS_MASK + 1) / 64];
+            for (INode ancestor = element.parentNode(); ancestor != null; ancestor = ancestor.parentNode()) {
+                if (!(ancestor instanceof IElementNode)) {
+                    continue;
+                }
+                IElementNode ancestorElement = (IElementNode) ancestor;
+                String tagName = ancestorElement.name();
+                if (tagName != null) {
+                    add(keyHash(tagName, TAG_KEY));
+                }
+                String id = ancestorElement.getAttribute(CommonAttributeConstants.ID);
+                if (id != null) {
+                    add(keyHash(id, ID_KEY));
+                }
+                String classAttr = ancestorElement.getAttribute(CommonAttributeConstants.CLASS);
+                if (classAttr != null && classAttr.length() > 0) {
+                    for (String className : classAttr.split(" ")) {
+                        add(keyHash(className.trim(), CLASS_KEY));
+                    }
+                }
+            }
+        }
+
+        private void add(int key) {
+            int hash = mix(key);
+            set(hash & BITS_MASK);
+            set((hash >>> 16) & BITS_MASK);
+        }
+
+        private boolean isSet(int bit) {
+            return (bits[bit >>> 6] & (1L << (bit & 63))) != 0;
+        }
+
+        private void set(int bit) {
+            bits[bit >>> 6] |= 1L << (bit & 63);
+        }
+
+        private static int mix(int key) {
+            int hash = key * 0x9E3779B9;
+            return hash ^ (hash >>> 15);
+        }
+    }
+}
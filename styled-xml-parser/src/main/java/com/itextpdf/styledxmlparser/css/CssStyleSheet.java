@@ -43,7 +43,6 @@
 package com.itextpdf.styledxmlparser.css;
 
 import com.itextpdf.commons.utils.MessageFormatUtil;
-import com.itextpdf.styledxmlparser.CssRuleSetComparator;
 import com.itextpdf.styledxmlparser.logs.StyledXmlParserLogMessageConstant;
 import com.itextpdf.styledxmlparser.css.media.MediaDeviceDescription;
 import com.itextpdf.styledxmlparser.css.resolve.shorthand.IShorthandResolver;
@@ -67,6 +66,9 @@ public class CssStyleSheet {
     /** The list of CSS statements. */
     private List<CssStatement> statements;
 
+    /** The index of the rule sets, built on the first matching request. */
+    private volatile CssRuleSetIndex ruleSetIndex;
+
     /**
      * Creates a new {@link CssStyleSheet} instance.
      */
@@ -81,6 +83,7 @@ public class CssStyleSheet {
      */
     public void addStatement(CssStatement statement) {
         statements.add(statement);
+        ruleSetIndex = null;
     }
 
     /**
@@ -90,6 +93,7 @@ public class CssStyleSheet {
      */
     public void appendCssStyleSheet(CssStyleSheet anotherCssStyleSheet) {
         statements.addAll(anotherCssStyleSheet.statements);
+        ruleSetIndex = null;
     }
 
     /* (non-Javadoc)
@@ -176,18 +180,23 @@ public class CssStyleSheet {
 
     /**
      * Gets the CSS rule sets.
+     * <p>
+     * The rule sets are looked up in an index of the style sheet, which is built on the first call
+     * and rebuilt after statements are added via {@link #addStatement(CssStatement)} or
+     * {@link #appendCssStyleSheet(CssStyleSheet)}. The returned rule sets are ordered by specificity,
+     * rule sets of the same specificity are in the source order.
      *
      * @param node the node
      * @param deviceDescription the device description
      * @return the css rule sets
      */
     public List<CssRuleSet> getCssRuleSets(INode node, MediaDeviceDescription deviceDescription) {
-        List<CssRuleSet> ruleSets = new ArrayList<>();
-        for (CssStatement statement : statements) {
-            ruleSets.addAll(statement.getCssRuleSets(node, deviceDescription));
+        CssRuleSetIndex index = ruleSetIndex;
+        if (index == null) {
+            index = new CssRuleSetIndex(statements);
+            ruleSetIndex = index;
         }
-        Collections.sort(ruleSets, new CssRuleSetComparator());
-        return ruleSets;
+        return index.getCssRuleSets(node, deviceDescription);
     }
 
     /**
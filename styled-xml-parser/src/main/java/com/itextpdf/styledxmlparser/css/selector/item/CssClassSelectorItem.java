@@ -66,6 +66,15 @@ public class CssClassSelectorItem implements ICssSelectorItem {
         this.className = className;
     }
 
+    /**
+     * Gets the class name this selector item matches.
+     *
+     * @return the class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
     /* (non-Javadoc)
      * @see com.itextpdf.styledxmlparser.css.selector.item.ICssSelectorItem#getSpecificity()
      */
@@ -65,6 +65,15 @@ public class CssIdSelectorItem implements ICssSelectorItem {
         this.id = id;
     }
 
+    /**
+     * Gets the id this selector item matches.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
     /* (non-Javadoc)
      * @see com.itextpdf.styledxmlparser.css.selector.item.ICssSelectorItem#getSpecificity()
      */
@@ -69,6 +69,24 @@ public class CssTagSelectorItem implements ICssSelectorItem {
         this.isUniversal = "*".equals(tagName);
     }
 
+    /**
+     * Gets the lowercase tag name this selector item matches.
+     *
+     * @return the tag name, or "*" for the universal selector
+     */
+    public String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * Checks whether this selector item is the universal selector, which matches elements with any tag name.
+     *
+     * @return true if this is the universal selector
+     */
+    public boolean isUniversal() {
+        return isUniversal;
+    }
+
     /* (non-Javadoc)
      * @see com.itextpdf.styledxmlparser.css.selector.item.ICssSelectorItem#getSpecificity()
      */
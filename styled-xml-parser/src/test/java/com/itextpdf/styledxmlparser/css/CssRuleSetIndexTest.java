@@ -0,0 +1,179 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2023 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.styledxmlparser.css;
+
+import com.itextpdf.styledxmlparser.CssRuleSetComparator;
+import com.itextpdf.styledxmlparser.css.media.MediaDeviceDescription;
+import com.itextpdf.styledxmlparser.css.media.MediaType;
+import com.itextpdf.styledxmlparser.css.parse.CssStyleSheetParser;
+import com.itextpdf.styledxmlparser.css.pseudo.CssPseudoElementNode;
+import com.itextpdf.styledxmlparser.node.IDocumentNode;
+import com.itextpdf.styledxmlparser.node.IElementNode;
+import com.itextpdf.styledxmlparser.node.INode;
+import com.itextpdf.styledxmlparser.node.impl.jsoup.JsoupHtmlParser;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class CssRuleSetIndexTest extends ExtendedITextTest {
+
+    private static final String HTML = "<html><head></head><body class='page'>"
+            + "<div id='main' class='container wide'>"
+            + "<p class='lead'>First <span class='note important'>note</span></p>"
+            + "<p id='second' class='lead lead'>Second <b>bold</b></p>"
+            + "<ul><li class='item'>One</li><li class='item active'>Two</li><li>Three</li></ul>"
+            + "</div>"
+            + "<div class='sidebar'><p>Side <span>text</span></p></div>"
+            + "</body></html>";
+
+    private static final String CSS = "* { margin: 0 }\n"
+            + "p { color: black }\n"
+            + ".lead { font-size: 12pt }\n"
+            + "#main p { color: red }\n"
+            + "div > p { font-weight: bold }\n"
+            + ".container .note { color: green }\n"
+            + ".sidebar span { color: blue }\n"
+            + "p.lead span.note.important { color: navy }\n"
+            + "li + li { border-top: 1px solid black }\n"
+            + "li.item ~ li { padding: 1pt }\n"
+            + "li:first-child { list-style: none }\n"
+            + "ul li:not(.item) { font-style: italic }\n"
+            + "#second { color: gray }\n"
+            + "p { text-align: left }\n"
+            + "@media print { .lead { font-size: 14pt } p b { color: purple } }\n"
+            + "@media screen { .lead { font-size: 16pt } }\n"
+            + "@page { margin: 1in }\n"
+            + "p::before { content: 'x' }\n"
+            + "body:not(.page) p { color: white }\n";
+
+    @Test
+    public void sameRuleSetsAsFullScanTest() {
+        IDocumentNode document = new JsoupHtmlParser().parse(HTML);
+        CssStyleSheet styleSheet = CssStyleSheetParser.parse(CSS);
+        for (String mediaType : new String[] {MediaType.PRINT, MediaType.SCREEN}) {
+            MediaDeviceDescription deviceDescription = new MediaDeviceDescription(mediaType);
+            List<INode> nodes = new ArrayList<>();
+            collectNodes(document, nodes);
+            for (INode node : nodes) {
+                Assert.assertEquals(getCssRuleSetsByFullScan(styleSheet, node, deviceDescription),
+                        styleSheet.getCssRuleSets(node, deviceDescription));
+            }
+        }
+    }
+
+    @Test
+    public void pseudoElementTest() {
+        IDocumentNode document = new JsoupHtmlParser().parse(HTML);
+        CssStyleSheet styleSheet = CssStyleSheetParser.parse(CSS);
+        MediaDeviceDescription deviceDescription = new MediaDeviceDescription(MediaType.PRINT);
+        INode paragraph = findFirstElement(document, "p");
+        CssPseudoElementNode before = new CssPseudoElementNode(paragraph, "before");
+
+        List<CssRuleSet> ruleSets = styleSheet.getCssRuleSets(before, deviceDescription);
+        Assert.assertEquals(getCssRuleSetsByFullScan(styleSheet, before, deviceDescription), ruleSets);
+        Assert.assertFalse(ruleSets.isEmpty());
+    }
+
+    @Test
+    public void sourceOrderForSameSpecificityTest() {
+        IDocumentNode document = new JsoupHtmlParser().parse(HTML);
+        CssStyleSheet styleSheet = CssStyleSheetParser.parse(CSS);
+        INode paragraph = findFirstElement(document, "p");
+
+        List<CssRuleSet> ruleSets = styleSheet.getCssRuleSets(paragraph, new MediaDeviceDescription(MediaType.PRINT));
+        List<String> selectors = new ArrayList<>();
+        for (CssRuleSet ruleSet : ruleSets) {
+            selectors.add(ruleSet.getSelector().toString());
+        }
+        Assert.assertEquals("[*, p, p, div > p, .lead, .lead, #main p]", selectors.toString());
+    }
+
+    @Test
+    public void indexIsRebuiltAfterAddingStatementsTest() {
+        IDocumentNode document = new JsoupHtmlParser().parse(HTML);
+        CssStyleSheet styleSheet = CssStyleSheetParser.parse("p { color: black }");
+        INode paragraph = findFirstElement(document, "p");
+        MediaDeviceDescription deviceDescription = new MediaDeviceDescription(MediaType.PRINT);
+        Assert.assertEquals(1, styleSheet.getCssRuleSets(paragraph, deviceDescription).size());
+
+        styleSheet.appendCssStyleSheet(CssStyleSheetParser.parse(".lead { color: red }"));
+        Assert.assertEquals(2, styleSheet.getCssRuleSets(paragraph, deviceDescription).size());
+    }
+
+    private static List<CssRuleSet> getCssRuleSetsByFullScan(CssStyleSheet styleSheet, INode node,
+            MediaDeviceDescription deviceDescription) {
+        List<CssRuleSet> ruleSets = new ArrayList<>();
+        for (CssStatement statement : styleSheet.getStatements()) {
+            ruleSets.addAll(statement.getCssRuleSets(node, deviceDescription));
+        }
+        Collections.sort(ruleSets, new CssRuleSetComparator());
+        return ruleSets;
+    }
+
+    private static void collectNodes(INode node, List<INode> nodes) {
+        nodes.add(node);
+        for (INode child : node.childNodes()) {
+            collectNodes(child, nodes);
+        }
+    }
+
+    private static INode findFirstElement(INode node, String name) {
+        if (node instanceof IElementNode && name.equals(((IElementNode) node).name())) {
+            return node;
+        }
+        for (INode child : node.childNodes()) {
+            INode found = findFirstElement(child, name);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+}